@@ -31,22 +31,31 @@ import com.osgifx.console.agent.dto.ConfigValue;
 import com.osgifx.console.agent.dto.DmtDataType;
 import com.osgifx.console.agent.dto.RuntimeDTO;
 import com.osgifx.console.agent.dto.XBundleDTO;
+import com.osgifx.console.agent.dto.XBundleLifecycleDTO;
 import com.osgifx.console.agent.dto.XBundleLoggerContextDTO;
+import com.osgifx.console.agent.dto.XClassloaderHistogramDTO;
+import com.osgifx.console.agent.dto.XCliOutputDTO;
 import com.osgifx.console.agent.dto.XComponentDTO;
+import com.osgifx.console.agent.dto.XConfigurationBatchDTO;
 import com.osgifx.console.agent.dto.XConfigurationDTO;
 import com.osgifx.console.agent.dto.XDmtNodeDTO;
+import com.osgifx.console.agent.dto.XExtensionChunkDTO;
+import com.osgifx.console.agent.dto.XGogoOutputDTO;
 import com.osgifx.console.agent.dto.XHealthCheckDTO;
 import com.osgifx.console.agent.dto.XHealthCheckResultDTO;
 import com.osgifx.console.agent.dto.XHeapUsageDTO;
 import com.osgifx.console.agent.dto.XHttpComponentDTO;
 import com.osgifx.console.agent.dto.XMemoryInfoDTO;
+import com.osgifx.console.agent.dto.XPackageIndexDTO;
 import com.osgifx.console.agent.dto.XPropertyDTO;
 import com.osgifx.console.agent.dto.XResultDTO;
 import com.osgifx.console.agent.dto.XRoleDTO;
 import com.osgifx.console.agent.dto.XServiceDTO;
+import com.osgifx.console.agent.dto.XStartupTimelineDTO;
 import com.osgifx.console.agent.dto.XThreadDTO;
 import com.osgifx.console.agent.extension.AgentExtension;
 import com.osgifx.console.agent.extension.AgentExtensionName;
+import com.osgifx.console.agent.extension.AgentStreamingExtension;
 import com.osgifx.console.agent.rpc.mqtt.api.Mqtt5Publisher;
 import com.osgifx.console.agent.rpc.mqtt.api.Mqtt5Subscriber;
 
@@ -117,6 +126,37 @@ public interface Agent {
      */
     String AGENT_RPC_TRACE_LOG_KEY = "osgi.fx.agent.rpc.logs.enabled";
 
+    /**
+     * The property key to specify the interval of the RPC heartbeat in milliseconds
+     */
+    String AGENT_RPC_HEARTBEAT_INTERVAL_KEY = "osgi.fx.agent.rpc.heartbeat.interval";
+
+    /**
+     * The property key to specify the number of heartbeat intervals without any
+     * traffic after which the RPC link is considered dead
+     */
+    String AGENT_RPC_HEARTBEAT_MISSED_LIMIT_KEY = "osgi.fx.agent.rpc.heartbeat.missed";
+
+    /**
+     * The property key to specify the compression mode of RPC payloads
+     * ({@code adaptive}, {@code none}, {@code fast} or {@code high}), whereby
+     * {@code fast} and {@code high} denote the fastest and the best deflate
+     * level respectively
+     */
+    String AGENT_RPC_COMPRESSION_MODE_KEY = "osgi.fx.agent.rpc.compression.mode";
+
+    /**
+     * The property key to specify the size in bytes below which RPC payloads are
+     * not compressed
+     */
+    String AGENT_RPC_COMPRESSION_THRESHOLD_KEY = "osgi.fx.agent.rpc.compression.threshold";
+
+    /**
+     * The property key to enable the shared dictionary for compressing RPC
+     * payloads
+     */
+    String AGENT_RPC_COMPRESSION_DICTIONARY_KEY = "osgi.fx.agent.rpc.compression.dictionary";
+
     /**
      * The port for attaching to a remote Gogo CommandSession
      */
@@ -196,6 +236,36 @@ public interface Agent {
      */
     String stop(long... id) throws Exception;
 
+    /**
+     * Starts a number of bundles in the order derived from their wiring. Bundles
+     * that do not depend on each other are started concurrently. The system
+     * bundle and the agent bundle are skipped.
+     *
+     * @param id the bundle ids
+     * @return the per-bundle timings and failures
+     */
+    XBundleLifecycleDTO startBundles(long... id);
+
+    /**
+     * Stops a number of bundles in the reverse order derived from their wiring,
+     * i.e. a bundle is stopped only after all of its requirers have been stopped.
+     * Bundles that do not depend on each other are stopped concurrently. The
+     * system bundle and the agent bundle are skipped.
+     *
+     * @param id the bundle ids
+     * @return the per-bundle timings and failures
+     */
+    XBundleLifecycleDTO stopBundles(long... id);
+
+    /**
+     * Returns the timestamped lifecycle phases (awaiting resolution, activator,
+     * component and plain service registration) of all bundles recorded since
+     * the agent has been started.
+     *
+     * @return the startup timeline
+     */
+    XStartupTimelineDTO getStartupTimeline();
+
     /**
      * Uninstall a number of bundles
      *
@@ -238,6 +308,40 @@ public interface Agent {
      */
     String execGogoCommand(String command) throws Exception;
 
+    /**
+     * Starts executing a remote command on Gogo shell (if present) in a dedicated
+     * command session. The output of the command is buffered until it is polled
+     * using {@link #pollGogoCommand(String, long)}.
+     *
+     * @param command the command to execute
+     * @return the identifier of the command execution
+     * @throws IllegalStateException if Gogo is not present in the remote runtime
+     */
+    String startGogoCommand(String command) throws Exception;
+
+    /**
+     * Polls the output the specified command execution has written since the
+     * previous poll. The call blocks until new output is available, the command
+     * has completed or the specified timeout has elapsed.
+     *
+     * @param executionId the identifier of the command execution
+     * @param timeoutInMillis the maximum time to wait for new output
+     * @return the output (can be {@code null} if not supported by the remote
+     *         runtime)
+     * @throws IllegalArgumentException if the execution doesn't exist or has
+     *             expired
+     */
+    XGogoOutputDTO pollGogoCommand(String executionId, long timeoutInMillis) throws Exception;
+
+    /**
+     * Cancels the specified command execution by interrupting it.
+     *
+     * @param executionId the identifier of the command execution
+     * @return {@code true} if the execution has been cancelled, otherwise
+     *         {@code false}
+     */
+    boolean cancelGogoCommand(String executionId);
+
     /**
      * Checks if the receiving of logs is enabled
      *
@@ -280,6 +384,41 @@ public interface Agent {
      */
     String execCliCommand(String command);
 
+    /**
+     * Starts executing the specified terminal (CLI) command asynchronously in a
+     * separate process. The output of the command is buffered until it is polled
+     * using {@link #pollCliCommand(String, long)}.
+     *
+     * @param command the command to execute
+     * @return the identifier of the command execution
+     * @throws IllegalStateException if the maximum number of concurrently
+     *             running commands has been reached
+     */
+    String startCliCommand(String command);
+
+    /**
+     * Polls the output the specified command execution has written since the
+     * previous poll. The call blocks until new output is available, the command
+     * has completed or the specified timeout has elapsed.
+     *
+     * @param executionId the identifier of the command execution
+     * @param timeoutInMillis the maximum time to wait for new output
+     * @return the output (can be {@code null} if not supported by the remote
+     *         runtime)
+     * @throws IllegalArgumentException if the execution doesn't exist or has
+     *             expired
+     */
+    XCliOutputDTO pollCliCommand(String executionId, long timeoutInMillis) throws Exception;
+
+    /**
+     * Cancels the specified command execution by destroying its process.
+     *
+     * @param executionId the identifier of the command execution
+     * @return {@code true} if the execution has been cancelled, otherwise
+     *         {@code false}
+     */
+    boolean cancelCliCommand(String executionId);
+
     /**
      * Disconnects the remote agent. The agent should send an event back and die. This is
      * an async method.
@@ -298,6 +437,16 @@ public interface Agent {
      */
     List<XBundleDTO> getAllBundles();
 
+    /**
+     * Returns the exported and imported packages of all the installed bundles
+     * including the duplicate exports and split packages. The index is maintained
+     * incrementally by the agent and does not require the bundle details to be
+     * transferred.
+     *
+     * @return the package index
+     */
+    XPackageIndexDTO getPackageIndex();
+
     /**
      * Get the detailed information of all the registered DS service components
      * <p>
@@ -423,6 +572,25 @@ public interface Agent {
      */
     Map<String, XResultDTO> createOrUpdateConfigurations(Map<String, Map<String, Object>> configurations);
 
+    /**
+     * Applies the specified configurations as a single batch.
+     * <p>
+     * All configurations are validated against their metatype information
+     * before any of them gets applied. Configurations whose properties are
+     * identical to the existing ones are skipped. If any configuration cannot be
+     * applied, the already applied configurations of the batch are reverted to
+     * their previous state.
+     * <p>
+     * Note that, this is only possible if the remote runtime has ConfigAdmin (CM)
+     * bundle installed.
+     *
+     * @param configurations the configurations (key=PID, value=properties)
+     * @return the outcome of the batch including the outcome and the timing of
+     *         every configuration, or {@code null} if the operation is not
+     *         supported by the remote runtime
+     */
+    XConfigurationBatchDTO applyConfigurationBatch(Map<String, Map<String, Object>> configurations);
+
     /**
      * Creates or updates the associated {@code Configuration} object with the
      * specified properties.
@@ -576,6 +744,50 @@ public interface Agent {
      */
     Map<String, Object> executeExtension(String name, Map<String, Object> context);
 
+    /**
+     * Starts the asynchronous execution of the specified streaming agent
+     * extension. The results are consumed by polling the returned stream using
+     * {@link #pollExtensionStream(String, long)}.
+     * <p>
+     * <b>Note that,</b> the extension should be registered as a service that
+     * implements {@link AgentStreamingExtension} and the service must provide a
+     * readable name in its {@code agent.extension.name} service property.
+     * <p>
+     * A stream that is not polled for a while is cancelled automatically.
+     *
+     * @param name the name of the extension
+     * @param context the context for the extension to be provided for execution
+     *            (note that, the map should be compliant with
+     *            {@code OSGi DTO specification}
+     * @return the identifier of the stream
+     * @see AgentStreamingExtension
+     * @see AgentExtensionName
+     */
+    String startExtensionStream(String name, Map<String, Object> context);
+
+    /**
+     * Returns the next chunk of results of the specified stream. If no result
+     * is available, the method waits for at most the specified duration.
+     * <p>
+     * The extension can only run ahead of the consumer up to the capacity of
+     * the stream buffer, so the results need to be polled until the last chunk
+     * has been received or the stream has to be cancelled.
+     *
+     * @param streamId the identifier of the stream
+     * @param timeoutInMillis the maximum duration to wait for results
+     * @return the next chunk (the chunk is empty if no result has been emitted
+     *         in the meantime)
+     */
+    XExtensionChunkDTO pollExtensionStream(String streamId, long timeoutInMillis);
+
+    /**
+     * Cancels the specified stream
+     *
+     * @param streamId the identifier of the stream
+     * @return {@code true} if the stream was running, otherwise {@code false}
+     */
+    boolean cancelExtensionStream(String streamId);
+
     /**
      * Returns the list of suspicious bundles causing probable classloader leaks
      *
@@ -583,6 +795,23 @@ public interface Agent {
      */
     Set<XBundleDTO> getClassloaderLeaks();
 
+    /**
+     * Returns the class histogram of the objects grouped by the bundles
+     * containing the classes. The bundles are sorted by the occupied memory in
+     * descending order.
+     * <p>
+     * <b>Note that,</b> the histogram is retrieved through the diagnostic
+     * command MXBean. Counting only the live objects performs a full GC in the
+     * remote runtime.
+     *
+     * @param liveObjectsOnly {@code true} to count only the live objects,
+     *            otherwise the unreachable objects which have not been garbage
+     *            collected yet are counted as well
+     * @return the class histogram of the bundles (can be empty if the
+     *         diagnostic command MXBean is not available)
+     */
+    List<XClassloaderHistogramDTO> getClassloaderHistogram(boolean liveObjectsOnly);
+
     /**
      * Returns the HTTP runtime information that includes list of all servlets,
      * resources, listeners, filters and error pages
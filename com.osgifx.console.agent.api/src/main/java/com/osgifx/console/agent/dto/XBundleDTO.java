@@ -26,6 +26,9 @@ import org.osgi.framework.wiring.dto.BundleRevisionDTO;
  */
 public class XBundleDTO extends DTO {
 
+    /** Constant representing a data folder size that is still being computed. */
+    public static final long DATA_FOLDER_SIZE_PENDING = -2L;
+
     /** Unique identifier of the bundle. */
     public long id;
 
@@ -47,7 +50,10 @@ public class XBundleDTO extends DTO {
     /** Timestamp of the last modification of the bundle. */
     public long lastModified;
 
-    /** Size of the bundle's data folder. */
+    /**
+     * Size of the bundle's data folder, {@code -1} if it cannot be determined or
+     * {@link #DATA_FOLDER_SIZE_PENDING} if it is still being computed.
+     */
     public long dataFolderSize;
 
     /** Documentation associated with the bundle. */
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.dto;
+
+import java.util.List;
+
+import org.osgi.dto.DTO;
+
+/**
+ * Data Transfer Object (DTO) representing the outcome of a batch bundle
+ * lifecycle operation, i.e. starting or stopping a set of bundles in the order
+ * derived from their wiring.
+ */
+public class XBundleLifecycleDTO extends DTO {
+
+    /** Constant representing a batch start operation. */
+    public static final String START = "START";
+
+    /** Constant representing a batch stop operation. */
+    public static final String STOP = "STOP";
+
+    /** The executed operation (e.g., START, STOP). */
+    public String operation;
+
+    /** Number of bundles which have been processed concurrently at most. */
+    public int parallelism;
+
+    /** Wall-clock time of the whole operation in milliseconds. */
+    public long totalTime;
+
+    /** Sum of the time spent on every single bundle in milliseconds. */
+    public long cumulativeTime;
+
+    /** Number of bundles that could not be started or stopped. */
+    public int failures;
+
+    /** The results of the individual bundles in the order of their completion. */
+    public List<XBundleLifecycleEntry> entries;
+
+    /**
+     * Inner class representing the result of a single bundle.
+     */
+    public static class XBundleLifecycleEntry extends DTO {
+        /** Identifier of the bundle. */
+        public long id;
+
+        /** Symbolic name of the bundle. */
+        public String symbolicName;
+
+        /** Result status (e.g., SUCCESS, ERROR, SKIPPED) as defined in {@link XResultDTO}. */
+        public int result;
+
+        /** Error message or the reason the bundle has been skipped. */
+        public String response;
+
+        /** Offset from the beginning of the operation in milliseconds. */
+        public long startOffset;
+
+        /** Time spent on the lifecycle operation of the bundle in milliseconds. */
+        public long duration;
+
+        /** Identifiers of the bundles that have been waited for. */
+        public List<Long> dependencies;
+    }
+
+}
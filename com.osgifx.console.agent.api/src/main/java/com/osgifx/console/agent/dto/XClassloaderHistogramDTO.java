@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.dto;
+
+import java.util.List;
+
+import org.osgi.dto.DTO;
+
+/**
+ * Data Transfer Object (DTO) representing the live objects of the classes
+ * contained in a bundle as per the class histogram of the remote runtime.
+ */
+public class XClassloaderHistogramDTO extends DTO {
+
+    /** The identifier of the bundle. */
+    public long bundleId;
+
+    /** The symbolic name of the bundle. */
+    public String symbolicName;
+
+    /** The version of the bundle. */
+    public String version;
+
+    /**
+     * The number of classloaders created for the bundle that have not been
+     * garbage collected yet. More than one classloader indicates a probable
+     * classloader leak.
+     */
+    public int classloaderCount;
+
+    /** The number of classes of the bundle having live instances. */
+    public int classes;
+
+    /** The number of live instances of the classes of the bundle. */
+    public long instances;
+
+    /** The shallow size in bytes of the live instances. */
+    public long bytes;
+
+    /**
+     * The number of live instances of the classes of the bundle that have been
+     * loaded by more than one classloader of the bundle, not counting the
+     * instances of the largest copy of each class.
+     */
+    public long duplicateClassInstances;
+
+    /**
+     * The shallow size in bytes of the live instances of the classes of the
+     * bundle that have been loaded by more than one classloader of the bundle,
+     * not counting the instances of the largest copy of each class.
+     */
+    public long duplicateClassBytes;
+
+    /**
+     * The number of live instances of the classes which are also contained in
+     * other bundles. The histogram does not tell which classloader has loaded
+     * them, hence they are not included in {@link #instances}.
+     */
+    public long sharedClassInstances;
+
+    /**
+     * The shallow size in bytes of the live instances of the classes which are
+     * also contained in other bundles.
+     */
+    public long sharedClassBytes;
+
+    /** The classes of the bundle occupying most of the memory. */
+    public List<XClassHistogramEntry> topClasses;
+
+    /**
+     * Inner class representing the live instances of a class.
+     */
+    public static class XClassHistogramEntry extends DTO {
+        /** The name of the class. */
+        public String className;
+
+        /** The number of live instances of the class. */
+        public long instances;
+
+        /** The shallow size in bytes of the live instances. */
+        public long bytes;
+
+        /** The number of classloaders of the bundle that have loaded the class. */
+        public int classloaderCount;
+    }
+
+}
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.dto;
+
+import org.osgi.dto.DTO;
+
+/**
+ * Data Transfer Object (DTO) representing the output a CLI command has written
+ * since the previous poll.
+ */
+public class XCliOutputDTO extends DTO {
+
+    /** The identifier of the command execution. */
+    public String executionId;
+
+    /** The sequence number of the output in the execution (starting at 0). */
+    public long sequence;
+
+    /** The standard output and standard error of the command (empty if nothing has been written in the meantime). */
+    public String output;
+
+    /**
+     * Whether the command has completed. This is only set once the complete
+     * output of the command has been delivered, i.e. no further output follows.
+     */
+    public boolean isCompleted;
+
+    /**
+     * Whether the command has been cancelled. A cancelled command is reported as
+     * completed by the first poll after the cancellation.
+     */
+    public boolean isCancelled;
+
+    /**
+     * The exit value of the process (or {@code null} if the command has not
+     * completed or the process could not be started).
+     */
+    public Integer exitValue;
+
+    /**
+     * The error that has terminated the command (or {@code null} if the command
+     * has not failed).
+     */
+    public String error;
+
+}
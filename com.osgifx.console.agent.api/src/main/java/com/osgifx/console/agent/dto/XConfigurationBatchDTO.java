@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.dto;
+
+import java.util.List;
+
+import org.osgi.dto.DTO;
+
+public class XConfigurationBatchDTO extends DTO {
+
+    /** Constant representing a configuration that has been created. */
+    public static final String CREATED = "CREATED";
+
+    /** Constant representing a configuration that has been updated. */
+    public static final String UPDATED = "UPDATED";
+
+    /** Constant representing a configuration whose properties have not changed. */
+    public static final String UNCHANGED = "UNCHANGED";
+
+    /** Constant representing a configuration that failed the validation. */
+    public static final String INVALID = "INVALID";
+
+    /** Constant representing a configuration that could not be applied. */
+    public static final String FAILED = "FAILED";
+
+    /** Constant representing a configuration that has been reverted to its previous state. */
+    public static final String ROLLED_BACK = "ROLLED_BACK";
+
+    /** Constant representing a configuration that has not been applied as the batch has been aborted. */
+    public static final String NOT_APPLIED = "NOT_APPLIED";
+
+    /** Flag indicating whether all configurations of the batch have been applied. */
+    public boolean isApplied;
+
+    /** Flag indicating whether the already applied configurations have been reverted. */
+    public boolean isRolledBack;
+
+    /** The result status of the whole batch (e.g., SUCCESS, ERROR, SKIPPED). */
+    public int result;
+
+    /** The response message associated with the result. */
+    public String response;
+
+    /** Time spent validating the batch in microseconds. */
+    public long validationTime;
+
+    /** Time spent applying (and, if necessary, reverting) the batch in microseconds. */
+    public long applyTime;
+
+    /** The configurations of the batch in the order they have been processed. */
+    public List<XConfigurationBatchEntry> entries;
+
+    /**
+     * Inner class representing the outcome of a single configuration of the batch.
+     */
+    public static class XConfigurationBatchEntry extends DTO {
+        /** The configuration PID. */
+        public String pid;
+
+        /** The outcome (e.g., CREATED, UPDATED, UNCHANGED, INVALID, FAILED, ROLLED_BACK). */
+        public String action;
+
+        /** The message associated with the outcome. */
+        public String message;
+
+        /** The metatype violations of the configuration properties. */
+        public List<String> violations;
+
+        /** Time spent applying the configuration in microseconds. */
+        public long time;
+    }
+
+}
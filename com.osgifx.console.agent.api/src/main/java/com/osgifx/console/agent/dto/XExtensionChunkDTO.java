@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.dto;
+
+import org.osgi.dto.DTO;
+
+/**
+ * Data Transfer Object (DTO) representing a chunk of results emitted by a
+ * streaming agent extension.
+ */
+public class XExtensionChunkDTO extends DTO {
+
+    /** The identifier of the stream. */
+    public String streamId;
+
+    /** The sequence number of the chunk in the stream (starting at 0). */
+    public long sequence;
+
+    /**
+     * The results of the chunk encoded as a JSON array. The results are
+     * encoded directly from the result DTOs of the extension and can be
+     * decoded directly to an array of the result type. The array is empty if
+     * no result has been emitted in the meantime.
+     */
+    public String results;
+
+    /** Whether this is the last chunk of the stream. */
+    public boolean isLast;
+
+    /**
+     * The error that has terminated the stream (or {@code null} if the stream
+     * has not failed).
+     */
+    public String error;
+
+}
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.dto;
+
+import java.util.List;
+
+import org.osgi.dto.DTO;
+
+/**
+ * Data Transfer Object (DTO) representing the packages exported and imported
+ * in the remote runtime. Every bundle is listed only once in {@link #bundles}
+ * and the packages refer to them by their identifiers.
+ */
+public class XPackageIndexDTO extends DTO {
+
+    /** The bundles referenced by the packages. */
+    public List<XBundleInfoDTO> bundles;
+
+    /** The exported and imported packages. */
+    public List<XIndexedPackage> packages;
+
+    /**
+     * Inner class representing a package with a specific version.
+     */
+    public static class XIndexedPackage extends DTO {
+        /** The name of the package. */
+        public String name;
+
+        /** The version of the package. */
+        public String version;
+
+        /** Identifiers of the bundles exporting the package. */
+        public List<Long> exporters;
+
+        /** Identifiers of the bundles importing the package. */
+        public List<Long> importers;
+
+        /** Whether the same package and version is exported by multiple bundles. */
+        public boolean isDuplicateExport;
+
+        /**
+         * Whether any bundle sees the contents of the package from multiple
+         * providers (e.g. through {@code Require-Bundle}).
+         */
+        public boolean isSplitPackage;
+    }
+
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.dto;
+
+import java.util.List;
+
+import org.osgi.dto.DTO;
+
+/**
+ * Data Transfer Object (DTO) representing the timestamped lifecycle phases of
+ * all bundles recorded since the agent has been started. All timestamps are
+ * expressed in milliseconds since the epoch.
+ */
+public class XStartupTimelineDTO extends DTO {
+
+    /**
+     * Constant representing the time from the installation of the bundle until
+     * it has been resolved, which is mostly spent waiting for its resolution.
+     */
+    public static final String AWAITING_RESOLUTION = "AWAITING_RESOLUTION";
+
+    /** Constant representing the execution of the bundle activator. */
+    public static final String ACTIVATOR = "ACTIVATOR";
+
+    /**
+     * Constant representing the registration of the services of the SCR
+     * components of the bundle. The activation of the components is not
+     * covered as SCR does not report it.
+     */
+    public static final String COMPONENT_SERVICES = "COMPONENT_SERVICES";
+
+    /** Constant representing the registration of non-SCR services of the bundle. */
+    public static final String SERVICES = "SERVICES";
+
+    /** Start time of the Java virtual machine. */
+    public long vmStartTime;
+
+    /** Time from which on the lifecycle phases have been recorded. */
+    public long recordingStartTime;
+
+    /** The recorded bundles. */
+    public List<XBundleTimeline> bundles;
+
+    /**
+     * Inner class representing the recorded phases of a single bundle.
+     */
+    public static class XBundleTimeline extends DTO {
+        /** Identifier of the bundle. */
+        public long id;
+
+        /** Symbolic name of the bundle. */
+        public String symbolicName;
+
+        /** The recorded phases ordered by their start time. */
+        public List<XLifecyclePhase> phases;
+    }
+
+    /**
+     * Inner class representing a single lifecycle phase.
+     */
+    public static class XLifecyclePhase extends DTO {
+        /** Name of the phase (e.g., AWAITING_RESOLUTION, ACTIVATOR, COMPONENT_SERVICES, SERVICES). */
+        public String name;
+
+        /** Start time of the phase. */
+        public long start;
+
+        /** End time of the phase. */
+        public long end;
+    }
+
+}
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.extension;
+
+import java.util.concurrent.CancellationException;
+
+import org.osgi.annotation.versioning.ProviderType;
+import org.osgi.dto.DTO;
+
+/**
+ * The sink to which an {@link AgentStreamingExtension} emits its results.
+ */
+@ProviderType
+public interface AgentExtensionSink<R extends DTO> {
+
+    /**
+     * Emits the specified result. The method blocks as long as the buffer of
+     * the stream is full, i.e. until the supervisor has consumed the
+     * previously emitted results.
+     *
+     * @param result the result to emit (cannot be {@code null})
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @throws CancellationException if the stream has been cancelled by the
+     *             supervisor or has expired
+     */
+    void emit(R result) throws InterruptedException;
+
+    /**
+     * Checks whether the stream has been cancelled. Long running extensions
+     * should check it regularly to stop early.
+     *
+     * @return {@code true} if the stream has been cancelled, otherwise
+     *         {@code false}
+     */
+    boolean isCancelled();
+
+}
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.extension;
+
+import org.osgi.annotation.versioning.ConsumerType;
+import org.osgi.dto.DTO;
+
+/**
+ * Service interface to be used by consumers for providing custom
+ * functionalities that deliver their results progressively.
+ * <p>
+ * In contrast to {@link AgentExtension}, the extension is executed
+ * asynchronously in the remote runtime and emits its results one by one to
+ * the provided {@link AgentExtensionSink}. The results are buffered in a
+ * bounded buffer and transferred in chunks as the supervisor consumes them.
+ * If the buffer is full, the extension is blocked until the supervisor has
+ * caught up. This allows extensions to deliver large results at bounded
+ * memory.
+ * <p>
+ * The service must provide the {@link AgentExtension#PROPERTY_KEY} service
+ * property.
+ *
+ * @see AgentExtensionName
+ */
+@ConsumerType
+public interface AgentStreamingExtension<C extends DTO, R extends DTO> {
+
+    /**
+     * Executes the extension and emits the results to the specified sink. The
+     * stream is complete as soon as this method returns.
+     *
+     * @param context the context for the extension (also to be compliant with
+     *            {@code OSGi DTO specification})
+     * @param sink the sink to emit the results to
+     * @throws Exception if the execution fails (the error is reported to the
+     *             supervisor after all the emitted results have been consumed)
+     */
+    void execute(C context, AgentExtensionSink<R> sink) throws Exception;
+
+    /**
+     * The source type of the context
+     *
+     * @return {@code OSGi DTO specification} compliant DTO
+     */
+    Class<C> getContextType();
+
+    /**
+     * The type of the emitted results
+     *
+     * @return {@code OSGi DTO specification} compliant DTO
+     */
+    Class<R> getResultType();
+
+}
@@ -16,6 +16,7 @@
 package com.osgifx.console.agent.rpc;
 
 import java.io.IOException;
+import java.util.function.Consumer;
 
 /**
  * Defines a remote RPC mechanism over an underlying connection, such as a socket or MQTT.
@@ -51,4 +52,21 @@ public interface RemoteRPC<L, R> {
      */
     boolean isOpen();
 
+    /**
+     * Returns the smoothed round-trip time of the communication link as measured
+     * by its heartbeat.
+     *
+     * @return the round-trip time in milliseconds or {@code -1} if not yet measured
+     */
+    long roundTripTime();
+
+    /**
+     * Sets the listener to be notified as soon as the communication link is found
+     * to be dead or gets terminated unexpectedly. The listener is not notified if
+     * the link gets closed explicitly.
+     *
+     * @param listener the listener receiving the reason (can be {@code null})
+     */
+    void setLinkListener(Consumer<String> listener);
+
 }
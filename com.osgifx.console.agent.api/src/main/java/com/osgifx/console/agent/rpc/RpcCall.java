@@ -0,0 +1,240 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.rpc;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The context of a remote call while it is being executed by the local
+ * endpoint.
+ *
+ * <p>
+ * The caller carries the deadline of every call in the call itself and cancels
+ * it as soon as it stops waiting for the result, for example, due to a timeout
+ * or because the calling thread got interrupted. Long running operations are
+ * expected to check {@link #isAbandoned()} at their loop boundaries and to
+ * stop the work that nobody is waiting for anymore. The results of abandoned
+ * calls are discarded.
+ * </p>
+ *
+ * <p>
+ * Callers can override the default timeout of the transport for the calls
+ * issued by a task using {@link #withTimeout(long, Callable)}.
+ * </p>
+ *
+ * <p>
+ * A transport only carries deadlines in its frames as soon as the peer has
+ * advertised to understand them ({@link #DEADLINES}). The cancellation is sent
+ * as a control message which is silently ignored by older peers.
+ * </p>
+ */
+public final class RpcCall {
+
+    /** The command advertising that deadlines can be carried in call frames */
+    public static final String DEADLINES = "#deadlines";
+
+    /** The command cancelling a call */
+    public static final String CANCEL = "#cancel";
+
+    private static final ThreadLocal<RpcCall> current       = new ThreadLocal<>();
+    private static final ThreadLocal<Long>    callerTimeout = new ThreadLocal<>();
+
+    private final boolean    bounded;
+    private final long       deadlineInNanos;
+    private volatile boolean cancelled;
+
+    private RpcCall() {
+        this.bounded         = false;
+        this.deadlineInNanos = 0;
+    }
+
+    private RpcCall(final long deadlineInNanos) {
+        this.bounded         = true;
+        this.deadlineInNanos = deadlineInNanos;
+    }
+
+    /**
+     * Checks whether the remote call executed by the current thread has been
+     * cancelled or its deadline has passed
+     *
+     * @return {@code true} if nobody waits for the result anymore, otherwise
+     *         {@code false} (also if the current thread does not execute any
+     *         remote call)
+     */
+    public static boolean isAbandoned() {
+        final RpcCall call = current.get();
+        return call != null && call.abandoned();
+    }
+
+    private boolean abandoned() {
+        return cancelled || bounded && deadlineInNanos - System.nanoTime() < 0;
+    }
+
+    /**
+     * Executes the specified task such that the remote calls it issues from the
+     * current thread wait for their results for at most the specified timeout
+     * instead of the default timeout of the transport. Interrupting the thread
+     * cancels the pending call.
+     *
+     * @param timeoutInMillis the time to wait for the result of each call
+     * @param task the task issuing the remote calls
+     * @return the result of the task
+     * @throws Exception if the task fails
+     */
+    public static <T> T withTimeout(final long timeoutInMillis, final Callable<T> task) throws Exception {
+        if (timeoutInMillis <= 0) {
+            throw new IllegalArgumentException("The timeout must be positive");
+        }
+        final Long previous = callerTimeout.get();
+        callerTimeout.set(timeoutInMillis);
+        try {
+            return task.call();
+        } finally {
+            if (previous == null) {
+                callerTimeout.remove();
+            } else {
+                callerTimeout.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Returns the timeout of the remote calls issued by the current thread
+     *
+     * @param defaultTimeoutInMillis the default timeout of the transport
+     * @return the timeout set by {@link #withTimeout(long, Callable)} or the
+     *         default timeout
+     */
+    public static long timeout(final long defaultTimeoutInMillis) {
+        final Long timeout = callerTimeout.get();
+        return timeout == null ? defaultTimeoutInMillis : timeout;
+    }
+
+    /**
+     * Encodes the payload of a {@link #CANCEL} control message
+     *
+     * @param id the ID of the call
+     * @return the payload
+     */
+    public static byte[] cancel(final int id) {
+        return ByteBuffer.allocate(Integer.BYTES).putInt(id).array();
+    }
+
+    /**
+     * Keeps track of the remote calls received by an endpoint
+     */
+    public static final class Registry {
+
+        private final Map<Integer, RpcCall> calls = new ConcurrentHashMap<>();
+
+        private volatile boolean peerDeadlines;
+
+        /**
+         * Handles a control message received from the peer
+         *
+         * @param command the command of the message
+         * @param payload the payload of the message
+         * @return {@code true} if the message has been a call control message,
+         *         otherwise {@code false}
+         */
+        public boolean handle(final String command, final byte[] payload) {
+            if (DEADLINES.equals(command)) {
+                peerDeadlines = true;
+                return true;
+            }
+            if (CANCEL.equals(command)) {
+                if (payload != null && payload.length == Integer.BYTES) {
+                    final RpcCall call = calls.get(ByteBuffer.wrap(payload).getInt());
+                    if (call != null) {
+                        call.cancelled = true;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Checks whether the peer has advertised to understand deadlines carried
+         * in call frames
+         *
+         * @return {@code true} if deadlines can be sent, otherwise {@code false}
+         */
+        public boolean isDeadlineSupported() {
+            return peerDeadlines;
+        }
+
+        /**
+         * Registers a call as soon as it has been received, i.e. before any
+         * cancellation of it can be received
+         *
+         * @param id the ID of the call
+         * @param timeoutInMillis the time the caller is going to wait for the
+         *            result or {@code 0} if the caller did not send any deadline
+         */
+        public void received(final int id, final long timeoutInMillis) {
+            if (timeoutInMillis > 0) {
+                calls.put(id, new RpcCall(System.nanoTime() + MILLISECONDS.toNanos(timeoutInMillis)));
+            } else {
+                calls.put(id, new RpcCall());
+            }
+        }
+
+        /**
+         * Associates the call having the specified ID with the current thread
+         *
+         * @param id the ID of the call
+         * @return {@code true} if the call is still awaited, otherwise {@code false}
+         */
+        public boolean begin(final int id) {
+            RpcCall call = calls.get(id);
+            if (call == null) {
+                call = new RpcCall();
+                calls.put(id, call);
+            }
+            current.set(call);
+            return !call.abandoned();
+        }
+
+        /**
+         * Dissociates the call having the specified ID from the current thread
+         *
+         * @param id the ID of the call
+         * @return {@code true} if the result is still awaited, otherwise
+         *         {@code false}
+         */
+        public boolean end(final int id) {
+            current.remove();
+            final RpcCall call = calls.remove(id);
+            return call == null || !call.abandoned();
+        }
+
+        /**
+         * Cancels all calls, for example, when the link to the caller is lost
+         */
+        public void cancelAll() {
+            for (final RpcCall call : calls.values()) {
+                call.cancelled = true;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,544 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.rpc;
+
+import static com.osgifx.console.agent.Agent.AGENT_RPC_COMPRESSION_DICTIONARY_KEY;
+import static com.osgifx.console.agent.Agent.AGENT_RPC_COMPRESSION_MODE_KEY;
+import static com.osgifx.console.agent.Agent.AGENT_RPC_COMPRESSION_THRESHOLD_KEY;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.osgifx.console.agent.Agent;
+
+import aQute.lib.json.JSONCodec;
+
+/**
+ * Compression policy of the payloads of an RPC link.
+ *
+ * <p>
+ * Both endpoints advertise their capabilities with a control message once the
+ * link is opened. Until the peer has proven that it understands the policy,
+ * every payload is deflated as before, as older peers silently drop the
+ * advertisement. Afterwards, the payloads are tagged with their encoding:
+ * payloads below the threshold are sent as they are, whereas larger payloads
+ * are deflated with either the fastest or the best deflate level, optionally
+ * primed with a dictionary of the DTO vocabulary both endpoints share. As the
+ * agent must not depend on further libraries, no other algorithms are used
+ * and the best level only gains a few percent over the fastest one at a
+ * multiple of its cost, which is why it is only chosen for slow links.
+ * </p>
+ *
+ * <p>
+ * In adaptive mode, the encoding of every payload is chosen by estimating its
+ * transfer time from the measured compression speed and ratio of every level
+ * and the throughput of the link, such that fast links favour latency and
+ * slow links favour bandwidth. The throughput is measured by the number of
+ * bytes the peer acknowledges over time while the link is busy, as writing to
+ * a socket or an MQTT client only blocks until the local buffers have taken
+ * the bytes.
+ * </p>
+ */
+public final class RpcCompression {
+
+    /** The command of a capability advertisement */
+    public static final String CODEC = "#codec";
+
+    /** The command of an acknowledgement of the received bytes */
+    public static final String ACK = "#ack";
+
+    /** The transport specific operations required by the policy */
+    public interface Link {
+
+        /**
+         * Sends the control message to the peer
+         *
+         * @param command the command ({@link #CODEC} or {@link #ACK})
+         * @param payload the payload
+         * @throws Exception if the message cannot be sent
+         */
+        void sendControl(String command, byte[] payload) throws Exception;
+    }
+
+    private enum Mode {
+        ADAPTIVE,
+        NONE,
+        FAST,
+        HIGH
+    }
+
+    private static final byte VERSION       = 1;
+    private static final byte REPLY_REQUEST = 1;
+
+    // the first byte of deflated payloads of older peers is always the zlib header 0x78
+    private static final byte PLAIN           = 1;
+    private static final byte DEFLATED        = 2;
+    private static final byte DEFLATED_PRIMED = 3;
+
+    private static final int    DEFAULT_THRESHOLD  = 512;
+    private static final int    MIN_SAMPLE_SIZE    = 64 * 1024;
+    private static final int    CHUNK_SIZE         = 8 * 1024;
+    private static final double SMOOTHING          = 0.25;
+    private static final int    MAX_DICTIONARY_LEN = 32 * 1024;
+    private static final int    ACK_INTERVAL       = MIN_SAMPLE_SIZE;
+
+    private final Link    link;
+    private final Mode    mode;
+    private final int     threshold;
+    private final boolean dictionaryEnabled;
+
+    private volatile boolean peerSupported;
+    private volatile boolean peerDictionary;
+
+    private volatile double throughput;
+    private final Level     fast = new Level(Deflater.BEST_SPEED, 80_000_000d, 0.20d);
+    private final Level     high = new Level(Deflater.BEST_COMPRESSION, 15_000_000d, 0.14d);
+
+    private final AtomicLong sent     = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong nextAck  = new AtomicLong(ACK_INTERVAL);
+    private long             lastAcknowledged;
+    private long             lastAcknowledgedInNanos;
+    private long             sentAtLastAcknowledgement;
+
+    /**
+     * Creates the policy of a link
+     *
+     * @param link the link to the peer
+     * @param assumedThroughput the throughput of the link in bytes per second
+     *            to assume until it has been measured
+     */
+    public RpcCompression(final Link link, final long assumedThroughput) {
+        final int    thresholdValue  = Integer.getInteger(AGENT_RPC_COMPRESSION_THRESHOLD_KEY, DEFAULT_THRESHOLD);
+        final String dictionaryValue = System.getProperty(AGENT_RPC_COMPRESSION_DICTIONARY_KEY, "true");
+
+        this.link              = link;
+        this.mode              = mode(System.getProperty(AGENT_RPC_COMPRESSION_MODE_KEY));
+        this.threshold         = Math.max(0, thresholdValue);
+        this.dictionaryEnabled = Boolean.parseBoolean(dictionaryValue);
+        this.throughput        = Math.max(1L, assumedThroughput);
+    }
+
+    /**
+     * Advertises the capabilities to the peer
+     */
+    public void start() {
+        advertise(true);
+    }
+
+    /**
+     * Handles a control message received from the peer
+     *
+     * @param command the command of the message
+     * @param payload the payload of the message
+     * @return {@code true} if the message has been a compression control
+     *         message, otherwise {@code false}
+     */
+    public boolean handle(final String command, final byte[] payload) {
+        if (ACK.equals(command)) {
+            if (payload != null && payload.length >= Long.BYTES) {
+                acknowledged(ByteBuffer.wrap(payload).getLong(), System.nanoTime());
+            }
+            return true;
+        }
+        if (!CODEC.equals(command)) {
+            return false;
+        }
+        // newer versions are expected to extend the advertisement compatibly
+        if (payload != null && payload.length >= 2 + Integer.BYTES && payload[0] >= VERSION) {
+            final ByteBuffer buffer       = ByteBuffer.wrap(payload, 1, payload.length - 1);
+            final byte       flags        = buffer.get();
+            final int        dictionaryId = buffer.getInt();
+
+            peerDictionary = dictionaryEnabled && dictionaryId == Dictionary.ID;
+            peerSupported  = true;
+            if ((flags & REPLY_REQUEST) != 0) {
+                advertise(false);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records the specified number of bytes handed over to the transport to be
+     * sent to the peer
+     *
+     * @param bytes the number of bytes
+     */
+    public void recordSent(final long bytes) {
+        sent.addAndGet(bytes);
+    }
+
+    /**
+     * Records the specified number of bytes received from the peer, which are
+     * acknowledged to the peer in regular intervals
+     *
+     * @param bytes the number of bytes
+     */
+    public void recordReceived(final long bytes) {
+        final long total = received.addAndGet(bytes);
+        final long due   = nextAck.get();
+        if (total < due || !nextAck.compareAndSet(due, total + ACK_INTERVAL) || !peerSupported) {
+            return;
+        }
+        try {
+            link.sendControl(ACK, ByteBuffer.allocate(Long.BYTES).putLong(total).array());
+        } catch (final Exception e) {
+            // the peer keeps its estimate
+        }
+    }
+
+    /**
+     * Records the acknowledgement of the specified total number of bytes by the
+     * peer. The bytes acknowledged since the previous acknowledgement are only
+     * a sample of the throughput if all of them had already been sent by then,
+     * as the link might have been idle otherwise.
+     *
+     * @param total the total number of bytes the peer has received
+     * @param nowInNanos the time the acknowledgement has been received
+     */
+    synchronized void acknowledged(final long total, final long nowInNanos) {
+        final long bytes    = total - lastAcknowledged;
+        final long duration = nowInNanos - lastAcknowledgedInNanos;
+        if (lastAcknowledgedInNanos != 0 && sentAtLastAcknowledgement >= total && bytes >= MIN_SAMPLE_SIZE
+                && duration > 0) {
+            throughput = smooth(throughput, bytes * (double) SECONDS.toNanos(1) / duration);
+        }
+        lastAcknowledged          = total;
+        lastAcknowledgedInNanos   = nowInNanos;
+        sentAtLastAcknowledgement = sent.get();
+    }
+
+    /**
+     * Encodes the specified value
+     *
+     * @param value the value to encode
+     * @return the payload
+     * @throws Exception if the value cannot be encoded
+     */
+    public byte[] encode(final Object value) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encode(value, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes the specified value to the specified stream
+     *
+     * @param value the value to encode
+     * @param out the stream to write the payload to
+     * @throws Exception if the value cannot be encoded
+     */
+    public void encode(final Object value, final OutputStream out) throws Exception {
+        if (!peerSupported) {
+            new JSONCodec().enc().deflate().to(out).put(value);
+            return;
+        }
+        final Json json = new Json();
+        new JSONCodec().enc().to(json).put(value);
+
+        final Level level = select(json.size());
+        if (level == null) {
+            out.write(PLAIN);
+            out.write(json.buffer(), 0, json.size());
+        } else {
+            final boolean primed = peerDictionary;
+            out.write(primed ? DEFLATED_PRIMED : DEFLATED);
+            level.deflate(json.buffer(), json.size(), primed, out);
+        }
+    }
+
+    /**
+     * Encodes the specified value which becomes part of a larger payload that
+     * is encoded as a whole, such that compressing the value on its own is
+     * pointless
+     *
+     * @param value the value to encode
+     * @return the payload
+     * @throws Exception if the value cannot be encoded
+     */
+    public byte[] encodeEnclosed(final Object value) throws Exception {
+        if (!peerSupported) {
+            return encode(value);
+        }
+        final Json json = new Json();
+        json.write(PLAIN);
+        new JSONCodec().enc().to(json).put(value);
+        return json.toByteArray();
+    }
+
+    /**
+     * Decodes the specified payload regardless of the encoding the peer has
+     * chosen
+     *
+     * @param payload the payload
+     * @param type the type of the value
+     * @return the value
+     * @throws Exception if the payload cannot be decoded
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T decode(final byte[] payload, final Type type) throws Exception {
+        final byte tag = payload.length == 0 ? 0 : payload[0];
+        switch (tag) {
+            case PLAIN:
+                return (T) new JSONCodec().dec().from(new ByteArrayInputStream(payload, 1, payload.length - 1))
+                        .get(type);
+            case DEFLATED:
+                return (T) new JSONCodec().dec().from(inflate(payload, false)).get(type);
+            case DEFLATED_PRIMED:
+                return (T) new JSONCodec().dec().from(inflate(payload, true)).get(type);
+            default:
+                // deflated by an older peer
+                return (T) new JSONCodec().dec().inflate().from(payload).get(type);
+        }
+    }
+
+    private void advertise(final boolean replyRequested) {
+        final int    dictionaryId = dictionaryEnabled ? Dictionary.ID : 0;
+        final byte[] payload      = ByteBuffer.allocate(2 + Integer.BYTES).put(VERSION)
+                .put(replyRequested ? REPLY_REQUEST : 0).putInt(dictionaryId).array();
+        try {
+            link.sendControl(CODEC, payload);
+        } catch (final Exception e) {
+            // payloads stay deflated as before
+        }
+    }
+
+    /**
+     * Returns the deflate level a payload of the specified size is compressed
+     * with, or {@link Deflater#NO_COMPRESSION} if it is sent as it is
+     */
+    int levelOf(final int size) {
+        final Level level = select(size);
+        return level == null ? Deflater.NO_COMPRESSION : level.level;
+    }
+
+    /**
+     * Selects the level of the payload having the specified size
+     *
+     * @return the level or {@code null} if the payload is not to be compressed
+     */
+    private Level select(final int size) {
+        if (size < threshold) {
+            return null;
+        }
+        switch (mode) {
+            case NONE:
+                return null;
+            case FAST:
+                return fast;
+            case HIGH:
+                return high;
+            default:
+                final double rate      = throughput;
+                final double plainCost = size / rate;
+                final double fastCost  = fast.cost(size, rate);
+                final double highCost  = high.cost(size, rate);
+                final double bestCost  = Math.min(plainCost, Math.min(fastCost, highCost));
+                if (bestCost == plainCost) {
+                    return null;
+                }
+                return bestCost == fastCost ? fast : high;
+        }
+    }
+
+    private static byte[] inflate(final byte[] payload, final boolean primed) throws IOException {
+        final Inflater inflater = new Inflater(true);
+        try {
+            if (primed) {
+                inflater.setDictionary(Dictionary.BYTES);
+            }
+            inflater.setInput(payload, 1, payload.length - 1);
+            final ByteArrayOutputStream out   = new ByteArrayOutputStream(payload.length * 4);
+            final byte[]                chunk = new byte[CHUNK_SIZE];
+            while (!inflater.finished()) {
+                final int n = inflater.inflate(chunk);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated RPC payload");
+                }
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } catch (final DataFormatException e) {
+            throw new IOException("Corrupt RPC payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static Mode mode(final String value) {
+        if (value == null) {
+            return Mode.ADAPTIVE;
+        }
+        try {
+            return Mode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException e) {
+            return Mode.ADAPTIVE;
+        }
+    }
+
+    private static double smooth(final double current, final double sample) {
+        return current + SMOOTHING * (sample - current);
+    }
+
+    /**
+     * A compression level including its measured speed (in bytes per second)
+     * and ratio
+     */
+    private static final class Level {
+
+        private final int       level;
+        private volatile double speed;
+        private volatile double ratio;
+
+        Level(final int level, final double speed, final double ratio) {
+            this.level = level;
+            this.speed = speed;
+            this.ratio = ratio;
+        }
+
+        double cost(final int size, final double throughput) {
+            return size / speed + size * ratio / throughput;
+        }
+
+        void deflate(final byte[] data, final int length, final boolean primed, final OutputStream out)
+                throws IOException {
+            final Deflater deflater = new Deflater(level, true);
+            try {
+                if (primed) {
+                    deflater.setDictionary(Dictionary.BYTES);
+                }
+                final long startInNanos = System.nanoTime();
+
+                deflater.setInput(data, 0, length);
+                deflater.finish();
+                final byte[] chunk = new byte[CHUNK_SIZE];
+                while (!deflater.finished()) {
+                    final int n = deflater.deflate(chunk);
+                    out.write(chunk, 0, n);
+                }
+                final long elapsedInNanos = System.nanoTime() - startInNanos;
+                if (length >= MIN_SAMPLE_SIZE && elapsedInNanos > 0) {
+                    speed = smooth(speed, length * (double) SECONDS.toNanos(1) / elapsedInNanos);
+                }
+                ratio = smooth(ratio, deflater.getBytesWritten() / (double) length);
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    /**
+     * Exposes the buffer to avoid copying the encoded value
+     */
+    private static final class Json extends ByteArrayOutputStream {
+
+        Json() {
+            super(1024);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+
+    /**
+     * The dictionary derived from the field names of the DTOs exchanged through
+     * the {@link Agent} API, such that both endpoints build the same dictionary
+     * as long as they share the same API
+     */
+    private static final class Dictionary {
+
+        static final byte[] BYTES = build();
+        static final int    ID    = id(BYTES);
+
+        private static byte[] build() {
+            final Set<String>   names   = new TreeSet<>();
+            final Set<Class<?>> visited = new HashSet<>();
+            for (final Method method : Agent.class.getMethods()) {
+                collect(method.getGenericReturnType(), names, visited);
+                for (final Type type : method.getGenericParameterTypes()) {
+                    collect(type, names, visited);
+                }
+            }
+            final StringBuilder builder = new StringBuilder("null,true,false,");
+            for (final String name : names) {
+                builder.append('"').append(name).append("\":");
+            }
+            final byte[] bytes = builder.toString().getBytes(UTF_8);
+            if (bytes.length <= MAX_DICTIONARY_LEN) {
+                return bytes;
+            }
+            // deflate prefers the end of the dictionary
+            final byte[] tail = new byte[MAX_DICTIONARY_LEN];
+            System.arraycopy(bytes, bytes.length - tail.length, tail, 0, tail.length);
+            return tail;
+        }
+
+        private static void collect(final Type type, final Set<String> names, final Set<Class<?>> visited) {
+            if (type instanceof ParameterizedType) {
+                for (final Type argument : ((ParameterizedType) type).getActualTypeArguments()) {
+                    collect(argument, names, visited);
+                }
+            } else if (type instanceof GenericArrayType) {
+                collect(((GenericArrayType) type).getGenericComponentType(), names, visited);
+            } else if (type instanceof Class) {
+                final Class<?> clazz = (Class<?>) type;
+                if (clazz.isArray()) {
+                    collect(clazz.getComponentType(), names, visited);
+                    return;
+                }
+                if (clazz.isPrimitive() || clazz.getName().startsWith("java.") || !visited.add(clazz)) {
+                    return;
+                }
+                for (final Field field : clazz.getFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    names.add(field.getName());
+                    collect(field.getGenericType(), names, visited);
+                }
+            }
+        }
+
+        private static int id(final byte[] bytes) {
+            final Adler32 checksum = new Adler32();
+            checksum.update(bytes, 0, bytes.length);
+            return (int) checksum.getValue();
+        }
+    }
+
+}
@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.rpc;
+
+import static com.osgifx.console.agent.Agent.AGENT_RPC_HEARTBEAT_INTERVAL_KEY;
+import static com.osgifx.console.agent.Agent.AGENT_RPC_HEARTBEAT_MISSED_LIMIT_KEY;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Transport level heartbeat of an RPC link.
+ *
+ * <p>
+ * Every inbound message, or any part of it, counts as a sign of life, such
+ * that probes are only sent while the link is idle and a link busy receiving a
+ * large message is not declared dead. A probe carries the time it has been sent at
+ * which the peer echoes back. The echoes are used to maintain a smoothed
+ * round-trip time and its variance (as in TCP) from which the liveness timeout
+ * of the link is derived.
+ * </p>
+ *
+ * <p>
+ * The liveness of the link is only enforced as soon as the peer has proven
+ * that it understands the heartbeat, as older peers silently drop the probes.
+ * Once the link is declared dead, the state is reset until the peer is heard
+ * of again.
+ * </p>
+ */
+public final class RpcHeartbeat {
+
+    /** The command of a heartbeat probe */
+    public static final String PING = "#ping";
+
+    /** The command of a heartbeat echo */
+    public static final String PONG = "#pong";
+
+    private static final long DEFAULT_INTERVAL_IN_MILLIS = 5_000L;
+    private static final int  DEFAULT_MISSED_LIMIT       = 3;
+
+    private static final Object             lock = new Object();
+    private static int                      users;
+    private static ScheduledExecutorService scheduler;
+
+    /**
+     * The transport specific operations required by the heartbeat
+     */
+    public interface Link {
+
+        /**
+         * Sends the control message to the peer
+         *
+         * @param command the command ({@link #PING} or {@link #PONG})
+         * @param payload the payload
+         * @throws Exception if the message cannot be sent
+         */
+        void sendControl(String command, byte[] payload) throws Exception;
+
+        /**
+         * Invoked when no traffic has been received within the liveness timeout
+         *
+         * @param reason the reason of the failure
+         */
+        void linkDead(String reason);
+    }
+
+    private final Link link;
+    private final long intervalInNanos;
+    private final int  missedLimit;
+
+    private volatile long    lastReceivedInNanos;
+    private volatile boolean peerSeen;
+    private volatile boolean heartbeatSupported;
+    private volatile long    smoothedRttInNanos = -1;
+    private volatile long    rttVarianceInNanos;
+
+    private ScheduledFuture<?> future;
+
+    public RpcHeartbeat(final Link link) {
+        final long interval = Long.getLong(AGENT_RPC_HEARTBEAT_INTERVAL_KEY, DEFAULT_INTERVAL_IN_MILLIS);
+        final int  missed   = Integer.getInteger(AGENT_RPC_HEARTBEAT_MISSED_LIMIT_KEY, DEFAULT_MISSED_LIMIT);
+
+        this.link            = link;
+        this.intervalInNanos = MILLISECONDS.toNanos(Math.max(100L, interval));
+        this.missedLimit     = Math.max(1, missed);
+    }
+
+    /**
+     * Starts sending probes and checking the liveness of the link
+     */
+    public synchronized void start() {
+        if (future != null) {
+            return;
+        }
+        lastReceivedInNanos = System.nanoTime();
+        final long interval = NANOSECONDS.toMillis(intervalInNanos);
+        future = acquireScheduler().scheduleWithFixedDelay(this::tick, interval, interval, MILLISECONDS);
+    }
+
+    /**
+     * Stops the heartbeat
+     */
+    public synchronized void stop() {
+        if (future == null) {
+            return;
+        }
+        future.cancel(false);
+        future = null;
+        releaseScheduler();
+    }
+
+    /**
+     * Records the receipt of any data from the peer
+     */
+    public void received() {
+        lastReceivedInNanos = System.nanoTime();
+        peerSeen            = true;
+    }
+
+    /**
+     * Handles a control message received from the peer
+     *
+     * @param command the command of the message
+     * @param payload the payload of the message
+     * @return {@code true} if the message has been a heartbeat control message,
+     *         otherwise {@code false}
+     */
+    public boolean handle(final String command, final byte[] payload) {
+        if (PING.equals(command)) {
+            received();
+            heartbeatSupported = true;
+            try {
+                link.sendControl(PONG, payload);
+            } catch (final Exception e) {
+                link.linkDead("Heartbeat echo could not be sent");
+            }
+            return true;
+        }
+        if (PONG.equals(command)) {
+            received();
+            heartbeatSupported = true;
+            if (payload != null && payload.length == Long.BYTES) {
+                updateRtt(System.nanoTime() - ByteBuffer.wrap(payload).getLong());
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the smoothed round-trip time of the link
+     *
+     * @return the round-trip time in milliseconds or {@code -1} if not yet measured
+     */
+    public long roundTripTime() {
+        final long rtt = smoothedRttInNanos;
+        return rtt < 0 ? -1 : NANOSECONDS.toMillis(rtt);
+    }
+
+    private void tick() {
+        final long idleInNanos = System.nanoTime() - lastReceivedInNanos;
+        if (heartbeatSupported && idleInNanos > livenessTimeoutInNanos()) {
+            final String reason = "No traffic received for " + NANOSECONDS.toMillis(idleInNanos)
+                    + " ms (round-trip time " + roundTripTime() + " ms)";
+            peerSeen           = false;
+            heartbeatSupported = false;
+            link.linkDead(reason);
+            return;
+        }
+        if (peerSeen && idleInNanos >= intervalInNanos) {
+            final byte[] payload = ByteBuffer.allocate(Long.BYTES).putLong(System.nanoTime()).array();
+            try {
+                link.sendControl(PING, payload);
+            } catch (final Exception e) {
+                link.linkDead("Heartbeat probe could not be sent");
+            }
+        }
+    }
+
+    private long livenessTimeoutInNanos() {
+        final long rtt = Math.max(smoothedRttInNanos, 0);
+        return intervalInNanos * missedLimit + rtt + 4 * rttVarianceInNanos;
+    }
+
+    private void updateRtt(final long sampleInNanos) {
+        if (sampleInNanos < 0) {
+            return;
+        }
+        final long srtt = smoothedRttInNanos;
+        if (srtt < 0) {
+            smoothedRttInNanos = sampleInNanos;
+            rttVarianceInNanos = sampleInNanos / 2;
+        } else {
+            rttVarianceInNanos = (3 * rttVarianceInNanos + Math.abs(srtt - sampleInNanos)) / 4;
+            smoothedRttInNanos = (7 * srtt + sampleInNanos) / 8;
+        }
+    }
+
+    private static ScheduledExecutorService acquireScheduler() {
+        synchronized (lock) {
+            if (users++ == 0) {
+                scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                    final Thread thread = new Thread(r, "fx-rpc-heartbeat");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            return scheduler;
+        }
+    }
+
+    private static void releaseScheduler() {
+        synchronized (lock) {
+            if (--users == 0) {
+                scheduler.shutdownNow();
+                scheduler = null;
+            }
+        }
+    }
+
+}
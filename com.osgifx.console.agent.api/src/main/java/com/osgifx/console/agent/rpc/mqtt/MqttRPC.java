@@ -15,7 +15,6 @@
  ******************************************************************************/
 package com.osgifx.console.agent.rpc.mqtt;
 
-import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
@@ -28,11 +27,15 @@ import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 import org.osgi.framework.BundleContext;
 
@@ -40,35 +43,47 @@ import com.j256.simplelogging.FluentLogger;
 import com.j256.simplelogging.LoggerFactory;
 import com.osgifx.console.agent.Agent;
 import com.osgifx.console.agent.rpc.RemoteRPC;
+import com.osgifx.console.agent.rpc.RpcCall;
+import com.osgifx.console.agent.rpc.RpcCompression;
+import com.osgifx.console.agent.rpc.RpcHeartbeat;
 import com.osgifx.console.agent.rpc.mqtt.api.Mqtt5Message;
 import com.osgifx.console.agent.rpc.mqtt.api.Mqtt5Publisher;
 
 import aQute.bnd.exceptions.Exceptions;
-import aQute.lib.json.JSONCodec;
 
 public class MqttRPC<L, R> implements Closeable, RemoteRPC<L, R> {
 
-    private MqttClient                    mqttClient;
-    private final String                  pubTopic;
-    private final String                  subTopic;
-    private final BundleContext           bundleContext;
-    private final AtomicInteger           id       = new AtomicInteger(10_000);
-    private final Map<Integer, RpcResult> promises = new ConcurrentHashMap<>();
-    private final AtomicBoolean           started  = new AtomicBoolean();
-    private final AtomicBoolean           stopped  = new AtomicBoolean();
-    private final ThreadLocal<Integer>    msgId    = new ThreadLocal<>();
-    private final FluentLogger            logger   = LoggerFactory.getFluentLogger(getClass());
+    private static final long RESULT_TIMEOUT_IN_MILLIS = 10_000L;
+    private static final long ASSUMED_THROUGHPUT       = 1_250_000L; // 10 Mbit/s until measured
+
+    private MqttClient                                       mqttClient;
+    private final String                                     pubTopic;
+    private final String                                     subTopic;
+    private final BundleContext                              bundleContext;
+    private final AtomicInteger                              id          = new AtomicInteger(10_000);
+    private final Map<Integer, CompletableFuture<RpcResult>> promises    = new ConcurrentHashMap<>();
+    private final AtomicBoolean                              started     = new AtomicBoolean();
+    private final AtomicBoolean                              stopped     = new AtomicBoolean();
+    private final ThreadLocal<Integer>                       msgId       = new ThreadLocal<>();
+    private final ReentrantLock                              publishLock = new ReentrantLock();
+    private final FluentLogger                               logger      = LoggerFactory.getFluentLogger(getClass());
 
     private final L        local;
     private R              remote;
     private final Class<R> remoteClass;
 
-    private final ExecutorService executor;
+    private final ExecutorService     executor;
+    private final RpcHeartbeat        heartbeat;
+    private final RpcCompression      compression;
+    private final RpcCall.Registry    calls = new RpcCall.Registry();
+    private volatile Consumer<String> linkListener;
 
     public static class RpcMessage {
         public int      id;
         public String   methodName;
         public String[] methodArgs;
+        /** The timeout of a call in milliseconds, ignored by older peers */
+        public long     timeout;
 
         @Override
         public String toString() {
@@ -76,10 +91,14 @@ public class MqttRPC<L, R> implements Closeable, RemoteRPC<L, R> {
         }
     }
 
-    public static class RpcResult {
-        public boolean resolved;
-        public byte[]  value;
-        public boolean exception;
+    private static class RpcResult {
+        final byte[]  value;
+        final boolean exception;
+
+        RpcResult(final byte[] value, final boolean exception) {
+            this.value     = value;
+            this.exception = exception;
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -95,6 +114,38 @@ public class MqttRPC<L, R> implements Closeable, RemoteRPC<L, R> {
         this.pubTopic      = pubTopic;
         this.subTopic      = subTopic;
         this.executor      = executor;
+        this.heartbeat     = new RpcHeartbeat(new RpcHeartbeat.Link() {
+
+            @Override
+            public void sendControl(final String command, final byte[] payload) throws Exception {
+                executor.execute(() -> {
+                    try {
+                        send(control(command, payload));
+                    } catch (final Exception e) {
+                        trace("Heartbeat could not be sent: " + e);
+                    }
+                });
+            }
+
+            @Override
+            public void linkDead(final String reason) {
+                // the subscription is kept as the peer might show up again
+                trace("MQTT RPC link is dead: " + reason);
+                calls.cancelAll();
+                failPendingCalls();
+                final Consumer<String> listener = linkListener;
+                if (listener != null) {
+                    listener.accept(reason);
+                }
+            }
+        });
+        this.compression   = new RpcCompression((command, payload) -> executor.execute(() -> {
+            try {
+                send(control(command, payload));
+            } catch (final Exception e) {
+                trace("Compression capabilities could not be sent: " + e);
+            }
+        }), ASSUMED_THROUGHPUT);
     }
 
     @Override
@@ -106,6 +157,7 @@ public class MqttRPC<L, R> implements Closeable, RemoteRPC<L, R> {
             subscriber.subscribe(subTopic).forEach(msg -> {
                 try {
                     final ByteBuffer   payload    = msg.payload;
+                    compression.recordReceived(payload.remaining());
                     final RpcMessage   message    = decodeMessage(payload);
                     final List<byte[]> methodArgs = new ArrayList<>();
                     if (message.methodArgs != null) {
@@ -113,6 +165,15 @@ public class MqttRPC<L, R> implements Closeable, RemoteRPC<L, R> {
                             methodArgs.add(Base64.getDecoder().decode(arg));
                         }
                     }
+                    heartbeat.received();
+                    final byte[] control = methodArgs.isEmpty() ? null : methodArgs.get(0);
+                    if (heartbeat.handle(message.methodName, control) || calls.handle(message.methodName, control)
+                            || compression.handle(message.methodName, control)) {
+                        return;
+                    }
+                    if (!message.methodName.isEmpty()) {
+                        calls.received(message.id, message.timeout);
+                    }
                     final Runnable r = () -> {
                         try {
                             msgId.set(message.id);
@@ -129,10 +190,12 @@ public class MqttRPC<L, R> implements Closeable, RemoteRPC<L, R> {
             });
         });
         mqttClient.open();
+        heartbeat.start();
+        compression.start();
     }
 
     private RpcMessage decodeMessage(final ByteBuffer payload) throws Exception {
-        return new JSONCodec().dec().inflate().from(payload.array()).get(RpcMessage.class);
+        return compression.decode(payload.array(), RpcMessage.class);
     }
 
     @Override
@@ -140,6 +203,9 @@ public class MqttRPC<L, R> implements Closeable, RemoteRPC<L, R> {
         if (stopped.getAndSet(true)) {
             return; // already closed
         }
+        heartbeat.stop();
+        calls.cancelAll();
+        failPendingCalls();
         if (local instanceof Closeable) {
             try {
                 ((Closeable) local).close();
@@ -165,10 +231,14 @@ public class MqttRPC<L, R> implements Closeable, RemoteRPC<L, R> {
                                 final Object hash = new Object();
                                 return method.invoke(hash, args);
                             }
-                            int msgId;
+                            final boolean isVoid  = method.getReturnType() == void.class;
+                            final long    timeout = RpcCall.timeout(RESULT_TIMEOUT_IN_MILLIS);
+                            int           msgId;
                             try {
-                                msgId = send(msg(id.getAndIncrement(), method, args));
-                                if (method.getReturnType() == void.class) {
+                                final RpcMessage call = msg(id.getAndIncrement(), method, args);
+                                call.timeout = isVoid ? 0 : timeout;
+                                msgId        = send(call);
+                                if (isVoid) {
                                     promises.remove(msgId);
                                     return null;
                                 }
@@ -176,7 +246,7 @@ public class MqttRPC<L, R> implements Closeable, RemoteRPC<L, R> {
                                 terminate();
                                 return null;
                             }
-                            return waitForResult(msgId, method.getGenericReturnType());
+                            return waitForResult(msgId, method.getGenericReturnType(), timeout);
                         } catch (final InvocationTargetException ite) {
                             throw Exceptions.unrollCause(ite, InvocationTargetException.class);
                         } catch (final Exception e) {
@@ -192,6 +262,16 @@ public class MqttRPC<L, R> implements Closeable, RemoteRPC<L, R> {
         return !stopped.get();
     }
 
+    @Override
+    public long roundTripTime() {
+        return heartbeat.roundTripTime();
+    }
+
+    @Override
+    public void setLinkListener(final Consumer<String> listener) {
+        linkListener = listener;
+    }
+
     protected void terminate() {
         try {
             close();
@@ -213,90 +293,96 @@ public class MqttRPC<L, R> implements Closeable, RemoteRPC<L, R> {
     }
 
     private int send(final RpcMessage msg) throws Exception {
-        if (msg.methodName != null) {
-            promises.put(msg.id, new RpcResult());
+        if (msg.id > 0 && !msg.methodName.isEmpty() && !msg.methodName.startsWith("#")) {
+            // only requests await a result, not responses or control messages
+            promises.put(msg.id, new CompletableFuture<>());
         }
         trace("Sending MQTT RPC: " + msg);
         final Optional<Mqtt5Publisher> msgPublisher = mqttClient.pub();
         if (msgPublisher.isPresent()) {
             final Mqtt5Publisher publisher = msgPublisher.get();
-            synchronized (publisher) {
-                final ByteArrayOutputStream bout = new ByteArrayOutputStream();
-                try {
-                    new JSONCodec().enc().deflate().to(bout).put(msg);
-
-                    final ByteBuffer   data    = ByteBuffer.wrap(bout.toByteArray());
-                    final Mqtt5Message message = new Mqtt5Message();
-                    message.channel = pubTopic;
-                    message.payload = data;
+            // a lock instead of a monitor so that a publishing virtual thread is not pinned
+            publishLock.lock();
+            try {
+                final byte[]       data    = compression.encode(msg);
+                final Mqtt5Message message = new Mqtt5Message();
+                message.channel = pubTopic;
+                message.payload = ByteBuffer.wrap(data);
 
-                    publisher.publish(message);
-                    trace("Sent MQTT RPC: " + msg);
-                } catch (final Exception e) {
-                    throw new RuntimeException("Message cannot be encoded");
-                }
+                // publishing only blocks until the client has taken the message, the peer acknowledges its receipt
+                compression.recordSent(data.length);
+                publisher.publish(message);
+                trace("Sent MQTT RPC: " + msg);
+            } catch (final Exception e) {
+                throw new RuntimeException("Message cannot be encoded");
+            } finally {
+                publishLock.unlock();
             }
         }
         return msg.id;
     }
 
+    private void failPendingCalls() {
+        for (final CompletableFuture<RpcResult> result : promises.values()) {
+            result.complete(new RpcResult(null, false));
+        }
+    }
+
     private void response(int msgId, final byte[] data) {
         boolean exception = false;
         if (msgId < 0) {
             msgId     = -msgId;
             exception = true;
         }
-        final RpcResult result = promises.get(msgId);
+        final CompletableFuture<RpcResult> result = promises.get(msgId);
         if (result != null) {
-            synchronized (result) {
-                trace("Resolved RPC");
-                result.value     = data;
-                result.exception = exception;
-                result.resolved  = true;
-                result.notifyAll();
-            }
+            trace("Resolved RPC");
+            result.complete(new RpcResult(data, exception));
         }
     }
 
     @SuppressWarnings("unchecked")
-    private <T> T waitForResult(final int id, final Type type) throws Exception {
-        final long      deadlineInMillis = 10_000L;
-        final long      startInNanos     = System.nanoTime();
-        final RpcResult result           = promises.get(id);
+    private <T> T waitForResult(final int id, final Type type, final long timeout) throws Exception {
+        // a future parks the waiting thread, so a virtual thread is not pinned as by a monitor
+        final CompletableFuture<RpcResult> promise = promises.get(id);
         try {
-            do {
-                synchronized (result) {
-                    if (result.resolved) {
-                        if (result.value == null) {
-                            return null;
-                        }
-                        if (result.exception) {
-                            final String msg = new JSONCodec().dec().inflate().from(result.value).get(String.class);
-                            trace("Exception during agent communication: " + msg);
-                            throw new RuntimeException(msg);
-                        }
-                        if (type == byte[].class) {
-                            return (T) result.value;
-                        }
-                        return (T) new JSONCodec().dec().inflate().from(result.value).get(type);
-                    }
-                    long elapsedInNanos = System.nanoTime() - startInNanos;
-                    long delayInMillis  = deadlineInMillis - TimeUnit.NANOSECONDS.toMillis(elapsedInNanos);
-                    if (delayInMillis <= 0L) {
-                        return null;
-                    }
-                    trace("Start Delay (MQTT RPC)" + delayInMillis);
-                    result.wait(delayInMillis);
-                    elapsedInNanos = System.nanoTime() - startInNanos;
-                    delayInMillis  = deadlineInMillis - TimeUnit.NANOSECONDS.toMillis(elapsedInNanos);
-                    if (delayInMillis <= 0L) {
-                        return null;
-                    }
-                    trace("End Delay (MQTT RPC)" + delayInMillis);
-                }
-            } while (true);
+            final RpcResult result;
+            try {
+                trace("Start Delay (MQTT RPC)" + timeout);
+                result = promise.get(timeout, TimeUnit.MILLISECONDS);
+            } catch (final TimeoutException e) {
+                return null;
+            }
+            if (result.value == null) {
+                return null;
+            }
+            if (result.exception) {
+                final String msg = compression.decode(result.value, String.class);
+                trace("Exception during agent communication: " + msg);
+                throw new RuntimeException(msg);
+            }
+            if (type == byte[].class) {
+                return (T) result.value;
+            }
+            return compression.decode(result.value, type);
         } finally {
             promises.remove(id);
+            if (!promise.isDone()) {
+                // let the peer stop the work nobody waits for anymore
+                cancelCall(id);
+            }
+        }
+    }
+
+    private void cancelCall(final int id) {
+        if (stopped.get()) {
+            return;
+        }
+        try {
+            send(control(RpcCall.CANCEL, RpcCall.cancel(id)));
+            trace("Cancelled MQTT RPC: " + id);
+        } catch (final Exception e) {
+            // a broken link is detected separately
         }
     }
 
@@ -311,41 +397,60 @@ public class MqttRPC<L, R> implements Closeable, RemoteRPC<L, R> {
         if (cmd.isEmpty()) {
             response(id, args.get(0));
         } else {
-            final Method m = getMethod(cmd, args.size());
-            if (m == null) {
-                return;
-            }
-            final Object[] parameters = new Object[args.size()];
-            for (int i = 0; i < args.size(); i++) {
-                final Class<?> type = m.getParameterTypes()[i];
-                if (type == byte[].class) {
-                    parameters[i] = args.get(i);
-                } else {
-                    parameters[i] = new JSONCodec().dec().inflate().from(args.get(i))
-                            .get(m.getGenericParameterTypes()[i]);
-                }
-            }
             try {
-                final Object result = m.invoke(local, parameters);
-                if (m.getReturnType() == void.class) {
+                if (!calls.begin(id)) {
+                    trace("Skipped abandoned MQTT RPC: " + cmd);
                     return;
                 }
-                try {
-                    send(msg(id, null, new Object[] { result }));
-                } catch (final Exception e) {
-                    terminate();
+                final Method m = getMethod(cmd, args.size());
+                if (m == null) {
+                    return;
+                }
+                final Object[] parameters = new Object[args.size()];
+                for (int i = 0; i < args.size(); i++) {
+                    final Class<?> type = m.getParameterTypes()[i];
+                    if (type == byte[].class) {
+                        parameters[i] = args.get(i);
+                    } else {
+                        parameters[i] = compression.decode(args.get(i), m.getGenericParameterTypes()[i]);
+                    }
                 }
-            } catch (Throwable t) {
-                t = Exceptions.unrollCause(t, InvocationTargetException.class);
                 try {
-                    send(msg(-id, null, new Object[] { t + "" }));
-                } catch (final Exception e) {
-                    terminate();
+                    final Object result = m.invoke(local, parameters);
+                    if (m.getReturnType() == void.class) {
+                        return;
+                    }
+                    if (RpcCall.isAbandoned()) {
+                        trace("Discarded result of abandoned MQTT RPC: " + cmd);
+                        return;
+                    }
+                    try {
+                        send(msg(id, null, new Object[] { result }));
+                    } catch (final Exception e) {
+                        terminate();
+                    }
+                } catch (Throwable t) {
+                    t = Exceptions.unrollCause(t, InvocationTargetException.class);
+                    try {
+                        send(msg(-id, null, new Object[] { t + "" }));
+                    } catch (final Exception e) {
+                        terminate();
+                    }
                 }
+            } finally {
+                calls.end(id);
             }
         }
     }
 
+    private RpcMessage control(final String command, final byte[] payload) {
+        final RpcMessage msg = new RpcMessage();
+        msg.id         = 0;
+        msg.methodName = command;
+        msg.methodArgs = new String[] { Base64.getEncoder().encodeToString(payload) };
+        return msg;
+    }
+
     private RpcMessage msg(final int msgId, final Method method, final Object[] args) throws Exception {
         final RpcMessage msg = new RpcMessage();
         msg.methodName = method == null ? "" : method.getName();
@@ -358,9 +463,8 @@ public class MqttRPC<L, R> implements Closeable, RemoteRPC<L, R> {
                 if (arg instanceof byte[]) {
                     argValue = (byte[]) arg;
                 } else {
-                    final ByteArrayOutputStream bout = new ByteArrayOutputStream();
-                    new JSONCodec().enc().deflate().to(bout).put(arg);
-                    argValue = bout.toByteArray();
+                    // the message is compressed as a whole
+                    argValue = compression.encodeEnclosed(arg);
                 }
                 final String encodedValue = Base64.getEncoder().encodeToString(argValue);
                 methodArgs.add(encodedValue);
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.rpc.socket;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of equally sized byte buffers that are reused by the frames of all
+ * socket connections such that encoding and transferring a frame doesn't
+ * allocate new buffers.
+ * <p>
+ * Direct buffers are used for socket channels as the channels can transfer
+ * them without copying them into temporary native memory first. Heap buffers
+ * are used for plain streams (for example, of SSL sockets) that only accept
+ * byte arrays.
+ * <p>
+ * The number of direct buffers is capped as their native memory is neither
+ * part of the heap nor reclaimed before the buffers are garbage collected. As
+ * soon as the cap is reached, a direct pool falls back to heap buffers which
+ * channels accept as well at the cost of an extra copy.
+ */
+final class BufferPool {
+
+    static final int BUFFER_SIZE = 16 * 1024;
+
+    /** Caps the pooled buffers of both pools and the direct memory at 4 MB */
+    private static final int MAX_BUFFERS = 256;
+
+    static final BufferPool HEAP   = new BufferPool(false, MAX_BUFFERS);
+    static final BufferPool DIRECT = new BufferPool(true, MAX_BUFFERS);
+
+    private final boolean           isDirect;
+    private final int               maxBuffers;
+    private final Queue<ByteBuffer> buffers   = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger     pooled    = new AtomicInteger();
+    private final AtomicInteger     allocated = new AtomicInteger();
+
+    BufferPool(final boolean isDirect, final int maxBuffers) {
+        this.isDirect   = isDirect;
+        this.maxBuffers = maxBuffers;
+    }
+
+    ByteBuffer acquire() {
+        final ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            return allocate();
+        }
+        pooled.decrementAndGet();
+        // cast for Java 8 compatibility as ByteBuffer overrides the method since Java 9
+        ((Buffer) buffer).clear();
+        return buffer;
+    }
+
+    /**
+     * Returns the specified buffer to the pool. Heap buffers a direct pool has
+     * fallen back to are returned to the heap pool, whereas all other buffers
+     * that have not been acquired from this pool are ignored.
+     */
+    void release(final ByteBuffer buffer) {
+        if (buffer.capacity() != BUFFER_SIZE) {
+            return;
+        }
+        if (buffer.isDirect() != isDirect) {
+            if (isDirect) {
+                HEAP.release(buffer);
+            }
+            return;
+        }
+        if (pooled.incrementAndGet() > maxBuffers) {
+            pooled.decrementAndGet();
+            if (isDirect) {
+                allocated.decrementAndGet();
+            }
+            return;
+        }
+        buffers.offer(buffer);
+    }
+
+    private ByteBuffer allocate() {
+        if (!isDirect) {
+            return ByteBuffer.allocate(BUFFER_SIZE);
+        }
+        if (allocated.incrementAndGet() > maxBuffers) {
+            allocated.decrementAndGet();
+            return HEAP.acquire();
+        }
+        return ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+}
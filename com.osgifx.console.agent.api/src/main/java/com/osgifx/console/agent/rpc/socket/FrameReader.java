@@ -0,0 +1,240 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.rpc.socket;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Reads the inbound frames of a connection through a single reusable buffer.
+ * <p>
+ * Small fields are decoded from the buffer whereas the content of large
+ * arguments is transferred straight into the argument arrays.
+ */
+final class FrameReader {
+
+    static final class InboundFrame {
+        final String       command;
+        final int          id;
+        final List<byte[]> args;
+        final long         timeout;
+
+        InboundFrame(final String command, final int id, final List<byte[]> args, final long timeout) {
+            this.command = command;
+            this.id      = id;
+            this.args    = args;
+            this.timeout = timeout;
+        }
+    }
+
+    private final ReadableByteChannel channel;
+    private final InputStream         in;
+    private final BufferPool          pool;
+    private ByteBuffer                buffer;
+    private boolean                   frameStarted;
+    private volatile IntConsumer      progressListener;
+
+    FrameReader(final ReadableByteChannel channel) {
+        this.channel = channel;
+        this.in      = null;
+        this.pool    = BufferPool.DIRECT;
+        this.buffer  = pool.acquire();
+        // start with an empty buffer in read mode
+        ((Buffer) buffer).flip();
+    }
+
+    FrameReader(final InputStream in) {
+        this.channel = null;
+        this.in      = in;
+        this.pool    = BufferPool.HEAP;
+        this.buffer  = pool.acquire();
+        ((Buffer) buffer).flip();
+    }
+
+    /**
+     * Sets the listener to be notified of the number of bytes whenever bytes
+     * have been received, even if the frame they belong to is still incomplete.
+     */
+    void setProgressListener(final IntConsumer progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Reads the next frame. A {@link SocketTimeoutException} is only propagated
+     * if it occurs before any byte of the frame has been received.
+     */
+    InboundFrame readFrame() throws IOException {
+        // bytes left over from the previous read already belong to this frame
+        frameStarted = buffer.hasRemaining();
+
+        final String  command    = readUTF();
+        final int     id         = readInt();
+        final int     counter    = readShort() & 0xFFFF;
+        final boolean hasTimeout = (counter & OutboundFrame.TIMEOUT_FLAG) != 0;
+        final int     count      = counter & ~OutboundFrame.TIMEOUT_FLAG;
+
+        final List<byte[]> args = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final int length = readInt();
+            if (length < 0) {
+                throw new IOException("Invalid Socket RPC argument length: " + length);
+            }
+            final byte[] data = new byte[length];
+            readFully(data);
+            args.add(data);
+        }
+        final long timeout = hasTimeout ? readLong() : 0;
+        return new InboundFrame(command, id, args, timeout);
+    }
+
+    /**
+     * Returns the buffer to the pool. Must only be invoked by the reading thread
+     * as soon as it stops reading.
+     */
+    void release() {
+        final ByteBuffer current = buffer;
+        buffer = null;
+        if (current != null) {
+            pool.release(current);
+        }
+    }
+
+    private String readUTF() throws IOException {
+        final int    length = readShort() & 0xFFFF;
+        final byte[] data   = new byte[length];
+        readFully(data);
+        for (final byte b : data) {
+            if (b < 0) {
+                // fall back to modified UTF-8 decoding for non-ASCII characters
+                final byte[] encoded = new byte[length + 2];
+                encoded[0] = (byte) (length >>> 8);
+                encoded[1] = (byte) length;
+                System.arraycopy(data, 0, encoded, 2, length);
+                return new DataInputStream(new ByteArrayInputStream(encoded)).readUTF();
+            }
+        }
+        return new String(data, StandardCharsets.US_ASCII);
+    }
+
+    private int readInt() throws IOException {
+        require(4);
+        return buffer.getInt();
+    }
+
+    private long readLong() throws IOException {
+        require(8);
+        return buffer.getLong();
+    }
+
+    private short readShort() throws IOException {
+        require(2);
+        return buffer.getShort();
+    }
+
+    private void readFully(final byte[] data) throws IOException {
+        int offset = 0;
+        while (offset < data.length) {
+            if (!buffer.hasRemaining()) {
+                final int remaining = data.length - offset;
+                if (remaining >= buffer.capacity()) {
+                    // bypass the buffer for the bulk of large arguments
+                    offset += fillDirectly(data, offset, remaining);
+                    continue;
+                }
+                fill();
+            }
+            final int n = Math.min(buffer.remaining(), data.length - offset);
+            buffer.get(data, offset, n);
+            offset += n;
+        }
+    }
+
+    private void require(final int bytes) throws IOException {
+        while (buffer.remaining() < bytes) {
+            fill();
+        }
+    }
+
+    private void fill() throws IOException {
+        buffer.compact();
+        try {
+            int n;
+            do {
+                n = read(buffer);
+            } while (n == 0);
+        } finally {
+            ((Buffer) buffer).flip();
+        }
+    }
+
+    private int fillDirectly(final byte[] data, final int offset, final int length) throws IOException {
+        int n;
+        do {
+            n = read(ByteBuffer.wrap(data, offset, length));
+        } while (n == 0);
+        return n;
+    }
+
+    private int read(final ByteBuffer target) throws IOException {
+        while (true) {
+            try {
+                final int n;
+                if (channel != null) {
+                    n = channel.read(target);
+                } else if (target.hasArray()) {
+                    n = in.read(target.array(), target.arrayOffset() + target.position(), target.remaining());
+                    if (n > 0) {
+                        ((Buffer) target).position(target.position() + n);
+                    }
+                } else {
+                    throw new IllegalStateException("Streams require heap buffers");
+                }
+                if (n < 0) {
+                    throw new EOFException();
+                }
+                if (n > 0) {
+                    frameStarted = true;
+                    final IntConsumer listener = progressListener;
+                    if (listener != null) {
+                        listener.accept(n);
+                    }
+                }
+                return n;
+            } catch (final SocketTimeoutException e) {
+                if (!frameStarted) {
+                    throw e;
+                }
+                // a partially received frame must be completed
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Interrupted while receiving Socket RPC");
+                }
+            }
+        }
+    }
+
+}
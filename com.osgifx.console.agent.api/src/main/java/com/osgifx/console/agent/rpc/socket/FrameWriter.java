@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.rpc.socket;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+import com.osgifx.console.agent.rpc.RpcCompression;
+
+/**
+ * Writes the outbound frames of a connection in a dedicated thread.
+ * <p>
+ * The senders only encode their frames and put them into a bounded queue, so a
+ * large frame doesn't block other senders while it is being written. The
+ * writer drains all queued frames at once and writes them with a single
+ * gathering write. Senders are blocked as soon as the queue is full, i.e. the
+ * peer doesn't keep up with reading.
+ * <p>
+ * Small control frames like the heartbeat can be put ahead of the queued
+ * frames without blocking, such that they are not delayed by a backlog of
+ * large frames.
+ */
+final class FrameWriter implements Runnable {
+
+    private static final int  MAX_QUEUED_FRAMES      = 256;
+    private static final int  MAX_FRAMES_PER_WRITE   = 64;
+    private static final long POLL_TIMEOUT_IN_MILLIS = 100L;
+    private static final int  STREAM_BUFFER_SIZE     = 64 * 1024;
+
+    private final GatheringByteChannel         channel;
+    private final OutputStream                 out;
+    private final BlockingDeque<OutboundFrame> queue    = new LinkedBlockingDeque<>();
+    private final Semaphore                    capacity = new Semaphore(MAX_QUEUED_FRAMES);
+    private final String                       name;
+    private volatile boolean                   closed;
+    private volatile Consumer<String>          failureHandler;
+    private volatile RpcCompression            compression;
+
+    FrameWriter(final GatheringByteChannel channel, final String name) {
+        this.channel = channel;
+        this.out     = null;
+        this.name    = name;
+    }
+
+    FrameWriter(final OutputStream out, final String name) {
+        this.channel = null;
+        this.out     = new BufferedOutputStream(out, STREAM_BUFFER_SIZE);
+        this.name    = name;
+    }
+
+    BufferPool pool() {
+        return channel != null ? BufferPool.DIRECT : BufferPool.HEAP;
+    }
+
+    void start(final Consumer<String> failureHandler, final RpcCompression compression) {
+        this.failureHandler = failureHandler;
+        this.compression    = compression;
+
+        final Thread thread = new Thread(this, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues the specified frame. The caller is blocked while the queue is full.
+     *
+     * @throws IOException if the writer has been closed
+     */
+    void write(final OutboundFrame frame) throws IOException {
+        try {
+            while (!capacity.tryAcquire(POLL_TIMEOUT_IN_MILLIS, MILLISECONDS)) {
+                if (closed) {
+                    frame.release();
+                    throw new IOException("Socket RPC has been closed");
+                }
+            }
+        } catch (final InterruptedException e) {
+            frame.release();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while sending Socket RPC");
+        }
+        queue.offerLast(frame);
+        checkOpen(frame);
+    }
+
+    /**
+     * Queues the specified frame ahead of all queued frames. The caller is
+     * never blocked, hence this is only meant for a few small control frames.
+     *
+     * @throws IOException if the writer has been closed
+     */
+    void writeAhead(final OutboundFrame frame) throws IOException {
+        frame.ahead = true;
+        queue.offerFirst(frame);
+        checkOpen(frame);
+    }
+
+    private void checkOpen(final OutboundFrame frame) throws IOException {
+        if (closed && queue.remove(frame)) {
+            dequeued(frame);
+            frame.release();
+            throw new IOException("Socket RPC has been closed");
+        }
+    }
+
+    private void dequeued(final OutboundFrame frame) {
+        if (!frame.ahead) {
+            capacity.release();
+        }
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    @Override
+    public void run() {
+        final List<OutboundFrame> batch = new ArrayList<>(MAX_FRAMES_PER_WRITE);
+        try {
+            while (!closed) {
+                final OutboundFrame frame = queue.pollFirst(POLL_TIMEOUT_IN_MILLIS, MILLISECONDS);
+                if (frame == null) {
+                    continue;
+                }
+                batch.add(frame);
+                queue.drainTo(batch, MAX_FRAMES_PER_WRITE - 1);
+                batch.forEach(this::dequeued);
+                write(batch);
+                batch.forEach(OutboundFrame::release);
+                batch.clear();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final IOException e) {
+            final Consumer<String> handler = failureHandler;
+            if (!closed && handler != null) {
+                handler.accept("Connection has been lost: " + e);
+            }
+        } finally {
+            closed = true;
+            batch.forEach(OutboundFrame::release);
+            OutboundFrame frame;
+            while ((frame = queue.poll()) != null) {
+                frame.release();
+            }
+        }
+    }
+
+    private void write(final List<OutboundFrame> frames) throws IOException {
+        final List<ByteBuffer> buffers = new ArrayList<>();
+        for (final OutboundFrame frame : frames) {
+            for (final ByteBuffer buffer : frame.buffers()) {
+                buffers.add(buffer);
+            }
+        }
+        final ByteBuffer[] array = buffers.toArray(new ByteBuffer[0]);
+        long               bytes = 0;
+        for (final ByteBuffer buffer : array) {
+            bytes += buffer.remaining();
+        }
+        // recorded upfront as the peer might acknowledge them before the write returns
+        compression.recordSent(bytes);
+        if (channel != null) {
+            int offset = 0;
+            while (offset < array.length) {
+                channel.write(array, offset, array.length - offset);
+                while (offset < array.length && !array[offset].hasRemaining()) {
+                    offset++;
+                }
+            }
+        } else {
+            // heap buffers are only used for streams
+            for (final ByteBuffer buffer : array) {
+                out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            }
+            out.flush();
+        }
+    }
+
+}
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.rpc.socket;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.osgifx.console.agent.rpc.RpcCompression;
+
+/**
+ * A frame to be sent to the peer. The frame is encoded into pooled buffers
+ * that are written to the socket as they are (gathering write) and returned
+ * to the pool afterwards.
+ * <p>
+ * The wire format is the same as the one of {@link java.io.DataOutputStream}:
+ * the command (modified UTF-8), the message ID ({@code int}), the number of
+ * arguments ({@code short}) followed by every argument as its length
+ * ({@code int}) and its bytes. Byte arrays are sent as they are while all
+ * other values are sent as deflated JSON.
+ * <p>
+ * The number of arguments of a call carrying a deadline is flagged with
+ * {@link #TIMEOUT_FLAG} and the arguments are followed by the timeout of the
+ * call in milliseconds ({@code long}). Such frames must only be sent to peers
+ * that have advertised to understand them.
+ */
+final class OutboundFrame {
+
+    /** Flags the number of arguments of a frame that is followed by a timeout */
+    static final int TIMEOUT_FLAG = 0x8000;
+
+    /** The encoded commands as the set of commands (method names) is small */
+    private static final Map<String, byte[]> commands = new ConcurrentHashMap<>();
+
+    private final BufferPool       pool;
+    private final List<ByteBuffer> pooled  = new ArrayList<>();
+    private final List<ByteBuffer> content = new ArrayList<>();
+    private long                   size;
+
+    /** Whether the frame has been queued ahead of the other frames */
+    boolean ahead;
+
+    private OutboundFrame(final BufferPool pool) {
+        this.pool = pool;
+    }
+
+    static OutboundFrame encode(final BufferPool pool,
+                                final RpcCompression compression,
+                                final String command,
+                                final int id,
+                                final Object[] values) throws Exception {
+        return encode(pool, compression, command, id, values, 0);
+    }
+
+    /**
+     * Encodes a frame
+     *
+     * @param timeoutInMillis the timeout of the call to be carried in the frame
+     *            or {@code 0} to carry none
+     */
+    static OutboundFrame encode(final BufferPool pool,
+                                final RpcCompression compression,
+                                final String command,
+                                final int id,
+                                final Object[] values,
+                                final long timeoutInMillis) throws Exception {
+        final OutboundFrame frame = new OutboundFrame(pool);
+        try {
+            frame.write(compression, command, id, values, timeoutInMillis);
+        } catch (final Exception e) {
+            frame.release();
+            throw e;
+        }
+        return frame;
+    }
+
+    ByteBuffer[] buffers() {
+        return content.toArray(new ByteBuffer[0]);
+    }
+
+    long size() {
+        return size;
+    }
+
+    void release() {
+        pooled.forEach(pool::release);
+        pooled.clear();
+        content.clear();
+    }
+
+    private void write(final RpcCompression compression,
+                       final String command,
+                       final int id,
+                       final Object[] values,
+                       final long timeoutInMillis) throws Exception {
+        final byte[]  encodedCommand = commands.computeIfAbsent(command, OutboundFrame::encodeCommand);
+        final boolean hasTimeout     = timeoutInMillis > 0;
+        final int     headerSize     = encodedCommand.length + 4 + 2 + values.length * 4 + (hasTimeout ? 8 : 0);
+
+        ByteBuffer header;
+        if (headerSize <= BufferPool.BUFFER_SIZE) {
+            header = pool.acquire();
+            pooled.add(header);
+        } else {
+            header = ByteBuffer.allocate(headerSize);
+        }
+        header.put(encodedCommand);
+        header.putInt(id);
+        header.putShort((short) (hasTimeout ? values.length | TIMEOUT_FLAG : values.length));
+
+        int regionStart = 0;
+        for (final Object value : values) {
+            if (value instanceof byte[]) {
+                final byte[] data = (byte[]) value;
+                header.putInt(data.length);
+                regionStart = addRegion(header, regionStart);
+                addContent(ByteBuffer.wrap(data));
+            } else {
+                final BufferOutputStream out = new BufferOutputStream();
+                compression.encode(value, out);
+                header.putInt(out.size);
+                regionStart = addRegion(header, regionStart);
+                for (final ByteBuffer buffer : out.buffers) {
+                    // cast for Java 8 compatibility as ByteBuffer overrides the method since Java 9
+                    ((Buffer) buffer).flip();
+                    addContent(buffer);
+                }
+            }
+        }
+        if (hasTimeout) {
+            header.putLong(timeoutInMillis);
+        }
+        addRegion(header, regionStart);
+    }
+
+    /**
+     * Adds the region of the header that has been written since the previous
+     * region as a view such that the header buffer is shared by all regions.
+     */
+    private int addRegion(final ByteBuffer header, final int regionStart) {
+        final int regionEnd = header.position();
+        if (regionEnd > regionStart) {
+            final ByteBuffer region = header.duplicate();
+            ((Buffer) region).limit(regionEnd);
+            ((Buffer) region).position(regionStart);
+            addContent(region);
+        }
+        return regionEnd;
+    }
+
+    private void addContent(final ByteBuffer buffer) {
+        content.add(buffer);
+        size += buffer.remaining();
+    }
+
+    private static byte[] encodeCommand(final String command) {
+        try {
+            final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+            new DataOutputStream(bout).writeUTF(command);
+            return bout.toByteArray();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes into a chain of pooled buffers which become part of the frame
+     */
+    private final class BufferOutputStream extends OutputStream {
+
+        private final List<ByteBuffer> buffers = new ArrayList<>();
+        private ByteBuffer             current;
+        private int                    size;
+
+        @Override
+        public void write(final int b) {
+            ensureRemaining();
+            current.put((byte) b);
+            size++;
+        }
+
+        @Override
+        public void write(final byte[] b, int off, int len) {
+            while (len > 0) {
+                ensureRemaining();
+                final int n = Math.min(len, current.remaining());
+                current.put(b, off, n);
+                off  += n;
+                len  -= n;
+                size += n;
+            }
+        }
+
+        private void ensureRemaining() {
+            if (current == null || !current.hasRemaining()) {
+                current = pool.acquire();
+                pooled.add(current);
+                buffers.add(current);
+            }
+        }
+    }
+
+}
@@ -15,12 +15,10 @@
  ******************************************************************************/
 package com.osgifx.console.agent.rpc.socket;
 
-import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -28,51 +26,73 @@ import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
-import java.util.ArrayList;
+import java.nio.channels.SocketChannel;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import com.j256.simplelogging.FluentLogger;
 import com.j256.simplelogging.LoggerFactory;
 import com.osgifx.console.agent.Agent;
 import com.osgifx.console.agent.rpc.RemoteRPC;
+import com.osgifx.console.agent.rpc.RpcCall;
+import com.osgifx.console.agent.rpc.RpcCompression;
+import com.osgifx.console.agent.rpc.RpcHeartbeat;
+import com.osgifx.console.agent.rpc.socket.FrameReader.InboundFrame;
 
 import aQute.bnd.exceptions.Exceptions;
-import aQute.lib.json.JSONCodec;
 
 public class SocketRPC<L, R> extends Thread implements Closeable, RemoteRPC<L, R> {
 
-    private final DataInputStream         in;
-    private final DataOutputStream        out;
-    private final AtomicInteger           id       = new AtomicInteger(10_000);
-    private final Map<Integer, RpcResult> promises = new ConcurrentHashMap<>();
-    private final AtomicBoolean           stopped  = new AtomicBoolean();
-    private final ThreadLocal<Integer>    msgId    = new ThreadLocal<>();
-    private final FluentLogger            logger   = LoggerFactory.getFluentLogger(getClass());
+    private static final long RESULT_TIMEOUT_IN_MILLIS = 300_000L;
+    private static final long ASSUMED_THROUGHPUT       = 12_500_000L; // 100 Mbit/s until measured
+
+    private final FrameReader                                reader;
+    private final FrameWriter                                writer;
+    private final Closeable                                  connection;
+    private final AtomicInteger                              id       = new AtomicInteger(10_000);
+    private final Map<Integer, CompletableFuture<RpcResult>> promises = new ConcurrentHashMap<>();
+    private final AtomicBoolean                              stopped  = new AtomicBoolean();
+    private final ThreadLocal<Integer>                       msgId    = new ThreadLocal<>();
+    private final FluentLogger                               logger   = LoggerFactory.getFluentLogger(getClass());
 
     private L              local;
     private R              remote;
     private final Class<R> remoteClass;
 
-    private ExecutorService executor;
+    private ExecutorService           executor;
+    private final RpcHeartbeat        heartbeat;
+    private final RpcCompression      compression;
+    private final RpcCall.Registry    calls = new RpcCall.Registry();
+    private volatile Consumer<String> linkListener;
 
     private static class RpcResult {
-        boolean resolved;
-        byte[]  value;
-        boolean exception;
+        final byte[]  value;
+        final boolean exception;
+
+        RpcResult(final byte[] value, final boolean exception) {
+            this.value     = value;
+            this.exception = exception;
+        }
     }
 
+    /**
+     * Sockets backed by a channel, i.e. plain sockets, transfer the frames
+     * through the channel whereas all other sockets, i.e. SSL sockets, fall back
+     * to their streams.
+     */
     public SocketRPC(final Class<R> remoteClass,
                      final L local,
                      final Socket socket,
                      final ExecutorService executor) throws IOException {
-        this(remoteClass, local, new DataInputStream(socket.getInputStream()),
-             new DataOutputStream(socket.getOutputStream()), executor);
+        this(remoteClass, local, reader(socket), writer(socket, remoteClass), socket, executor);
     }
 
     public SocketRPC(final Class<R> remoteClass,
@@ -80,22 +100,67 @@ public class SocketRPC<L, R> extends Thread implements Closeable, RemoteRPC<L, R
                      final InputStream in,
                      final OutputStream out,
                      final ExecutorService executor) {
-        this(remoteClass, local, new DataInputStream(in), new DataOutputStream(out), executor);
+        this(remoteClass, local, new FrameReader(in), new FrameWriter(out, writerName(remoteClass)), () -> {
+            try {
+                in.close();
+            } finally {
+                out.close();
+            }
+        }, executor);
     }
 
     @SuppressWarnings("unchecked")
-    public SocketRPC(final Class<R> remoteClass,
-                     final L local,
-                     final DataInputStream in,
-                     final DataOutputStream out,
-                     final ExecutorService executor) {
+    private SocketRPC(final Class<R> remoteClass,
+                      final L local,
+                      final FrameReader reader,
+                      final FrameWriter writer,
+                      final Closeable connection,
+                      final ExecutorService executor) {
         super("fx-agent-rpc::" + remoteClass.getName());
         setDaemon(true);
         this.remoteClass = remoteClass;
         this.local       = local == null ? (L) this : local;
-        this.in          = new DataInputStream(in);
-        this.out         = new DataOutputStream(out);
+        this.reader      = reader;
+        this.writer      = writer;
+        this.connection  = connection;
         this.executor    = executor;
+        this.heartbeat   = new RpcHeartbeat(new RpcHeartbeat.Link() {
+
+            @Override
+            public void sendControl(final String command, final byte[] payload) throws Exception {
+                // queued ahead of the pending frames without blocking the shared heartbeat thread
+                writer.writeAhead(OutboundFrame.encode(writer.pool(), compression, command, 0,
+                                                       new Object[] { payload }));
+            }
+
+            @Override
+            public void linkDead(final String reason) {
+                terminate(reason);
+            }
+        });
+        this.compression = new RpcCompression(this::writeControlAhead, ASSUMED_THROUGHPUT);
+        // any received byte is a sign of life, even if a large frame is still incomplete
+        reader.setProgressListener(bytes -> {
+            heartbeat.received();
+            compression.recordReceived(bytes);
+        });
+    }
+
+    private static FrameReader reader(final Socket socket) throws IOException {
+        final SocketChannel channel = socket.getChannel();
+        return channel != null ? new FrameReader(channel) : new FrameReader(socket.getInputStream());
+    }
+
+    private static FrameWriter writer(final Socket socket, final Class<?> remoteClass) throws IOException {
+        // frames are written at once, so there is no benefit in delaying them
+        socket.setTcpNoDelay(true);
+        final SocketChannel channel = socket.getChannel();
+        final String        name    = writerName(remoteClass);
+        return channel != null ? new FrameWriter(channel, name) : new FrameWriter(socket.getOutputStream(), name);
+    }
+
+    private static String writerName(final Class<?> remoteClass) {
+        return "fx-agent-rpc-writer::" + remoteClass.getName();
     }
 
     @Override
@@ -103,16 +168,23 @@ public class SocketRPC<L, R> extends Thread implements Closeable, RemoteRPC<L, R
         if (isAlive()) {
             throw new IllegalStateException("Socket RPC is already running");
         }
-        if (in != null) {
-            start();
-        }
+        start();
+        heartbeat.start();
+        compression.start();
     }
 
     @Override
     public void close() throws IOException {
+        shutdown();
+    }
+
+    private boolean shutdown() {
         if (stopped.getAndSet(true)) {
-            return; // already closed
+            return false; // already closed
         }
+        heartbeat.stop();
+        calls.cancelAll();
+        failPendingCalls();
         if (local instanceof Closeable) {
             try {
                 ((Closeable) local).close();
@@ -120,21 +192,14 @@ public class SocketRPC<L, R> extends Thread implements Closeable, RemoteRPC<L, R
                 // nothing to do
             }
         }
-        if (in != null) {
-            try {
-                in.close();
-            } catch (final Exception e) {
-                // nothing to do
-            }
-        }
-        if (out != null) {
-            try {
-                out.close();
-            } catch (final Exception e) {
-                // nothing to do
-            }
+        writer.close();
+        try {
+            connection.close();
+        } catch (final Exception e) {
+            // nothing to do
         }
         executor.shutdownNow();
+        return true;
     }
 
     @Override
@@ -151,22 +216,29 @@ public class SocketRPC<L, R> extends Thread implements Closeable, RemoteRPC<L, R
                                 final Object hash = new Object();
                                 return method.invoke(hash, args);
                             }
-                            int msgId;
+                            final boolean isVoid  = method.getReturnType() == void.class;
+                            final long    timeout = RpcCall.timeout(RESULT_TIMEOUT_IN_MILLIS);
+                            final int     msgId   = id.getAndIncrement();
                             try {
-                                msgId = send(id.getAndIncrement(), method, args);
-                                if (method.getReturnType() == void.class) {
+                                send(msgId, method, args, isVoid ? 0 : timeout);
+                                if (isVoid) {
                                     promises.remove(msgId);
                                     return null;
                                 }
+                            } catch (final InterruptedIOException e1) {
+                                // interrupted while the queue is full, hence the call has not been sent
+                                promises.remove(msgId);
+                                throw e1;
                             } catch (final Exception e1) {
                                 terminate();
                                 return null;
                             }
-                            return waitForResult(msgId, method.getGenericReturnType());
+                            return waitForResult(msgId, method.getGenericReturnType(), timeout);
                         } catch (final InvocationTargetException e2) {
                             throw Exceptions.unrollCause(e2, InvocationTargetException.class);
                         } catch (final InterruptedException e3) {
-                            interrupt();
+                            // only the call gets cancelled, not the whole link
+                            Thread.currentThread().interrupt();
                             throw e3;
                         } catch (final Exception e4) {
                             throw e4;
@@ -181,19 +253,46 @@ public class SocketRPC<L, R> extends Thread implements Closeable, RemoteRPC<L, R
         return !stopped.get();
     }
 
+    @Override
+    public long roundTripTime() {
+        return heartbeat.roundTripTime();
+    }
+
+    @Override
+    public void setLinkListener(final Consumer<String> listener) {
+        linkListener = listener;
+    }
+
     @Override
     public void run() {
+        writer.start(this::terminate, compression);
+        try {
+            // the agent only runs the endpoint without opening it, hence advertised here
+            writeControl(RpcCall.DEADLINES, new byte[0]);
+        } catch (final Exception e) {
+            // a broken link is detected separately
+        }
+        try {
+            receive();
+        } finally {
+            reader.release();
+        }
+    }
+
+    private void receive() {
         while (!isInterrupted() && !stopped.get()) {
             try {
-                final String       cmd   = in.readUTF();
-                final int          id    = in.readInt();
-                final int          count = in.readShort();
-                final List<byte[]> args  = new ArrayList<>(count);
-                for (int i = 0; i < count; i++) {
-                    final int    length = in.readInt();
-                    final byte[] data   = new byte[length];
-                    in.readFully(data);
-                    args.add(data);
+                final InboundFrame frame = reader.readFrame();
+                final String       cmd   = frame.command;
+                final int          id    = frame.id;
+                final List<byte[]> args  = frame.args;
+                final byte[] control = args.isEmpty() ? null : args.get(0);
+                if (heartbeat.handle(cmd, control) || calls.handle(cmd, control)
+                        || compression.handle(cmd, control)) {
+                    continue;
+                }
+                if (!cmd.isEmpty()) {
+                    calls.received(id, frame.timeout);
                 }
                 final Runnable r = () -> {
                     try {
@@ -208,17 +307,30 @@ public class SocketRPC<L, R> extends Thread implements Closeable, RemoteRPC<L, R
             } catch (final SocketTimeoutException ee) {
                 // Ignore, just to allow polling the actors again
             } catch (final Exception ee) {
-                terminate();
+                terminate("Connection has been lost: " + ee);
                 return;
             }
         }
     }
 
     protected void terminate() {
-        try {
-            close();
-        } catch (final IOException e) {
-            // nothing to do
+        terminate("Connection has been terminated");
+    }
+
+    private void terminate(final String reason) {
+        if (!shutdown()) {
+            return;
+        }
+        trace("Terminated Socket RPC: " + reason);
+        final Consumer<String> listener = linkListener;
+        if (listener != null) {
+            listener.accept(reason);
+        }
+    }
+
+    private void failPendingCalls() {
+        for (final CompletableFuture<RpcResult> result : promises.values()) {
+            result.complete(new RpcResult(null, false));
         }
     }
 
@@ -234,91 +346,90 @@ public class SocketRPC<L, R> extends Thread implements Closeable, RemoteRPC<L, R
         return null;
     }
 
-    private int send(final int msgId, final Method m, Object[] values) throws Exception {
+    private int send(final int msgId, final Method m, final Object[] values) throws Exception {
+        return send(msgId, m, values, 0);
+    }
+
+    private int send(final int msgId, final Method m, Object[] values, final long timeout) throws Exception {
         if (m != null) {
-            promises.put(msgId, new RpcResult());
+            promises.put(msgId, new CompletableFuture<>());
         }
         trace("Sending Socket RPC");
-        synchronized (out) {
-            out.writeUTF(m != null ? m.getName() : "");
-            out.writeInt(msgId);
-            if (values == null) {
-                values = new String[] {};
-            }
-            out.writeShort(values.length);
-            for (final Object value : values) {
-                if (value instanceof byte[]) {
-                    final byte[] data = (byte[]) value;
-                    out.writeInt(data.length);
-                    out.write(data);
-                } else {
-                    final ByteArrayOutputStream bout = new ByteArrayOutputStream();
-                    new JSONCodec().enc().deflate().to(bout).put(value);
-                    final byte[] data = bout.toByteArray();
-                    out.writeInt(data.length);
-                    out.write(data);
-                }
-            }
-            out.flush();
-            trace("Sent Socket RPC");
+        if (values == null) {
+            values = new String[] {};
         }
+        final String command  = m != null ? m.getName() : "";
+        final long   deadline = calls.isDeadlineSupported() ? timeout : 0;
+        // encode outside of any lock such that concurrent senders don't wait for each other
+        writer.write(OutboundFrame.encode(writer.pool(), compression, command, msgId, values, deadline));
+        trace("Sent Socket RPC");
         return msgId;
     }
 
+    private void writeControl(final String command, final byte[] payload) throws Exception {
+        writer.write(OutboundFrame.encode(writer.pool(), compression, command, 0, new Object[] { payload }));
+    }
+
+    private void writeControlAhead(final String command, final byte[] payload) throws Exception {
+        // acknowledgements must not queue behind the data whose throughput they measure
+        writer.writeAhead(OutboundFrame.encode(writer.pool(), compression, command, 0, new Object[] { payload }));
+    }
+
     private void response(int msgId, final byte[] data) {
         boolean exception = false;
         if (msgId < 0) {
             msgId     = -msgId;
             exception = true;
         }
-        final RpcResult result = promises.get(msgId);
+        final CompletableFuture<RpcResult> result = promises.get(msgId);
         if (result != null) {
-            synchronized (result) {
-                trace("Resolved Socket RPC");
-                result.value     = data;
-                result.exception = exception;
-                result.resolved  = true;
-                result.notifyAll();
-            }
+            trace("Resolved Socket RPC");
+            result.complete(new RpcResult(data, exception));
         }
     }
 
     @SuppressWarnings("unchecked")
-    private <T> T waitForResult(final int id, final Type type) throws Exception {
-        final long      deadlineInMillis = 300_000L;
-        final long      startInNanos     = System.nanoTime();
-        final RpcResult result           = promises.get(id);
+    private <T> T waitForResult(final int id, final Type type, final long timeout) throws Exception {
+        // a future parks the waiting thread, so a virtual thread is not pinned as by a monitor
+        final CompletableFuture<RpcResult> promise = promises.get(id);
         try {
-            do {
-                synchronized (result) {
-                    if (result.resolved) {
-                        if (result.value == null) {
-                            return null;
-                        }
-                        if (result.exception) {
-                            final String msg = new JSONCodec().dec().inflate().from(result.value).get(String.class);
-                            trace("Exception during agent communication: " + msg);
-                            throw new RuntimeException(msg);
-                        }
-                        if (type == byte[].class) {
-                            return (T) result.value;
-                        }
-                        return (T) new JSONCodec().dec().inflate().from(result.value).get(type);
-                    }
-                    long elapsedInNanos = System.nanoTime() - startInNanos;
-                    long delayInMillis  = deadlineInMillis - TimeUnit.NANOSECONDS.toMillis(elapsedInNanos);
-                    if (delayInMillis <= 0L) {
-                        return null;
-                    }
-                    trace("Start Delay (Socket RPC)" + delayInMillis);
-                    result.wait(delayInMillis);
-                    elapsedInNanos = System.nanoTime() - startInNanos;
-                    delayInMillis  = deadlineInMillis - TimeUnit.NANOSECONDS.toMillis(elapsedInNanos);
-                    trace("End Delay (Socket RPC)" + delayInMillis);
-                }
-            } while (true);
+            final RpcResult result;
+            try {
+                trace("Start Delay (Socket RPC)" + timeout);
+                result = promise.get(timeout, TimeUnit.MILLISECONDS);
+            } catch (final TimeoutException e) {
+                return null;
+            }
+            if (result.value == null) {
+                return null;
+            }
+            if (result.exception) {
+                final String msg = compression.decode(result.value, String.class);
+                trace("Exception during agent communication: " + msg);
+                throw new RuntimeException(msg);
+            }
+            if (type == byte[].class) {
+                return (T) result.value;
+            }
+            return compression.decode(result.value, type);
         } finally {
             promises.remove(id);
+            if (!promise.isDone()) {
+                // let the peer stop the work nobody waits for anymore
+                cancelCall(id);
+            }
+        }
+    }
+
+    private void cancelCall(final int id) {
+        if (stopped.get()) {
+            return;
+        }
+        try {
+            writeControl(RpcCall.CANCEL, RpcCall.cancel(id));
+            trace("Cancelled Socket RPC: " + id);
+        } catch (final Exception e) {
+            // a broken link is detected separately
         }
     }
 
@@ -333,37 +444,48 @@ public class SocketRPC<L, R> extends Thread implements Closeable, RemoteRPC<L, R
         if (cmd.isEmpty()) {
             response(id, args.get(0));
         } else {
-            final Method m = getMethod(cmd, args.size());
-            if (m == null) {
-                return;
-            }
-            final Object[] parameters = new Object[args.size()];
-            for (int i = 0; i < args.size(); i++) {
-                final Class<?> type = m.getParameterTypes()[i];
-                if (type == byte[].class) {
-                    parameters[i] = args.get(i);
-                } else {
-                    parameters[i] = new JSONCodec().dec().inflate().from(args.get(i))
-                            .get(m.getGenericParameterTypes()[i]);
-                }
-            }
             try {
-                final Object result = m.invoke(local, parameters);
-                if (m.getReturnType() == void.class) {
+                if (!calls.begin(id)) {
+                    trace("Skipped abandoned Socket RPC: " + cmd);
                     return;
                 }
-                try {
-                    send(id, null, new Object[] { result });
-                } catch (final Exception e) {
-                    terminate();
+                final Method m = getMethod(cmd, args.size());
+                if (m == null) {
+                    return;
+                }
+                final Object[] parameters = new Object[args.size()];
+                for (int i = 0; i < args.size(); i++) {
+                    final Class<?> type = m.getParameterTypes()[i];
+                    if (type == byte[].class) {
+                        parameters[i] = args.get(i);
+                    } else {
+                        parameters[i] = compression.decode(args.get(i), m.getGenericParameterTypes()[i]);
+                    }
                 }
-            } catch (Throwable t) {
-                t = Exceptions.unrollCause(t, InvocationTargetException.class);
                 try {
-                    send(-id, null, new Object[] { t + "" });
-                } catch (final Exception e) {
-                    terminate();
+                    final Object result = m.invoke(local, parameters);
+                    if (m.getReturnType() == void.class) {
+                        return;
+                    }
+                    if (RpcCall.isAbandoned()) {
+                        trace("Discarded result of abandoned Socket RPC: " + cmd);
+                        return;
+                    }
+                    try {
+                        send(id, null, new Object[] { result });
+                    } catch (final Exception e) {
+                        terminate();
+                    }
+                } catch (Throwable t) {
+                    t = Exceptions.unrollCause(t, InvocationTargetException.class);
+                    try {
+                        send(-id, null, new Object[] { t + "" });
+                    } catch (final Exception e) {
+                        terminate();
+                    }
                 }
+            } finally {
+                calls.end(id);
             }
         }
     }
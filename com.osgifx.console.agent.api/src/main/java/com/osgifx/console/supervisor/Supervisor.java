@@ -15,11 +15,15 @@
  ******************************************************************************/
 package com.osgifx.console.supervisor;
 
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
 import org.osgi.annotation.versioning.ProviderType;
 
 import com.osgifx.console.agent.Agent;
 import com.osgifx.console.agent.dto.XEventDTO;
 import com.osgifx.console.agent.dto.XLogEntryDTO;
+import com.osgifx.console.agent.rpc.RpcCall;
 
 /**
  * A Supervisor handles the initiating side of a session with a remote agent.
@@ -141,4 +145,22 @@ public interface Supervisor {
      * @return the agent
      */
     Agent getAgent();
+
+    /**
+     * Executes the specified task such that the agent calls it issues from the
+     * current thread wait for their results for at most the specified timeout
+     * instead of the default timeout of the connection. The timeout is carried
+     * to the agent as the deadline of the calls, so the agent stops working on
+     * calls nobody waits for anymore. Interrupting the calling thread cancels
+     * the pending call.
+     *
+     * @param timeout the time to wait for the result of each call (cannot be
+     *            {@code null})
+     * @param task the task issuing the agent calls (cannot be {@code null})
+     * @return the result of the task
+     * @throws Exception if the task fails
+     */
+    default <T> T callWithTimeout(final Duration timeout, final Callable<T> task) throws Exception {
+        return RpcCall.withTimeout(timeout.toMillis(), task);
+    }
 }
@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.rpc;
+
+import static com.osgifx.console.agent.Agent.AGENT_RPC_COMPRESSION_MODE_KEY;
+import static com.osgifx.console.agent.Agent.AGENT_RPC_COMPRESSION_THRESHOLD_KEY;
+import static java.util.zip.Deflater.BEST_COMPRESSION;
+import static java.util.zip.Deflater.BEST_SPEED;
+import static java.util.zip.Deflater.NO_COMPRESSION;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Test;
+
+public final class RpcCompressionTest {
+
+    private static final int LARGE = 100 * 1024;
+    private static final int CHUNK = 64 * 1024;
+
+    private final List<String> commands = new CopyOnWriteArrayList<>();
+    private final List<byte[]> payloads = new CopyOnWriteArrayList<>();
+
+    @After
+    public void clearProperties() {
+        System.clearProperty(AGENT_RPC_COMPRESSION_MODE_KEY);
+        System.clearProperty(AGENT_RPC_COMPRESSION_THRESHOLD_KEY);
+    }
+
+    @Test
+    public void deflatesLikeOlderPeersUntilThePeerAdvertised() throws Exception {
+        final RpcCompression compression = compression(1_000_000_000L);
+        final String         value       = text(LARGE);
+
+        final byte[] legacy = compression.encode(value);
+        assertEquals(0x78, legacy[0]);
+        assertEquals(value, compression.decode(legacy, String.class));
+
+        compression.handle(RpcCompression.CODEC, advertisement(false));
+        final byte[] plain = compression.encode(value);
+        assertEquals(1, plain[0]);
+        assertEquals(value, compression.decode(plain, String.class));
+    }
+
+    @Test
+    public void repliesToAdvertisementsRequestingIt() {
+        final RpcCompression compression = compression(1_000_000L);
+
+        compression.handle(RpcCompression.CODEC, advertisement(true));
+        compression.handle(RpcCompression.CODEC, advertisement(false));
+
+        assertEquals(Arrays.asList(RpcCompression.CODEC), commands);
+        assertEquals(0, payloads.get(0)[1]);
+    }
+
+    @Test
+    public void keepsPayloadsBelowTheThresholdPlain() throws Exception {
+        final RpcCompression compression = compression(100_000L);
+        compression.handle(RpcCompression.CODEC, advertisement(false));
+
+        assertEquals(NO_COMPRESSION, compression.levelOf(511));
+        assertEquals(BEST_COMPRESSION, compression.levelOf(512));
+        assertEquals(1, compression.encode("x")[0]);
+
+        System.setProperty(AGENT_RPC_COMPRESSION_THRESHOLD_KEY, "2048");
+        final RpcCompression configured = compression(100_000L);
+        assertEquals(NO_COMPRESSION, configured.levelOf(2047));
+        assertEquals(BEST_COMPRESSION, configured.levelOf(2048));
+    }
+
+    @Test
+    public void selectsTheLevelByTheThroughputOfTheLink() {
+        // plain beats the fastest level above 64 MB/s and the fastest level beats the best one above ~1.1 MB/s
+        assertEquals(NO_COMPRESSION, compression(1_000_000_000L).levelOf(LARGE));
+        assertEquals(NO_COMPRESSION, compression(70_000_000L).levelOf(LARGE));
+        assertEquals(BEST_SPEED, compression(60_000_000L).levelOf(LARGE));
+        assertEquals(BEST_SPEED, compression(1_200_000L).levelOf(LARGE));
+        assertEquals(BEST_COMPRESSION, compression(1_000_000L).levelOf(LARGE));
+        assertEquals(BEST_COMPRESSION, compression(100_000L).levelOf(LARGE));
+    }
+
+    @Test
+    public void honoursFixedModesRegardlessOfTheThroughput() {
+        final List<Integer> levels = new ArrayList<>();
+        for (final String mode : new String[] { "none", "fast", "high", "unknown" }) {
+            System.setProperty(AGENT_RPC_COMPRESSION_MODE_KEY, mode);
+            levels.add(compression(1_000_000_000L).levelOf(LARGE));
+            levels.add(compression(100_000L).levelOf(LARGE));
+        }
+        assertEquals(Arrays.asList(NO_COMPRESSION, NO_COMPRESSION, BEST_SPEED, BEST_SPEED, BEST_COMPRESSION,
+                                   BEST_COMPRESSION, NO_COMPRESSION, BEST_COMPRESSION),
+                     levels);
+    }
+
+    @Test
+    public void switchesLevelsAsAcknowledgementsRevealTheThroughput() {
+        final RpcCompression compression = compression(1_000_000_000L);
+        compression.recordSent(64L * 1024 * 1024);
+
+        // 64 KiB acknowledged every 16 ms amounts to 4 MB/s
+        long total = 0;
+        long now   = 1;
+        compression.acknowledged(total, now);
+        for (int i = 0; i < 30; i++) {
+            compression.acknowledged(total += CHUNK, now += 16_384_000L);
+        }
+        assertEquals(BEST_SPEED, compression.levelOf(LARGE));
+
+        // 64 KiB acknowledged every 655 ms amounts to 100 KB/s
+        for (int i = 0; i < 30; i++) {
+            compression.acknowledged(total += CHUNK, now += 655_360_000L);
+        }
+        assertEquals(BEST_COMPRESSION, compression.levelOf(LARGE));
+    }
+
+    @Test
+    public void ignoresIntervalsTheLinkHasBeenIdle() {
+        final RpcCompression compression = compression(1_000_000_000L);
+
+        // every chunk is sent after the previous one has been acknowledged a second later
+        long total = 0;
+        long now   = 1;
+        compression.acknowledged(total, now);
+        for (int i = 0; i < 30; i++) {
+            compression.recordSent(CHUNK);
+            compression.acknowledged(total += CHUNK, now += 1_000_000_000L);
+        }
+        assertEquals(NO_COMPRESSION, compression.levelOf(LARGE));
+    }
+
+    @Test
+    public void acknowledgesReceivedBytesInIntervals() {
+        final RpcCompression compression = compression(1_000_000L);
+
+        // older peers don't understand acknowledgements
+        compression.recordReceived(2 * CHUNK);
+        assertTrue(commands.isEmpty());
+
+        compression.handle(RpcCompression.CODEC, advertisement(false));
+        for (int i = 0; i < 20; i++) {
+            compression.recordReceived(10 * 1024);
+        }
+        assertEquals(Arrays.asList(RpcCompression.ACK, RpcCompression.ACK), commands);
+        assertEquals(2 * CHUNK + 70 * 1024, ByteBuffer.wrap(payloads.get(0)).getLong());
+        assertEquals(2 * CHUNK + 140 * 1024, ByteBuffer.wrap(payloads.get(1)).getLong());
+        assertTrue(compression.handle(RpcCompression.ACK, payloads.get(0)));
+    }
+
+    private RpcCompression compression(final long assumedThroughput) {
+        return new RpcCompression((command, payload) -> {
+            commands.add(command);
+            payloads.add(payload);
+        }, assumedThroughput);
+    }
+
+    private static byte[] advertisement(final boolean replyRequested) {
+        return ByteBuffer.allocate(6).put((byte) 1).put((byte) (replyRequested ? 1 : 0)).putInt(0).array();
+    }
+
+    private static String text(final int length) {
+        final StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            builder.append("symbolicName,version,state,");
+        }
+        return builder.toString();
+    }
+
+}
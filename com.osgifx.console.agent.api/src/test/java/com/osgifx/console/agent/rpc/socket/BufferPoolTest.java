@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.rpc.socket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public final class BufferPoolTest {
+
+    @Test
+    public void releasedBuffersAreClearedAndReused() {
+        final BufferPool pool   = new BufferPool(false, 2);
+        final ByteBuffer buffer = pool.acquire();
+        buffer.putInt(42);
+        pool.release(buffer);
+
+        final ByteBuffer reused = pool.acquire();
+        assertSame(buffer, reused);
+        assertEquals(0, reused.position());
+        assertEquals(BufferPool.BUFFER_SIZE, reused.limit());
+    }
+
+    @Test
+    public void foreignBuffersAreIgnored() {
+        final BufferPool pool    = new BufferPool(false, 2);
+        final ByteBuffer foreign = ByteBuffer.allocate(100);
+        pool.release(foreign);
+        pool.release(ByteBuffer.allocateDirect(BufferPool.BUFFER_SIZE));
+
+        final ByteBuffer buffer = pool.acquire();
+        assertNotSame(foreign, buffer);
+        assertFalse(buffer.isDirect());
+    }
+
+    @Test
+    public void directPoolFallsBackToHeapAsSoonAsCapped() {
+        final BufferPool pool   = new BufferPool(true, 2);
+        final ByteBuffer first  = pool.acquire();
+        final ByteBuffer second = pool.acquire();
+        final ByteBuffer third  = pool.acquire();
+
+        assertTrue(first.isDirect());
+        assertTrue(second.isDirect());
+        assertFalse(third.isDirect());
+        assertEquals(BufferPool.BUFFER_SIZE, third.capacity());
+
+        // the heap buffer doesn't count as direct memory in flight
+        pool.release(third);
+        pool.release(first);
+        assertSame(first, pool.acquire());
+        assertFalse(pool.acquire().isDirect());
+    }
+
+    @Test
+    public void surplusBuffersAreDropped() {
+        final BufferPool pool   = new BufferPool(false, 1);
+        final ByteBuffer first  = pool.acquire();
+        final ByteBuffer second = pool.acquire();
+        pool.release(first);
+        pool.release(second);
+
+        assertSame(first, pool.acquire());
+        assertNotSame(second, pool.acquire());
+    }
+
+}
@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.rpc.socket;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.osgifx.console.agent.rpc.socket.FrameReader.InboundFrame;
+
+public final class FrameReaderTest {
+
+    @Test
+    public void readsFramesReceivedByteByByte() throws Exception {
+        final byte[] wire = concat(frame("first", 1, bytes(10)), frame("second", -2, bytes(0), bytes(3)));
+
+        final AtomicInteger progress = new AtomicInteger();
+        final FrameReader   reader   = new FrameReader(new TricklingInputStream(wire, 1));
+        reader.setProgressListener(progress::addAndGet);
+
+        final InboundFrame first = reader.readFrame();
+        assertEquals("first", first.command);
+        assertEquals(1, first.id);
+        assertEquals(1, first.args.size());
+        assertArrayEquals(bytes(10), first.args.get(0));
+
+        final InboundFrame second = reader.readFrame();
+        assertEquals("second", second.command);
+        assertEquals(-2, second.id);
+        assertEquals(2, second.args.size());
+        assertArrayEquals(bytes(0), second.args.get(0));
+        assertArrayEquals(bytes(3), second.args.get(1));
+
+        // every partial read reports its bytes
+        assertEquals(wire.length, progress.get());
+    }
+
+    @Test
+    public void readsArgumentsLargerThanTheBuffer() throws Exception {
+        final byte[] large = bytes(3 * BufferPool.BUFFER_SIZE + 7);
+        final byte[] wire  = concat(frame("large", 7, bytes(5), large, bytes(2)), frame("next", 8));
+
+        final FrameReader stream = new FrameReader(new TricklingInputStream(wire, 5_000));
+        assertLargeFrames(stream, large);
+
+        final FrameReader channel = new FrameReader(Channels.newChannel(new ByteArrayInputStream(wire)));
+        assertLargeFrames(channel, large);
+    }
+
+    @Test
+    public void decodesNonAsciiCommands() throws Exception {
+        final FrameReader reader = new FrameReader(new ByteArrayInputStream(frame("gr\u00f6\u00dfe", 3)));
+        assertEquals("gr\u00f6\u00dfe", reader.readFrame().command);
+    }
+
+    @Test
+    public void propagatesTimeoutBeforeFrameStarted() throws Exception {
+        final TricklingInputStream in     = new TricklingInputStream(frame("ping", 1), 3);
+        final FrameReader          reader = new FrameReader(in);
+        in.timeoutAt(0);
+        try {
+            reader.readFrame();
+            fail("The timeout must be propagated");
+        } catch (final SocketTimeoutException e) {
+            // expected
+        }
+        assertEquals("ping", reader.readFrame().command);
+    }
+
+    @Test
+    public void completesFrameAfterTimeoutWithinFrame() throws Exception {
+        final TricklingInputStream in     = new TricklingInputStream(frame("ping", 1, bytes(4)), 3);
+        final FrameReader          reader = new FrameReader(in);
+        in.timeoutAt(2);
+
+        final InboundFrame frame = reader.readFrame();
+        assertEquals("ping", frame.command);
+        assertArrayEquals(bytes(4), frame.args.get(0));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsNegativeArgumentLength() throws Exception {
+        final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        final DataOutputStream      out  = new DataOutputStream(bout);
+        out.writeUTF("broken");
+        out.writeInt(1);
+        out.writeShort(1);
+        out.writeInt(-1);
+        new FrameReader(new ByteArrayInputStream(bout.toByteArray())).readFrame();
+    }
+
+    @Test(expected = EOFException.class)
+    public void failsOnTruncatedFrame() throws Exception {
+        final byte[] wire = frame("truncated", 1, bytes(100));
+        new FrameReader(new ByteArrayInputStream(Arrays.copyOf(wire, wire.length - 1))).readFrame();
+    }
+
+    private static void assertLargeFrames(final FrameReader reader, final byte[] large) throws IOException {
+        final InboundFrame frame = reader.readFrame();
+        assertEquals("large", frame.command);
+        assertEquals(3, frame.args.size());
+        assertArrayEquals(bytes(5), frame.args.get(0));
+        assertArrayEquals(large, frame.args.get(1));
+        assertArrayEquals(bytes(2), frame.args.get(2));
+
+        final InboundFrame next = reader.readFrame();
+        assertEquals("next", next.command);
+        assertTrue(next.args.isEmpty());
+        reader.release();
+    }
+
+    static byte[] frame(final String command, final int id, final byte[]... args) throws IOException {
+        final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        final DataOutputStream      out  = new DataOutputStream(bout);
+        out.writeUTF(command);
+        out.writeInt(id);
+        out.writeShort(args.length);
+        for (final byte[] arg : args) {
+            out.writeInt(arg.length);
+            out.write(arg);
+        }
+        return bout.toByteArray();
+    }
+
+    static byte[] bytes(final int length) {
+        final byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (i * 31 + length);
+        }
+        return data;
+    }
+
+    private static byte[] concat(final byte[]... parts) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (final byte[] part : parts) {
+            out.write(part, 0, part.length);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Delivers at most the specified number of bytes per read and optionally
+     * times out once at the specified read
+     */
+    private static final class TricklingInputStream extends InputStream {
+
+        private final byte[] data;
+        private final int    chunk;
+        private int          position;
+        private int          reads;
+        private int          timeoutAt = -1;
+
+        TricklingInputStream(final byte[] data, final int chunk) {
+            this.data  = data;
+            this.chunk = chunk;
+        }
+
+        void timeoutAt(final int read) {
+            timeoutAt = read;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (reads++ == timeoutAt) {
+                throw new SocketTimeoutException("Read timed out");
+            }
+            if (position == data.length) {
+                return -1;
+            }
+            final int n = Math.min(Math.min(len, chunk), data.length - position);
+            System.arraycopy(data, position, b, off, n);
+            position += n;
+            return n;
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.rpc.socket;
+
+import static com.osgifx.console.agent.rpc.socket.FrameReaderTest.bytes;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.channels.Pipe;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.osgifx.console.agent.rpc.RpcCompression;
+import com.osgifx.console.agent.rpc.socket.FrameReader.InboundFrame;
+
+public final class FrameWriterTest {
+
+    private final RpcCompression compression = new RpcCompression(FrameWriterTest::discard, 1_000_000L);
+    private final List<String>   failures    = new CopyOnWriteArrayList<>();
+    private FrameWriter          writer;
+
+    @After
+    public void closeWriter() {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    @Test
+    public void roundTripsFramesThroughChannel() throws Exception {
+        final Pipe pipe = Pipe.open();
+        writer = new FrameWriter(pipe.sink(), "test-writer");
+        writer.start(failures::add, compression);
+
+        assertRoundTrip(new FrameReader(pipe.source()));
+    }
+
+    @Test
+    public void roundTripsFramesThroughStream() throws Exception {
+        final PipedInputStream in = new PipedInputStream(64 * 1024);
+        writer = new FrameWriter(new PipedOutputStream(in), "test-writer");
+        writer.start(failures::add, compression);
+
+        assertRoundTrip(new FrameReader(in));
+    }
+
+    @Test
+    public void writesFramesAheadOfQueuedFrames() throws Exception {
+        final Pipe pipe = Pipe.open();
+        writer = new FrameWriter(pipe.sink(), "test-writer");
+        writer.write(encode("queued", 1, bytes(1)));
+        writer.write(encode("queued", 2, bytes(2)));
+        writer.writeAhead(encode("ahead", 3, bytes(3)));
+        writer.start(failures::add, compression);
+
+        final FrameReader reader = new FrameReader(pipe.source());
+        assertEquals(3, reader.readFrame().id);
+        assertEquals(1, reader.readFrame().id);
+        assertEquals(2, reader.readFrame().id);
+    }
+
+    @Test
+    public void carriesTimeoutsOfCalls() throws Exception {
+        final Pipe pipe = Pipe.open();
+        writer = new FrameWriter(pipe.sink(), "test-writer");
+        writer.start(failures::add, compression);
+        writer.write(OutboundFrame.encode(writer.pool(), compression, "call", 1, new Object[] { bytes(5) }, 30_000L));
+        writer.write(encode("call", 2, bytes(5)));
+
+        final FrameReader  reader = new FrameReader(pipe.source());
+        final InboundFrame first  = reader.readFrame();
+        assertEquals(30_000L, first.timeout);
+        assertEquals(1, first.args.size());
+        assertArrayEquals(bytes(5), first.args.get(0));
+
+        final InboundFrame second = reader.readFrame();
+        assertEquals(0L, second.timeout);
+        assertArrayEquals(bytes(5), second.args.get(0));
+    }
+
+    @Test
+    public void rejectsFramesAfterClose() throws Exception {
+        writer = new FrameWriter(Pipe.open().sink(), "test-writer");
+        writer.close();
+        try {
+            writer.write(encode("late", 1, bytes(1)));
+            fail("A closed writer must reject frames");
+        } catch (final IOException e) {
+            // expected
+        }
+    }
+
+    private void assertRoundTrip(final FrameReader reader) throws Exception {
+        final byte[] large = bytes(5 * BufferPool.BUFFER_SIZE + 3);
+        for (int id = 1; id <= 20; id++) {
+            writer.write(encode("call", id, bytes(id), "value-" + id, large));
+        }
+        for (int id = 1; id <= 20; id++) {
+            final InboundFrame frame = reader.readFrame();
+            assertEquals("call", frame.command);
+            assertEquals(id, frame.id);
+            assertEquals(3, frame.args.size());
+            assertArrayEquals(bytes(id), frame.args.get(0));
+            assertEquals("value-" + id, compression.decode(frame.args.get(1), String.class));
+            assertArrayEquals(large, frame.args.get(2));
+        }
+        reader.release();
+        assertTrue(failures.isEmpty());
+    }
+
+    private OutboundFrame encode(final String command, final int id, final Object... values) throws Exception {
+        return OutboundFrame.encode(writer.pool(), compression, command, id, values);
+    }
+
+    private static void discard(final String command, final byte[] payload) {
+        // the peer never advertises its capabilities
+    }
+
+}
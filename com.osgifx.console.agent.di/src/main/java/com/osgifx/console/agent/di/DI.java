@@ -23,11 +23,12 @@ import java.lang.reflect.Parameter;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
@@ -49,34 +50,41 @@ public final class DI {
     }
 
     /**
-     * A checklist for all class types that were requested to get instances from.
+     * The class types that are currently being instantiated by the calling thread.
+     * This is used to detect cyclic dependencies.
      */
-    private final Set<Class<?>> requestedClasses = new HashSet<>();
+    private final ThreadLocal<Set<Class<?>>> constructing = new ThreadLocal<>();
 
     /**
-     * A checklist with all class types that were successfully instantiated.
+     * A map with all classes that are marked as singleton and the actual singleton instance.
      */
-    private final Set<Class<?>> instantiableClasses = new HashSet<>();
+    private final Map<Class<?>, Object> singletonInstances = new ConcurrentHashMap<>();
 
     /**
-     * A map with all classes that are marked as singleton and the actual singleton instance.
+     * The locks guarding the creation of the singleton instances per class.
      */
-    private final Map<Class<?>, Object> singletonInstances = new HashMap<>();
+    private final Map<Class<?>, Object> singletonLocks = new ConcurrentHashMap<>();
 
     /**
      * A set of classes that are marked to be treated as singleton even if they aren't annotated as singleton.
      */
-    private final Set<Class<?>> singletonClasses = new HashSet<>();
+    private final Set<Class<?>> singletonClasses = ConcurrentHashMap.newKeySet();
 
     /**
      * This map stores the implementation type (value) that should be used for an interface type (key).
      */
-    private final Map<Class<?>, Class<?>> interfaceMappings = new HashMap<>();
+    private final Map<Class<?>, Class<?>> interfaceMappings = new ConcurrentHashMap<>();
 
     /**
      * This map stores providers for given class types.
      */
-    private final Map<Class<?>, Provider<?>> providers = new HashMap<>();
+    private final Map<Class<?>, Provider<?>> providers = new ConcurrentHashMap<>();
+
+    /**
+     * This map stores the resolved provider for every requested class type such that the resolution (and the
+     * reflective lookup of the constructor) only happens once per type. It is cleared whenever a binding changes.
+     */
+    private final Map<Class<?>, Provider<?>> resolvedProviders = new ConcurrentHashMap<>();
 
     /**
      * Get an instance of the given class type.
@@ -94,60 +102,12 @@ public final class DI {
     @SuppressWarnings("unchecked")
     private <T> T getInstance(final Class<T> requestedType, final Class<?> parent) {
         try {
-            Class<?> type = requestedType;
-
-            if (requestedType.isInterface()) {
-                if (interfaceMappings.containsKey(requestedType)) {
-                    // replace the interface type with the implementing class type.
-                    type = interfaceMappings.get(requestedType);
-                } else if (providers.containsKey(requestedType)) {
-                    return getInstanceFromProvider(requestedType);
-                } else {
-                    throw new DiException(createErrorMessageStart(requestedType)
-                            + "It is an interface and there was no implementation class mapping defined for this type. "
-                            + "Please use the 'bindInterface' method of DI to define what implementing class should be used for a given interface.");
-                }
-            }
-
-            if (isAbstractClass(requestedType)) {
-                if (providers.containsKey(requestedType)) {
-                    return getInstanceFromProvider(requestedType);
-                }
-                throw new DiException(createErrorMessageStart(requestedType)
-                        + "It is an abstract class and there is no provider for this class available. "
-                        + "Please define a provider with the `bindProvider` method for this abstract class type.");
-            }
-
-            // If a class was already requested before...
-            if (requestedClasses.contains(type)) {
-                // ... we should have been able to instantiate it in the past ...
-                if (!instantiableClasses.contains(type)) {
-
-                    // if not, this means a cyclic dependency and is an error
-                    throw new DiException(createErrorMessageStart(type) + "A cyclic dependency was detected.");
-                }
-            } else {
-                // if this class wasn't requested before we now add it to the checklist.
-                requestedClasses.add(type);
-            }
-
-            // If we have an existing singleton instance for this type...
-            if (singletonInstances.containsKey(type)) {
-                // ... we immediately return it.
-                return (T) singletonInstances.get(type);
+            Provider<?> provider = resolvedProviders.get(requestedType);
+            if (provider == null) {
+                provider = resolve(requestedType);
+                resolvedProviders.put(requestedType, provider);
             }
-
-            // check if there is a provider available
-            if (providers.containsKey(type)) {
-                final Object instanceFromProvider = getInstanceFromProvider(type);
-                markAsInstantiable(type);
-
-                if (isSingleton(type)) {
-                    singletonInstances.put(type, instanceFromProvider);
-                }
-                return (T) instanceFromProvider;
-            }
-            return (T) createNewInstance(type);
+            return (T) provider.get();
         } catch (final DiException rootCause) {
             final StringBuilder errorMessage = new StringBuilder("DI wasn't able to create your class hierarchy. ");
             if (parent != null) {
@@ -161,33 +121,65 @@ public final class DI {
     }
 
     /**
-     * Create a new instance of the given type.
+     * Resolve the provider that will be used for all the subsequent requests of the given type.
      */
-    private <T> T createNewInstance(final Class<T> type) {
-        final Constructor<T> constructor = findConstructor(type);
-        final Parameter[]    parameters  = constructor.getParameters();
-
-        // recursively get all constructor arguments
-        final List<Object> arguments = Arrays.stream(parameters).map(param -> {
-            if (param.getType().equals(Provider.class)) {
-                return getProviderArgument(param, type);
+    private Provider<?> resolve(final Class<?> requestedType) {
+        Class<?> type = requestedType;
+
+        if (requestedType.isInterface()) {
+            if (interfaceMappings.containsKey(requestedType)) {
+                // replace the interface type with the implementing class type.
+                type = interfaceMappings.get(requestedType);
+            } else if (providers.containsKey(requestedType)) {
+                return () -> getInstanceFromProvider(requestedType);
+            } else {
+                throw new DiException(createErrorMessageStart(requestedType)
+                        + "It is an interface and there was no implementation class mapping defined for this type. "
+                        + "Please use the 'bindInterface' method of DI to define what implementing class should be used for a given interface.");
             }
-            return getInstance(param.getType(), type);
-        }).collect(toList());
+        }
 
-        try {
-            final T newInstance = constructor.newInstance(arguments.toArray());
+        if (isAbstractClass(requestedType)) {
+            if (providers.containsKey(requestedType)) {
+                return () -> getInstanceFromProvider(requestedType);
+            }
+            throw new DiException(createErrorMessageStart(requestedType)
+                    + "It is an abstract class and there is no provider for this class available. "
+                    + "Please define a provider with the `bindProvider` method for this abstract class type.");
+        }
 
-            markAsInstantiable(type);
+        final Class<?>    implementationType = type;
+        final Provider<?> factory;
 
-            // when the class is marked as singleton it's instance is now added to the singleton map
-            if (isSingleton(type)) {
-                singletonInstances.put(type, newInstance);
+        // check if there is a provider available
+        if (providers.containsKey(implementationType)) {
+            factory = () -> getInstanceFromProvider(implementationType);
+        } else {
+            factory = new ConstructorPlan<>(implementationType);
+        }
+        if (isSingleton(implementationType)) {
+            return () -> getSingleton(implementationType, factory);
+        }
+        return factory;
+    }
+
+    /**
+     * Get the singleton instance of the given type which is lazily created by the given factory on first request.
+     * The creation is guarded by a lock per type such that singletons of other types (including the dependencies of
+     * this one) can be created concurrently.
+     */
+    private Object getSingleton(final Class<?> type, final Provider<?> factory) {
+        final Object instance = singletonInstances.get(type);
+        if (instance != null) {
+            return instance;
+        }
+        synchronized (singletonLocks.computeIfAbsent(type, t -> new Object())) {
+            Object singleton = singletonInstances.get(type);
+            if (singleton == null) {
+                singleton = factory.get();
+                singletonInstances.put(type, singleton);
             }
-            return newInstance;
-        } catch (final Exception e) {
-            throw new DiException(createErrorMessageStart(type) + "An Exception was thrown during the instantiation.",
-                                  e);
+            return singleton;
         }
     }
 
@@ -232,6 +224,7 @@ public final class DI {
             throw new IllegalArgumentException("The given type is an abstract class. Expecting the second argument to be an actual implementing class");
         }
         interfaceMappings.put(interfaceType, implementationType);
+        resolvedProviders.clear();
     }
 
     /**
@@ -255,6 +248,25 @@ public final class DI {
      */
     public <T> void bindProvider(final Class<T> classType, final Provider<T> provider) {
         providers.put(classType, provider);
+        resolvedProviders.clear();
+    }
+
+    /**
+     * This method is used to define a {@link jakarta.inject.Provider} for a given type whose instances are scoped.
+     * <p>
+     * The instance is lazily created by the provider when the type is requested the first time and it is reused
+     * for all subsequent requests as long as the given scope returns an equal value. As soon as the scope changes,
+     * for example, if a service which the instance depends on has been replaced, the provider is called again.
+     * <p>
+     * This is a good way to retain instances (and their caches) across requests which depend on dynamic services.
+     *
+     * @param classType the type of the class for which the provider is used.
+     * @param scope the scope that decides whether the current instance can be reused.
+     * @param provider the provider that will be called to get an instance of the given type.
+     * @param <T> the generic type of the class/interface.
+     */
+    public <T> void bindScopedProvider(final Class<T> classType, final Provider<?> scope, final Provider<T> provider) {
+        bindProvider(classType, new ScopedProvider<>(scope, provider));
     }
 
     /**
@@ -289,6 +301,7 @@ public final class DI {
             throw new IllegalArgumentException("The given type is an interface. Expecting the param to be an actual class");
         }
         singletonClasses.add(type);
+        resolvedProviders.clear();
     }
 
     /**
@@ -323,15 +336,6 @@ public final class DI {
                 + "you need to define a type parameter for this provider!");
     }
 
-    /**
-     * Mark the given type as instantiable.
-     */
-    private void markAsInstantiable(final Class<?> type) {
-        if (!instantiableClasses.contains(type)) {
-            instantiableClasses.add(type);
-        }
-    }
-
     /**
      * Check if the given class type is marked as singleton.
      */
@@ -406,4 +410,108 @@ public final class DI {
         return "DI can't create an instance of the class [" + type + "]. ";
     }
 
-}
\ No newline at end of file
+    /**
+     * The precomputed plan to instantiate a class type by constructor injection.
+     * <p>
+     * The constructor and its parameters are looked up only once such that creating an instance only needs to
+     * resolve the arguments.
+     */
+    private final class ConstructorPlan<T> implements Provider<T> {
+
+        private final Class<T>       type;
+        private final Constructor<T> constructor;
+        private final Class<?>[]     parameterTypes;
+        private final Provider<?>[]  providerArguments;
+
+        private ConstructorPlan(final Class<T> type) {
+            this.type = type;
+            constructor = findConstructor(type);
+
+            final Parameter[] parameters = constructor.getParameters();
+
+            parameterTypes    = new Class<?>[parameters.length];
+            providerArguments = new Provider<?>[parameters.length];
+
+            for (int i = 0; i < parameters.length; i++) {
+                parameterTypes[i] = parameters[i].getType();
+                if (parameterTypes[i].equals(Provider.class)) {
+                    providerArguments[i] = getProviderArgument(parameters[i], type);
+                }
+            }
+        }
+
+        @Override
+        public T get() {
+            Set<Class<?>> types = constructing.get();
+            if (types == null) {
+                types = new HashSet<>();
+                constructing.set(types);
+            }
+            if (!types.add(type)) {
+                throw new DiException(createErrorMessageStart(type) + "A cyclic dependency was detected.");
+            }
+            try {
+                // recursively get all constructor arguments
+                final Object[] arguments = new Object[parameterTypes.length];
+                for (int i = 0; i < arguments.length; i++) {
+                    arguments[i] = providerArguments[i] != null ? providerArguments[i]
+                            : getInstance(parameterTypes[i], type);
+                }
+                try {
+                    return constructor.newInstance(arguments);
+                } catch (final Exception e) {
+                    throw new DiException(createErrorMessageStart(type)
+                            + "An Exception was thrown during the instantiation.", e);
+                }
+            } finally {
+                types.remove(type);
+                if (types.isEmpty()) {
+                    constructing.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * A provider that retains the created instance as long as its scope does not change.
+     */
+    private static final class ScopedProvider<T> implements Provider<T> {
+
+        private final Provider<?>    scope;
+        private final Provider<T>    provider;
+        private volatile Scoped<T>   current;
+
+        private ScopedProvider(final Provider<?> scope, final Provider<T> provider) {
+            this.scope    = scope;
+            this.provider = provider;
+        }
+
+        @Override
+        public T get() {
+            final Object requestedScope = scope.get();
+            Scoped<T>    scoped         = current;
+            if (scoped != null && Objects.equals(scoped.scope, requestedScope)) {
+                return scoped.instance;
+            }
+            synchronized (this) {
+                scoped = current;
+                if (scoped == null || !Objects.equals(scoped.scope, requestedScope)) {
+                    scoped  = new Scoped<>(requestedScope, provider.get());
+                    current = scoped;
+                }
+                return scoped.instance;
+            }
+        }
+    }
+
+    private static final class Scoped<T> {
+
+        private final Object scope;
+        private final T      instance;
+
+        private Scoped(final Object scope, final T instance) {
+            this.scope    = scope;
+            this.instance = instance;
+        }
+    }
+}
@@ -15,7 +15,8 @@
  ******************************************************************************/
 package com.osgifx.console.agent.admin;
 
-import static java.util.function.Function.identity;
+import static com.osgifx.console.agent.rpc.RpcCall.isAbandoned;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toList;
 import static org.osgi.framework.Bundle.ACTIVE;
 import static org.osgi.framework.Bundle.INSTALLED;
@@ -36,14 +37,31 @@ import static org.osgi.framework.namespace.HostNamespace.HOST_NAMESPACE;
 import static org.osgi.framework.wiring.BundleRevision.PACKAGE_NAMESPACE;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Dictionary;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 import org.osgi.framework.Bundle;
@@ -65,17 +83,21 @@ import com.osgifx.console.agent.dto.XBundleInfoDTO;
 import com.osgifx.console.agent.dto.XPackageDTO;
 import com.osgifx.console.agent.dto.XPackageDTO.XpackageType;
 import com.osgifx.console.agent.dto.XServiceInfoDTO;
+import com.osgifx.console.agent.helper.ThreadFactoryBuilder;
 import com.osgifx.console.agent.provider.BundleStartTimeCalculator;
 import com.osgifx.console.agent.provider.BundleStartTimeCalculator.BundleStartDuration;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
 
+@Singleton
 public final class XBundleAdmin {
 
     private final BundleContext             context;
     private final BundleStartTimeCalculator bundleStartTimeCalculator;
 
-    private static final FluentLogger logger = LoggerFactory.getFluentLogger(XBundleAdmin.class);
+    private static final FluentLogger logger        = LoggerFactory.getFluentLogger(XBundleAdmin.class);
+    private static final StorageSizes STORAGE_SIZES = new StorageSizes();
 
     @Inject
     public XBundleAdmin(final BundleContext context, final BundleStartTimeCalculator bundleStartTimeCalculator) {
@@ -89,7 +111,14 @@ public final class XBundleAdmin {
             return Collections.emptyList();
         }
         try {
-            return Stream.of(context.getBundles()).map(b -> toDTO(b, bundleStartTimeCalculator)).collect(toList());
+            final Bundle[] bundles = context.getBundles();
+            STORAGE_SIZES.retain(bundles);
+            // @formatter:off
+            return Stream.of(bundles)
+                         .filter(b -> !isAbandoned())
+                         .map(b -> toDTO(b, bundleStartTimeCalculator))
+                         .collect(toList());
+            // @formatter:on
         } catch (final Exception e) {
             logger.atError().msg("Error occurred while retrieving bundles").throwable(e).log();
             return Collections.emptyList();
@@ -97,20 +126,21 @@ public final class XBundleAdmin {
     }
 
     public static XBundleDTO toDTO(final Bundle bundle, final BundleStartTimeCalculator bundleStartTimeCalculator) {
-        final XBundleDTO dto = new XBundleDTO();
+        final XBundleDTO          dto     = new XBundleDTO();
+        final Map<String, String> headers = toMap(bundle.getHeaders());
 
         dto.id                  = bundle.getBundleId();
         dto.state               = findState(bundle.getState());
         dto.symbolicName        = bundle.getSymbolicName();
         dto.version             = bundle.getVersion().toString();
         dto.location            = bundle.getLocation();
-        dto.category            = getHeader(bundle, BUNDLE_CATEGORY);
-        dto.isFragment          = getHeader(bundle, FRAGMENT_HOST) != null;
+        dto.category            = headers.get(BUNDLE_CATEGORY);
+        dto.isFragment          = headers.get(FRAGMENT_HOST) != null;
         dto.lastModified        = bundle.getLastModified();
-        dto.dataFolderSize      = getStorageSize(bundle);
-        dto.documentation       = getHeader(bundle, BUNDLE_DOCURL);
-        dto.vendor              = getHeader(bundle, BUNDLE_VENDOR);
-        dto.description         = getHeader(bundle, BUNDLE_DESCRIPTION);
+        dto.dataFolderSize      = STORAGE_SIZES.get(bundle);
+        dto.documentation       = headers.get(BUNDLE_DOCURL);
+        dto.vendor              = headers.get(BUNDLE_VENDOR);
+        dto.description         = headers.get(BUNDLE_DESCRIPTION);
         dto.startLevel          = getStartLevel(bundle);
         dto.frameworkStartLevel = getFrameworkStartLevel();
         // @formatter:off
@@ -125,7 +155,7 @@ public final class XBundleAdmin {
         dto.wiredBundlesAsProvider = getWiredBundlesAsProvider(bundle);
         dto.wiredBundlesAsRequirer = getWiredBundlesAsRequirer(bundle);
         dto.registeredServices     = getRegisteredServices(bundle);
-        dto.manifestHeaders        = toMap(bundle.getHeaders());
+        dto.manifestHeaders        = headers;
         dto.usedServices           = getUsedServices(bundle);
         dto.hostBundles            = getHostBundles(bundle);
         dto.fragmentsAttached      = getAttachedFragements(bundle);
@@ -136,21 +166,6 @@ public final class XBundleAdmin {
         return dto;
     }
 
-    private static long getStorageSize(final Bundle bundle) {
-        final BundleContext bundleContext = bundle.getBundleContext();
-        final String        bsn           = bundle.getSymbolicName();
-        if (bundleContext == null) {
-            logger.atDebug().msg("Bundle context is null for '{}'").arg(bsn).log();
-            return -1L;
-        }
-        final File storage = bundleContext.getDataFile("");
-        if (storage == null) {
-            logger.atDebug().msg("Bundle storage is null for '{}'").arg(bsn).log();
-            return -1L;
-        }
-        return storage.length();
-    }
-
     /**
      * This has been introduced to catch any Exception that might occur while
      * adapting a bundle instance which is not valid anymore, for example, if the
@@ -341,8 +356,8 @@ public final class XBundleAdmin {
             if (bundleWiring == null) {
                 return Collections.emptyList();
             }
-            final List<XBundleInfoDTO> bundles       = new ArrayList<>();
-            final List<BundleWire>     providedWires = bundleWiring.getProvidedWires(null);
+            final Map<Long, XBundleInfoDTO> bundles       = new LinkedHashMap<>();
+            final List<BundleWire>          providedWires = bundleWiring.getProvidedWires(null);
 
             for (final BundleWire wire : providedWires) {
                 final BundleRevision requirer = wire.getRequirer();
@@ -351,11 +366,9 @@ public final class XBundleAdmin {
                 dto.id           = requirer.getBundle().getBundleId();
                 dto.symbolicName = requirer.getSymbolicName();
 
-                if (!containsWire(bundles, dto.symbolicName, dto.id)) {
-                    bundles.add(dto);
-                }
+                bundles.putIfAbsent(dto.id, dto);
             }
-            return bundles;
+            return new ArrayList<>(bundles.values());
         } catch (final Exception e) {
             logger.atError().msg("The bundle '{}' cannot be adapted to retrieve the wired bundles as provider")
                     .arg(bundle.getSymbolicName()).throwable(e).log();
@@ -369,8 +382,8 @@ public final class XBundleAdmin {
             if (bundleWiring == null) {
                 return Collections.emptyList();
             }
-            final List<XBundleInfoDTO> bundles       = new ArrayList<>();
-            final List<BundleWire>     requierdWires = bundleWiring.getRequiredWires(null);
+            final Map<Long, XBundleInfoDTO> bundles       = new LinkedHashMap<>();
+            final List<BundleWire>          requierdWires = bundleWiring.getRequiredWires(null);
 
             for (final BundleWire wire : requierdWires) {
                 final BundleRevision provider = wire.getProvider();
@@ -379,11 +392,9 @@ public final class XBundleAdmin {
                 dto.id           = provider.getBundle().getBundleId();
                 dto.symbolicName = provider.getSymbolicName();
 
-                if (!containsWire(bundles, dto.symbolicName, dto.id)) {
-                    bundles.add(dto);
-                }
+                bundles.putIfAbsent(dto.id, dto);
             }
-            return bundles;
+            return new ArrayList<>(bundles.values());
         } catch (final Exception e) {
             logger.atError().msg("The bundle '{}' cannot be adapted to retrieve the wired bundles as requirer")
                     .arg(bundle.getSymbolicName()).throwable(e).log();
@@ -391,10 +402,6 @@ public final class XBundleAdmin {
         }
     }
 
-    private static boolean containsWire(final List<XBundleInfoDTO> bundles, final String bsn, final long id) {
-        return bundles.stream().anyMatch(b -> b.symbolicName.equals(bsn) && b.id == id);
-    }
-
     private static List<XPackageDTO> getImportedPackages(final Bundle bundle) {
         try {
             final BundleWiring bundleWiring = bundle.adapt(BundleWiring.class);
@@ -403,13 +410,14 @@ public final class XBundleAdmin {
             }
             final List<BundleWire>  bundleWires      = bundleWiring.getRequiredWires(PACKAGE_NAMESPACE);
             final List<XPackageDTO> importedPackages = new ArrayList<>();
+            final Set<List<String>> visited          = new HashSet<>();
 
             for (final BundleWire bundleWire : bundleWires) {
                 final Map<String, Object> attributes = bundleWire.getCapability().getAttributes();
                 final String              pkg        = (String) attributes.get(PACKAGE_NAMESPACE);
                 final String              version    = attributes.get(VERSION_ATTRIBUTE).toString();
 
-                if (!hasPackage(importedPackages, pkg, version)) {
+                if (visited.add(Arrays.asList(pkg, version))) {
                     final XPackageDTO dto = new XPackageDTO();
 
                     dto.name    = pkg;
@@ -435,13 +443,14 @@ public final class XBundleAdmin {
             }
             final List<BundleWire>  bundleWires      = bundleWiring.getProvidedWires(PACKAGE_NAMESPACE);
             final List<XPackageDTO> exportedPackages = new ArrayList<>();
+            final Set<List<String>> visited          = new HashSet<>();
 
             for (final BundleWire bundleWire : bundleWires) {
                 final Map<String, Object> attributes = bundleWire.getCapability().getAttributes();
                 final String              pkg        = (String) attributes.get(PACKAGE_NAMESPACE);
                 final String              version    = attributes.get(VERSION_ATTRIBUTE).toString();
 
-                if (!hasPackage(exportedPackages, pkg, version)) {
+                if (visited.add(Arrays.asList(pkg, version))) {
                     final XPackageDTO dto = new XPackageDTO();
 
                     dto.name    = pkg;
@@ -459,10 +468,6 @@ public final class XBundleAdmin {
         }
     }
 
-    private static boolean hasPackage(final List<XPackageDTO> packages, final String name, final String version) {
-        return packages.stream().anyMatch(o -> o.name.equals(name) && o.version.equals(version));
-    }
-
     private static String findState(final int state) {
         switch (state) {
             case ACTIVE:
@@ -483,14 +488,114 @@ public final class XBundleAdmin {
         return null;
     }
 
-    private static String getHeader(final Bundle bundle, final String header) {
-        final Map<String, String> headers = toMap(bundle.getHeaders());
-        return headers.get(header);
+    private static Map<String, String> toMap(final Dictionary<String, String> dictionary) {
+        final Map<String, String> headers = new HashMap<>(dictionary.size());
+        final Enumeration<String> keys    = dictionary.keys();
+        while (keys.hasMoreElements()) {
+            final String key = keys.nextElement();
+            headers.put(key, dictionary.get(key));
+        }
+        return headers;
     }
 
-    private static Map<String, String> toMap(final Dictionary<String, String> dictionary) {
-        final List<String> keys = Collections.list(dictionary.keys());
-        return keys.stream().collect(Collectors.toMap(identity(), dictionary::get));
+    /**
+     * Caches the sizes of the bundle data folders. Walking a data folder can be
+     * expensive, hence it is always done in the background while the last known
+     * size (or {@link XBundleDTO#DATA_FOLDER_SIZE_PENDING} if the size has not
+     * been computed yet) is served.
+     */
+    private static final class StorageSizes {
+
+        private static final long REFRESH_INTERVAL_IN_MILLIS = 30_000L;
+
+        private final Map<Long, StorageSize> sizes = new ConcurrentHashMap<>();
+        private final ThreadPoolExecutor     executor;
+
+        private StorageSizes() {
+            // @formatter:off
+            final ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                                                      .setThreadFactoryName("osgifx-storage-size")
+                                                      .setThreadNameFormat("-%d")
+                                                      .setDaemon(true)
+                                                      .build();
+            // @formatter:on
+            executor = new ThreadPoolExecutor(1, 1, 10, SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+            // the refresh thread does not outlive a burst of requests
+            executor.allowCoreThreadTimeOut(true);
+        }
+
+        long get(final Bundle bundle) {
+            final long        id      = bundle.getBundleId();
+            final StorageSize current = sizes.computeIfAbsent(id,
+                    k -> new StorageSize(XBundleDTO.DATA_FOLDER_SIZE_PENDING, 0L));
+            final boolean     isStale = System.currentTimeMillis() - current.computedAt > REFRESH_INTERVAL_IN_MILLIS;
+            if (isStale && current.refreshing.compareAndSet(false, true)) {
+                try {
+                    // an entry removed in the meantime belongs to an uninstalled bundle
+                    executor.execute(() -> sizes.replace(id, current,
+                            new StorageSize(computeStorageSize(bundle), System.currentTimeMillis())));
+                } catch (final RejectedExecutionException e) {
+                    current.refreshing.set(false);
+                }
+            }
+            return current.value;
+        }
+
+        void retain(final Bundle[] bundles) {
+            final Set<Long> ids = new HashSet<>();
+            for (final Bundle bundle : bundles) {
+                ids.add(bundle.getBundleId());
+            }
+            sizes.keySet().retainAll(ids);
+        }
+
+        private static long computeStorageSize(final Bundle bundle) {
+            final String bsn = bundle.getSymbolicName();
+            try {
+                final BundleContext bundleContext = bundle.getBundleContext();
+                if (bundleContext == null) {
+                    logger.atDebug().msg("Bundle context is null for '{}'").arg(bsn).log();
+                    return -1L;
+                }
+                final File storage = bundleContext.getDataFile("");
+                if (storage == null) {
+                    logger.atDebug().msg("Bundle storage is null for '{}'").arg(bsn).log();
+                    return -1L;
+                }
+                if (!storage.exists()) {
+                    return 0L;
+                }
+                final AtomicLong size = new AtomicLong();
+                Files.walkFileTree(storage.toPath(), new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                        size.addAndGet(attrs.size());
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(final Path file, final IOException e) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+                return size.get();
+            } catch (final Exception e) {
+                logger.atDebug().msg("Bundle storage size cannot be computed for '{}'").arg(bsn).throwable(e).log();
+                return -1L;
+            }
+        }
+    }
+
+    private static final class StorageSize {
+
+        private final long          value;
+        private final long          computedAt;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private StorageSize(final long value, final long computedAt) {
+            this.value      = value;
+            this.computedAt = computedAt;
+        }
     }
 
 }
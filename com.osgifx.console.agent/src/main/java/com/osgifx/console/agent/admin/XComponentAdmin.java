@@ -21,6 +21,7 @@ import static com.osgifx.console.agent.dto.XResultDTO.SUCCESS;
 import static com.osgifx.console.agent.helper.AgentHelper.createResult;
 import static com.osgifx.console.agent.helper.AgentHelper.serviceUnavailable;
 import static com.osgifx.console.agent.helper.OSGiCompendiumService.SCR;
+import static com.osgifx.console.agent.rpc.RpcCall.isAbandoned;
 import static java.util.Collections.emptyMap;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
@@ -80,6 +81,9 @@ public final class XComponentAdmin {
         final List<XComponentDTO> dtos = new ArrayList<>();
         try {
             for (final ComponentDescriptionDTO compDescDTO : scr.getComponentDescriptionDTOs()) {
+                if (isAbandoned()) {
+                    break;
+                }
                 final Collection<ComponentConfigurationDTO> compConfDTOs = scr
                         .getComponentConfigurationDTOs(compDescDTO);
                 if (compConfDTOs.isEmpty()) {
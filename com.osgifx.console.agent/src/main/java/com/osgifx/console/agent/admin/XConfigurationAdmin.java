@@ -15,22 +15,38 @@
  ******************************************************************************/
 package com.osgifx.console.agent.admin;
 
+import static com.osgifx.console.agent.dto.XConfigurationBatchDTO.CREATED;
+import static com.osgifx.console.agent.dto.XConfigurationBatchDTO.FAILED;
+import static com.osgifx.console.agent.dto.XConfigurationBatchDTO.INVALID;
+import static com.osgifx.console.agent.dto.XConfigurationBatchDTO.NOT_APPLIED;
+import static com.osgifx.console.agent.dto.XConfigurationBatchDTO.ROLLED_BACK;
+import static com.osgifx.console.agent.dto.XConfigurationBatchDTO.UNCHANGED;
+import static com.osgifx.console.agent.dto.XConfigurationBatchDTO.UPDATED;
 import static com.osgifx.console.agent.dto.XResultDTO.ERROR;
 import static com.osgifx.console.agent.dto.XResultDTO.SKIPPED;
 import static com.osgifx.console.agent.dto.XResultDTO.SUCCESS;
+import static com.osgifx.console.agent.helper.AgentHelper.asList;
 import static com.osgifx.console.agent.helper.AgentHelper.createResult;
 import static com.osgifx.console.agent.helper.AgentHelper.serviceUnavailable;
 import static com.osgifx.console.agent.helper.OSGiCompendiumService.CM;
+import static com.osgifx.console.agent.rpc.RpcCall.isAbandoned;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.osgi.framework.Constants.SERVICE_PID;
+import static org.osgi.service.cm.ConfigurationAdmin.SERVICE_BUNDLELOCATION;
+import static org.osgi.service.cm.ConfigurationAdmin.SERVICE_FACTORYPID;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
 
 import org.osgi.framework.BundleContext;
@@ -44,19 +60,22 @@ import com.osgifx.console.agent.dto.ConfigValue;
 import com.osgifx.console.agent.dto.XAttributeDefType;
 import com.osgifx.console.agent.dto.XComponentDTO;
 import com.osgifx.console.agent.dto.XComponentReferenceFilterDTO;
+import com.osgifx.console.agent.dto.XConfigurationBatchDTO;
+import com.osgifx.console.agent.dto.XConfigurationBatchDTO.XConfigurationBatchEntry;
 import com.osgifx.console.agent.dto.XConfigurationDTO;
 import com.osgifx.console.agent.dto.XResultDTO;
 import com.osgifx.console.agent.dto.XSatisfiedReferenceDTO;
 import com.osgifx.console.agent.dto.XUnsatisfiedReferenceDTO;
 import com.osgifx.console.agent.helper.AgentHelper;
 import com.osgifx.console.agent.helper.Reflect;
+import com.osgifx.console.agent.provider.MetatypeIndex;
 
 import jakarta.inject.Inject;
 
 public final class XConfigurationAdmin {
 
     private final BundleContext      context;
-    private final Object             metatype;
+    private final MetatypeIndex      metatypeIndex;
     private final ConfigurationAdmin configAdmin;
     private final XComponentAdmin    componentAdmin;
     private final FluentLogger       logger = LoggerFactory.getFluentLogger(getClass());
@@ -64,10 +83,10 @@ public final class XConfigurationAdmin {
     @Inject
     public XConfigurationAdmin(final BundleContext context,
                                final Object configAdmin,
-                               final Object metatype,
+                               final MetatypeIndex metatypeIndex,
                                final XComponentAdmin componentAdmin) {
         this.context        = context;
-        this.metatype       = metatype;
+        this.metatypeIndex  = metatypeIndex;
         this.configAdmin    = (ConfigurationAdmin) configAdmin;
         this.componentAdmin = componentAdmin;
     }
@@ -110,6 +129,97 @@ public final class XConfigurationAdmin {
         return result;
     }
 
+    /**
+     * Applies the specified configurations as a single batch. The batch is
+     * validated against the metatype information as a whole before the first
+     * configuration gets updated so that an invalid batch never triggers a
+     * reconfiguration. Configurations whose properties are identical to the
+     * persisted ones are not updated at all as every update causes a
+     * (re)activation cascade in SCR. If an update fails, the already updated
+     * configurations are reverted in reverse order.
+     */
+    public synchronized XConfigurationBatchDTO applyBatch(final Map<String, Map<String, Object>> configurations) {
+        final XConfigurationBatchDTO batch = new XConfigurationBatchDTO();
+        batch.entries = new ArrayList<>();
+
+        if (configAdmin == null) {
+            logger.atWarn().msg(serviceUnavailable(CM)).log();
+            batch.result   = SKIPPED;
+            batch.response = serviceUnavailable(CM);
+            return batch;
+        }
+        final long validationStart = System.nanoTime();
+        int        invalid         = 0;
+        for (final Entry<String, Map<String, Object>> config : configurations.entrySet()) {
+            final XConfigurationBatchEntry entry = new XConfigurationBatchEntry();
+
+            entry.pid        = config.getKey();
+            entry.violations = validate(config.getKey(), config.getValue());
+
+            if (!entry.violations.isEmpty()) {
+                entry.action  = INVALID;
+                entry.message = "Configuration with PID '" + entry.pid + "' is invalid";
+                invalid++;
+            }
+            batch.entries.add(entry);
+        }
+        batch.validationTime = NANOSECONDS.toMicros(System.nanoTime() - validationStart);
+
+        if (invalid > 0) {
+            markNotApplied(batch.entries);
+            batch.result   = ERROR;
+            batch.response = invalid + " configuration(s) failed the validation, hence nothing has been applied";
+            return batch;
+        }
+        final long                        applyStart = System.nanoTime();
+        final Deque<AppliedConfiguration> applied    = new ArrayDeque<>();
+        XConfigurationBatchEntry          failed     = null;
+        for (final XConfigurationBatchEntry entry : batch.entries) {
+            final long start = System.nanoTime();
+            try {
+                final Map<String, Object>        properties    = configurations.get(entry.pid);
+                final Configuration              configuration = configAdmin.getConfiguration(entry.pid, "?");
+                final Dictionary<String, Object> previous      = configuration.getProperties();
+
+                if (previous != null && isSame(previous, properties)) {
+                    entry.action  = UNCHANGED;
+                    entry.message = "Configuration with PID '" + entry.pid + "' is already up to date";
+                } else {
+                    configuration.update(new Hashtable<>(properties));
+                    applied.push(new AppliedConfiguration(configuration, previous, entry));
+                    entry.action  = previous == null ? CREATED : UPDATED;
+                    entry.message = "Configuration with PID '" + entry.pid + "' has been "
+                            + (previous == null ? "created" : "updated");
+                }
+            } catch (final Exception e) {
+                entry.action  = FAILED;
+                entry.message = "Configuration with PID '" + entry.pid + "' cannot be processed due to "
+                        + e.getMessage();
+                failed        = entry;
+                logger.atError().msg("Configuration with PID '{}' cannot be applied").arg(entry.pid).throwable(e).log();
+            } finally {
+                entry.time = NANOSECONDS.toMicros(System.nanoTime() - start);
+            }
+            if (failed != null) {
+                break;
+            }
+        }
+        if (failed == null) {
+            batch.isApplied = true;
+            batch.result    = SUCCESS;
+            batch.response  = applied.size() + " configuration(s) have been applied, "
+                    + (configurations.size() - applied.size()) + " configuration(s) have already been up to date";
+        } else {
+            markNotApplied(batch.entries);
+            batch.isRolledBack = rollback(applied);
+            batch.result       = ERROR;
+            batch.response     = failed.message + (batch.isRolledBack ? ", hence the batch has been rolled back"
+                    : ", and the batch could not be rolled back completely");
+        }
+        batch.applyTime = NANOSECONDS.toMicros(System.nanoTime() - applyStart);
+        return batch;
+    }
+
     public XResultDTO deleteConfiguration(final String pid) {
         if (configAdmin == null) {
             logger.atWarn().msg(serviceUnavailable(CM)).log();
@@ -238,6 +348,78 @@ public final class XConfigurationAdmin {
         }
     }
 
+    private List<String> validate(final String pid, final Map<String, Object> properties) {
+        final List<String> violations = new ArrayList<>();
+        if (properties == null) {
+            violations.add("No properties have been specified");
+            return violations;
+        }
+        for (final Entry<String, Object> property : properties.entrySet()) {
+            if (property.getKey() == null || property.getValue() == null) {
+                violations.add("Property '" + property.getKey() + "' must have a key and a value");
+            }
+        }
+        if (metatypeIndex != null) {
+            violations.addAll(metatypeIndex.validate(pid, properties));
+        }
+        return violations;
+    }
+
+    private boolean isSame(final Dictionary<String, Object> current, final Map<String, Object> properties) {
+        final Map<String, Object> existing = AgentHelper.valueOf(current);
+        existing.remove(SERVICE_PID);
+        existing.remove(SERVICE_FACTORYPID);
+        existing.remove(SERVICE_BUNDLELOCATION);
+
+        final Map<String, Object> updated = new HashMap<>(properties);
+        updated.remove(SERVICE_PID);
+        updated.remove(SERVICE_FACTORYPID);
+        updated.remove(SERVICE_BUNDLELOCATION);
+
+        if (existing.size() != updated.size()) {
+            return false;
+        }
+        for (final Entry<String, Object> entry : updated.entrySet()) {
+            final Object value = existing.get(entry.getKey());
+            if (value == null || !Objects.equals(asList(value), asList(entry.getValue()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean rollback(final Deque<AppliedConfiguration> applied) {
+        boolean isRolledBack = true;
+        while (!applied.isEmpty()) {
+            final AppliedConfiguration config = applied.pop();
+            final String               pid    = config.entry.pid;
+            try {
+                if (config.previous == null) {
+                    config.configuration.delete();
+                } else {
+                    config.configuration.update(config.previous);
+                }
+                config.entry.action  = ROLLED_BACK;
+                config.entry.message = "Configuration with PID '" + pid + "' has been reverted";
+            } catch (final Exception e) {
+                isRolledBack         = false;
+                config.entry.message = "Configuration with PID '" + pid + "' cannot be reverted due to "
+                        + e.getMessage();
+                logger.atError().msg("Configuration with PID '{}' cannot be reverted").arg(pid).throwable(e).log();
+            }
+        }
+        return isRolledBack;
+    }
+
+    private static void markNotApplied(final List<XConfigurationBatchEntry> entries) {
+        for (final XConfigurationBatchEntry entry : entries) {
+            if (entry.action == null) {
+                entry.action  = NOT_APPLIED;
+                entry.message = "Configuration with PID '" + entry.pid + "' has not been applied";
+            }
+        }
+    }
+
     private List<XConfigurationDTO> findConfigsWithoutMetatype() throws IOException, InvalidSyntaxException {
         final List<XConfigurationDTO> dtos    = new ArrayList<>();
         final Configuration[]         configs = configAdmin.listConfigurations(null);
@@ -245,8 +427,10 @@ public final class XConfigurationAdmin {
             return dtos;
         }
         for (final Configuration config : configs) {
-            final boolean hasMetatype = metatype == null ? false
-                    : XMetaTypeAdmin.hasMetatype(context, metatype, config);
+            if (isAbandoned()) {
+                break;
+            }
+            final boolean hasMetatype = metatypeIndex != null && metatypeIndex.hasMetatype(config);
             if (!hasMetatype) {
                 dtos.add(toConfigDTO(config));
             }
@@ -266,4 +450,19 @@ public final class XConfigurationAdmin {
         return dto;
     }
 
+    private static final class AppliedConfiguration {
+
+        private final Configuration              configuration;
+        private final Dictionary<String, Object> previous;
+        private final XConfigurationBatchEntry   entry;
+
+        private AppliedConfiguration(final Configuration configuration,
+                                     final Dictionary<String, Object> previous,
+                                     final XConfigurationBatchEntry entry) {
+            this.configuration = configuration;
+            this.previous      = previous;
+            this.entry         = entry;
+        }
+    }
+
 }
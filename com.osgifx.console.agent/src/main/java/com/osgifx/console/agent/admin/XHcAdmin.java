@@ -15,6 +15,7 @@
  ******************************************************************************/
 package com.osgifx.console.agent.admin;
 
+import static com.osgifx.console.agent.rpc.RpcCall.isAbandoned;
 import static java.util.stream.Collectors.toList;
 import static org.apache.felix.hc.api.HealthCheck.ASYNC_CRON_EXPRESSION;
 import static org.apache.felix.hc.api.HealthCheck.ASYNC_INTERVAL_IN_SEC;
@@ -90,6 +91,9 @@ public final class XHcAdmin {
         if (names == null) {
             names = Collections.emptyList();
         }
+        if (isAbandoned()) {
+            return Collections.emptyList();
+        }
         selector = HealthCheckSelector.tags(tags.toArray(new String[0]));
         selector.withNames(names.toArray(new String[0]));
 
@@ -97,6 +101,9 @@ public final class XHcAdmin {
         options.setCombineTagsWithOr(true);
 
         final List<HealthCheckExecutionResult> results = felixHcExecutor.execute(selector, options);
+        if (isAbandoned()) {
+            return Collections.emptyList();
+        }
         return results.stream().map(this::toResultDTO).collect(toList());
     }
 
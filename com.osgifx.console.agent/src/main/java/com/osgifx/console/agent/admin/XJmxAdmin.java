@@ -15,6 +15,8 @@
  ******************************************************************************/
 package com.osgifx.console.agent.admin;
 
+import static com.osgifx.console.agent.rpc.RpcCall.isAbandoned;
+
 import java.io.File;
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
@@ -29,6 +31,7 @@ import java.util.Collection;
 import java.util.List;
 
 import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import com.j256.simplelogging.FluentLogger;
 import com.j256.simplelogging.LoggerFactory;
@@ -37,11 +40,15 @@ import com.osgifx.console.agent.dto.XHeapUsageDTO.XGarbageCollectorMXBean;
 import com.osgifx.console.agent.dto.XHeapUsageDTO.XMemoryPoolMXBean;
 import com.osgifx.console.agent.dto.XHeapUsageDTO.XMemoryUsage;
 
+import jakarta.inject.Singleton;
+
+@Singleton
 public final class XJmxAdmin {
 
-    private static final String    HOTSPOT_BEAN_NAME = "com.sun.management:type=HotSpotDiagnostic";
+    private static final String    HOTSPOT_BEAN_NAME           = "com.sun.management:type=HotSpotDiagnostic";
+    private static final String    DIAGNOSTIC_COMMAND_BEAN_NAME = "com.sun.management:type=DiagnosticCommand";
     private static volatile Object hotspotMBean;
-    private final FluentLogger     logger            = LoggerFactory.getFluentLogger(getClass());
+    private final FluentLogger     logger                      = LoggerFactory.getFluentLogger(getClass());
 
     public XHeapUsageDTO init() {
         final XHeapUsageDTO heapUsage = new XHeapUsageDTO();
@@ -98,18 +105,41 @@ public final class XJmxAdmin {
         final File location = new File(System.getProperty("user.dir"));
         final File heapdump = new File(location, "" + System.currentTimeMillis() + ".hprof");
 
+        // a call abandoned before it started is skipped by the transport already
         initHotspotMBean();
         try {
             final Class<?> clazz = Class.forName("com.sun.management.HotSpotDiagnosticMXBean");
             final Method   m     = clazz.getMethod("dumpHeap", String.class, boolean.class);
             m.invoke(hotspotMBean, heapdump.getAbsolutePath(), true);
-
+            if (isAbandoned()) {
+                // do not load the dump into memory if nobody waits for it
+                return null;
+            }
             return Files.readAllBytes(heapdump.toPath());
         } finally {
             heapdump.delete();
         }
     }
 
+    /**
+     * Returns the class histogram as printed by the {@code GC.class_histogram}
+     * diagnostic command. A class is listed once per classloader that has
+     * loaded it. This is way cheaper than capturing a heapdump.
+     *
+     * @param liveObjectsOnly {@code true} to count only the live objects which
+     *            requires a full GC, otherwise the unreachable objects which
+     *            have not been collected yet are counted as well
+     * @return the class histogram
+     */
+    public String classHistogram(final boolean liveObjectsOnly) throws Exception {
+        final MBeanServer server    = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName  name      = new ObjectName(DIAGNOSTIC_COMMAND_BEAN_NAME);
+        final String[]    arguments = liveObjectsOnly ? new String[0] : new String[] { "-all" };
+        final Object      result    = server.invoke(name, "gcClassHistogram", new Object[] { arguments },
+                                                    new String[] { String[].class.getName() });
+        return String.valueOf(result);
+    }
+
     public void gc() throws Exception {
         initHotspotMBean();
         final Class<?> clazzBean     = Class.forName("com.sun.management.HotSpotDiagnosticMXBean");
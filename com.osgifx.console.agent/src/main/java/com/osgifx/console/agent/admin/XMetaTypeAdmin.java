@@ -18,21 +18,20 @@ package com.osgifx.console.agent.admin;
 import static com.osgifx.console.agent.helper.AgentHelper.serviceUnavailable;
 import static com.osgifx.console.agent.helper.OSGiCompendiumService.CM;
 import static com.osgifx.console.agent.helper.OSGiCompendiumService.METATYPE;
+import static com.osgifx.console.agent.rpc.RpcCall.isAbandoned;
 import static java.util.stream.Collectors.toList;
 import static org.osgi.service.metatype.ObjectClassDefinition.ALL;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
-import org.osgi.framework.Bundle;
-import org.osgi.framework.BundleContext;
-import org.osgi.framework.InvalidSyntaxException;
 import org.osgi.service.cm.Configuration;
 import org.osgi.service.cm.ConfigurationAdmin;
 import org.osgi.service.metatype.AttributeDefinition;
@@ -46,21 +45,22 @@ import com.osgifx.console.agent.dto.XAttributeDefDTO;
 import com.osgifx.console.agent.dto.XAttributeDefType;
 import com.osgifx.console.agent.dto.XConfigurationDTO;
 import com.osgifx.console.agent.dto.XObjectClassDefDTO;
+import com.osgifx.console.agent.provider.MetatypeIndex;
 
 import jakarta.inject.Inject;
 
 public final class XMetaTypeAdmin {
 
-    private final BundleContext      context;
     private final MetaTypeService    metatype;
+    private final MetatypeIndex      metatypeIndex;
     private final ConfigurationAdmin configAdmin;
     private final FluentLogger       logger = LoggerFactory.getFluentLogger(getClass());
 
     @Inject
-    public XMetaTypeAdmin(final BundleContext context, final Object configAdmin, final Object metatype) {
-        this.context     = context;
-        this.configAdmin = (ConfigurationAdmin) configAdmin;
-        this.metatype    = (MetaTypeService) metatype;
+    public XMetaTypeAdmin(final Object configAdmin, final Object metatype, final MetatypeIndex metatypeIndex) {
+        this.configAdmin   = (ConfigurationAdmin) configAdmin;
+        this.metatype      = (MetaTypeService) metatype;
+        this.metatypeIndex = metatypeIndex;
     }
 
     public List<XConfigurationDTO> getConfigurations() {
@@ -68,15 +68,18 @@ public final class XMetaTypeAdmin {
             logger.atWarn().msg(serviceUnavailable(CM)).log();
             return Collections.emptyList();
         }
-        if (metatype == null) {
+        if (metatype == null || metatypeIndex == null) {
             logger.atWarn().msg(serviceUnavailable(METATYPE)).log();
             return Collections.emptyList();
         }
         List<XConfigurationDTO> configsWithMetatype    = null;
         List<XConfigurationDTO> metatypeWithoutConfigs = null;
         try {
-            configsWithMetatype    = findConfigsWithMetatype();
-            metatypeWithoutConfigs = findMetatypeWithoutConfigs();
+            final Configuration[] configs = Optional.ofNullable(configAdmin.listConfigurations(null))
+                    .orElse(new Configuration[0]);
+
+            configsWithMetatype    = findConfigsWithMetatype(configs);
+            metatypeWithoutConfigs = findMetatypeWithoutConfigs(configs);
         } catch (final Exception e) {
             logger.atError().msg("Error occurred while retrieving configurations").throwable(e).log();
             return Collections.emptyList();
@@ -84,30 +87,32 @@ public final class XMetaTypeAdmin {
         return joinLists(configsWithMetatype, metatypeWithoutConfigs);
     }
 
-    private List<XConfigurationDTO> findConfigsWithMetatype() throws IOException, InvalidSyntaxException {
-        final Configuration[] allExistingConfigurations = configAdmin.listConfigurations(null);
-        if (allExistingConfigurations == null) {
-            return Collections.emptyList();
-        }
+    private List<XConfigurationDTO> findConfigsWithMetatype(final Configuration[] configs) {
         final List<XConfigurationDTO> dtos = new ArrayList<>();
-        for (final Configuration config : allExistingConfigurations) {
-            final boolean hasMetatype = hasMetatype(context, metatype, config);
-            if (hasMetatype) {
-                dtos.add(toConfigDTO(config, null, toOCD(config)));
+        for (final Configuration config : configs) {
+            if (isAbandoned()) {
+                break;
+            }
+            final XObjectClassDefDTO ocd = toOCD(config);
+            if (ocd != null) {
+                dtos.add(toConfigDTO(config, null, ocd));
             }
         }
         return dtos;
     }
 
-    private List<XConfigurationDTO> findMetatypeWithoutConfigs() throws IOException, InvalidSyntaxException {
+    private List<XConfigurationDTO> findMetatypeWithoutConfigs(final Configuration[] configs) {
+        final Set<String> existingPids = new HashSet<>();
+        for (final Configuration config : configs) {
+            existingPids.add(config.getPid());
+        }
         final List<XConfigurationDTO> dtos = new ArrayList<>();
-        for (final Bundle bundle : context.getBundles()) {
-            final MetaTypeInformation metatypeInfo = metatype.getMetaTypeInformation(bundle);
-            if (metatypeInfo == null) {
-                continue;
+        for (final MetaTypeInformation metatypeInfo : metatypeIndex.all()) {
+            if (isAbandoned()) {
+                break;
             }
             for (final String pid : metatypeInfo.getPids()) {
-                final boolean hasAssociatedConfiguration = checkConfigurationExistence(pid);
+                final boolean hasAssociatedConfiguration = existingPids.contains(pid);
                 if (!hasAssociatedConfiguration) {
                     final XObjectClassDefDTO ocd = toOcdDTO(pid, metatypeInfo, ConfigurationType.SINGLETON);
                     dtos.add(toConfigDTO(null, pid, ocd));
@@ -123,10 +128,6 @@ public final class XMetaTypeAdmin {
         return dtos;
     }
 
-    private boolean checkConfigurationExistence(final String pid) throws IOException, InvalidSyntaxException {
-        return configAdmin.listConfigurations("(service.pid=" + pid + ")") != null;
-    }
-
     private XConfigurationDTO toConfigDTO(final Configuration configuration,
                                           final String metatypePID,
                                           final XObjectClassDefDTO ocd) {
@@ -143,24 +144,16 @@ public final class XMetaTypeAdmin {
     }
 
     private XObjectClassDefDTO toOCD(final Configuration config) {
-        for (final Bundle bundle : context.getBundles()) {
-            final MetaTypeInformation metatypeInfo = metatype.getMetaTypeInformation(bundle);
-            if (metatypeInfo == null) {
-                continue;
-            }
-            final String configPID        = config.getPid();
-            final String configFactoryPID = config.getFactoryPid();
+        final String configPID        = config.getPid();
+        final String configFactoryPID = config.getFactoryPid();
 
-            for (final String pid : metatypeInfo.getPids()) {
-                if (pid.equals(configPID)) {
-                    return toOcdDTO(configPID, metatypeInfo, ConfigurationType.SINGLETON);
-                }
-            }
-            for (final String fPid : metatypeInfo.getFactoryPids()) {
-                if (fPid.equals(config.getFactoryPid())) {
-                    return toOcdDTO(configFactoryPID, metatypeInfo, ConfigurationType.FACTORY);
-                }
-            }
+        final MetaTypeInformation pidInfo = metatypeIndex.forPid(configPID);
+        if (pidInfo != null) {
+            return toOcdDTO(configPID, pidInfo, ConfigurationType.SINGLETON);
+        }
+        final MetaTypeInformation factoryPidInfo = metatypeIndex.forFactoryPid(configFactoryPID);
+        if (factoryPidInfo != null) {
+            return toOcdDTO(configFactoryPID, factoryPidInfo, ConfigurationType.FACTORY);
         }
         return null;
     }
@@ -196,29 +189,6 @@ public final class XMetaTypeAdmin {
         return dto;
     }
 
-    public static boolean hasMetatype(final BundleContext context,
-                                      final Object metatypeService,
-                                      final Configuration config) {
-        final MetaTypeService metatype = (MetaTypeService) metatypeService;
-        for (final Bundle bundle : context.getBundles()) {
-            final MetaTypeInformation metatypeInfo = metatype.getMetaTypeInformation(bundle);
-            if (metatypeInfo == null) {
-                continue;
-            }
-            final String   pid                 = config.getPid();
-            final String   factoryPID          = config.getFactoryPid();
-            final String[] metatypePIDs        = metatypeInfo.getPids();
-            final String[] metatypeFactoryPIDs = metatypeInfo.getFactoryPids();
-            final boolean  pidExists           = Arrays.asList(metatypePIDs).contains(pid);
-            final boolean  factoryPidExists    = Optional.ofNullable(factoryPID)
-                    .map(fPID -> Arrays.asList(metatypeFactoryPIDs).contains(factoryPID)).orElse(false);
-            if (pidExists || factoryPidExists) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     @SafeVarargs
     private static <T> List<T> joinLists(final List<T>... lists) {
         return Stream.of(lists).flatMap(Collection::stream).collect(toList());
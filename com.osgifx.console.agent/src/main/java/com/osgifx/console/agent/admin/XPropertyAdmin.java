@@ -35,7 +35,9 @@ import com.osgifx.console.agent.dto.XPropertyDTO;
 import com.osgifx.console.agent.dto.XPropertyDTO.XPropertyType;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
 
+@Singleton
 public final class XPropertyAdmin {
 
     private final BundleContext context;
@@ -15,6 +15,7 @@
  ******************************************************************************/
 package com.osgifx.console.agent.admin;
 
+import static com.osgifx.console.agent.rpc.RpcCall.isAbandoned;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
@@ -24,12 +25,13 @@ import static org.osgi.framework.Constants.SYSTEM_BUNDLE_ID;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Stream;
 
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.dto.BundleDTO;
 import org.osgi.framework.dto.FrameworkDTO;
 import org.osgi.framework.dto.ServiceReferenceDTO;
 
@@ -39,7 +41,9 @@ import com.osgifx.console.agent.dto.XBundleInfoDTO;
 import com.osgifx.console.agent.dto.XServiceDTO;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
 
+@Singleton
 public final class XServiceAdmin {
 
     private final BundleContext context;
@@ -54,29 +58,27 @@ public final class XServiceAdmin {
         requireNonNull(context);
         try {
             final FrameworkDTO dto = context.getBundle(SYSTEM_BUNDLE_ID).adapt(FrameworkDTO.class);
-            return dto.services.stream().map(s -> toDTO(s, context)).collect(toList());
+            // index the bundles once as the services refer to them only by their IDs
+            final Map<Long, XBundleInfoDTO> bundles = indexBundles(dto.bundles);
+            return dto.services.stream().filter(s -> !isAbandoned()).map(s -> toDTO(s, bundles)).collect(toList());
         } catch (final Exception e) {
             logger.atError().msg("Error occurred while retrieving services").throwable(e).log();
             return Collections.emptyList();
         }
     }
 
-    private XServiceDTO toDTO(final ServiceReferenceDTO refDTO, final BundleContext context) {
+    private XServiceDTO toDTO(final ServiceReferenceDTO refDTO, final Map<Long, XBundleInfoDTO> bundles) {
         final XServiceDTO dto = new XServiceDTO();
 
-        final XBundleInfoDTO bundleInfo = new XBundleInfoDTO();
-        bundleInfo.id           = refDTO.bundle;
-        bundleInfo.symbolicName = bsn(refDTO.bundle, context);
-
         dto.id                = refDTO.id;
-        dto.bundleId          = bundleInfo.id;
-        dto.registeringBundle = bundleInfo.symbolicName;
+        dto.bundleId          = refDTO.bundle;
+        dto.registeringBundle = bundleInfo(refDTO.bundle, bundles).symbolicName;
         // @formatter:off
         dto.properties        = refDTO.properties.entrySet()
                                                  .stream()
                                                  .collect(
                                                          toMap(Map.Entry::getKey, e -> arrayToString(e.getValue())));
-        dto.usingBundles      = getUsingBundles(refDTO.usingBundles, context);
+        dto.usingBundles      = getUsingBundles(refDTO.usingBundles, bundles);
         dto.types             = getObjectClass(refDTO.properties);
         // @formatter:on
 
@@ -95,28 +97,38 @@ public final class XServiceAdmin {
         return value.toString();
     }
 
-    private List<XBundleInfoDTO> getUsingBundles(final long[] usingBundles, final BundleContext context) {
-        final List<XBundleInfoDTO> bundles = new ArrayList<>();
+    private List<XBundleInfoDTO> getUsingBundles(final long[] usingBundles, final Map<Long, XBundleInfoDTO> bundles) {
+        final List<XBundleInfoDTO> usings = new ArrayList<>(usingBundles.length);
         for (final long id : usingBundles) {
-            final String bsn = bsn(id, context);
+            usings.add(bundleInfo(id, bundles));
+        }
+        return usings;
+    }
 
+    private Map<Long, XBundleInfoDTO> indexBundles(final List<BundleDTO> bundles) {
+        final Map<Long, XBundleInfoDTO> index = new HashMap<>(bundles.size());
+        for (final BundleDTO bundle : bundles) {
             final XBundleInfoDTO dto = new XBundleInfoDTO();
-            dto.id           = id;
-            dto.symbolicName = bsn;
 
-            bundles.add(dto);
+            dto.id           = bundle.id;
+            dto.symbolicName = bundle.symbolicName;
+
+            index.put(bundle.id, dto);
         }
-        return bundles;
+        return index;
     }
 
-    private String bsn(final long id, final BundleContext context) {
-        // @formatter:off
-        return Stream.of(context.getBundles())
-                     .filter(b -> b.getBundleId() == id)
-                     .map(Bundle::getSymbolicName)
-                     .findAny()
-                     .orElse(null);
-        // @formatter:on
+    private XBundleInfoDTO bundleInfo(final long id, final Map<Long, XBundleInfoDTO> bundles) {
+        // a bundle that has been installed after the framework DTO had been created
+        return bundles.computeIfAbsent(id, k -> {
+            final Bundle         bundle = context.getBundle(k);
+            final XBundleInfoDTO dto    = new XBundleInfoDTO();
+
+            dto.id           = k;
+            dto.symbolicName = bundle == null ? null : bundle.getSymbolicName();
+
+            return dto;
+        });
     }
 
 }
@@ -15,6 +15,7 @@
  ******************************************************************************/
 package com.osgifx.console.agent.admin;
 
+import static com.osgifx.console.agent.rpc.RpcCall.isAbandoned;
 import static java.util.stream.Collectors.toList;
 
 import java.lang.management.ManagementFactory;
@@ -31,7 +32,9 @@ import com.osgifx.console.agent.dto.XThreadDTO;
 import com.osgifx.console.agent.provider.PackageWirings;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
 
+@Singleton
 public final class XThreadAdmin {
 
     private final PackageWirings wirings;
@@ -46,7 +49,7 @@ public final class XThreadAdmin {
         try {
             final Map<Thread, StackTraceElement[]> threads    = Thread.getAllStackTraces();
             final List<Thread>                     threadList = new ArrayList<>(threads.keySet());
-            return threadList.stream().map(this::toDTO).collect(toList());
+            return threadList.stream().filter(t -> !isAbandoned()).map(this::toDTO).collect(toList());
         } catch (final Exception e) {
             logger.atError().msg("Error occurred while retrieving threads").throwable(e).log();
             return Collections.emptyList();
@@ -40,6 +40,7 @@ import com.osgifx.console.agent.admin.XMetaTypeAdmin;
 import com.osgifx.console.agent.admin.XUserAdmin;
 import com.osgifx.console.agent.di.DI;
 import com.osgifx.console.agent.extension.AgentExtension;
+import com.osgifx.console.agent.provider.MetatypeIndex;
 import com.osgifx.console.agent.provider.PackageWirings;
 
 @SuppressWarnings("rawtypes")
@@ -65,6 +66,9 @@ public final class DIModule {
     private ServiceTracker<Object, Object>                 jaxrsServiceRuntimeTracker;
     private ServiceTracker<AgentExtension, AgentExtension> agentExtensionTracker;
 
+    // created lazily as the metatype packages might not be wired to the agent
+    private MetatypeIndex metatypeIndex;
+
     private final Set<String>                           gogoCommands    = new CopyOnWriteArraySet<>();
     private final Map<String, AgentExtension<DTO, DTO>> agentExtensions = new ConcurrentHashMap<>();
 
@@ -79,28 +83,54 @@ public final class DIModule {
     public void start() throws Exception {
         initServiceTrackers();
 
-        di.bindProvider(XComponentAdmin.class, () -> new XComponentAdmin(scrTracker.getService()));
-        di.bindProvider(XConfigurationAdmin.class,
-                () -> new XConfigurationAdmin(context, configAdminTracker.getService(), metatypeTracker.getService(),
+        // the admins are retained (including their caches) as long as the services they depend on are unchanged
+        // @formatter:off
+        di.bindScopedProvider(XComponentAdmin.class,
+                () -> scope(scrTracker.getService()),
+                () -> new XComponentAdmin(scrTracker.getService()));
+        di.bindScopedProvider(XConfigurationAdmin.class,
+                () -> scope(configAdminTracker.getService(), metatypeIndex(), di.getInstance(XComponentAdmin.class)),
+                () -> new XConfigurationAdmin(context, configAdminTracker.getService(), metatypeIndex(),
                                               di.getInstance(XComponentAdmin.class)));
+        // XDmtAdmin keeps the state of the node tree being read and hence, needs a new instance on every request
         di.bindProvider(XDmtAdmin.class, () -> new XDmtAdmin(dmtAdminTracker.getService()));
-        di.bindProvider(XDtoAdmin.class,
+        di.bindScopedProvider(XDtoAdmin.class,
+                () -> scope(scrTracker.getService(), jaxrsServiceRuntimeTracker.getService(),
+                            httpServiceRuntimeTracker.getService(), cdiServiceRuntimeTracker.getService()),
                 () -> new XDtoAdmin(context, scrTracker.getService(), jaxrsServiceRuntimeTracker.getService(),
                                     httpServiceRuntimeTracker.getService(), cdiServiceRuntimeTracker.getService(),
                                     di.getInstance(PackageWirings.class)));
-        di.bindProvider(XEventAdmin.class, () -> new XEventAdmin(eventAdminTracker.getService()));
-        di.bindProvider(XHcAdmin.class, () -> new XHcAdmin(context, felixHcExecutorTracker.getService()));
-        di.bindProvider(XHttpAdmin.class, () -> new XHttpAdmin(httpServiceRuntimeTracker.getService()));
-        di.bindProvider(XMetaTypeAdmin.class,
-                () -> new XMetaTypeAdmin(context, configAdminTracker.getService(), metatypeTracker.getService()));
-        di.bindProvider(XUserAdmin.class, () -> new XUserAdmin(userAdminTracker.getService()));
-        di.bindProvider(XLoggerAdmin.class,
+        di.bindScopedProvider(XEventAdmin.class,
+                () -> scope(eventAdminTracker.getService()),
+                () -> new XEventAdmin(eventAdminTracker.getService()));
+        di.bindScopedProvider(XHcAdmin.class,
+                () -> scope(felixHcExecutorTracker.getService()),
+                () -> new XHcAdmin(context, felixHcExecutorTracker.getService()));
+        di.bindScopedProvider(XHttpAdmin.class,
+                () -> scope(httpServiceRuntimeTracker.getService()),
+                () -> new XHttpAdmin(httpServiceRuntimeTracker.getService()));
+        di.bindScopedProvider(XMetaTypeAdmin.class,
+                () -> scope(configAdminTracker.getService(), metatypeTracker.getService(), metatypeIndex()),
+                () -> new XMetaTypeAdmin(configAdminTracker.getService(), metatypeTracker.getService(),
+                                         metatypeIndex()));
+        di.bindScopedProvider(XUserAdmin.class,
+                () -> scope(userAdminTracker.getService()),
+                () -> new XUserAdmin(userAdminTracker.getService()));
+        di.bindScopedProvider(XLoggerAdmin.class,
+                () -> scope(loggerAdminTracker.getService()),
                 () -> new XLoggerAdmin(loggerAdminTracker.getService(), di.getInstance(PackageWirings.class), context));
+        // @formatter:on
         di.bindInstance(Set.class, gogoCommands);
         di.bindInstance(Map.class, agentExtensions);
     }
 
     public void stop() {
+        synchronized (this) {
+            if (metatypeIndex != null) {
+                metatypeIndex.close();
+                metatypeIndex = null;
+            }
+        }
         scrTracker.close();
         metatypeTracker.close();
         dmtAdminTracker.close();
@@ -124,6 +154,26 @@ public final class DIModule {
         di.bindInstance(classType, instance);
     }
 
+    /**
+     * The scope of an admin comprises the services it depends on. The equality of the scope is based on the identity
+     * of the services such that an admin is only recreated if any of its services has been replaced.
+     */
+    private static Scope scope(final Object... services) {
+        return new Scope(services);
+    }
+
+    private synchronized MetatypeIndex metatypeIndex() {
+        final Object metatype = metatypeTracker.getService();
+        if (metatype == null) {
+            return null;
+        }
+        if (metatypeIndex == null) {
+            metatypeIndex = new MetatypeIndex(context);
+        }
+        metatypeIndex.bind(metatype);
+        return metatypeIndex;
+    }
+
     private void initServiceTrackers() throws InvalidSyntaxException {
         final Filter gogoCommandFilter = context.createFilter("(osgi.command.scope=*)");
 
@@ -229,4 +279,39 @@ public final class DIModule {
         jaxrsServiceRuntimeTracker.open();
     }
 
+    private static final class Scope {
+
+        private final Object[] services;
+
+        private Scope(final Object[] services) {
+            this.services = services;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Scope)) {
+                return false;
+            }
+            final Object[] other = ((Scope) obj).services;
+            if (other.length != services.length) {
+                return false;
+            }
+            for (int i = 0; i < services.length; i++) {
+                if (services[i] != other[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 1;
+            for (final Object service : services) {
+                hash = 31 * hash + System.identityHashCode(service);
+            }
+            return hash;
+        }
+    }
+
 }
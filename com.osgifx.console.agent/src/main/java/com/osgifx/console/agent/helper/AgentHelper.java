@@ -15,6 +15,9 @@
  ******************************************************************************/
 package com.osgifx.console.agent.helper;
 
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Dictionary;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -57,6 +60,25 @@ public final class AgentHelper {
         return map;
     }
 
+    /**
+     * Returns the elements of the specified configuration value which can either
+     * be a scalar, an array or a collection.
+     */
+    public static List<Object> asList(final Object value) {
+        final List<Object> values = new ArrayList<>();
+        if (value instanceof Collection) {
+            values.addAll((Collection<?>) value);
+        } else if (value.getClass().isArray()) {
+            final int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                values.add(Array.get(value, i));
+            }
+        } else {
+            values.add(value);
+        }
+        return values;
+    }
+
     public static String serviceUnavailable(final OSGiCompendiumService service) {
         return service.comprehensibleName + " service is not available";
     }
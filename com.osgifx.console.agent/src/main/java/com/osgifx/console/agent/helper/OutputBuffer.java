@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.redirector;
+package com.osgifx.console.agent.helper;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+/**
+ * A bounded buffer for the output of a command that is consumed in chunks.
+ * <p>
+ * The output is kept as raw bytes and is only decoded when it is drained. A
+ * multi-byte UTF-8 character that has only been partially written is retained
+ * until it is complete. A writer is blocked as soon as the buffer is full and
+ * fails with a {@link CancellationException} once the buffer is cancelled.
+ */
+public final class OutputBuffer extends OutputStream {
+
+    private final String  name;
+    private final int     capacity;
+    private final Charset charset;
+    private byte[]        buffer = new byte[8192];
+    private int           count;
+    private boolean       isCancelled;
+    private boolean       isCompleted;
+
+    public OutputBuffer(final String name, final int capacity, final Charset charset) {
+        this.name     = name;
+        this.capacity = capacity;
+        this.charset  = charset;
+    }
+
+    @Override
+    public void write(final int b) {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public synchronized void write(final byte[] b, final int off, final int len) {
+        if (len == 0) {
+            return;
+        }
+        int written = 0;
+        while (written < len) {
+            while (count >= capacity && !isCancelled) {
+                try {
+                    wait();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    isCancelled = true;
+                }
+            }
+            if (isCancelled) {
+                throw new CancellationException("Execution '" + name + "' has been cancelled");
+            }
+            final int chunk = Math.min(len - written, capacity - count);
+            ensureCapacity(count + chunk);
+            System.arraycopy(b, off + written, buffer, count, chunk);
+            count   += chunk;
+            written += chunk;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Waits until output is available, the buffer is completed or the specified
+     * timeout has elapsed.
+     */
+    public synchronized void await(final long timeoutInMillis) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeoutInMillis;
+        long       remaining;
+        while (count == 0 && !isCompleted && (remaining = deadline - System.currentTimeMillis()) > 0) {
+            wait(remaining);
+        }
+    }
+
+    /**
+     * Removes and decodes at most the specified number of bytes from the buffer.
+     */
+    public synchronized String drain(final int maxBytes) {
+        int length = Math.min(count, maxBytes);
+        if (!isCompleted || length < count) {
+            length = completeLength(length);
+        }
+        final String output = new String(buffer, 0, length, charset);
+        System.arraycopy(buffer, length, buffer, 0, count - length);
+        count -= length;
+        notifyAll();
+        return output;
+    }
+
+    /**
+     * Marks that no further output follows.
+     */
+    public synchronized void complete() {
+        isCompleted = true;
+        notifyAll();
+    }
+
+    /**
+     * @return {@code true} if the buffer is completed and its complete output
+     *         has been drained, otherwise {@code false}
+     */
+    public synchronized boolean isDrained() {
+        return isCompleted && count == 0;
+    }
+
+    public synchronized void cancel() {
+        isCancelled = true;
+        count       = 0;
+        notifyAll();
+    }
+
+    public synchronized boolean isCancelled() {
+        return isCancelled;
+    }
+
+    private void ensureCapacity(final int minCapacity) {
+        if (minCapacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(minCapacity, Math.min(buffer.length * 2, capacity)));
+        }
+    }
+
+    /**
+     * @return the length of the longest prefix of the buffer that does not end
+     *         with an incomplete UTF-8 sequence
+     */
+    private int completeLength(final int length) {
+        if (!UTF_8.equals(charset)) {
+            return length;
+        }
+        int start = length - 1;
+        while (start >= 0 && length - start < 4 && (buffer[start] & 0xC0) == 0x80) {
+            start--;
+        }
+        if (start < 0) {
+            return length;
+        }
+        final int lead     = buffer[start] & 0xFF;
+        final int expected = lead >= 0xF0 ? 4 : lead >= 0xE0 ? 3 : lead >= 0xC0 ? 2 : 1;
+        return length - start >= expected ? length : start;
+    }
+
+}
@@ -24,6 +24,7 @@ import static com.osgifx.console.agent.provider.AgentServer.RpcType.SOCKET_RPC;
 import static com.osgifx.console.agent.provider.PackageWirings.Type.CM;
 import static com.osgifx.console.agent.provider.PackageWirings.Type.DMT;
 import static com.osgifx.console.agent.provider.PackageWirings.Type.EVENT_ADMIN;
+import static com.osgifx.console.agent.provider.PackageWirings.Type.GOGO;
 import static com.osgifx.console.agent.provider.PackageWirings.Type.HC;
 import static com.osgifx.console.agent.provider.PackageWirings.Type.HTTP;
 import static com.osgifx.console.agent.provider.PackageWirings.Type.JMX;
@@ -31,22 +32,19 @@ import static com.osgifx.console.agent.provider.PackageWirings.Type.LOG;
 import static com.osgifx.console.agent.provider.PackageWirings.Type.R7_LOGGER;
 import static com.osgifx.console.agent.provider.PackageWirings.Type.SCR;
 import static com.osgifx.console.agent.provider.PackageWirings.Type.USER_ADMIN;
+import static com.osgifx.console.agent.rpc.RpcCall.isAbandoned;
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.toCollection;
 import static java.util.stream.Collectors.toSet;
 import static org.osgi.framework.Constants.BUNDLE_SYMBOLICNAME;
 import static org.osgi.framework.Constants.BUNDLE_VERSION;
 import static org.osgi.framework.Constants.SYSTEM_BUNDLE_ID;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PrintStream;
 import java.lang.management.ManagementFactory;
 import java.net.URL;
-import java.time.Duration;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -66,13 +64,6 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
-import org.apache.commons.exec.CommandLine;
-import org.apache.commons.exec.DefaultExecuteResultHandler;
-import org.apache.commons.exec.DefaultExecutor;
-import org.apache.commons.exec.ExecuteWatchdog;
-import org.apache.commons.exec.Executor;
-import org.apache.commons.exec.OS;
-import org.apache.commons.exec.PumpStreamHandler;
 import org.osgi.dto.DTO;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
@@ -115,20 +106,28 @@ import com.osgifx.console.agent.dto.ConfigValue;
 import com.osgifx.console.agent.dto.DmtDataType;
 import com.osgifx.console.agent.dto.RuntimeDTO;
 import com.osgifx.console.agent.dto.XBundleDTO;
+import com.osgifx.console.agent.dto.XBundleLifecycleDTO;
 import com.osgifx.console.agent.dto.XBundleLoggerContextDTO;
+import com.osgifx.console.agent.dto.XClassloaderHistogramDTO;
+import com.osgifx.console.agent.dto.XCliOutputDTO;
 import com.osgifx.console.agent.dto.XComponentDTO;
+import com.osgifx.console.agent.dto.XConfigurationBatchDTO;
 import com.osgifx.console.agent.dto.XConfigurationDTO;
 import com.osgifx.console.agent.dto.XDmtNodeDTO;
+import com.osgifx.console.agent.dto.XExtensionChunkDTO;
+import com.osgifx.console.agent.dto.XGogoOutputDTO;
 import com.osgifx.console.agent.dto.XHealthCheckDTO;
 import com.osgifx.console.agent.dto.XHealthCheckResultDTO;
 import com.osgifx.console.agent.dto.XHeapUsageDTO;
 import com.osgifx.console.agent.dto.XHttpComponentDTO;
 import com.osgifx.console.agent.dto.XMemoryInfoDTO;
+import com.osgifx.console.agent.dto.XPackageIndexDTO;
 import com.osgifx.console.agent.dto.XPropertyDTO;
 import com.osgifx.console.agent.dto.XResultDTO;
 import com.osgifx.console.agent.dto.XRoleDTO;
 import com.osgifx.console.agent.dto.XRoleDTO.Type;
 import com.osgifx.console.agent.dto.XServiceDTO;
+import com.osgifx.console.agent.dto.XStartupTimelineDTO;
 import com.osgifx.console.agent.dto.XThreadDTO;
 import com.osgifx.console.agent.extension.AgentExtension;
 import com.osgifx.console.agent.handler.OSGiEventHandler;
@@ -136,8 +135,8 @@ import com.osgifx.console.agent.handler.OSGiLogListener;
 import com.osgifx.console.agent.helper.AgentHelper;
 import com.osgifx.console.agent.redirector.ConsoleRedirector;
 import com.osgifx.console.agent.redirector.GogoRedirector;
+import com.osgifx.console.agent.redirector.GogoSessions;
 import com.osgifx.console.agent.redirector.NullRedirector;
-import com.osgifx.console.agent.redirector.RedirectOutput;
 import com.osgifx.console.agent.redirector.Redirector;
 import com.osgifx.console.agent.redirector.SocketRedirector;
 import com.osgifx.console.agent.rpc.RemoteRPC;
@@ -154,14 +153,10 @@ public final class AgentServer implements Agent, Closeable {
         SOCKET_RPC
     }
 
-    private static final Duration      RESULT_TIMEOUT                        = Duration.ofSeconds(20);
-    private static final Duration      WATCHDOG_TIMEOUT                      = Duration.ofSeconds(30);
-    private static final AtomicInteger sequence                              = new AtomicInteger(1000);
-    private static final Pattern       BSN_PATTERN                           = Pattern.compile("\\s*([^;\\s]+).*");
-    public static final String         PROPERTY_ENABLE_LOGGING               = "osgi.fx.enable.logging";
-    public static final String         PROPERTY_ENABLE_EVENTING              = "osgi.fx.enable.eventing";
-    private static final String        COMMAND_EXECUTOR_DEFAULT_THREAD_NAME  = "exec-default";
-    private static final String        COMMAND_EXECUTOR_WATCHDOG_THREAD_NAME = "exec-watchdog";
+    private static final AtomicInteger sequence                 = new AtomicInteger(1000);
+    private static final Pattern       BSN_PATTERN              = Pattern.compile("\\s*([^;\\s]+).*");
+    public static final String         PROPERTY_ENABLE_LOGGING  = "osgi.fx.enable.logging";
+    public static final String         PROPERTY_ENABLE_EVENTING = "osgi.fx.enable.eventing";
 
     public volatile boolean              quit;
     private final RpcType                rpcType;
@@ -267,6 +262,23 @@ public final class AgentServer implements Agent, Closeable {
         return sb.length() == 0 ? null : sb.toString();
     }
 
+    @Override
+    public XBundleLifecycleDTO startBundles(final long... ids) {
+        requireNonNull(ids, "Bundle IDs cannot be null");
+        return di.getInstance(BundleLifecycleScheduler.class).start(ids);
+    }
+
+    @Override
+    public XBundleLifecycleDTO stopBundles(final long... ids) {
+        requireNonNull(ids, "Bundle IDs cannot be null");
+        return di.getInstance(BundleLifecycleScheduler.class).stop(ids);
+    }
+
+    @Override
+    public XStartupTimelineDTO getStartupTimeline() {
+        return di.getInstance(BundleStartTimeCalculator.class).getStartupTimeline();
+    }
+
     @Override
     public String uninstall(final long... ids) {
         requireNonNull(ids, "Bundle IDs cannot be null");
@@ -350,14 +362,41 @@ public final class AgentServer implements Agent, Closeable {
     public String execGogoCommand(final String command) throws Exception {
         requireNonNull(command, "Gogo command cannot be null");
 
-        redirect(COMMAND_SESSION);
-        stdin(command);
-        final PrintStream ps = redirector.getOut();
-        if (ps instanceof RedirectOutput) {
-            final RedirectOutput rout = (RedirectOutput) ps;
-            return rout.getLastOutput();
+        return gogoSessions().execute(command);
+    }
+
+    @Override
+    public String startGogoCommand(final String command) throws Exception {
+        requireNonNull(command, "Gogo command cannot be null");
+
+        return gogoSessions().start(command);
+    }
+
+    @Override
+    public XGogoOutputDTO pollGogoCommand(final String executionId, final long timeoutInMillis) throws Exception {
+        requireNonNull(executionId, "Gogo command execution ID cannot be null");
+
+        return gogoSessions().poll(executionId, timeoutInMillis);
+    }
+
+    @Override
+    public boolean cancelGogoCommand(final String executionId) {
+        requireNonNull(executionId, "Gogo command execution ID cannot be null");
+
+        final boolean isGogoAvailable = di.getInstance(PackageWirings.class).isGogoWired();
+        if (!isGogoAvailable) {
+            logger.atWarn().msg(packageNotWired(GOGO)).log();
+            return false;
         }
-        return null;
+        return di.getInstance(GogoSessions.class).cancel(executionId);
+    }
+
+    private GogoSessions gogoSessions() {
+        final boolean isGogoAvailable = di.getInstance(PackageWirings.class).isGogoWired();
+        if (!isGogoAvailable) {
+            throw new IllegalStateException("Gogo is not present in this framework");
+        }
+        return di.getInstance(GogoSessions.class);
     }
 
     @Override
@@ -394,50 +433,35 @@ public final class AgentServer implements Agent, Closeable {
     public String execCliCommand(final String command) {
         requireNonNull(command, "CLI command cannot be null");
 
-        final List<String> commandEntries = new ArrayList<>();
-        if (OS.isFamilyWindows()) {
-            commandEntries.add("cmd.exe");
-            commandEntries.add("/C");
-        }
-        parseCommand(command, commandEntries);
         try {
-            final CommandLine cmdLine = CommandLine.parse(commandEntries.get(0));
-            for (int i = 1; i < commandEntries.size(); i++) {
-                cmdLine.addArgument(commandEntries.get(i));
-            }
-            final DefaultExecuteResultHandler resultHandler = new DefaultExecuteResultHandler();
-            final ExecuteWatchdog             watchdog      = ExecuteWatchdog.builder().setTimeout(WATCHDOG_TIMEOUT)
-                    .setThreadFactory(r -> new Thread(r, COMMAND_EXECUTOR_WATCHDOG_THREAD_NAME)).get();
-            final Executor                    executor      = DefaultExecutor.builder()
-                    .setThreadFactory(r -> new Thread(r, COMMAND_EXECUTOR_DEFAULT_THREAD_NAME)).get();
-            final ByteArrayOutputStream       outputStream  = new ByteArrayOutputStream();
-            final PumpStreamHandler           streamHandler = new PumpStreamHandler(outputStream);
-
-            executor.setExitValue(1);
-            executor.setWatchdog(watchdog);
-            executor.setStreamHandler(streamHandler);
-            executor.execute(cmdLine, resultHandler);
-            resultHandler.waitFor(RESULT_TIMEOUT);
-
-            return outputStream.toString();
-        } catch (final Exception e) {
+            return di.getInstance(CliSessions.class).execute(command);
+        } catch (final InterruptedException e) {
             Thread.currentThread().interrupt();
             return Exceptions.toString(e);
+        } catch (final Exception e) {
+            return Exceptions.toString(e);
         }
     }
 
-    private List<String> parseCommand(String command, final List<String> commandEntries) {
-        command = command.trim();
-        if (command.isEmpty()) {
-            return Collections.emptyList();
-        }
-        final String[] entry = command.split(" ");
-        // @formatter:off
-        return Stream.of(entry)
-                     .filter(e -> !e.isEmpty())
-                     .map(String::trim)
-                     .collect(toCollection(() -> commandEntries));
-        // @formatter:on
+    @Override
+    public String startCliCommand(final String command) {
+        requireNonNull(command, "CLI command cannot be null");
+
+        return di.getInstance(CliSessions.class).start(command);
+    }
+
+    @Override
+    public XCliOutputDTO pollCliCommand(final String executionId, final long timeoutInMillis) throws Exception {
+        requireNonNull(executionId, "CLI command execution ID cannot be null");
+
+        return di.getInstance(CliSessions.class).poll(executionId, timeoutInMillis);
+    }
+
+    @Override
+    public boolean cancelCliCommand(final String executionId) {
+        requireNonNull(executionId, "CLI command execution ID cannot be null");
+
+        return di.getInstance(CliSessions.class).cancel(executionId);
     }
 
     public void setSupervisor(final Supervisor remote) {
@@ -626,6 +650,11 @@ public final class AgentServer implements Agent, Closeable {
         return di.getInstance(XBundleAdmin.class).get();
     }
 
+    @Override
+    public XPackageIndexDTO getPackageIndex() {
+        return di.getInstance(PackageIndex.class).getIndex();
+    }
+
     @Override
     public List<XComponentDTO> getAllComponents() {
         final boolean isScrAvailable = di.getInstance(PackageWirings.class).isScrWired();
@@ -645,11 +674,17 @@ public final class AgentServer implements Agent, Closeable {
         if (isConfigAdminAvailable) {
             configs.addAll(di.getInstance(XConfigurationAdmin.class).getConfigurations());
         }
-        if (isMetatypeAvailable) {
+        if (isMetatypeAvailable && !isAbandoned()) {
             configs.addAll(di.getInstance(XMetaTypeAdmin.class).getConfigurations());
         }
         if (isScrAvailable) {
-            configs.forEach(c -> di.getInstance(XConfigurationAdmin.class).setComponentReferenceFilters(c));
+            final XConfigurationAdmin configAdmin = di.getInstance(XConfigurationAdmin.class);
+            for (final XConfigurationDTO config : configs) {
+                if (isAbandoned()) {
+                    break;
+                }
+                configAdmin.setComponentReferenceFilters(config);
+            }
         }
         return configs;
     }
@@ -770,6 +805,25 @@ public final class AgentServer implements Agent, Closeable {
         return results;
     }
 
+    @Override
+    public XConfigurationBatchDTO applyConfigurationBatch(final Map<String, Map<String, Object>> configurations) {
+        requireNonNull(configurations, "Configurations cannot be null");
+
+        final boolean isConfigAdminAvailable = di.getInstance(PackageWirings.class).isConfigAdminWired();
+        if (isConfigAdminAvailable) {
+            return di.getInstance(XConfigurationAdmin.class).applyBatch(configurations);
+        }
+        logger.atWarn().msg(packageNotWired(CM)).log();
+
+        final XConfigurationBatchDTO batch = new XConfigurationBatchDTO();
+
+        batch.result   = SKIPPED;
+        batch.response = packageNotWired(CM);
+        batch.entries  = Collections.emptyList();
+
+        return batch;
+    }
+
     @Override
     public XResultDTO deleteConfiguration(final String pid) {
         requireNonNull(pid, "Configuration PID cannot be null");
@@ -973,11 +1027,57 @@ public final class AgentServer implements Agent, Closeable {
         }
     }
 
+    @Override
+    public String startExtensionStream(final String name, final Map<String, Object> context) {
+        try {
+            return di.getInstance(ExtensionStreams.class).start(name, context);
+        } catch (final Exception e) {
+            logger.atError().msg("Error occurred while starting extension stream - '{}'").arg(name).throwable(e)
+                    .log();
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public XExtensionChunkDTO pollExtensionStream(final String streamId, final long timeoutInMillis) {
+        try {
+            return di.getInstance(ExtensionStreams.class).poll(streamId, timeoutInMillis);
+        } catch (final Exception e) {
+            logger.atError().msg("Error occurred while polling extension stream - '{}'").arg(streamId).throwable(e)
+                    .log();
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public boolean cancelExtensionStream(final String streamId) {
+        return di.getInstance(ExtensionStreams.class).cancel(streamId);
+    }
+
     @Override
     public Set<XBundleDTO> getClassloaderLeaks() {
         return di.getInstance(ClassloaderLeakDetector.class).getSuspiciousBundles();
     }
 
+    @Override
+    public List<XClassloaderHistogramDTO> getClassloaderHistogram(final boolean liveObjectsOnly) {
+        final boolean isJMXWired = di.getInstance(PackageWirings.class).isJmxWired();
+        if (!isJMXWired) {
+            logger.atWarn().msg(packageNotWired(JMX)).log();
+            return Collections.emptyList();
+        }
+        try {
+            final String histogram = di.getInstance(XJmxAdmin.class).classHistogram(liveObjectsOnly);
+            if (isAbandoned()) {
+                return Collections.emptyList();
+            }
+            return di.getInstance(ClassloaderLeakDetector.class).getClassHistogram(histogram);
+        } catch (final Exception e) {
+            logger.atError().msg("Error occurred while retrieving class histogram").throwable(e).log();
+            return Collections.emptyList();
+        }
+    }
+
     @Override
     public List<XHttpComponentDTO> getHttpComponents() {
         final boolean isHttpServiceRuntimeWired = di.getInstance(PackageWirings.class).isHttpServiceRuntimeWired();
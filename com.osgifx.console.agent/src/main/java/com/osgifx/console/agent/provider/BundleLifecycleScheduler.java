@@ -0,0 +1,350 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.provider;
+
+import static com.osgifx.console.agent.dto.XBundleLifecycleDTO.START;
+import static com.osgifx.console.agent.dto.XBundleLifecycleDTO.STOP;
+import static com.osgifx.console.agent.dto.XResultDTO.ERROR;
+import static com.osgifx.console.agent.dto.XResultDTO.SKIPPED;
+import static com.osgifx.console.agent.dto.XResultDTO.SUCCESS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.osgi.framework.Constants.SYSTEM_BUNDLE_ID;
+import static org.osgi.framework.wiring.BundleRevision.TYPE_FRAGMENT;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.wiring.BundleRevision;
+import org.osgi.framework.wiring.BundleWire;
+import org.osgi.framework.wiring.BundleWiring;
+import org.osgi.framework.wiring.FrameworkWiring;
+
+import com.j256.simplelogging.FluentLogger;
+import com.j256.simplelogging.LoggerFactory;
+import com.osgifx.console.agent.dto.XBundleLifecycleDTO;
+import com.osgifx.console.agent.dto.XBundleLifecycleDTO.XBundleLifecycleEntry;
+import com.osgifx.console.agent.helper.ThreadFactoryBuilder;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * Starts or stops a set of bundles in the order derived from their wiring. A
+ * bundle is started as soon as all the bundles it requires (directly or through
+ * bundles outside of the set) have been started. Stopping works the other way
+ * round. Independent bundles are processed concurrently on a bounded pool such
+ * that the whole operation is limited by the critical path instead of the sum
+ * of all activators. The system bundle and the agent bundle are never processed
+ * as stopping either of them would take down the framework or the connection
+ * the operation has been requested through.
+ */
+@Singleton
+public final class BundleLifecycleScheduler {
+
+    private static final int    MAX_PARALLELISM    = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final String THREAD_NAME_SUFFIX = "-%d";
+    private static final String THREAD_NAME_PREFIX = "osgifx-lifecycle";
+
+    // @formatter:off
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactoryBuilder()
+                                                              .setThreadFactoryName(THREAD_NAME_PREFIX)
+                                                              .setThreadNameFormat(THREAD_NAME_SUFFIX)
+                                                              .setDaemon(true)
+                                                              .build();
+    // @formatter:on
+
+    private final FluentLogger  logger = LoggerFactory.getFluentLogger(getClass());
+    private final BundleContext context;
+
+    @Inject
+    public BundleLifecycleScheduler(final BundleContext context) {
+        this.context = context;
+    }
+
+    public XBundleLifecycleDTO start(final long... ids) {
+        return execute(START, ids);
+    }
+
+    public XBundleLifecycleDTO stop(final long... ids) {
+        return execute(STOP, ids);
+    }
+
+    private XBundleLifecycleDTO execute(final String operation, final long... ids) {
+        final XBundleLifecycleDTO dto = new XBundleLifecycleDTO();
+
+        dto.operation = operation;
+        dto.entries   = new ArrayList<>(ids.length);
+
+        final Map<Long, Bundle> bundles = new LinkedHashMap<>();
+        for (final long id : ids) {
+            final Bundle bundle = context.getBundle(id);
+            if (bundle == null) {
+                dto.entries.add(createEntry(id, null, ERROR, "Bundle " + id + " does not exist"));
+            } else if (id == SYSTEM_BUNDLE_ID || id == context.getBundle().getBundleId()) {
+                dto.entries.add(createEntry(id, bundle, SKIPPED, "The system and agent bundles are not processed"));
+            } else {
+                bundles.put(id, bundle);
+            }
+        }
+        final long begin = System.nanoTime();
+        if (!bundles.isEmpty()) {
+            if (START.equals(operation)) {
+                // resolve beforehand such that the wiring of yet unresolved bundles is known
+                context.getBundle(SYSTEM_BUNDLE_ID).adapt(FrameworkWiring.class).resolveBundles(bundles.values());
+            }
+            final Map<Long, Set<Long>> requirements = findRequirements(bundles);
+            final Map<Long, Set<Long>> dependencies = START.equals(operation) ? requirements : invert(requirements);
+            schedule(operation, bundles, dependencies, begin, dto);
+        }
+        dto.totalTime = NANOSECONDS.toMillis(System.nanoTime() - begin);
+        for (final XBundleLifecycleEntry entry : dto.entries) {
+            dto.cumulativeTime += entry.duration;
+            if (entry.result == ERROR) {
+                dto.failures++;
+            }
+        }
+        return dto;
+    }
+
+    private void schedule(final String operation,
+                          final Map<Long, Bundle> bundles,
+                          final Map<Long, Set<Long>> dependencies,
+                          final long begin,
+                          final XBundleLifecycleDTO dto) {
+        final Map<Long, Set<Long>> dependents = invert(dependencies);
+        final Map<Long, Integer>   remaining  = new HashMap<>();
+        final Deque<Long>          ready      = new ArrayDeque<>();
+
+        for (final Entry<Long, Set<Long>> entry : dependencies.entrySet()) {
+            final int count = entry.getValue().size();
+            remaining.put(entry.getKey(), count);
+            if (count == 0) {
+                ready.add(entry.getKey());
+            }
+        }
+        final int                                      poolSize          = Math.min(MAX_PARALLELISM, bundles.size());
+        final ExecutorService                          executor          = Executors.newFixedThreadPool(poolSize,
+                THREAD_FACTORY);
+        final CompletionService<XBundleLifecycleEntry> completionService = new ExecutorCompletionService<>(executor);
+        final Map<Future<XBundleLifecycleEntry>, Long> inFlight          = new HashMap<>();
+
+        try {
+            while (!remaining.isEmpty() || !inFlight.isEmpty()) {
+                while (!ready.isEmpty()) {
+                    final Long      id     = ready.poll();
+                    final Bundle    bundle = bundles.get(id);
+                    final Set<Long> deps   = dependencies.get(id);
+
+                    remaining.remove(id);
+                    inFlight.put(completionService.submit(() -> process(operation, bundle, deps, begin)), id);
+                    dto.parallelism = Math.max(dto.parallelism, inFlight.size());
+                }
+                if (inFlight.isEmpty()) {
+                    // only bundles with cyclic dependencies are left
+                    ready.add(breakCycle(remaining));
+                    continue;
+                }
+                final Future<XBundleLifecycleEntry> future = completionService.take();
+                final Long                          id     = inFlight.remove(future);
+                try {
+                    dto.entries.add(future.get());
+                } catch (final ExecutionException e) {
+                    logger.atError().msg("Bundle '{}' cannot be processed").arg(id).throwable(e.getCause()).log();
+                    final XBundleLifecycleEntry entry = createEntry(id, bundles.get(id), ERROR,
+                            String.valueOf(e.getCause()));
+                    entry.dependencies = new ArrayList<>(dependencies.get(id));
+                    dto.entries.add(entry);
+                    // the bundles waiting for the failed one are skipped whereas all others are still processed
+                    skipDependents(id, bundles, dependents, remaining, dto);
+                    continue;
+                }
+                for (final Long dependent : dependents.get(id)) {
+                    final Integer count = remaining.get(dependent);
+                    if (count == null || count == 0) {
+                        continue;
+                    }
+                    remaining.put(dependent, count - 1);
+                    if (count == 1) {
+                        ready.add(dependent);
+                    }
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (final Long id : inFlight.values()) {
+                dto.entries.add(createEntry(id, bundles.get(id), SKIPPED, "Operation has been interrupted"));
+            }
+            for (final Long id : remaining.keySet()) {
+                dto.entries.add(createEntry(id, bundles.get(id), SKIPPED, "Operation has been interrupted"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Skips all bundles that wait for the specified failed bundle, either
+     * directly or transitively.
+     */
+    private static void skipDependents(final Long failed,
+                                       final Map<Long, Bundle> bundles,
+                                       final Map<Long, Set<Long>> dependents,
+                                       final Map<Long, Integer> remaining,
+                                       final XBundleLifecycleDTO dto) {
+        final Deque<Long> toSkip = new ArrayDeque<>(dependents.get(failed));
+        while (!toSkip.isEmpty()) {
+            final Long id = toSkip.poll();
+            if (remaining.remove(id) != null) {
+                final String response = "Bundle " + failed + " it waits for cannot be processed";
+                dto.entries.add(createEntry(id, bundles.get(id), SKIPPED, response));
+                toSkip.addAll(dependents.get(id));
+            }
+        }
+    }
+
+    private XBundleLifecycleEntry process(final String operation,
+                                          final Bundle bundle,
+                                          final Set<Long> dependencies,
+                                          final long begin) {
+        final long                  started = System.nanoTime();
+        final XBundleLifecycleEntry entry   = createEntry(bundle.getBundleId(), bundle, SUCCESS, null);
+
+        entry.startOffset  = NANOSECONDS.toMillis(started - begin);
+        entry.dependencies = new ArrayList<>(dependencies);
+
+        if (isFragment(bundle)) {
+            entry.result   = SKIPPED;
+            entry.response = "Fragment bundles cannot be started or stopped";
+            return entry;
+        }
+        try {
+            if (START.equals(operation)) {
+                bundle.start();
+            } else {
+                bundle.stop();
+            }
+        } catch (final Exception e) {
+            entry.result   = ERROR;
+            entry.response = e.getMessage();
+            logger.atWarn().msg("Bundle '{}' cannot be processed").arg(bundle.getBundleId()).throwable(e).log();
+        }
+        entry.duration = NANOSECONDS.toMillis(System.nanoTime() - started);
+        return entry;
+    }
+
+    /**
+     * Collects the bundles of the given set that each bundle requires, either
+     * directly or transitively through bundles that are not part of the set.
+     */
+    private Map<Long, Set<Long>> findRequirements(final Map<Long, Bundle> bundles) {
+        final Map<Long, Set<Long>> requirements = new HashMap<>();
+        for (final Bundle bundle : bundles.values()) {
+            final Set<Long>     providers = new TreeSet<>();
+            final Set<Long>     visited   = new HashSet<>();
+            final Deque<Bundle> toVisit   = new ArrayDeque<>();
+
+            visited.add(bundle.getBundleId());
+            toVisit.add(bundle);
+            while (!toVisit.isEmpty()) {
+                final BundleWiring wiring = toVisit.poll().adapt(BundleWiring.class);
+                if (wiring == null) {
+                    continue;
+                }
+                final List<BundleWire> wires = wiring.getRequiredWires(null);
+                if (wires == null) {
+                    continue;
+                }
+                for (final BundleWire wire : wires) {
+                    final Bundle provider   = wire.getProviderWiring().getBundle();
+                    final long   providerId = provider.getBundleId();
+                    if (!visited.add(providerId)) {
+                        continue;
+                    }
+                    if (bundles.containsKey(providerId)) {
+                        providers.add(providerId);
+                    } else {
+                        toVisit.add(provider);
+                    }
+                }
+            }
+            requirements.put(bundle.getBundleId(), providers);
+        }
+        return requirements;
+    }
+
+    private static Map<Long, Set<Long>> invert(final Map<Long, Set<Long>> graph) {
+        final Map<Long, Set<Long>> inverted = new HashMap<>();
+        for (final Long id : graph.keySet()) {
+            inverted.put(id, new TreeSet<>());
+        }
+        for (final Entry<Long, Set<Long>> entry : graph.entrySet()) {
+            for (final Long target : entry.getValue()) {
+                inverted.get(target).add(entry.getKey());
+            }
+        }
+        return inverted;
+    }
+
+    private static Long breakCycle(final Map<Long, Integer> remaining) {
+        Long candidate = null;
+        for (final Entry<Long, Integer> entry : remaining.entrySet()) {
+            if (candidate == null || entry.getValue() < remaining.get(candidate)
+                    || entry.getValue().equals(remaining.get(candidate)) && entry.getKey() < candidate) {
+                candidate = entry.getKey();
+            }
+        }
+        return candidate;
+    }
+
+    private static boolean isFragment(final Bundle bundle) {
+        final BundleRevision revision = bundle.adapt(BundleRevision.class);
+        return revision != null && (revision.getTypes() & TYPE_FRAGMENT) != 0;
+    }
+
+    private static XBundleLifecycleEntry createEntry(final long id,
+                                                     final Bundle bundle,
+                                                     final int result,
+                                                     final String response) {
+        final XBundleLifecycleEntry entry = new XBundleLifecycleEntry();
+
+        entry.id           = id;
+        entry.symbolicName = bundle == null ? null : bundle.getSymbolicName();
+        entry.result       = result;
+        entry.response     = response;
+        entry.dependencies = new ArrayList<>();
+
+        return entry;
+    }
+
+}
@@ -15,29 +15,63 @@
  ******************************************************************************/
 package com.osgifx.console.agent.provider;
 
+import static com.osgifx.console.agent.dto.XStartupTimelineDTO.ACTIVATOR;
+import static com.osgifx.console.agent.dto.XStartupTimelineDTO.AWAITING_RESOLUTION;
+import static com.osgifx.console.agent.dto.XStartupTimelineDTO.COMPONENT_SERVICES;
+import static com.osgifx.console.agent.dto.XStartupTimelineDTO.SERVICES;
+import static java.util.Comparator.comparingLong;
 import static java.util.stream.Collectors.toList;
+import static org.osgi.framework.BundleEvent.INSTALLED;
+import static org.osgi.framework.BundleEvent.RESOLVED;
 import static org.osgi.framework.BundleEvent.STARTED;
 import static org.osgi.framework.BundleEvent.STARTING;
+import static org.osgi.framework.BundleEvent.UNINSTALLED;
 import static org.osgi.framework.Constants.SYSTEM_BUNDLE_ID;
+import static org.osgi.framework.ServiceEvent.REGISTERED;
 
+import java.lang.management.ManagementFactory;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.BundleEvent;
+import org.osgi.framework.FrameworkEvent;
+import org.osgi.framework.FrameworkListener;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceListener;
 import org.osgi.framework.SynchronousBundleListener;
 
+import com.osgifx.console.agent.dto.XStartupTimelineDTO;
+import com.osgifx.console.agent.dto.XStartupTimelineDTO.XBundleTimeline;
+import com.osgifx.console.agent.dto.XStartupTimelineDTO.XLifecyclePhase;
+
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
 @Singleton
-public final class BundleStartTimeCalculator implements SynchronousBundleListener {
+public final class BundleStartTimeCalculator
+        implements SynchronousBundleListener, ServiceListener, FrameworkListener {
+
+    /**
+     * Service property which SCR adds to every service it registers on behalf of
+     * a component.
+     */
+    private static final String COMPONENT_NAME = "component.name";
+
+    /**
+     * Time after the start of a bundle in which its service registrations are
+     * still attributed to its startup, such as the ones of SCR which follow the
+     * start of the bundle.
+     */
+    static final long SETTLE_WINDOW_IN_MILLIS = 10_000L;
 
     public static final class BundleStartDuration {
 
@@ -64,14 +98,27 @@ public final class BundleStartTimeCalculator implements SynchronousBundleListene
         }
     }
 
-    private final Map<Long, StartTime> bundleToStartTime = new HashMap<>();
-    private final Clock                clock             = Clock.systemUTC();
-    private final long                 ourBundleId;
+    private final Map<Long, Timeline> timelines = new ConcurrentHashMap<>();
+    private final Clock               clock     = Clock.systemUTC();
+    private final long                recordingStartTime;
+    private final long                ourBundleId;
+    private volatile boolean          frameworkStarted;
 
     @Inject
     public BundleStartTimeCalculator(final BundleContext bundleContext) {
-        ourBundleId = bundleContext.getBundle().getBundleId();
+        recordingStartTime = clock.millis();
+        ourBundleId        = bundleContext.getBundle().getBundleId();
+        bundleContext.addFrameworkListener(this);
         bundleContext.addBundleListener(this);
+        bundleContext.addServiceListener(this);
+        frameworkStarted = bundleContext.getBundle(SYSTEM_BUNDLE_ID).getState() == Bundle.ACTIVE;
+    }
+
+    @Override
+    public void frameworkEvent(final FrameworkEvent event) {
+        if (event.getType() == FrameworkEvent.STARTED) {
+            frameworkStarted = true;
+        }
     }
 
     @Override
@@ -83,61 +130,173 @@ public final class BundleStartTimeCalculator implements SynchronousBundleListene
         if (bundle.getBundleId() == SYSTEM_BUNDLE_ID || bundle.getBundleId() == ourBundleId) {
             return;
         }
+        switch (event.getType()) {
+            case INSTALLED:
+                timeline(bundle).set(Timeline.INSTALLED, clock.millis());
+                break;
+            case RESOLVED:
+                timeline(bundle).set(Timeline.RESOLVED, clock.millis());
+                break;
+            case STARTING:
+                timeline(bundle).starting(clock.millis());
+                break;
+            case STARTED:
+                timeline(bundle).set(Timeline.STARTED, clock.millis());
+                break;
+            case UNINSTALLED:
+                timelines.remove(bundle.getBundleId());
+                break;
+            default:
+                break;
+        }
+    }
 
-        synchronized (bundleToStartTime) {
-            switch (event.getType()) {
-                case STARTING:
-                    bundleToStartTime.put(bundle.getBundleId(),
-                            new StartTime(bundle.getSymbolicName(), clock.millis()));
-                    break;
-                case STARTED:
-                    final StartTime startTime = bundleToStartTime.get(bundle.getBundleId());
-                    if (startTime == null) {
-                        return;
-                    }
-                    startTime.started(clock.millis());
-                    break;
-                default:
-                    break;
-            }
+    @Override
+    public void serviceChanged(final ServiceEvent event) {
+        if (event.getType() != REGISTERED) {
+            return;
+        }
+        final Bundle bundle = event.getServiceReference().getBundle();
+        if (bundle == null || bundle.getBundleId() == SYSTEM_BUNDLE_ID || bundle.getBundleId() == ourBundleId) {
+            return;
         }
+        final boolean isComponent = event.getServiceReference().getProperty(COMPONENT_NAME) != null;
+        timeline(bundle).registered(isComponent, clock.millis(), frameworkStarted);
     }
 
     public List<BundleStartDuration> getBundleStartDurations() {
-        synchronized (bundleToStartTime) {
-            return bundleToStartTime.values().stream().map(StartTime::toBundleStartDuration).collect(toList());
-        }
+        return timelines.values().stream().filter(Timeline::isStarted).map(Timeline::toBundleStartDuration)
+                .collect(toList());
+    }
+
+    public Optional<BundleStartDuration> getBundleStartDuration(final long bundleId) {
+        return Optional.ofNullable(timelines.get(bundleId)).filter(Timeline::isStarted)
+                .map(Timeline::toBundleStartDuration);
+    }
+
+    public XStartupTimelineDTO getStartupTimeline() {
+        final XStartupTimelineDTO dto = new XStartupTimelineDTO();
+
+        dto.vmStartTime        = ManagementFactory.getRuntimeMXBean().getStartTime();
+        dto.recordingStartTime = recordingStartTime;
+        dto.bundles            = timelines.values().stream().map(Timeline::toDTO).filter(t -> !t.phases.isEmpty())
+                .sorted(comparingLong(t -> t.phases.get(0).start)).collect(toList());
+
+        return dto;
     }
-    
-    public Optional<BundleStartDuration> getBundleStartDuration(long bundleId) {
-        return Optional.ofNullable(bundleToStartTime.get(bundleId)).map(StartTime::toBundleStartDuration);
+
+    private Timeline timeline(final Bundle bundle) {
+        return timelines.computeIfAbsent(bundle.getBundleId(), id -> new Timeline(id, bundle.getSymbolicName()));
     }
 
-    static class StartTime {
-        private final String bundleSymbolicName;
-        private final long   startingTimestamp;
-        private long         startedTimestamp;
+    /**
+     * Lock-free record of the lifecycle timestamps of a single bundle. A value of
+     * {@code 0} denotes a timestamp that has not been recorded (yet).
+     */
+    static final class Timeline {
+
+        static final int INSTALLED          = 0;
+        static final int RESOLVED           = 1;
+        static final int STARTING           = 2;
+        static final int STARTED            = 3;
+        static final int FIRST_COMPONENT    = 4;
+        static final int LAST_COMPONENT     = 5;
+        static final int FIRST_REGISTRATION = 6;
+        static final int LAST_REGISTRATION  = 7;
+
+        private final long            id;
+        private final String          symbolicName;
+        private final AtomicLongArray timestamps = new AtomicLongArray(8);
+
+        Timeline(final long id, final String symbolicName) {
+            this.id           = id;
+            this.symbolicName = symbolicName;
+        }
 
-        public StartTime(final String bundleSymbolicName, final long startingTimestamp) {
-            this.bundleSymbolicName = bundleSymbolicName;
-            this.startingTimestamp  = startingTimestamp;
+        void set(final int index, final long timestamp) {
+            timestamps.set(index, timestamp);
         }
 
-        public long getDuration() {
-            return startedTimestamp - startingTimestamp;
+        void starting(final long timestamp) {
+            // a restart supersedes all the phases recorded for the previous start
+            for (int i = STARTED; i < timestamps.length(); i++) {
+                timestamps.set(i, 0);
+            }
+            timestamps.set(STARTING, timestamp);
+        }
+
+        /**
+         * Records a service registration as long as it can be attributed to the
+         * start of the bundle. Registrations after the settle window of a started
+         * bundle, or of a bundle whose start has not been recorded once the
+         * framework has started, happen on demand (e.g. instances of managed
+         * service factories) and would stretch the phases up to now.
+         */
+        void registered(final boolean isComponent, final long timestamp, final boolean frameworkStarted) {
+            final long starting = timestamps.get(STARTING);
+            final long started  = timestamps.get(STARTED);
+            if (started != 0 ? timestamp > started + SETTLE_WINDOW_IN_MILLIS : starting == 0 && frameworkStarted) {
+                return;
+            }
+            final int first = isComponent ? FIRST_COMPONENT : FIRST_REGISTRATION;
+            final int last  = isComponent ? LAST_COMPONENT : LAST_REGISTRATION;
+
+            timestamps.accumulateAndGet(first, timestamp, (p, n) -> p == 0 ? n : Math.min(p, n));
+            timestamps.accumulateAndGet(last, timestamp, Math::max);
         }
 
-        public String getBundleSymbolicName() {
-            return bundleSymbolicName;
+        boolean isStarted() {
+            return timestamps.get(STARTING) != 0 && timestamps.get(STARTED) != 0;
         }
 
-        public void started(final long startedTimestamp) {
-            this.startedTimestamp = startedTimestamp;
+        BundleStartDuration toBundleStartDuration() {
+            final long starting = timestamps.get(STARTING);
+            final long started  = timestamps.get(STARTED);
+            return new BundleStartDuration(symbolicName, Instant.ofEpochMilli(starting),
+                                           Duration.ofMillis(started - starting));
         }
 
-        public BundleStartDuration toBundleStartDuration() {
-            return new BundleStartDuration(bundleSymbolicName, Instant.ofEpochMilli(startingTimestamp),
-                                           Duration.ofMillis(getDuration()));
+        XBundleTimeline toDTO() {
+            final XBundleTimeline dto = new XBundleTimeline();
+
+            dto.id           = id;
+            dto.symbolicName = symbolicName;
+            dto.phases       = new ArrayList<>();
+
+            final long installed = timestamps.get(INSTALLED);
+            final long resolved  = timestamps.get(RESOLVED);
+            final long starting  = timestamps.get(STARTING);
+            final long started   = timestamps.get(STARTED);
+
+            addPhase(dto.phases, AWAITING_RESOLUTION, installed == 0 ? resolved : installed, resolved);
+            addPhase(dto.phases, ACTIVATOR, starting, started);
+            final long firstComponent = timestamps.get(FIRST_COMPONENT);
+            if (firstComponent != 0) {
+                // SCR registers the component services as soon as the bundle has been started
+                // whereas the components themselves might only be activated on first use
+                final long componentsStart = started == 0 ? firstComponent : Math.min(started, firstComponent);
+                addPhase(dto.phases, COMPONENT_SERVICES, componentsStart, timestamps.get(LAST_COMPONENT));
+            }
+            addPhase(dto.phases, SERVICES, timestamps.get(FIRST_REGISTRATION), timestamps.get(LAST_REGISTRATION));
+
+            dto.phases.sort(comparingLong(p -> p.start));
+            return dto;
+        }
+
+        private static void addPhase(final List<XLifecyclePhase> phases,
+                                     final String name,
+                                     final long start,
+                                     final long end) {
+            if (start == 0 || end == 0 || end < start) {
+                return;
+            }
+            final XLifecyclePhase phase = new XLifecyclePhase();
+
+            phase.name  = name;
+            phase.start = start;
+            phase.end   = end;
+
+            phases.add(phase);
         }
     }
-}
\ No newline at end of file
+}
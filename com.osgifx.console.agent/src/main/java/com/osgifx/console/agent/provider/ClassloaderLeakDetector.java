@@ -16,9 +16,13 @@
 package com.osgifx.console.agent.provider;
 
 import static java.lang.Long.toHexString;
+import static java.util.Comparator.comparingLong;
 import static java.util.Objects.hash;
 import static java.util.stream.Collectors.toSet;
 import static org.osgi.framework.Bundle.ACTIVE;
+import static org.osgi.framework.wiring.BundleRevision.TYPE_FRAGMENT;
+import static org.osgi.framework.wiring.BundleWiring.LISTRESOURCES_LOCAL;
+import static org.osgi.framework.wiring.BundleWiring.LISTRESOURCES_RECURSE;
 
 import java.lang.ref.PhantomReference;
 import java.lang.ref.Reference;
@@ -27,22 +31,32 @@ import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.BundleEvent;
 import org.osgi.framework.Version;
+import org.osgi.framework.wiring.BundleRevision;
 import org.osgi.framework.wiring.BundleWiring;
 import org.osgi.util.tracker.BundleTracker;
 
 import com.osgifx.console.agent.admin.XBundleAdmin;
 import com.osgifx.console.agent.dto.XBundleDTO;
+import com.osgifx.console.agent.dto.XClassloaderHistogramDTO;
+import com.osgifx.console.agent.dto.XClassloaderHistogramDTO.XClassHistogramEntry;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -88,9 +102,15 @@ import jakarta.inject.Singleton;
 @Singleton
 public final class ClassloaderLeakDetector implements Runnable {
 
-    private final Set<Reference<?>>           refs        = ConcurrentHashMap.newKeySet();
-    private final ReferenceQueue<ClassLoader> queue       = new ReferenceQueue<>();
-    private final Map<Long, BundleInfo>       bundleInfos = new ConcurrentHashMap<>();
+    private static final int     MAX_TOP_CLASSES = 20;
+    // e.g. "   1:        144858       13909176  [B (java.base@11.0.12)"
+    private static final Pattern HISTOGRAM_ROW   = Pattern
+            .compile("^\\s*\\d+:\\s+(\\d+)\\s+(\\d+)\\s+(\\S+)(?:\\s+\\((.+)\\))?\\s*$");
+
+    private final Set<Reference<?>>           refs          = ConcurrentHashMap.newKeySet();
+    private final ReferenceQueue<ClassLoader> queue         = new ReferenceQueue<>();
+    private final Map<Long, BundleInfo>       bundleInfos   = new ConcurrentHashMap<>();
+    private final Map<Long, BundleClasses>    bundleClasses = new ConcurrentHashMap<>();
 
     private final BundleContext             context;
     private Thread                          referencePoller;
@@ -188,6 +208,158 @@ public final class ClassloaderLeakDetector implements Runnable {
         return suspiciousBundles.stream().map(this::toDTO).collect(toSet());
     }
 
+    /**
+     * Groups the specified class histogram by the bundles containing the
+     * classes. The class names of a bundle are listed from its wiring once per
+     * bundle revision.
+     * <p>
+     * The histogram lists a class once per classloader that has loaded it, but
+     * it does not tell which classloader that is. Hence, a row is only
+     * attributed to a bundle if no other bundle contains a class of the same
+     * name, and at most as many rows as the bundle has classloaders which have
+     * not been garbage collected yet. The rows of the classes contained in
+     * several bundles, e.g. an embedded library, are reported separately as
+     * shared. The rows of the classes in named modules are never attributed as
+     * these classes are defined by the platform classloaders.
+     * <p>
+     * If the bundle still has stale classloaders of its previous revisions, the
+     * instances of all but the largest row of a class are reported as
+     * duplicates. These are most probably retained by a stale classloader.
+     *
+     * @param histogram the class histogram as printed by {@code GC.class_histogram}
+     * @return the histograms of the bundles having live instances sorted by the
+     *         occupied memory in descending order
+     */
+    public List<XClassloaderHistogramDTO> getClassHistogram(final String histogram) {
+        final Map<String, List<HistogramRow>> rows       = parseHistogram(histogram);
+        final Map<Bundle, Collection<String>> classNames = new LinkedHashMap<>();
+        final Map<String, Integer>            owners     = new HashMap<>();
+        final List<XClassloaderHistogramDTO>  histograms = new ArrayList<>();
+        final Set<Long>                       bundleIds  = new HashSet<>();
+
+        for (final Bundle bundle : context.getBundles()) {
+            bundleIds.add(bundle.getBundleId());
+
+            final Collection<String> names = classNames(bundle);
+            classNames.put(bundle, names);
+            for (final String name : names) {
+                owners.merge(name, 1, Integer::sum);
+            }
+        }
+        for (final Map.Entry<Bundle, Collection<String>> entry : classNames.entrySet()) {
+            final XClassloaderHistogramDTO dto = toHistogramDTO(entry.getKey(), entry.getValue(), rows, owners);
+            if (dto.instances > 0 || dto.sharedClassInstances > 0) {
+                histograms.add(dto);
+            }
+        }
+        // forget the uninstalled bundles
+        bundleClasses.keySet().retainAll(bundleIds);
+        histograms.sort(comparingLong((final XClassloaderHistogramDTO dto) -> dto.bytes).reversed());
+        return histograms;
+    }
+
+    private XClassloaderHistogramDTO toHistogramDTO(final Bundle bundle,
+                                                    final Collection<String> classNames,
+                                                    final Map<String, List<HistogramRow>> rows,
+                                                    final Map<String, Integer> owners) {
+        final XClassloaderHistogramDTO   dto        = new XClassloaderHistogramDTO();
+        final BundleInfo                 bundleInfo = bundleInfos.get(bundle.getBundleId());
+        final List<XClassHistogramEntry> entries    = new ArrayList<>();
+
+        dto.bundleId         = bundle.getBundleId();
+        dto.symbolicName     = bundle.getSymbolicName();
+        dto.version          = bundle.getVersion().toString();
+        dto.classloaderCount = bundleInfo == null ? 0 : bundleInfo.classloaderInfos.size();
+
+        // a bundle which has not been started is not tracked but has a classloader if resolved
+        final int classloaders = Math.max(1, dto.classloaderCount);
+        for (final String className : classNames) {
+            final List<HistogramRow> classRows = rows.get(className);
+            if (classRows == null) {
+                continue;
+            }
+            if (owners.getOrDefault(className, 0) > 1) {
+                for (final HistogramRow row : classRows) {
+                    dto.sharedClassInstances += row.instances;
+                    dto.sharedClassBytes     += row.bytes;
+                }
+                continue;
+            }
+            final XClassHistogramEntry entry = new XClassHistogramEntry();
+            entry.className = className;
+
+            // the rows are sorted by the occupied memory in descending order
+            for (final HistogramRow row : classRows.subList(0, Math.min(classRows.size(), classloaders))) {
+                if (entry.classloaderCount++ > 0) {
+                    dto.duplicateClassInstances += row.instances;
+                    dto.duplicateClassBytes     += row.bytes;
+                }
+                entry.instances += row.instances;
+                entry.bytes     += row.bytes;
+            }
+            dto.classes++;
+            dto.instances += entry.instances;
+            dto.bytes     += entry.bytes;
+
+            entries.add(entry);
+        }
+        entries.sort(comparingLong((final XClassHistogramEntry entry) -> entry.bytes).reversed());
+        dto.topClasses = new ArrayList<>(entries.subList(0, Math.min(entries.size(), MAX_TOP_CLASSES)));
+        return dto;
+    }
+
+    private Collection<String> classNames(final Bundle bundle) {
+        final long          lastModified = bundle.getLastModified();
+        final BundleClasses cached       = bundleClasses.get(bundle.getBundleId());
+        if (cached != null && cached.lastModified == lastModified) {
+            return cached.classNames;
+        }
+        final BundleClasses classes = new BundleClasses(lastModified, listClasses(bundle));
+        bundleClasses.put(bundle.getBundleId(), classes);
+        return classes.classNames;
+    }
+
+    private static Collection<String> listClasses(final Bundle bundle) {
+        final BundleRevision revision = bundle.adapt(BundleRevision.class);
+        final BundleWiring   wiring   = bundle.adapt(BundleWiring.class);
+        // the classes of the fragments are loaded by their hosts
+        if (revision == null || wiring == null || (revision.getTypes() & TYPE_FRAGMENT) != 0) {
+            return Collections.emptyList();
+        }
+        final Collection<String> resources = wiring.listResources("/", "*.class",
+                                                                  LISTRESOURCES_LOCAL | LISTRESOURCES_RECURSE);
+        if (resources == null) {
+            return Collections.emptyList();
+        }
+        final List<String> classNames = new ArrayList<>(resources.size());
+        for (final String resource : resources) {
+            final String path = resource.startsWith("/") ? resource.substring(1) : resource;
+            classNames.add(path.substring(0, path.length() - ".class".length()).replace('/', '.'));
+        }
+        return classNames;
+    }
+
+    /**
+     * Parses the rows of the specified class histogram by class name. The rows
+     * of the classes in named modules are skipped.
+     *
+     * @param histogram the class histogram as printed by {@code GC.class_histogram}
+     * @return the rows of every class in the order of the histogram
+     */
+    static Map<String, List<HistogramRow>> parseHistogram(final String histogram) {
+        final Map<String, List<HistogramRow>> rows = new HashMap<>();
+        for (final String line : histogram.split("\\R")) {
+            final Matcher matcher = HISTOGRAM_ROW.matcher(line);
+            if (!matcher.matches() || matcher.group(4) != null) {
+                continue;
+            }
+            final HistogramRow row = new HistogramRow(Long.parseLong(matcher.group(1)),
+                                                      Long.parseLong(matcher.group(2)));
+            rows.computeIfAbsent(matcher.group(3), name -> new ArrayList<>(1)).add(row);
+        }
+        return rows;
+    }
+
     private XBundleDTO toDTO(final BundleInfo bundleInfo) {
         final Bundle bundle = context.getBundle(bundleInfo.bundleId);
         return XBundleAdmin.toDTO(bundle, bundleStartTimeCalculator);
@@ -225,6 +397,28 @@ public final class ClassloaderLeakDetector implements Runnable {
         }
     }
 
+    private static class BundleClasses {
+
+        final long               lastModified;
+        final Collection<String> classNames;
+
+        BundleClasses(final long lastModified, final Collection<String> classNames) {
+            this.lastModified = lastModified;
+            this.classNames   = classNames;
+        }
+    }
+
+    static class HistogramRow {
+
+        final long instances;
+        final long bytes;
+
+        HistogramRow(final long instances, final long bytes) {
+            this.instances = instances;
+            this.bytes     = bytes;
+        }
+    }
+
     private static class ClassloaderInfo {
 
         final long creationTime;
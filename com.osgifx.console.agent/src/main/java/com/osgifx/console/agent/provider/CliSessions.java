@@ -0,0 +1,286 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.provider;
+package com.osgifx.console.agent.provider;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toCollection;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.apache.commons.exec.CommandLine;
+import org.apache.commons.exec.DefaultExecutor;
+import org.apache.commons.exec.ExecuteException;
+import org.apache.commons.exec.ExecuteResultHandler;
+import org.apache.commons.exec.ExecuteWatchdog;
+import org.apache.commons.exec.Executor;
+import org.apache.commons.exec.OS;
+import org.apache.commons.exec.PumpStreamHandler;
+
+import com.j256.simplelogging.FluentLogger;
+import com.j256.simplelogging.LoggerFactory;
+import com.osgifx.console.agent.dto.XCliOutputDTO;
+import com.osgifx.console.agent.helper.OutputBuffer;
+import com.osgifx.console.agent.helper.ThreadFactoryBuilder;
+
+import jakarta.inject.Singleton;
+
+/**
+ * Executes the CLI commands asynchronously in separate processes and buffers
+ * their output until it is polled by the supervisor.
+ * <p>
+ * A command does not occupy an RPC thread while it is running, hence it is not
+ * limited by a fixed timeout but runs until it completes or gets cancelled. A
+ * command that writes faster than the supervisor polls is blocked as soon as
+ * its buffer is full. Executions that have not been polled for a while are
+ * cancelled such that a vanished supervisor does not retain them forever. A
+ * cancelled execution is retained until it has been reported as completed to
+ * the polling supervisor.
+ */
+@Singleton
+public final class CliSessions {
+
+    private static final int  MAX_BUFFERED_BYTES         = 1024 * 1024;
+    private static final int  MAX_BYTES_PER_POLL         = 256 * 1024;
+    private static final int  MAX_CONCURRENT_EXECUTIONS  = 4;
+    private static final long MAX_POLL_TIMEOUT_IN_MILLIS = 5_000L;
+    private static final long IDLE_TIMEOUT_IN_MILLIS     = 60_000L;
+    private static final long EXECUTE_TIMEOUT_IN_MILLIS  = 30_000L;
+
+    private static final FluentLogger logger = LoggerFactory.getFluentLogger(CliSessions.class);
+
+    // @formatter:off
+    private final ThreadFactory             threadFactory = new ThreadFactoryBuilder()
+                                                                  .setThreadFactoryName("osgifx-cli-command")
+                                                                  .setThreadNameFormat("-%d")
+                                                                  .setDaemon(true)
+                                                                  .build();
+    // @formatter:on
+    private final Map<String, CliExecution> executions    = new ConcurrentHashMap<>();
+    private final AtomicInteger             running       = new AtomicInteger();
+
+    public void stop() {
+        executions.values().forEach(CliExecution::cancel);
+        executions.clear();
+    }
+
+    /**
+     * Executes the specified command and returns its output. The command is
+     * cancelled if it doesn't complete in time.
+     */
+    public String execute(final String command) throws InterruptedException {
+        final String        executionId = start(command);
+        final StringBuilder output      = new StringBuilder();
+        final long          deadline    = System.currentTimeMillis() + EXECUTE_TIMEOUT_IN_MILLIS;
+        XCliOutputDTO       chunk;
+        do {
+            final long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                cancel(executionId);
+                executions.remove(executionId);
+                break;
+            }
+            chunk = poll(executionId, remaining);
+            output.append(chunk.output);
+        } while (!chunk.isCompleted);
+        return output.toString();
+    }
+
+    public String start(final String command) {
+        requireNonNull(command, "CLI command cannot be null");
+        if (command.trim().isEmpty()) {
+            throw new IllegalArgumentException("CLI command cannot be empty");
+        }
+        final List<String> commandEntries = new ArrayList<>();
+        if (OS.isFamilyWindows()) {
+            commandEntries.add("cmd.exe");
+            commandEntries.add("/C");
+        }
+        parseCommand(command, commandEntries);
+        expireIdleExecutions();
+
+        if (running.incrementAndGet() > MAX_CONCURRENT_EXECUTIONS) {
+            running.decrementAndGet();
+            throw new IllegalStateException("The maximum number of concurrently running CLI commands ("
+                    + MAX_CONCURRENT_EXECUTIONS + ") has been reached");
+        }
+        final CliExecution execution = new CliExecution(UUID.randomUUID().toString(), command);
+        executions.put(execution.id, execution);
+        try {
+            execution.launch(commandEntries);
+        } catch (final Exception e) {
+            executions.remove(execution.id);
+            execution.onProcessFailed(new ExecuteException("CLI command cannot be started", 0, e));
+            throw new IllegalStateException(e);
+        }
+        return execution.id;
+    }
+
+    public XCliOutputDTO poll(final String executionId, final long timeoutInMillis) throws InterruptedException {
+        requireNonNull(executionId, "Execution ID cannot be null");
+
+        expireIdleExecutions();
+
+        final CliExecution execution = executions.get(executionId);
+        if (execution == null) {
+            throw new IllegalArgumentException("CLI command execution '" + executionId
+                    + "' doesn't exist or has expired");
+        }
+        final XCliOutputDTO output = execution.poll(Math.min(Math.max(timeoutInMillis, 0),
+                                                             MAX_POLL_TIMEOUT_IN_MILLIS));
+        if (output.isCompleted) {
+            executions.remove(executionId);
+        }
+        return output;
+    }
+
+    public boolean cancel(final String executionId) {
+        requireNonNull(executionId, "Execution ID cannot be null");
+
+        // retained such that the next poll reports the cancellation
+        final CliExecution execution = executions.get(executionId);
+        if (execution == null) {
+            return false;
+        }
+        execution.cancel();
+        return true;
+    }
+
+    private void expireIdleExecutions() {
+        final long now = System.currentTimeMillis();
+        executions.values().removeIf(execution -> {
+            if (now - execution.lastAccessed.get() < IDLE_TIMEOUT_IN_MILLIS) {
+                return false;
+            }
+            logger.atWarn().msg("Cancelling idle CLI command execution '{}' of '{}'").arg(execution.id)
+                    .arg(execution.command).log();
+            execution.cancel();
+            return true;
+        });
+    }
+
+    private static List<String> parseCommand(final String command, final List<String> commandEntries) {
+        final String[] entry = command.trim().split(" ");
+        // @formatter:off
+        return Stream.of(entry)
+                     .filter(e -> !e.isEmpty())
+                     .map(String::trim)
+                     .collect(toCollection(() -> commandEntries));
+        // @formatter:on
+    }
+
+    /**
+     * The execution of a single command whose standard output and standard error
+     * are buffered until they are polled.
+     */
+    private final class CliExecution implements ExecuteResultHandler {
+
+        private final String          id;
+        private final String          command;
+        private final OutputBuffer    buffer;
+        private final ExecuteWatchdog watchdog;
+        private final AtomicLong      lastAccessed = new AtomicLong(System.currentTimeMillis());
+        private long                  sequence;
+        private volatile Integer      exitValue;
+        private volatile String       error;
+        private volatile boolean      cancelled;
+
+        private CliExecution(final String id, final String command) {
+            this.id      = id;
+            this.command = command;
+            buffer       = new OutputBuffer(id, MAX_BUFFERED_BYTES, Charset.defaultCharset());
+            // @formatter:off
+            watchdog     = ExecuteWatchdog.builder()
+                                          .setTimeout(ExecuteWatchdog.INFINITE_TIMEOUT_DURATION)
+                                          .setThreadFactory(threadFactory)
+                                          .get();
+            // @formatter:on
+        }
+
+        void launch(final List<String> commandEntries) throws Exception {
+            final CommandLine cmdLine = CommandLine.parse(commandEntries.get(0));
+            for (int i = 1; i < commandEntries.size(); i++) {
+                cmdLine.addArgument(commandEntries.get(i));
+            }
+            final Executor executor = DefaultExecutor.builder().setThreadFactory(threadFactory).get();
+
+            // every exit value is reported as is instead of being treated as failure
+            executor.setExitValues(null);
+            executor.setWatchdog(watchdog);
+            executor.setStreamHandler(new PumpStreamHandler(buffer));
+            executor.execute(cmdLine, this);
+        }
+
+        @Override
+        public void onProcessComplete(final int exitValue) {
+            this.exitValue = exitValue;
+            complete();
+        }
+
+        @Override
+        public void onProcessFailed(final ExecuteException e) {
+            if (buffer.isCancelled()) {
+                logger.atDebug().msg("CLI command '{}' has been cancelled").arg(command).log();
+            } else {
+                final Throwable cause = e.getCause() == null ? e : e.getCause();
+                error = cause.getMessage() == null ? cause.getClass().getName() : cause.getMessage();
+                logger.atWarn().msg("CLI command '{}' has failed").arg(command).throwable(e).log();
+            }
+            complete();
+        }
+
+        synchronized XCliOutputDTO poll(final long timeoutInMillis) throws InterruptedException {
+            lastAccessed.set(System.currentTimeMillis());
+            if (!cancelled) {
+                buffer.await(timeoutInMillis);
+            }
+            final XCliOutputDTO dto = new XCliOutputDTO();
+
+            dto.executionId = id;
+            dto.sequence    = sequence++;
+            dto.output      = buffer.drain(MAX_BYTES_PER_POLL);
+            // the command completes only after its complete output has been delivered
+            dto.isCompleted = cancelled || buffer.isDrained();
+            dto.isCancelled = cancelled;
+            dto.exitValue   = dto.isCompleted ? exitValue : null;
+            dto.error       = dto.isCompleted && !cancelled ? error : null;
+
+            lastAccessed.set(System.currentTimeMillis());
+            return dto;
+        }
+
+        void cancel() {
+            cancelled = true;
+            buffer.cancel();
+            watchdog.destroyProcess();
+        }
+
+        private void complete() {
+            running.decrementAndGet();
+            buffer.complete();
+        }
+    }
+
+}
@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.provider;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.osgi.dto.DTO;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceReference;
+import org.osgi.util.tracker.ServiceTracker;
+
+import com.j256.simplelogging.FluentLogger;
+import com.j256.simplelogging.LoggerFactory;
+import com.osgifx.console.agent.dto.XExtensionChunkDTO;
+import com.osgifx.console.agent.extension.AgentExtension;
+import com.osgifx.console.agent.extension.AgentExtensionSink;
+import com.osgifx.console.agent.extension.AgentStreamingExtension;
+import com.osgifx.console.agent.helper.ThreadFactoryBuilder;
+
+import aQute.lib.converter.Converter;
+import aQute.lib.json.JSONCodec;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * Executes the streaming agent extensions and buffers their results until they
+ * are polled by the supervisor.
+ * <p>
+ * Every stream has a bounded buffer. An extension that emits faster than the
+ * supervisor polls is blocked as soon as the buffer is full. The buffered
+ * results are encoded directly to JSON when they are polled, i.e. without
+ * converting them to maps first. Streams that have not been polled for a while
+ * are cancelled such that a vanished supervisor does not retain them forever.
+ */
+@Singleton
+@SuppressWarnings("rawtypes")
+public final class ExtensionStreams {
+
+    private static final int  BUFFER_CAPACITY               = 512;
+    private static final int  MAX_RESULTS_PER_CHUNK         = 128;
+    private static final int  MAX_CONCURRENT_STREAMS        = 4;
+    private static final long MAX_POLL_TIMEOUT_IN_MILLIS    = 5_000L;
+    private static final long IDLE_TIMEOUT_IN_MILLIS        = 60_000L;
+    private static final long EMIT_RETRY_INTERVAL_IN_MILLIS = 100L;
+
+    private static final FluentLogger logger = LoggerFactory.getFluentLogger(ExtensionStreams.class);
+
+    private final BundleContext                                  context;
+    private final Map<String, ExtensionStream>                   streams    = new ConcurrentHashMap<>();
+    private final Map<String, AgentStreamingExtension<DTO, DTO>> extensions = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor                                               executor;
+    private ServiceTracker<AgentStreamingExtension, AgentStreamingExtension> tracker;
+
+    @Inject
+    public ExtensionStreams(final BundleContext context) {
+        this.context = context;
+    }
+
+    public void start() {
+        // @formatter:off
+        final ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                                                  .setThreadFactoryName("osgifx-extension-stream")
+                                                  .setThreadNameFormat("-%d")
+                                                  .setDaemon(true)
+                                                  .build();
+        // @formatter:on
+        executor = new ThreadPoolExecutor(MAX_CONCURRENT_STREAMS, MAX_CONCURRENT_STREAMS, 60, SECONDS,
+                                          new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+
+        tracker = new ServiceTracker<AgentStreamingExtension, AgentStreamingExtension>(context,
+                                                                                      AgentStreamingExtension.class,
+                                                                                      null) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public AgentStreamingExtension addingService(final ServiceReference<AgentStreamingExtension> reference) {
+                final Object name = reference.getProperty(AgentExtension.PROPERTY_KEY);
+                if (name == null) {
+                    return null;
+                }
+                final AgentStreamingExtension tracked = super.addingService(reference);
+                extensions.put(name.toString(), tracked);
+                return tracked;
+            }
+
+            @Override
+            public void modifiedService(final ServiceReference<AgentStreamingExtension> reference,
+                                        final AgentStreamingExtension service) {
+                removedService(reference, service);
+                addingService(reference);
+            }
+
+            @Override
+            public void removedService(final ServiceReference<AgentStreamingExtension> reference,
+                                       final AgentStreamingExtension service) {
+                final Object name = reference.getProperty(AgentExtension.PROPERTY_KEY);
+                if (name != null) {
+                    extensions.remove(name.toString());
+                }
+                super.removedService(reference, service);
+            }
+        };
+        tracker.open();
+    }
+
+    public void stop() {
+        tracker.close();
+        streams.values().forEach(ExtensionStream::cancel);
+        streams.clear();
+        executor.shutdownNow();
+    }
+
+    public String start(final String name, final Map<String, Object> context) throws Exception {
+        requireNonNull(name, "Agent extension name cannot be null");
+        requireNonNull(context, "Agent extension execution context cannot be null");
+
+        expireIdleStreams();
+
+        final AgentStreamingExtension<DTO, DTO> extension = extensions.get(name);
+        if (extension == null) {
+            throw new IllegalArgumentException("Streaming agent extension with name '" + name + "' doesn't exist");
+        }
+        final DTO             cnv    = Converter.cnv(extension.getContextType(), context);
+        final ExtensionStream stream = new ExtensionStream(UUID.randomUUID().toString(), name);
+
+        streams.put(stream.id, stream);
+        executor.execute(() -> stream.run(extension, cnv));
+        return stream.id;
+    }
+
+    public XExtensionChunkDTO poll(final String streamId, final long timeoutInMillis) throws Exception {
+        requireNonNull(streamId, "Stream ID cannot be null");
+
+        expireIdleStreams();
+
+        final ExtensionStream stream = streams.get(streamId);
+        if (stream == null) {
+            throw new IllegalArgumentException("Extension stream '" + streamId + "' doesn't exist or has expired");
+        }
+        final XExtensionChunkDTO chunk = stream.poll(Math.min(Math.max(timeoutInMillis, 0),
+                                                              MAX_POLL_TIMEOUT_IN_MILLIS));
+        if (chunk.isLast) {
+            streams.remove(streamId);
+        }
+        return chunk;
+    }
+
+    public boolean cancel(final String streamId) {
+        requireNonNull(streamId, "Stream ID cannot be null");
+
+        final ExtensionStream stream = streams.remove(streamId);
+        if (stream == null) {
+            return false;
+        }
+        stream.cancel();
+        return true;
+    }
+
+    private void expireIdleStreams() {
+        final long now = System.currentTimeMillis();
+        streams.values().removeIf(stream -> {
+            if (now - stream.lastAccessed.get() < IDLE_TIMEOUT_IN_MILLIS) {
+                return false;
+            }
+            logger.atWarn().msg("Cancelling idle extension stream '{}' of '{}'").arg(stream.id).arg(stream.name)
+                    .log();
+            stream.cancel();
+            return true;
+        });
+    }
+
+    private static final class ExtensionStream implements AgentExtensionSink<DTO> {
+
+        private final String             id;
+        private final String             name;
+        private final BlockingQueue<DTO> buffer       = new ArrayBlockingQueue<>(BUFFER_CAPACITY);
+        private final AtomicLong         lastAccessed = new AtomicLong(System.currentTimeMillis());
+        private volatile boolean         isCancelled;
+        private volatile boolean         isCompleted;
+        private volatile String          error;
+        private long                     sequence;
+
+        private ExtensionStream(final String id, final String name) {
+            this.id   = id;
+            this.name = name;
+        }
+
+        void run(final AgentStreamingExtension<DTO, DTO> extension, final DTO context) {
+            try {
+                if (!isCancelled) {
+                    extension.execute(context, this);
+                }
+            } catch (final CancellationException e) {
+                logger.atDebug().msg("Extension stream '{}' of '{}' has been cancelled").arg(id).arg(name).log();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (final Exception e) {
+                logger.atError().msg("Error occurred while executing extension - '{}'").arg(name).throwable(e)
+                        .log();
+                error = e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+            } finally {
+                isCompleted = true;
+            }
+        }
+
+        @Override
+        public void emit(final DTO result) throws InterruptedException {
+            requireNonNull(result, "Result cannot be null");
+            do {
+                if (isCancelled) {
+                    throw new CancellationException("Extension stream '" + id + "' has been cancelled");
+                }
+            } while (!buffer.offer(result, EMIT_RETRY_INTERVAL_IN_MILLIS, MILLISECONDS));
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return isCancelled;
+        }
+
+        synchronized XExtensionChunkDTO poll(final long timeoutInMillis) throws Exception {
+            lastAccessed.set(System.currentTimeMillis());
+
+            final List<DTO> results = new ArrayList<>();
+            final DTO       first   = isCompleted ? buffer.poll() : buffer.poll(timeoutInMillis, MILLISECONDS);
+            if (first != null) {
+                results.add(first);
+                buffer.drainTo(results, MAX_RESULTS_PER_CHUNK - 1);
+            }
+            // the extension completes only after it has emitted all its results
+            final boolean isLast = isCompleted && buffer.isEmpty();
+
+            lastAccessed.set(System.currentTimeMillis());
+
+            final XExtensionChunkDTO chunk = new XExtensionChunkDTO();
+
+            chunk.streamId = id;
+            chunk.sequence = sequence++;
+            chunk.results  = new JSONCodec().enc().put(results).toString();
+            chunk.isLast   = isLast;
+            chunk.error    = isLast ? error : null;
+
+            return chunk;
+        }
+
+        void cancel() {
+            isCancelled = true;
+            buffer.clear();
+        }
+    }
+
+}
@@ -0,0 +1,316 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.provider;
+
+import static com.osgifx.console.agent.helper.AgentHelper.asList;
+import static java.util.Comparator.comparingLong;
+import static org.osgi.service.metatype.ObjectClassDefinition.ALL;
+import static org.osgi.service.metatype.ObjectClassDefinition.REQUIRED;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceListener;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.cm.Configuration;
+import org.osgi.service.metatype.AttributeDefinition;
+import org.osgi.service.metatype.MetaTypeInformation;
+import org.osgi.service.metatype.MetaTypeService;
+import org.osgi.service.metatype.ObjectClassDefinition;
+import org.osgi.util.tracker.BundleTracker;
+
+import com.j256.simplelogging.FluentLogger;
+import com.j256.simplelogging.LoggerFactory;
+
+/**
+ * Index of the metatype information of all the installed bundles by PID and
+ * factory PID.
+ * <p>
+ * A {@link BundleTracker} and a service listener for metatype providers only
+ * record which bundles have changed as parsing the metatype resources would
+ * otherwise delay the dispatching of the framework events. The changed bundles
+ * are (re)indexed on the next lookup. Note that this class must only be loaded
+ * if the metatype packages are wired to the agent.
+ */
+public final class MetatypeIndex {
+
+    private static final int TRACKED_STATES = Bundle.INSTALLED | Bundle.RESOLVED | Bundle.STARTING | Bundle.ACTIVE
+            | Bundle.STOPPING;
+
+    private static final String PROVIDERS_FILTER = "(|(objectClass=org.osgi.service.metatype.MetaTypeProvider)"
+            + "(objectClass=org.osgi.service.cm.ManagedService)(objectClass=org.osgi.service.cm.ManagedServiceFactory))";
+
+    private final BundleContext                    context;
+    private final Map<String, MetaTypeInformation> pids        = new ConcurrentHashMap<>();
+    private final Map<String, MetaTypeInformation> factoryPids = new ConcurrentHashMap<>();
+    private final Map<Long, IndexedBundle>         bundles     = new ConcurrentHashMap<>();
+    private final Set<Long>                        changed     = ConcurrentHashMap.newKeySet();
+    private final ServiceListener                  providers   = this::providerChanged;
+    private final FluentLogger                     logger      = LoggerFactory.getFluentLogger(getClass());
+
+    private MetaTypeService       metatype;
+    private BundleTracker<Bundle> tracker;
+
+    public MetatypeIndex(final BundleContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Binds the index to the specified metatype service. The index is rebuilt if
+     * the service differs from the one the index has been built with.
+     *
+     * @param metatypeService the metatype service
+     */
+    public synchronized void bind(final Object metatypeService) {
+        if (metatypeService == metatype) {
+            return;
+        }
+        close();
+        metatype = (MetaTypeService) metatypeService;
+        tracker  = new BundleTracker<Bundle>(context, TRACKED_STATES, null) {
+                     @Override
+                     public Bundle addingBundle(final Bundle bundle, final BundleEvent event) {
+                         changed.add(bundle.getBundleId());
+                         return bundle;
+                     }
+
+                     @Override
+                     public void modifiedBundle(final Bundle bundle, final BundleEvent event, final Bundle object) {
+                         // updated bundles provide new metatype resources
+                         changed.add(bundle.getBundleId());
+                     }
+
+                     @Override
+                     public void removedBundle(final Bundle bundle, final BundleEvent event, final Bundle object) {
+                         changed.add(bundle.getBundleId());
+                     }
+                 };
+        try {
+            // metatype providers can be registered at any time after the bundle has been started
+            context.addServiceListener(providers, PROVIDERS_FILTER);
+        } catch (final InvalidSyntaxException e) {
+            // cannot happen as the filter is constant
+        }
+        tracker.open();
+    }
+
+    public synchronized void close() {
+        if (tracker != null) {
+            context.removeServiceListener(providers);
+            tracker.close();
+            tracker = null;
+        }
+        metatype = null;
+        pids.clear();
+        factoryPids.clear();
+        bundles.clear();
+        changed.clear();
+    }
+
+    public MetaTypeInformation forPid(final String pid) {
+        if (pid == null) {
+            return null;
+        }
+        indexChanges();
+        return pids.get(pid);
+    }
+
+    public MetaTypeInformation forFactoryPid(final String factoryPid) {
+        if (factoryPid == null) {
+            return null;
+        }
+        indexChanges();
+        return factoryPids.get(factoryPid);
+    }
+
+    public boolean hasMetatype(final Configuration config) {
+        return forPid(config.getPid()) != null || forFactoryPid(config.getFactoryPid()) != null;
+    }
+
+    /**
+     * Validates the specified configuration properties against the object class
+     * definition of the specified PID.
+     *
+     * @param pid the configuration PID
+     * @param properties the configuration properties to validate
+     * @return the violations, or an empty list if the properties are valid or no
+     *         object class definition exists for the PID
+     */
+    public List<String> validate(final String pid, final Map<String, Object> properties) {
+        final List<String>          violations = new ArrayList<>();
+        final ObjectClassDefinition ocd        = findOCD(pid);
+        if (ocd == null) {
+            return violations;
+        }
+        final AttributeDefinition[] ads         = ocd.getAttributeDefinitions(ALL);
+        final AttributeDefinition[] requiredADs = ocd.getAttributeDefinitions(REQUIRED);
+        if (ads == null) {
+            return violations;
+        }
+        final Set<String> required = new HashSet<>();
+        if (requiredADs != null) {
+            for (final AttributeDefinition ad : requiredADs) {
+                required.add(ad.getID());
+            }
+        }
+        for (final AttributeDefinition ad : ads) {
+            final String id    = ad.getID();
+            final Object value = properties.get(id);
+            if (value == null) {
+                if (required.contains(id) && ad.getDefaultValue() == null) {
+                    violations.add("Required property '" + id + "' is missing");
+                }
+                continue;
+            }
+            final List<Object> values      = asList(value);
+            final int          cardinality = ad.getCardinality();
+            if (cardinality == 0 && values.size() > 1) {
+                violations.add("Property '" + id + "' accepts a single value only");
+                continue;
+            }
+            if (cardinality != 0 && cardinality != Integer.MAX_VALUE && cardinality != Integer.MIN_VALUE
+                    && values.size() > Math.abs(cardinality)) {
+                violations.add("Property '" + id + "' accepts at most " + Math.abs(cardinality) + " values");
+                continue;
+            }
+            for (final Object element : values) {
+                final String message = ad.validate(String.valueOf(element));
+                if (message != null && !message.isEmpty()) {
+                    violations.add("Property '" + id + "' has an invalid value '" + element + "': " + message);
+                }
+            }
+        }
+        return violations;
+    }
+
+    private ObjectClassDefinition findOCD(final String pid) {
+        final MetaTypeInformation info = forPid(pid);
+        if (info == null) {
+            return null;
+        }
+        try {
+            return info.getObjectClassDefinition(pid, null);
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the metatype information of all bundles that provide metatype
+     *         information ordered by the bundle IDs
+     */
+    public List<MetaTypeInformation> all() {
+        indexChanges();
+        final List<MetaTypeInformation> infos = new ArrayList<>(bundles.size());
+        for (final IndexedBundle indexed : bundles.values()) {
+            infos.add(indexed.info);
+        }
+        infos.sort(comparingLong(i -> i.getBundle().getBundleId()));
+        return infos;
+    }
+
+    private void providerChanged(final ServiceEvent event) {
+        final ServiceReference<?> reference = event.getServiceReference();
+        final Bundle              bundle    = reference.getBundle();
+        if (bundle != null) {
+            changed.add(bundle.getBundleId());
+        }
+    }
+
+    private void indexChanges() {
+        if (changed.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            for (final Long id : changed) {
+                // removed first such that a change during indexing is not lost
+                changed.remove(id);
+                final Bundle bundle = context.getBundle(id);
+                if (bundle == null || bundle.getState() == Bundle.UNINSTALLED) {
+                    unindex(id);
+                } else {
+                    index(bundle);
+                }
+            }
+        }
+    }
+
+    private synchronized void index(final Bundle bundle) {
+        final long id = bundle.getBundleId();
+        unindex(id);
+        if (metatype == null) {
+            return;
+        }
+        try {
+            final MetaTypeInformation info = metatype.getMetaTypeInformation(bundle);
+            if (info == null) {
+                return;
+            }
+            final String[] bundlePids        = info.getPids();
+            final String[] bundleFactoryPids = info.getFactoryPids();
+            if (bundlePids.length == 0 && bundleFactoryPids.length == 0) {
+                return;
+            }
+            for (final String pid : bundlePids) {
+                pids.putIfAbsent(pid, info);
+            }
+            for (final String factoryPid : bundleFactoryPids) {
+                factoryPids.putIfAbsent(factoryPid, info);
+            }
+            bundles.put(id, new IndexedBundle(info, bundlePids, bundleFactoryPids));
+        } catch (final Exception e) {
+            logger.atWarn().msg("Metatype information of bundle '{}' cannot be indexed").arg(bundle.getSymbolicName())
+                    .throwable(e).log();
+        }
+    }
+
+    private synchronized void unindex(final long id) {
+        final IndexedBundle indexed = bundles.remove(id);
+        if (indexed == null) {
+            return;
+        }
+        // the PIDs recorded while indexing as metatype providers can change them dynamically
+        for (final String pid : indexed.pids) {
+            pids.remove(pid, indexed.info);
+        }
+        for (final String factoryPid : indexed.factoryPids) {
+            factoryPids.remove(factoryPid, indexed.info);
+        }
+    }
+
+    private static final class IndexedBundle {
+
+        private final MetaTypeInformation info;
+        private final String[]            pids;
+        private final String[]            factoryPids;
+
+        private IndexedBundle(final MetaTypeInformation info, final String[] pids, final String[] factoryPids) {
+            this.info        = info;
+            this.pids        = pids;
+            this.factoryPids = factoryPids;
+        }
+    }
+
+}
@@ -0,0 +1,297 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.provider;
+
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.comparingLong;
+import static java.util.stream.Collectors.toList;
+import static org.osgi.framework.Constants.VERSION_ATTRIBUTE;
+import static org.osgi.framework.namespace.BundleNamespace.BUNDLE_NAMESPACE;
+import static org.osgi.framework.namespace.PackageNamespace.RESOLUTION_DYNAMIC;
+import static org.osgi.framework.wiring.BundleRevision.PACKAGE_NAMESPACE;
+import static org.osgi.resource.Namespace.REQUIREMENT_RESOLUTION_DIRECTIVE;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.SynchronousBundleListener;
+import org.osgi.framework.wiring.BundleCapability;
+import org.osgi.framework.wiring.BundleRequirement;
+import org.osgi.framework.wiring.BundleWire;
+import org.osgi.framework.wiring.BundleWiring;
+
+import com.j256.simplelogging.FluentLogger;
+import com.j256.simplelogging.LoggerFactory;
+import com.osgifx.console.agent.dto.XBundleInfoDTO;
+import com.osgifx.console.agent.dto.XPackageIndexDTO;
+import com.osgifx.console.agent.dto.XPackageIndexDTO.XIndexedPackage;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * Maintains the exported and imported packages of all the installed bundles.
+ * <p>
+ * The packages of a bundle are only rescanned from its {@link BundleWiring}
+ * once the bundle has been (un)resolved, updated or uninstalled. The
+ * aggregated index is rebuilt lazily on the next request after such a change.
+ * As DynamicImport-Package wires are added whenever a class is loaded without
+ * any event, bundles declaring dynamic imports are rescanned as soon as their
+ * number of package wires has changed. The listener is synchronous so that a
+ * change is already visible to a request issued right after a bundle
+ * operation has returned.
+ */
+@Singleton
+public final class PackageIndex implements SynchronousBundleListener {
+
+    private static final FluentLogger logger = LoggerFactory.getFluentLogger(PackageIndex.class);
+
+    private final BundleContext             context;
+    private final Map<Long, BundlePackages> bundles = new ConcurrentHashMap<>();
+    private final Set<Long>                 dirty   = ConcurrentHashMap.newKeySet();
+    private volatile XPackageIndexDTO       index;
+
+    @Inject
+    public PackageIndex(final BundleContext context) {
+        this.context = context;
+    }
+
+    public void start() {
+        context.addBundleListener(this);
+        for (final Bundle bundle : context.getBundles()) {
+            dirty.add(bundle.getBundleId());
+        }
+    }
+
+    public void stop() {
+        context.removeBundleListener(this);
+        bundles.clear();
+        dirty.clear();
+        index = null;
+    }
+
+    @Override
+    public void bundleChanged(final BundleEvent event) {
+        switch (event.getType()) {
+            case BundleEvent.RESOLVED:
+            case BundleEvent.UNRESOLVED:
+            case BundleEvent.UPDATED:
+            case BundleEvent.UNINSTALLED:
+                dirty.add(event.getBundle().getBundleId());
+                break;
+            default:
+                break;
+        }
+    }
+
+    public synchronized XPackageIndexDTO getIndex() {
+        checkDynamicWires();
+        final XPackageIndexDTO current = index;
+        if (current != null && dirty.isEmpty()) {
+            return current;
+        }
+        for (final Long id : new ArrayList<>(dirty)) {
+            dirty.remove(id);
+            final Bundle bundle = context.getBundle(id);
+            if (bundle == null || bundle.getState() == Bundle.UNINSTALLED) {
+                bundles.remove(id);
+            } else {
+                bundles.put(id, scan(bundle));
+            }
+        }
+        final XPackageIndexDTO rebuilt = aggregate();
+        index = rebuilt;
+        return rebuilt;
+    }
+
+    private void checkDynamicWires() {
+        for (final BundlePackages entry : bundles.values()) {
+            if (!entry.dynamicImports || dirty.contains(entry.bundle.id)) {
+                continue;
+            }
+            final Bundle       bundle = context.getBundle(entry.bundle.id);
+            final BundleWiring wiring = bundle == null ? null : bundle.adapt(BundleWiring.class);
+            if (wiring == null || wiring.getRequiredWires(PACKAGE_NAMESPACE).size() != entry.packageWires) {
+                dirty.add(entry.bundle.id);
+            }
+        }
+    }
+
+    private XPackageIndexDTO aggregate() {
+        final Map<PackageKey, XIndexedPackage> packages      = new HashMap<>();
+        final Set<String>                      splitPackages = new HashSet<>();
+        final List<XBundleInfoDTO>             bundleInfos   = new ArrayList<>();
+
+        for (final BundlePackages entry : bundles.values()) {
+            if (entry.exports.isEmpty() && entry.imports.isEmpty()) {
+                continue;
+            }
+            bundleInfos.add(entry.bundle);
+            for (final PackageKey key : entry.exports) {
+                indexedPackage(packages, key).exporters.add(entry.bundle.id);
+            }
+            for (final PackageKey key : entry.imports) {
+                indexedPackage(packages, key).importers.add(entry.bundle.id);
+            }
+            splitPackages.addAll(entry.splitPackages);
+        }
+        for (final XIndexedPackage pkg : packages.values()) {
+            pkg.isDuplicateExport = pkg.exporters.size() > 1;
+            pkg.isSplitPackage    = splitPackages.contains(pkg.name);
+        }
+        final XPackageIndexDTO dto = new XPackageIndexDTO();
+
+        dto.bundles  = bundleInfos.stream().sorted(comparingLong(b -> b.id)).collect(toList());
+        dto.packages = packages.values().stream()
+                .sorted(comparing((final XIndexedPackage p) -> p.name).thenComparing(p -> p.version))
+                .collect(toList());
+
+        return dto;
+    }
+
+    private BundlePackages scan(final Bundle bundle) {
+        final XBundleInfoDTO info = new XBundleInfoDTO();
+
+        info.id           = bundle.getBundleId();
+        info.symbolicName = bundle.getSymbolicName();
+
+        try {
+            final BundleWiring wiring = bundle.adapt(BundleWiring.class);
+            if (wiring == null) {
+                return new BundlePackages(info);
+            }
+            final BundlePackages         packages  = new BundlePackages(info);
+            final Map<String, Set<Long>> providers = new HashMap<>();
+
+            for (final BundleCapability capability : wiring.getCapabilities(PACKAGE_NAMESPACE)) {
+                final PackageKey key = PackageKey.of(capability);
+                packages.exports.add(key);
+                providers.computeIfAbsent(key.name, k -> new HashSet<>()).add(info.id);
+            }
+            for (final BundleRequirement requirement : wiring.getRequirements(PACKAGE_NAMESPACE)) {
+                if (RESOLUTION_DYNAMIC.equals(requirement.getDirectives().get(REQUIREMENT_RESOLUTION_DIRECTIVE))) {
+                    packages.dynamicImports = true;
+                    break;
+                }
+            }
+            // the wires include the dynamic ones which have been added so far
+            final List<BundleWire> packageWires  = wiring.getRequiredWires(PACKAGE_NAMESPACE);
+            final Set<String>      importedNames = new HashSet<>();
+            for (final BundleWire wire : packageWires) {
+                final PackageKey key = PackageKey.of(wire.getCapability());
+                packages.imports.add(key);
+                importedNames.add(key.name);
+            }
+            packages.packageWires = packageWires.size();
+            // packages visible through Require-Bundle can be split across multiple providers
+            for (final BundleWire wire : wiring.getRequiredWires(BUNDLE_NAMESPACE)) {
+                final BundleWiring provider = wire.getProviderWiring();
+                if (provider == null) {
+                    continue;
+                }
+                final long providerId = provider.getBundle().getBundleId();
+                for (final BundleCapability capability : provider.getCapabilities(PACKAGE_NAMESPACE)) {
+                    final String name = (String) capability.getAttributes().get(PACKAGE_NAMESPACE);
+                    providers.computeIfAbsent(name, k -> new HashSet<>()).add(providerId);
+                }
+            }
+            providers.forEach((name, ids) -> {
+                // an imported package shadows the packages of the required bundles
+                if (ids.size() > 1 && !importedNames.contains(name)) {
+                    packages.splitPackages.add(name);
+                }
+            });
+            return packages;
+        } catch (final Exception e) {
+            logger.atError().msg("The bundle '{}' cannot be adapted to retrieve the packages")
+                    .arg(bundle.getSymbolicName()).throwable(e).log();
+            return new BundlePackages(info);
+        }
+    }
+
+    private static XIndexedPackage indexedPackage(final Map<PackageKey, XIndexedPackage> packages,
+                                                  final PackageKey key) {
+        return packages.computeIfAbsent(key, k -> {
+            final XIndexedPackage pkg = new XIndexedPackage();
+
+            pkg.name      = k.name;
+            pkg.version   = k.version;
+            pkg.exporters = new ArrayList<>();
+            pkg.importers = new ArrayList<>();
+
+            return pkg;
+        });
+    }
+
+    private static final class BundlePackages {
+
+        private final XBundleInfoDTO  bundle;
+        private final Set<PackageKey> exports       = new HashSet<>();
+        private final Set<PackageKey> imports       = new HashSet<>();
+        private final Set<String>     splitPackages = new HashSet<>();
+        private boolean               dynamicImports;
+        private int                   packageWires;
+
+        private BundlePackages(final XBundleInfoDTO bundle) {
+            this.bundle = bundle;
+        }
+    }
+
+    private static final class PackageKey {
+
+        private final String name;
+        private final String version;
+
+        private PackageKey(final String name, final String version) {
+            this.name    = name;
+            this.version = version;
+        }
+
+        private static PackageKey of(final BundleCapability capability) {
+            final Map<String, Object> attributes = capability.getAttributes();
+            final Object              version    = attributes.get(VERSION_ATTRIBUTE);
+            return new PackageKey((String) attributes.get(PACKAGE_NAMESPACE),
+                                  version == null ? "0.0.0" : version.toString());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, version);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof PackageKey)) {
+                return false;
+            }
+            final PackageKey other = (PackageKey) obj;
+            return Objects.equals(name, other.name) && Objects.equals(version, other.version);
+        }
+    }
+
+}
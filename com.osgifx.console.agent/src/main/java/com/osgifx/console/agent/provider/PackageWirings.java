@@ -39,7 +39,8 @@ public final class PackageWirings {
         HTTP("HTTP"),
         JAX_RS("JAX-RS"),
         JMX("JMX"),
-        HC("Felix Healthcheck");
+        HC("Felix Healthcheck"),
+        GOGO("Gogo");
 
         public String comprehensibleName;
 
@@ -123,4 +124,8 @@ public final class PackageWirings {
         return isWired("org.apache.felix.hc.api");
     }
 
+    public boolean isGogoWired() {
+        return isWired("org.apache.felix.service.command");
+    }
+
 }
@@ -108,7 +108,7 @@ public final class GogoRedirector implements Redirector {
      * framework side and we can't force Gogo to import our classes (nor should we).
      */
     @SuppressWarnings("unchecked")
-    private <T> T proxy(final Class<T> clazz, final Object target) {
+    static <T> T proxy(final Class<T> clazz, final Object target) {
         final Class<?> targetClass = target.getClass();
 
         // We could also be in the same class space, in that case we can just return the value
@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.redirector;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.io.ByteArrayInputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.felix.service.command.CommandProcessor;
+import org.apache.felix.service.command.CommandSession;
+import org.apache.felix.service.command.Converter;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceReference;
+import org.osgi.util.tracker.ServiceTracker;
+
+import com.j256.simplelogging.FluentLogger;
+import com.j256.simplelogging.LoggerFactory;
+import com.osgifx.console.agent.dto.XGogoOutputDTO;
+import com.osgifx.console.agent.helper.OutputBuffer;
+import com.osgifx.console.agent.helper.ThreadFactoryBuilder;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * Executes every Gogo command in its own command session and buffers the
+ * output of the command until it is polled by the supervisor.
+ * <p>
+ * Unlike the {@link GogoRedirector}, the session of a command is closed as soon
+ * as the command has completed, hence the output of a command can never be
+ * mixed up with the output of another command. A command is only reported as
+ * completed once its complete output has been polled. A command that writes
+ * faster than the supervisor polls is blocked as soon as its buffer is full.
+ * Executions that have not been polled for a while are cancelled such that a
+ * vanished supervisor does not retain them forever. A cancelled execution is
+ * retained until it has been reported as completed to the polling supervisor.
+ * <p>
+ * Note that this class must only be loaded if the Gogo packages are wired to
+ * the agent.
+ */
+@Singleton
+public final class GogoSessions {
+
+    private static final int  MAX_BUFFERED_BYTES         = 1024 * 1024;
+    private static final int  MAX_BYTES_PER_POLL         = 256 * 1024;
+    private static final int  MAX_CONCURRENT_EXECUTIONS  = 4;
+    private static final long MAX_POLL_TIMEOUT_IN_MILLIS = 5_000L;
+    private static final long IDLE_TIMEOUT_IN_MILLIS     = 60_000L;
+
+    private static final FluentLogger logger = LoggerFactory.getFluentLogger(GogoSessions.class);
+
+    private final BundleContext                                 context;
+    private final Map<String, GogoExecution>                    executions = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor                                  executor;
+    private ServiceTracker<CommandProcessor, CommandProcessor> tracker;
+
+    @Inject
+    public GogoSessions(final BundleContext context) {
+        this.context = context;
+    }
+
+    public void start() {
+        // @formatter:off
+        final ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                                                  .setThreadFactoryName("osgifx-gogo-command")
+                                                  .setThreadNameFormat("-%d")
+                                                  .setDaemon(true)
+                                                  .build();
+        // @formatter:on
+        executor = new ThreadPoolExecutor(MAX_CONCURRENT_EXECUTIONS, MAX_CONCURRENT_EXECUTIONS, 60, SECONDS,
+                                          new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+
+        tracker = new ServiceTracker<CommandProcessor, CommandProcessor>(context, CommandProcessor.class, null) {
+            @Override
+            public CommandProcessor addingService(final ServiceReference<CommandProcessor> reference) {
+                return GogoRedirector.proxy(CommandProcessor.class, super.addingService(reference));
+            }
+        };
+        tracker.open();
+    }
+
+    public void stop() {
+        tracker.close();
+        executions.values().forEach(GogoExecution::cancel);
+        executions.clear();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Executes the specified command in the calling thread and returns its
+     * complete output.
+     */
+    public String execute(final String command) {
+        requireNonNull(command, "Gogo command cannot be null");
+
+        final GogoExecution execution = new GogoExecution(null, command, Integer.MAX_VALUE);
+        execution.run(processor());
+        return execution.drain(Integer.MAX_VALUE);
+    }
+
+    public String start(final String command) {
+        requireNonNull(command, "Gogo command cannot be null");
+
+        expireIdleExecutions();
+
+        final CommandProcessor processor = processor();
+        final GogoExecution    execution = new GogoExecution(UUID.randomUUID().toString(), command,
+                                                             MAX_BUFFERED_BYTES);
+        executions.put(execution.id, execution);
+        execution.future = executor.submit(() -> execution.run(processor));
+        return execution.id;
+    }
+
+    public XGogoOutputDTO poll(final String executionId, final long timeoutInMillis) throws InterruptedException {
+        requireNonNull(executionId, "Execution ID cannot be null");
+
+        expireIdleExecutions();
+
+        final GogoExecution execution = executions.get(executionId);
+        if (execution == null) {
+            throw new IllegalArgumentException("Gogo command execution '" + executionId
+                    + "' doesn't exist or has expired");
+        }
+        final XGogoOutputDTO output = execution.poll(Math.min(Math.max(timeoutInMillis, 0),
+                                                              MAX_POLL_TIMEOUT_IN_MILLIS));
+        if (output.isCompleted) {
+            executions.remove(executionId);
+        }
+        return output;
+    }
+
+    public boolean cancel(final String executionId) {
+        requireNonNull(executionId, "Execution ID cannot be null");
+
+        // retained such that the next poll reports the cancellation
+        final GogoExecution execution = executions.get(executionId);
+        if (execution == null) {
+            return false;
+        }
+        execution.cancel();
+        return true;
+    }
+
+    private CommandProcessor processor() {
+        final CommandProcessor processor = tracker.getService();
+        if (processor == null) {
+            throw new IllegalStateException("Gogo is not present in this framework");
+        }
+        return processor;
+    }
+
+    private void expireIdleExecutions() {
+        final long now = System.currentTimeMillis();
+        executions.values().removeIf(execution -> {
+            if (now - execution.lastAccessed.get() < IDLE_TIMEOUT_IN_MILLIS) {
+                return false;
+            }
+            logger.atWarn().msg("Cancelling idle Gogo command execution '{}' of '{}'").arg(execution.id)
+                    .arg(execution.command).log();
+            execution.cancel();
+            return true;
+        });
+    }
+
+    /**
+     * The execution of a single command whose output is buffered until it is
+     * polled.
+     */
+    private static final class GogoExecution {
+
+        private final String       id;
+        private final String       command;
+        private final OutputBuffer buffer;
+        private final AtomicLong   lastAccessed = new AtomicLong(System.currentTimeMillis());
+        private long               sequence;
+        private volatile String    error;
+        private volatile boolean   cancelled;
+        private volatile Future<?> future;
+
+        private GogoExecution(final String id, final String command, final int capacity) {
+            this.id      = id;
+            this.command = command;
+            buffer       = new OutputBuffer(id, capacity, UTF_8);
+        }
+
+        void run(final CommandProcessor processor) {
+            PrintStream    out     = null;
+            CommandSession session = null;
+            try {
+                out     = new PrintStream(buffer, true, UTF_8.name());
+                session = processor.createSession(new ByteArrayInputStream(new byte[0]), out, out);
+
+                final Object result = session.execute(command);
+                if (result != null) {
+                    out.println(session.format(result, Converter.INSPECT));
+                }
+            } catch (final CancellationException e) {
+                logger.atDebug().msg("Gogo command '{}' has been cancelled").arg(command).log();
+            } catch (final UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            } catch (final Exception e) {
+                error = e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+                if (out != null && !buffer.isCancelled()) {
+                    e.printStackTrace(out);
+                }
+            } finally {
+                if (session != null) {
+                    session.close();
+                }
+                if (out != null) {
+                    out.flush();
+                }
+                buffer.complete();
+            }
+        }
+
+        synchronized XGogoOutputDTO poll(final long timeoutInMillis) throws InterruptedException {
+            lastAccessed.set(System.currentTimeMillis());
+            if (!cancelled) {
+                buffer.await(timeoutInMillis);
+            }
+            final XGogoOutputDTO dto = new XGogoOutputDTO();
+
+            dto.executionId = id;
+            dto.sequence    = sequence++;
+            dto.output      = buffer.drain(MAX_BYTES_PER_POLL);
+            // the command completes only after its complete output has been delivered
+            dto.isCompleted = cancelled || buffer.isDrained();
+            dto.isCancelled = cancelled;
+            dto.error       = dto.isCompleted && !cancelled ? error : null;
+
+            lastAccessed.set(System.currentTimeMillis());
+            return dto;
+        }
+
+        String drain(final int maxBytes) {
+            return buffer.drain(maxBytes);
+        }
+
+        void cancel() {
+            cancelled = true;
+            buffer.cancel();
+            final Future<?> f = future;
+            if (f != null) {
+                f.cancel(true);
+            }
+        }
+    }
+
+}
@@ -15,30 +15,47 @@
  ******************************************************************************/
 package com.osgifx.console.agent.redirector;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
+
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 
+import com.osgifx.console.agent.helper.ThreadFactoryBuilder;
 import com.osgifx.console.agent.provider.AgentServer;
 
 /**
  * Handles the redirection of the output. Any text written to this PrintStream
  * is send to the supervisor. We are a bit careful here that we're breaking
  * recursive calls that can happen when there is shit happening deep down below.
+ * <p>
+ * The output is sent as soon as possible by a single flusher thread. Output
+ * that is written while the previous output is still being sent is coalesced
+ * and sent right afterwards. The flusher thread terminates when idle.
  */
 public final class RedirectOutput extends PrintStream {
 
-    private static Timer                      timer      = new Timer();
+    // @formatter:off
+    private static final ThreadFactory      flusherThreadFactory = new ThreadFactoryBuilder()
+                                                                         .setThreadFactoryName("osgifx-output-flusher")
+                                                                         .setThreadNameFormat("-%d")
+                                                                         .setDaemon(true)
+                                                                         .build();
+    // @formatter:on
+    private static final ThreadPoolExecutor flusher              = new ThreadPoolExecutor(0, 1, 5, SECONDS,
+                                                                         new LinkedBlockingQueue<>(),
+                                                                         flusherThreadFactory);
+
     private final List<AgentServer>           agents;
     private final PrintStream                 out;
-    private StringBuilder                     sb         = new StringBuilder();
+    private StringBuilder                     sb      = new StringBuilder();
     private final boolean                     err;
-    private static final ThreadLocal<Boolean> onStack    = new ThreadLocal<>();
-    private TimerTask                         active;
-    private String                            lastOutput = "";
+    private static final ThreadLocal<Boolean> onStack = new ThreadLocal<>();
+    private boolean                           isFlushScheduled;
 
     /**
      * If we do not have an original, we create a null stream because the
@@ -97,20 +114,17 @@ public final class RedirectOutput extends PrintStream {
 
     private void flushConditional() {
         synchronized (this) {
-            if (active != null) {
+            if (isFlushScheduled) {
                 return;
             }
-            active = new TimerTask() {
-                @Override
-                public void run() {
-                    synchronized (RedirectOutput.this) {
-                        active = null;
-                    }
-                    flush();
-                }
-            };
-            timer.schedule(active, 300);
+            isFlushScheduled = true;
         }
+        flusher.execute(() -> {
+            synchronized (RedirectOutput.this) {
+                isFlushScheduled = false;
+            }
+            flush();
+        });
     }
 
     @Override
@@ -123,7 +137,6 @@ public final class RedirectOutput extends PrintStream {
             output = sb.toString();
             sb     = new StringBuilder();
         }
-        setLastOutput(output);
         for (final AgentServer agent : agents) {
             if (agent.quit) {
                 continue;
@@ -156,16 +169,4 @@ public final class RedirectOutput extends PrintStream {
         return out;
     }
 
-    public String getLastOutput() {
-        return lastOutput;
-    }
-
-    private void setLastOutput(String out) {
-        if (!"".equals(out) && out != null) {
-            out = out.replaceAll("^>.*$", "");
-            if (!"".equals(out) && !out.startsWith("true")) {
-                lastOutput = out;
-            }
-        }
-    }
 }
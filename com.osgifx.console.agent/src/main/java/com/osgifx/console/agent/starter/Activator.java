@@ -46,7 +46,11 @@ import com.osgifx.console.agent.di.module.DIModule;
 import com.osgifx.console.agent.helper.ThreadFactoryBuilder;
 import com.osgifx.console.agent.provider.AgentServer;
 import com.osgifx.console.agent.provider.ClassloaderLeakDetector;
+import com.osgifx.console.agent.provider.CliSessions;
+import com.osgifx.console.agent.provider.ExtensionStreams;
+import com.osgifx.console.agent.provider.PackageIndex;
 import com.osgifx.console.agent.provider.PackageWirings;
+import com.osgifx.console.agent.redirector.GogoSessions;
 import com.osgifx.console.agent.rpc.RemoteRPC;
 import com.osgifx.console.agent.rpc.mqtt.MqttRPC;
 import com.osgifx.console.agent.rpc.mqtt.SimpleMqtt5Publisher;
@@ -88,6 +92,11 @@ public final class Activator extends Thread implements BundleActivator {
     public void start(final BundleContext bundleContext) throws Exception {
         module = new DIModule(bundleContext);
         module.di().getInstance(ClassloaderLeakDetector.class).start();
+        module.di().getInstance(PackageIndex.class).start();
+        module.di().getInstance(ExtensionStreams.class).start();
+        if (module.di().getInstance(PackageWirings.class).isGogoWired()) {
+            module.di().getInstance(GogoSessions.class).start();
+        }
 
         try {
             final SocketContext socketContext = new SocketContext(bundleContext);
@@ -205,6 +214,12 @@ public final class Activator extends Thread implements BundleActivator {
         IO.close(serverSocket);
         agents.forEach(IO::close);
         module.di().getInstance(ClassloaderLeakDetector.class).stop();
+        module.di().getInstance(PackageIndex.class).stop();
+        module.di().getInstance(ExtensionStreams.class).stop();
+        module.di().getInstance(CliSessions.class).stop();
+        if (module.di().getInstance(PackageWirings.class).isGogoWired()) {
+            module.di().getInstance(GogoSessions.class).stop();
+        }
         module.stop();
     }
 
@@ -21,7 +21,9 @@ import static com.osgifx.console.agent.Agent.AGENT_SOCKET_SECURE_COMMUNICATION_K
 import static com.osgifx.console.agent.Agent.AGENT_SOCKET_SECURE_COMMUNICATION_SSL_CONTEXT_FILTER_KEY;
 
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
+import java.nio.channels.ServerSocketChannel;
 import java.util.Collection;
 import java.util.Optional;
 import java.util.regex.Matcher;
@@ -80,7 +82,20 @@ public final class SocketContext {
             return "*".equals(host) ? ssf.createServerSocket(port)
                     : ssf.createServerSocket(port, 3, InetAddress.getByName(host));
         }
-        return "*".equals(host) ? new ServerSocket(port) : new ServerSocket(port, 3, InetAddress.getByName(host));
+        // plain connections are accepted through channels to allow NIO transfers
+        final ServerSocketChannel channel = ServerSocketChannel.open();
+        try {
+            final ServerSocket socket = channel.socket();
+            if ("*".equals(host)) {
+                socket.bind(new InetSocketAddress(port));
+            } else {
+                socket.bind(new InetSocketAddress(InetAddress.getByName(host), port), 3);
+            }
+            return socket;
+        } catch (final Exception e) {
+            channel.close();
+            throw e;
+        }
     }
 
     private void extractSpec() {
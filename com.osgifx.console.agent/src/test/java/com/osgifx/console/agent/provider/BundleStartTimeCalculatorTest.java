@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.provider;
+
+import static com.osgifx.console.agent.dto.XStartupTimelineDTO.COMPONENT_SERVICES;
+import static com.osgifx.console.agent.dto.XStartupTimelineDTO.SERVICES;
+import static com.osgifx.console.agent.provider.BundleStartTimeCalculator.SETTLE_WINDOW_IN_MILLIS;
+import static com.osgifx.console.agent.provider.BundleStartTimeCalculator.Timeline.STARTED;
+import static com.osgifx.console.agent.provider.BundleStartTimeCalculator.Timeline.STARTING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.osgifx.console.agent.dto.XStartupTimelineDTO.XBundleTimeline;
+import com.osgifx.console.agent.dto.XStartupTimelineDTO.XLifecyclePhase;
+import com.osgifx.console.agent.provider.BundleStartTimeCalculator.Timeline;
+
+public final class BundleStartTimeCalculatorTest {
+
+    private static final long STARTING_TIME = 1_000L;
+    private static final long STARTED_TIME  = 1_500L;
+    private static final long LATE          = STARTED_TIME + TimeUnit.HOURS.toMillis(2);
+
+    @Test
+    public void attributesRegistrationsWithinTheSettleWindowToTheStartup() {
+        final Timeline timeline = startedTimeline();
+
+        timeline.registered(false, STARTED_TIME + 100, true);
+        timeline.registered(false, STARTED_TIME + SETTLE_WINDOW_IN_MILLIS, true);
+
+        final XLifecyclePhase services = phase(timeline.toDTO(), SERVICES);
+        assertEquals(STARTED_TIME + 100, services.start);
+        assertEquals(STARTED_TIME + SETTLE_WINDOW_IN_MILLIS, services.end);
+    }
+
+    @Test
+    public void ignoresLateRegistrations() {
+        final Timeline timeline = startedTimeline();
+
+        timeline.registered(false, STARTED_TIME + 100, true);
+        timeline.registered(true, STARTED_TIME + 200, true);
+        timeline.registered(false, LATE, true);
+        timeline.registered(true, LATE, true);
+
+        final XBundleTimeline dto = timeline.toDTO();
+        assertEquals(STARTED_TIME + 100, phase(dto, SERVICES).end);
+        assertEquals(STARTED_TIME + 200, phase(dto, COMPONENT_SERVICES).end);
+    }
+
+    @Test
+    public void ignoresRegistrationsOfBundlesStartedBeforeTheRecording() {
+        final Timeline timeline = new Timeline(1, "com.acme");
+
+        timeline.registered(false, LATE, true);
+
+        assertNull(phase(timeline.toDTO(), SERVICES));
+    }
+
+    @Test
+    public void attributesRegistrationsToTheRestart() {
+        final Timeline timeline = startedTimeline();
+
+        timeline.registered(false, LATE, true);
+        timeline.starting(LATE);
+        timeline.registered(false, LATE + 10, true);
+        timeline.set(STARTED, LATE + 20);
+
+        final XLifecyclePhase services = phase(timeline.toDTO(), SERVICES);
+        assertEquals(LATE + 10, services.start);
+        assertEquals(LATE + 10, services.end);
+    }
+
+    private static Timeline startedTimeline() {
+        final Timeline timeline = new Timeline(1, "com.acme");
+        timeline.set(STARTING, STARTING_TIME);
+        timeline.set(STARTED, STARTED_TIME);
+        return timeline;
+    }
+
+    private static XLifecyclePhase phase(final XBundleTimeline dto, final String name) {
+        return dto.phases.stream().filter(p -> name.equals(p.name)).findFirst().orElse(null);
+    }
+
+}
@@ -0,0 +1,243 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.agent.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.BundleListener;
+import org.osgi.framework.Version;
+import org.osgi.framework.wiring.BundleRevision;
+import org.osgi.framework.wiring.BundleWiring;
+
+import com.osgifx.console.agent.dto.XClassloaderHistogramDTO;
+import com.osgifx.console.agent.provider.ClassloaderLeakDetector.HistogramRow;
+
+public final class ClassloaderLeakDetectorTest {
+
+    // @formatter:off
+    private static final String HISTOGRAM =
+              " num     #instances         #bytes  class name (module)\n"
+            + "-------------------------------------------------------\n"
+            + "   1:        144858       13909176  [B (java.base@11.0.12)\n"
+            + "   2:          1000          64000  com.acme.cache.Cache\n"
+            + "   3:           500          32000  com.acme.cache.Cache\n"
+            + "   4:           300          24000  com.acme.util.Strings\n"
+            + "   5:           200          16000  com.acme.util.Strings\n"
+            + "   6:            10            320  com.acme.cache.Service\n"
+            + "   7:             5            160  com.acme.cache.Module (java.base@11.0.12)\n"
+            + "Total        146873       14045656\n";
+    // @formatter:on
+
+    private final List<BundleListener> listeners = new ArrayList<>();
+    private ClassloaderLeakDetector    detector;
+
+    @After
+    public void tearDown() {
+        if (detector != null) {
+            detector.stop();
+        }
+    }
+
+    @Test
+    public void parsesRowsByClassNameSkippingNamedModules() {
+        final Map<String, List<HistogramRow>> rows = ClassloaderLeakDetector.parseHistogram(HISTOGRAM);
+
+        assertEquals(3, rows.size());
+        assertNull(rows.get("[B"));
+        assertNull(rows.get("com.acme.cache.Module"));
+
+        final List<HistogramRow> cache = rows.get("com.acme.cache.Cache");
+        assertEquals(2, cache.size());
+        assertEquals(1000, cache.get(0).instances);
+        assertEquals(64000, cache.get(0).bytes);
+        assertEquals(500, cache.get(1).instances);
+        assertEquals(32000, cache.get(1).bytes);
+    }
+
+    @Test
+    public void parsesJava8RowsWithoutModules() {
+        final Map<String, List<HistogramRow>> rows = ClassloaderLeakDetector
+                .parseHistogram("   1:          1000          64000  com.acme.cache.Cache\r\n"
+                        + "   2:             1             16  [Ljava.lang.Object;\r\n");
+
+        assertEquals(1000, rows.get("com.acme.cache.Cache").get(0).instances);
+        assertEquals(16, rows.get("[Ljava.lang.Object;").get(0).bytes);
+    }
+
+    @Test
+    public void attributesOneRowPerClassloaderOfBundle() {
+        final FakeBundle cache = new FakeBundle(1, "com.acme.cache", "com.acme.cache.Cache", "com.acme.cache.Service",
+                                                "com.acme.cache.Module");
+        final XClassloaderHistogramDTO dto = histogramOf(cache, detector(cache));
+
+        assertEquals(1, dto.classloaderCount);
+        assertEquals(2, dto.classes);
+        assertEquals(1010, dto.instances);
+        assertEquals(64320, dto.bytes);
+        assertEquals(0, dto.duplicateClassInstances);
+        assertEquals(1, dto.topClasses.get(0).classloaderCount);
+    }
+
+    @Test
+    public void reportsRowsOfStaleClassloaderAsDuplicates() {
+        final FakeBundle              cache    = new FakeBundle(1, "com.acme.cache", "com.acme.cache.Cache");
+        final ClassloaderLeakDetector detector = detector(cache);
+        // the classloader of the previous revision is still strongly reachable
+        final ClassLoader stale = cache.classLoader;
+        restart(cache);
+
+        final XClassloaderHistogramDTO dto = histogramOf(cache, detector);
+
+        assertTrue(stale != cache.classLoader);
+        assertEquals(2, dto.classloaderCount);
+        assertEquals(1500, dto.instances);
+        assertEquals(500, dto.duplicateClassInstances);
+        assertEquals(32000, dto.duplicateClassBytes);
+        assertEquals(2, dto.topClasses.get(0).classloaderCount);
+    }
+
+    @Test
+    public void reportsClassesOfSeveralBundlesAsShared() {
+        final FakeBundle              cache    = new FakeBundle(1, "com.acme.cache", "com.acme.util.Strings",
+                                                                "com.acme.cache.Service");
+        final FakeBundle              other    = new FakeBundle(2, "com.acme.other", "com.acme.util.Strings");
+        final ClassloaderLeakDetector detector = detector(cache, other);
+        restart(cache);
+
+        final XClassloaderHistogramDTO cacheDTO = histogramOf(cache, detector);
+        final XClassloaderHistogramDTO otherDTO = histogramOf(other, detector);
+
+        assertEquals(1, cacheDTO.classes);
+        assertEquals(10, cacheDTO.instances);
+        assertEquals(0, cacheDTO.duplicateClassInstances);
+        assertEquals(500, cacheDTO.sharedClassInstances);
+        assertEquals(40000, cacheDTO.sharedClassBytes);
+        assertEquals(500, otherDTO.sharedClassInstances);
+        assertFalse(otherDTO.topClasses.stream().anyMatch(e -> e.className.equals("com.acme.util.Strings")));
+    }
+
+    private ClassloaderLeakDetector detector(final FakeBundle... bundles) {
+        final BundleContext context = (BundleContext) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { BundleContext.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getBundles":
+                            return Arrays.stream(bundles).map(b -> b.bundle).toArray(Bundle[]::new);
+                        case "addBundleListener":
+                            listeners.add((BundleListener) args[0]);
+                            return null;
+                        default:
+                            return null;
+                    }
+                });
+        detector = new ClassloaderLeakDetector(context, null);
+        detector.start();
+        return detector;
+    }
+
+    private void restart(final FakeBundle bundle) {
+        bundle.state = Bundle.RESOLVED;
+        fire(new BundleEvent(BundleEvent.STOPPED, bundle.bundle));
+        bundle.classLoader = new ClassLoader() {
+        };
+        bundle.state       = Bundle.ACTIVE;
+        fire(new BundleEvent(BundleEvent.STARTED, bundle.bundle));
+    }
+
+    private void fire(final BundleEvent event) {
+        for (final BundleListener listener : listeners) {
+            listener.bundleChanged(event);
+        }
+    }
+
+    private static XClassloaderHistogramDTO histogramOf(final FakeBundle bundle,
+                                                        final ClassloaderLeakDetector detector) {
+        return detector.getClassHistogram(HISTOGRAM).stream().filter(dto -> dto.bundleId == bundle.id).findFirst()
+                .orElseThrow(AssertionError::new);
+    }
+
+    private static final class FakeBundle {
+
+        final long               id;
+        final Bundle             bundle;
+        final Collection<String> resources = new ArrayList<>();
+        volatile ClassLoader     classLoader;
+        volatile int             state     = Bundle.ACTIVE;
+
+        FakeBundle(final long id, final String symbolicName, final String... classNames) {
+            this.id = id;
+            for (final String className : classNames) {
+                resources.add(className.replace('.', '/') + ".class");
+            }
+            classLoader = new ClassLoader() {
+            };
+            final ClassLoader loader = getClass().getClassLoader();
+
+            final BundleRevision revision = (BundleRevision) Proxy.newProxyInstance(loader,
+                    new Class<?>[] { BundleRevision.class }, (proxy, method, args) -> {
+                        return "getTypes".equals(method.getName()) ? 0 : null;
+                    });
+            final BundleWiring   wiring   = (BundleWiring) Proxy.newProxyInstance(loader,
+                    new Class<?>[] { BundleWiring.class }, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getClassLoader":
+                                return classLoader;
+                            case "listResources":
+                                return resources;
+                            default:
+                                return null;
+                        }
+                    });
+            bundle = (Bundle) Proxy.newProxyInstance(loader, new Class<?>[] { Bundle.class }, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getBundleId":
+                        return id;
+                    case "getSymbolicName":
+                        return symbolicName;
+                    case "getVersion":
+                        return Version.emptyVersion;
+                    case "getState":
+                        return state;
+                    case "getLastModified":
+                        return 0L;
+                    case "adapt":
+                        return args[0] == BundleRevision.class ? revision : wiring;
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        return null;
+                }
+            });
+        }
+    }
+
+}
@@ -37,6 +37,9 @@ public class PackageDTO extends DTO {
     /** Indicates whether the package is duplicated when exported. */
     public boolean isDuplicateExport;
 
+    /** Indicates whether the contents of the package are split across multiple bundles. */
+    public boolean isSplitPackage;
+
     /** List of bundles exporting this package. */
     public List<XBundleDTO> exporters = new ArrayList<>();
 
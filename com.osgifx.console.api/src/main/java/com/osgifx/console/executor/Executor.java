@@ -17,7 +17,6 @@ package com.osgifx.console.executor;
 
 import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.function.Supplier;
@@ -33,8 +32,8 @@ import org.osgi.annotation.versioning.ProviderType;
 public interface Executor {
 
     /**
-     * Executes the specified command at some point in the future. The command may execute in a new thread, a pooled thread, 
-     * or in the calling thread, depending on the {@code Executor} implementation.
+     * Executes the specified command at some point in the future in the {@link Lane#INTERACTIVE} lane. The command may execute 
+     * in a new thread, a pooled thread, or in the calling thread, depending on the {@code Executor} implementation.
      *
      * @param command the runnable task to be executed
      * @return a CompletableFuture representing the pending completion of the task
@@ -44,7 +43,18 @@ public interface Executor {
     CompletableFuture<Void> runAsync(Runnable command);
 
     /**
-     * Returns a new CompletableFuture that is asynchronously completed by a task running in the {@link ForkJoinPool#commonPool()} 
+     * Executes the specified command at some point in the future in the specified lane.
+     *
+     * @param command the runnable task to be executed
+     * @param lane the lane to execute the task in
+     * @return a CompletableFuture representing the pending completion of the task
+     * @throws RejectedExecutionException if the task cannot be accepted for execution
+     * @throws NullPointerException if any of the arguments is null
+     */
+    CompletableFuture<Void> runAsync(Runnable command, Lane lane);
+
+    /**
+     * Returns a new CompletableFuture that is asynchronously completed by a task running in the {@link Lane#INTERACTIVE} lane 
      * with the value obtained by calling the given Supplier.
      *
      * @param <U> the function's return type
@@ -53,12 +63,26 @@ public interface Executor {
      */
     <U> CompletableFuture<U> supplyAsync(Supplier<U> supplier);
 
+    /**
+     * Returns a new CompletableFuture that is asynchronously completed by a task running in the specified lane with the value 
+     * obtained by calling the given Supplier.
+     *
+     * @param <U> the function's return type
+     * @param supplier a function returning the value to be used to complete the returned CompletableFuture
+     * @param lane the lane to execute the task in
+     * @return the new CompletableFuture
+     * @throws NullPointerException if any of the arguments is null
+     */
+    <U> CompletableFuture<U> supplyAsync(Supplier<U> supplier, Lane lane);
+
     /**
      * Creates and executes a periodic action that becomes enabled first after the given initial delay, and subsequently 
      * with the given period. Executions commence after {@code initialDelay} then {@code initialDelay + period}, 
      * {@code initialDelay + 2 * period}, and so on. If any execution of the task encounters an exception, subsequent executions 
      * are suppressed. Otherwise, the task will only terminate via cancellation or termination of the executor. If any execution 
      * of this task takes longer than its period, subsequent executions may start late but will not execute concurrently.
+     * <p>
+     * The periodic actions are executed in the {@link Lane#BACKGROUND} lane.
      *
      * @param command the task to execute
      * @param initialDelay the time to delay first execution
@@ -75,6 +99,8 @@ public interface Executor {
      * with the given delay between the termination of one execution and the commencement of the next. If any execution 
      * of the task encounters an exception, subsequent executions are suppressed. Otherwise, the task will only terminate 
      * via cancellation or termination of the executor.
+     * <p>
+     * The periodic actions are executed in the {@link Lane#BACKGROUND} lane.
      *
      * @param command the task to execute
      * @param initialDelay the time to delay first execution
@@ -85,4 +111,13 @@ public interface Executor {
      * @throws IllegalArgumentException if the delay is less than or equal to zero
      */
     ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, Duration initialDelay, Duration delay);
+
+    /**
+     * Returns the current metrics of the specified lane.
+     *
+     * @param lane the lane
+     * @return the metrics of the lane
+     * @throws NullPointerException if the lane is null
+     */
+    LaneMetrics metrics(Lane lane);
 }
@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * COPYRIGHT 2021-2025 AMIT KUMAR MONDAL
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.executor;
+
+/**
+ * The lanes of the {@link Executor}. Every lane has its own capacity such that
+ * the tasks of one lane cannot starve the tasks of another lane.
+ */
+public enum Lane {
+
+    /**
+     * Short tasks triggered by the user that must complete as fast as possible,
+     * for example, loading the data of a view or executing an action.
+     */
+    INTERACTIVE,
+
+    /**
+     * Heavy or periodic tasks the user doesn't wait for, for example, capturing
+     * snapshots, refreshing caches or housekeeping.
+     */
+    BACKGROUND,
+
+    /**
+     * Long-running tasks that continuously consume data, for example, ingesting
+     * logs and events or polling streamed output.
+     */
+    STREAMING
+
+}
@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * COPYRIGHT 2021-2025 AMIT KUMAR MONDAL
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.executor;
+
+import java.time.Duration;
+
+/**
+ * The metrics of a {@link Lane} of the {@link Executor}
+ *
+ * @param lane the lane
+ * @param submitted the number of tasks that have been submitted
+ * @param completed the number of tasks that have completed successfully
+ * @param failed the number of tasks that have completed exceptionally
+ * @param active the number of tasks that are currently running
+ * @param queued the number of tasks that are currently waiting for capacity
+ * @param averageWaitTime the average time the tasks have waited for capacity
+ * @param averageExecutionTime the average execution time of the tasks
+ */
+public record LaneMetrics(Lane lane,
+                          long submitted,
+                          long completed,
+                          long failed,
+                          int active,
+                          int queued,
+                          Duration averageWaitTime,
+                          Duration averageExecutionTime) {
+}
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.supervisor.fleet;
+
+/**
+ * The result of a fleet query executed against a single agent.
+ *
+ * @param <R> the type of the query result
+ * @param agent the name of the agent
+ * @param status the status of the query execution
+ * @param value the query result (only set if the query has succeeded)
+ * @param error the error message (only set if the query has not succeeded)
+ * @param durationInMillis the time the agent took to respond
+ */
+public record AgentResult<R>(String agent, Status status, R value, String error, long durationInMillis) {
+
+    public enum Status {
+        SUCCESS,
+        ERROR,
+        TIMEOUT,
+        DISCONNECTED
+    }
+
+    public boolean isSuccessful() {
+        return status == Status.SUCCESS;
+    }
+
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.supervisor.fleet;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.osgi.annotation.versioning.ProviderType;
+
+import com.osgifx.console.agent.Agent;
+import com.osgifx.console.supervisor.MqttConnection;
+import com.osgifx.console.supervisor.SocketConnection;
+
+/**
+ * The {@link FleetManager} service keeps pooled connections to many remote
+ * agents at once and runs the same query against all of them concurrently.
+ *
+ * <p>
+ * Every agent of the fleet is queried with its own timeout such that a slow or
+ * dead agent does not hold up the results of the others. Broken connections
+ * are re-established on the next query.
+ * </p>
+ *
+ * <p>
+ * <b>Note that</b>, all MQTT agents of the fleet share the broker connection of
+ * the console and are only distinguished by their topics.
+ * </p>
+ *
+ * @noimplement This interface is not intended to be implemented by consumers.
+ * @noextend This interface is not intended to be extended by consumers.
+ *
+ * @ThreadSafe
+ */
+@ProviderType
+public interface FleetManager {
+
+    /**
+     * Adds an agent reachable over a socket to the fleet and connects to it
+     * asynchronously. An already existing agent having the same {@code name} is
+     * replaced.
+     *
+     * @param name the unique name of the agent in the fleet
+     * @param connection the socket connection settings
+     * @return the future that completes as soon as the connection is established
+     */
+    CompletableFuture<Void> addAgent(String name, SocketConnection connection);
+
+    /**
+     * Adds an agent reachable over MQTT to the fleet and connects to it
+     * asynchronously. An already existing agent having the same {@code name} is
+     * replaced.
+     *
+     * @param name the unique name of the agent in the fleet
+     * @param connection the MQTT connection settings
+     * @return the future that completes as soon as the connection is established
+     */
+    CompletableFuture<Void> addAgent(String name, MqttConnection connection);
+
+    /**
+     * Removes the agent having the specified {@code name} from the fleet and
+     * closes its connection.
+     *
+     * @param name the name of the agent
+     */
+    void removeAgent(String name);
+
+    /**
+     * Removes all agents from the fleet and closes their connections.
+     */
+    void clear();
+
+    /**
+     * Returns the names of all agents in the fleet.
+     *
+     * @return the names of the agents
+     */
+    Set<String> getAgents();
+
+    /**
+     * Checks whether the connection to the agent having the specified
+     * {@code name} is currently established.
+     *
+     * @param name the name of the agent
+     * @return {@code true} if the connection is established, otherwise {@code false}
+     */
+    boolean isConnected(String name);
+
+    /**
+     * Runs the specified {@code query} against all agents of the fleet
+     * concurrently.
+     *
+     * @param <R> the type of the query result
+     * @param query the query to execute against every agent
+     * @param timeoutInMillis the timeout of the query per agent
+     * @param listener the listener which gets notified as soon as the result of
+     *            an agent arrives together with the aggregated result so far (can
+     *            be {@code null})
+     * @return the future that completes as soon as all agents have responded or
+     *         timed out
+     */
+    <R> CompletableFuture<FleetResult<R>> query(Function<Agent, R> query,
+                                                long timeoutInMillis,
+                                                BiConsumer<AgentResult<R>, FleetResult<R>> listener);
+
+}
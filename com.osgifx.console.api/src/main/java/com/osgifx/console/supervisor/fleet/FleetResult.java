@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.supervisor.fleet;
+
+import static java.util.Comparator.comparingInt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The aggregated result of a fleet query. The aggregation is created
+ * incrementally while the agents respond and diffs the successful results
+ * against the value most of the agents agree on.
+ *
+ * @param <R> the type of the query result
+ * @param results the results of the agents that have responded so far
+ * @param expected the number of agents that have been queried
+ */
+public record FleetResult<R>(List<AgentResult<R>> results, int expected) {
+
+    public FleetResult {
+        results = List.copyOf(results);
+    }
+
+    /**
+     * Checks whether all queried agents have responded or timed out.
+     */
+    public boolean isComplete() {
+        return results.size() >= expected;
+    }
+
+    /**
+     * Groups the names of the agents by the value they have responded with. The
+     * groups are ordered by their size in descending order.
+     */
+    public Map<R, List<String>> groupByValue() {
+        final Map<R, List<String>> groups = new HashMap<>();
+        for (final AgentResult<R> result : results) {
+            if (result.isSuccessful()) {
+                groups.computeIfAbsent(result.value(), k -> new ArrayList<>()).add(result.agent());
+            }
+        }
+        final Map<R, List<String>> sorted = new LinkedHashMap<>();
+        groups.entrySet().stream().sorted(comparingInt((Entry<R, List<String>> e) -> e.getValue().size()).reversed())
+                .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+        return sorted;
+    }
+
+    /**
+     * Returns the value most of the successfully responding agents agree on.
+     */
+    public Optional<R> consensus() {
+        final var groups = groupByValue();
+        return groups.isEmpty() ? Optional.empty() : Optional.ofNullable(groups.keySet().iterator().next());
+    }
+
+    /**
+     * Returns the successful results that deviate from the consensus.
+     */
+    public List<AgentResult<R>> deviations() {
+        final var groups = groupByValue();
+        if (groups.isEmpty()) {
+            return List.of();
+        }
+        final var consensus = groups.keySet().iterator().next();
+        return results.stream().filter(AgentResult::isSuccessful).filter(r -> !Objects.equals(r.value(), consensus))
+                .toList();
+    }
+
+    /**
+     * Returns the results of the agents that could not be queried successfully.
+     */
+    public List<AgentResult<R>> failures() {
+        return results.stream().filter(r -> !r.isSuccessful()).toList();
+    }
+
+}
@@ -16,20 +16,26 @@
 package com.osgifx.console.application;
 
 import static com.osgifx.console.constants.FxConstants.STANDARD_CSS;
-import static javafx.concurrent.Worker.State.SUCCEEDED;
 import static javafx.scene.paint.Color.TRANSPARENT;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 import org.apache.aries.component.dsl.OSGi;
 import org.eclipse.fx.ui.workbench.fx.DefaultJFXApp;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.ServiceReference;
+
+import com.osgifx.console.application.FxStartupProgress.Milestone;
+import com.osgifx.console.application.preference.ConnectionsProvider;
 
 import javafx.animation.FadeTransition;
 import javafx.application.HostServices;
-import javafx.concurrent.Task;
+import javafx.application.Platform;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Label;
@@ -48,11 +54,22 @@ public final class ConsoleFxStage extends DefaultJFXApp {
 
     private static final String SPLASH_IMAGE = "/graphic/images/splash.png";
 
-    private Stage        initStage;
-    private VBox         splashLayout;
-    private ProgressBar  loadProgress;
-    private Label        progressText;
-    private final Bundle applicationBundle;
+    // @formatter:off
+    private static final List<String> WARM_UP_SERVICES = List.of(
+                                                             "com.osgifx.console.executor.Executor",
+                                                             "com.osgifx.console.supervisor.Supervisor",
+                                                             "com.osgifx.console.data.provider.DataProvider",
+                                                             ConnectionsProvider.class.getName());
+    // @formatter:on
+
+    private Stage                           initStage;
+    private VBox                            splashLayout;
+    private ProgressBar                     loadProgress;
+    private Label                           progressText;
+    private volatile boolean                splashHidden;
+    private final Bundle                    applicationBundle;
+    private final Consumer<Milestone>       splashUpdater    = this::updateSplash;
+    private final List<ServiceReference<?>> warmedUpServices = new CopyOnWriteArrayList<>();
 
     private static final double SPLASH_WIDTH  = 695d;
     private static final double SPLASH_HEIGHT = 227d;
@@ -86,23 +103,66 @@ public final class ConsoleFxStage extends DefaultJFXApp {
     @Override
     public void start(final Stage initStage) throws Exception {
         this.initStage = initStage;
-        final Task<Void> friendTask = new Task<>() {
-
-            @Override
-            protected Void call() throws InterruptedException {
-                updateMessage("Initializing Console . . .");
-                for (var i = 0; i < 5; i++) {
-                    Thread.sleep(400);
-                    updateProgress(i + 1L, 5);
-                }
-                Thread.sleep(400);
-                updateMessage("Console Initialized.");
-                return null;
-            }
-        };
-        showSplash(initStage, friendTask, this::showFxConsoleStage);
-        CompletableFuture.runAsync(friendTask);
-        registerHostServices(applicationBundle.getBundleContext());
+        showSplash(initStage);
+        FxStartupProgress.listen(splashUpdater);
+
+        final var context = applicationBundle.getBundleContext();
+        registerHostServices(context);
+        warmUpServices(context);
+        // let the splash screen render before the workbench gets created on the JavaFX thread
+        Platform.runLater(this::showFxConsoleStage);
+    }
+
+    /**
+     * Activates the (delayed) non-visual services concurrently while the
+     * workbench is being created such that the parts do not have to wait for
+     * their activation on the JavaFX thread. The services are held until the
+     * console stops as releasing them before the workbench has acquired them
+     * would let SCR deactivate the delayed components again.
+     */
+    private void warmUpServices(final BundleContext context) {
+        final var warmUps = WARM_UP_SERVICES.stream()
+                .map(service -> CompletableFuture.runAsync(() -> warmUpService(context, service)))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(warmUps).thenRun(() -> FxStartupProgress.reach("Services warmed up", 0.3));
+    }
+
+    private void warmUpService(final BundleContext context, final String service) {
+        final var reference = context.getServiceReference(service);
+        if (reference != null && context.getService(reference) != null) {
+            warmedUpServices.add(reference);
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        final var context = applicationBundle.getBundleContext();
+        if (context != null) {
+            warmedUpServices.forEach(context::ungetService);
+        }
+        warmedUpServices.clear();
+        super.stop();
+    }
+
+    /**
+     * Only updates the splash controls which get rendered by the next regular
+     * pulse. Milestones reported while the workbench is being created on the
+     * JavaFX thread therefore only become visible once it yields, as the event
+     * loop must not be re-entered from within the creation of the workbench.
+     */
+    private void updateSplash(final Milestone milestone) {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(() -> updateSplash(milestone));
+            return;
+        }
+        if (splashHidden) {
+            return;
+        }
+        progressText.setText(milestone.description());
+        loadProgress.setProgress(Math.max(loadProgress.getProgress(), milestone.progress()));
+        if (milestone.progress() >= 1) {
+            hideSplash();
+        }
     }
 
     private void registerHostServices(final BundleContext context) {
@@ -111,30 +171,34 @@ public final class ConsoleFxStage extends DefaultJFXApp {
     }
 
     private void showFxConsoleStage() {
+        FxStartupProgress.reach("Creating workbench", 0.3);
         initialize();
         e4Application.jfxStart(e4Application.getApplicationContext(), this, initStage);
+        // the workbench has been created by now even if its shown state has not been tracked
+        hideSplash();
     }
 
-    private void showSplash(final Stage initStage, final Task<?> task, final Runnable completionHandler) {
-        progressText.textProperty().bind(task.messageProperty());
-        loadProgress.progressProperty().bind(task.progressProperty());
+    private void hideSplash() {
+        if (splashHidden) {
+            return;
+        }
+        splashHidden = true;
+        FxStartupProgress.unlisten(splashUpdater);
 
-        task.stateProperty().addListener((observableValue, oldState, newState) -> {
-            if (newState == SUCCEEDED) {
-                loadProgress.progressProperty().unbind();
-                loadProgress.setProgress(1);
-                initStage.toFront();
+        loadProgress.setProgress(1);
+        initStage.toFront();
 
-                final var fadeSplash = new FadeTransition(Duration.seconds(1.2), splashLayout);
+        final var fadeSplash = new FadeTransition(Duration.seconds(1.2), splashLayout);
 
-                fadeSplash.setFromValue(1.0);
-                fadeSplash.setToValue(0.0);
-                fadeSplash.setOnFinished(actionEvent -> initStage.hide());
-                fadeSplash.play();
+        fadeSplash.setFromValue(1.0);
+        fadeSplash.setToValue(0.0);
+        fadeSplash.setOnFinished(actionEvent -> initStage.hide());
+        fadeSplash.play();
+    }
 
-                completionHandler.run();
-            }
-        });
+    private void showSplash(final Stage initStage) {
+        progressText.setText("Initializing Console . . .");
+        loadProgress.setProgress(0);
 
         final var splashScene = new Scene(splashLayout, TRANSPARENT);
         final var bounds      = Screen.getPrimary().getBounds();
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.application;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Collects the milestones reached while the console is starting up such that
+ * the splash screen can reflect the actual progress instead of an artificial
+ * one. Milestones reached before a listener has been registered are replayed
+ * on registration.
+ */
+public final class FxStartupProgress {
+
+    public record Milestone(String description, double progress, long timestamp) {
+    }
+
+    private static final List<Milestone>           milestones = new CopyOnWriteArrayList<>();
+    private static final List<Consumer<Milestone>> listeners  = new CopyOnWriteArrayList<>();
+    private static final long                      launchTime = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    private FxStartupProgress() {
+        throw new IllegalAccessError("Cannot be instantiated");
+    }
+
+    public static synchronized Milestone reach(final String description, final double progress) {
+        final var milestone = new Milestone(description, progress, System.currentTimeMillis());
+        milestones.add(milestone);
+        listeners.forEach(l -> l.accept(milestone));
+        return milestone;
+    }
+
+    public static synchronized void listen(final Consumer<Milestone> listener) {
+        milestones.forEach(listener);
+        listeners.add(listener);
+    }
+
+    public static void unlisten(final Consumer<Milestone> listener) {
+        listeners.remove(listener);
+    }
+
+    public static List<Milestone> milestones() {
+        return List.copyOf(milestones);
+    }
+
+    public static long launchTime() {
+        return launchTime;
+    }
+
+}
@@ -28,6 +28,8 @@ import org.eclipse.fx.core.log.FluentLogger;
 import org.eclipse.fx.core.log.LoggerFactory;
 import org.eclipse.fx.ui.services.startup.StartupProgressTrackerService;
 
+import com.osgifx.console.application.FxStartupProgress.Milestone;
+
 public final class FxStartupTracker implements StartupProgressTrackerService {
 
     private LoggerFactory factory;
@@ -45,28 +47,50 @@ public final class FxStartupTracker implements StartupProgressTrackerService {
     @Override
     public void stateReached(final ProgressState state) {
         if (state == JAVAFX_INITIALIZED) {
-            logger.atInfo().log(
-                    "[StartUp] The JavaFX subsystem has been initialized. This state reached on JavaFX event thread");
+            report("JavaFX subsystem initialized (JavaFX event thread)", 0.2);
         }
         if (state == JAVAFX_INITIALIZED_LAUNCHER_THREAD) {
-            logger.atInfo()
-                    .log("[StartUp] The JavaFX subsystem has been initialized. This state reached on launcher thread.");
+            report("JavaFX subsystem initialized (launcher thread)", 0.2);
         }
         if (state == DI_SYSTEM_INITIALIZED) {
-            logger.atInfo().log("[StartUp] The DI-System has been initialized");
+            report("DI-System initialized", 0.4);
         }
         if (state == POST_CONTEXT_LF_FINISHED) {
-            logger.atInfo().log("[StartUp] The lifecycle has been finished");
+            report("Lifecycle finished", 0.6);
         }
         if (state == WORKBENCH_GUI_SHOWING) {
-            logger.atInfo().log("[StartUp] The workbench UI is showing");
+            report("Workbench UI showing", 0.8);
         }
         if (state == WORKBENCH_GUI_SHOWN) {
-            logger.atInfo().log("[StartUp] The workbench UI is shown");
+            report("Workbench UI shown", 1.0);
+            reportPhaseTimings();
         }
         if (state == LOCATION_CHECK_FAILED) {
             logger.atInfo().log("[StartUp] State reached when check for workspace could not be locked");
         }
     }
 
+    private void report(final String description, final double progress) {
+        final var milestones = FxStartupProgress.milestones();
+        final var previous   = milestones.isEmpty() ? FxStartupProgress.launchTime()
+                : milestones.get(milestones.size() - 1).timestamp();
+        final var milestone  = FxStartupProgress.reach(description, progress);
+
+        logger.atInfo().log("[StartUp] %s (+%s ms, %s ms since launch)", description,
+                milestone.timestamp() - previous, milestone.timestamp() - FxStartupProgress.launchTime());
+    }
+
+    private void reportPhaseTimings() {
+        final var timings  = new StringBuilder("[StartUp] Phase timings:");
+        var       previous = FxStartupProgress.launchTime();
+        for (final Milestone milestone : FxStartupProgress.milestones()) {
+            timings.append(System.lineSeparator()).append(" - ").append(milestone.description()).append(": ")
+                    .append(milestone.timestamp() - previous).append(" ms");
+            previous = milestone.timestamp();
+        }
+        timings.append(System.lineSeparator()).append("Time to interactive: ")
+                .append(previous - FxStartupProgress.launchTime()).append(" ms");
+        logger.atInfo().log(timings.toString());
+    }
+
 }
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.application.addon;
+
+import static com.osgifx.console.supervisor.Supervisor.AGENT_DISCONNECTED_EVENT_TOPIC;
+
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+
+import org.eclipse.e4.core.di.annotations.Optional;
+import org.eclipse.e4.ui.di.UIEventTopic;
+import org.eclipse.fx.core.di.ContextBoundValue;
+import org.eclipse.fx.core.di.ContextValue;
+import org.eclipse.fx.core.log.FluentLogger;
+import org.eclipse.fx.core.log.Log;
+
+import com.osgifx.console.application.dialog.SocketConnectionSettingDTO;
+import com.osgifx.console.supervisor.Supervisor;
+import com.osgifx.console.supervisor.factory.SupervisorFactory;
+import com.osgifx.console.supervisor.factory.SupervisorFactory.SupervisorType;
+import com.osgifx.console.util.fx.Fx;
+
+/**
+ * Resets the connection state of the application as soon as the supervisor
+ * reports that the link to the agent is dead and cannot be re-established.
+ */
+public final class AgentDisconnectedAddon {
+
+    @Log
+    @Inject
+    private FluentLogger                                  logger;
+    @Inject
+    @Optional
+    private Supervisor                                    supervisor;
+    @Inject
+    private SupervisorFactory                             supervisorFactory;
+    @Inject
+    @Optional
+    @ContextValue("is_connected")
+    private ContextBoundValue<Boolean>                    isConnected;
+    @Inject
+    @Optional
+    @ContextValue("is_local_agent")
+    private ContextBoundValue<Boolean>                    isLocalAgent;
+    @Inject
+    @Optional
+    @ContextValue("connected.agent")
+    private ContextBoundValue<String>                     connectedAgent;
+    @Inject
+    @Optional
+    @ContextValue("selected.settings")
+    private ContextBoundValue<SocketConnectionSettingDTO> selectedSettings;
+
+    @Inject
+    @Optional
+    private void agentDisconnected(@UIEventTopic(AGENT_DISCONNECTED_EVENT_TOPIC) final String reason) {
+        if (!Boolean.TRUE.equals(isConnected.getValue())) {
+            // already handled by the explicit disconnection
+            return;
+        }
+        logger.atWarning().log("Connection to the agent has been lost: %s", reason);
+        try {
+            if (supervisor != null) {
+                supervisor.disconnect();
+            }
+        } catch (final Exception e) {
+            logger.atError().withException(e).log("Agent cannot be disconnected");
+        }
+        Stream.of(SupervisorType.values()).forEach(type -> supervisorFactory.removeSupervisor(type));
+
+        isConnected.publish(false);
+        isLocalAgent.publish(false);
+        selectedSettings.publish(null);
+        connectedAgent.publish(null);
+
+        Fx.showErrorNotification("Agent Connection", "Connection to the agent has been lost");
+    }
+
+}
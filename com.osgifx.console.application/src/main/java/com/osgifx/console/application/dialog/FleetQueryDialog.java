@@ -0,0 +1,313 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.application.dialog;
+
+import static com.osgifx.console.constants.FxConstants.STANDARD_CSS;
+
+import java.lang.reflect.Array;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+
+import org.controlsfx.control.CheckListView;
+import org.eclipse.fx.core.ThreadSynchronize;
+import org.eclipse.fx.core.log.FluentLogger;
+import org.eclipse.fx.core.log.Log;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.Maps;
+import com.osgifx.console.agent.Agent;
+import com.osgifx.console.application.preference.ConnectionsProvider;
+import com.osgifx.console.supervisor.MqttConnection;
+import com.osgifx.console.supervisor.SocketConnection;
+import com.osgifx.console.supervisor.fleet.AgentResult;
+import com.osgifx.console.supervisor.fleet.FleetManager;
+import com.osgifx.console.supervisor.fleet.FleetResult;
+import com.osgifx.console.util.fx.Fx;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableRow;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.stage.StageStyle;
+
+/**
+ * Runs the same query against many agents at once and shows the results as
+ * they arrive. Results deviating from the value most agents agree on are
+ * highlighted.
+ */
+public final class FleetQueryDialog extends Dialog<Void> {
+
+    private static final long   DEFAULT_TIMEOUT_IN_MILLIS = 10_000;
+    private static final String DEVIATION_STYLE           = "-fx-background-color: #fff3cd;";
+    private static final String FAILURE_STYLE             = "-fx-background-color: #f8d7da;";
+
+    private enum QueryType {
+        BUNDLE_VERSION("Bundle Version", "Bundle Symbolic Name", null),
+        FRAMEWORK_PROPERTY("Framework Property", "Property Key", null),
+        CONFIGURATION_PROPERTY("Configuration Property", "Configuration PID", "Property Key");
+
+        private final String label;
+        private final String firstArgument;
+        private final String secondArgument;
+
+        QueryType(final String label, final String firstArgument, final String secondArgument) {
+            this.label          = label;
+            this.firstArgument  = firstArgument;
+            this.secondArgument = secondArgument;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    @Log
+    @Inject
+    private FluentLogger        logger;
+    @Inject
+    private ThreadSynchronize   threadSync;
+    @Inject
+    private FleetManager        fleetManager;
+    @Inject
+    private ConnectionsProvider connectionsProvider;
+
+    private final Map<String, Function<String, CompletableFuture<Void>>> connections = Maps.newLinkedHashMap();
+    private final TableView<AgentResult<String>>                         resultTable = new TableView<>();
+    private final Label                                                  summary     = new Label();
+
+    private FleetResult<String> currentResult;
+
+    public void init() {
+        final var dialogPane = getDialogPane();
+        initStyle(StageStyle.UNDECORATED);
+        dialogPane.getStylesheets().add(getClass().getResource(STANDARD_CSS).toExternalForm());
+
+        dialogPane.setHeaderText("Query Multiple Agents");
+        dialogPane.getButtonTypes().add(ButtonType.CLOSE);
+
+        for (final SocketConnectionSettingDTO settings : connectionsProvider.getSocketConnections()) {
+            // @formatter:off
+            final var connection = SocketConnection
+                    .builder()
+                    .host(settings.host)
+                    .port(settings.port)
+                    .timeout(settings.timeout)
+                    .truststore(settings.trustStorePath)
+                    .truststorePass(settings.trustStorePassword)
+                    .build();
+            // @formatter:on
+            connections.put("[SOCKET] " + settings.name, name -> fleetManager.addAgent(name, connection));
+        }
+        for (final MqttConnectionSettingDTO settings : connectionsProvider.getMqttConnections()) {
+            // @formatter:off
+            final var connection = MqttConnection
+                    .builder()
+                    .clientId(settings.clientId)
+                    .server(settings.server)
+                    .port(settings.port)
+                    .username(settings.username)
+                    .password(settings.password)
+                    .tokenConfig(settings.tokenConfig)
+                    .timeout(settings.timeout)
+                    .pubTopic(settings.pubTopic)
+                    .subTopic(settings.subTopic)
+                    .lwtTopic(settings.lwtTopic)
+                    .build();
+            // @formatter:on
+            connections.put("[MQTT] " + settings.name, name -> fleetManager.addAgent(name, connection));
+        }
+        final var agents = new CheckListView<>(FXCollections.observableArrayList(connections.keySet()));
+        agents.setPrefSize(260, 420);
+
+        final var queryType      = new ComboBox<QueryType>(FXCollections.observableArrayList(QueryType.values()));
+        final var firstArgument  = new TextField();
+        final var secondArgument = new TextField();
+        final var timeout        = new TextField(String.valueOf(DEFAULT_TIMEOUT_IN_MILLIS));
+        final var runButton      = new Button("Run Query");
+
+        queryType.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
+            firstArgument.setPromptText(newVal.firstArgument);
+            secondArgument.setPromptText(newVal.secondArgument);
+            secondArgument.setVisible(newVal.secondArgument != null);
+        });
+        queryType.getSelectionModel().select(QueryType.BUNDLE_VERSION);
+        timeout.setPromptText("Timeout per Agent (ms)");
+        timeout.setPrefColumnCount(6);
+
+        runButton.setOnAction(e -> {
+            final var selected = Set.copyOf(agents.getCheckModel().getCheckedItems());
+            if (selected.isEmpty() || Strings.isNullOrEmpty(firstArgument.getText())) {
+                Fx.showErrorNotification("Fleet Query", "Select at least one agent and specify the query");
+                return;
+            }
+            final var query = createQuery(queryType.getValue(), firstArgument.getText().trim(),
+                    Strings.nullToEmpty(secondArgument.getText()).trim());
+            runQuery(selected, query, parseTimeout(timeout.getText()), runButton);
+        });
+        initResultTable();
+
+        final var queryBar = new HBox(10, queryType, firstArgument, secondArgument, timeout, runButton);
+        final var results  = new VBox(10, queryBar, resultTable, summary);
+        results.setPadding(new Insets(0, 0, 0, 10));
+
+        final var content = new BorderPane();
+        content.setLeft(agents);
+        content.setCenter(results);
+        dialogPane.setContent(content);
+
+        setOnHidden(e -> fleetManager.clear());
+    }
+
+    private void initResultTable() {
+        final var agentColumn    = new TableColumn<AgentResult<String>, String>("Agent");
+        final var statusColumn   = new TableColumn<AgentResult<String>, String>("Status");
+        final var valueColumn    = new TableColumn<AgentResult<String>, String>("Value");
+        final var durationColumn = new TableColumn<AgentResult<String>, String>("Duration (ms)");
+
+        agentColumn.setCellValueFactory(p -> new ReadOnlyObjectWrapper<>(p.getValue().agent()));
+        statusColumn.setCellValueFactory(p -> new ReadOnlyObjectWrapper<>(p.getValue().status().name()));
+        valueColumn.setCellValueFactory(p -> {
+            final var result = p.getValue();
+            return new ReadOnlyObjectWrapper<>(result.isSuccessful() ? result.value() : result.error());
+        });
+        durationColumn.setCellValueFactory(
+                p -> new ReadOnlyObjectWrapper<>(String.valueOf(p.getValue().durationInMillis())));
+
+        agentColumn.setPrefWidth(200);
+        statusColumn.setPrefWidth(110);
+        valueColumn.setPrefWidth(360);
+        durationColumn.setPrefWidth(110);
+
+        resultTable.getColumns().add(agentColumn);
+        resultTable.getColumns().add(statusColumn);
+        resultTable.getColumns().add(valueColumn);
+        resultTable.getColumns().add(durationColumn);
+        resultTable.setPrefSize(800, 380);
+        resultTable.setRowFactory(param -> new TableRow<>() {
+            @Override
+            protected void updateItem(final AgentResult<String> item, final boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null || currentResult == null) {
+                    setStyle("");
+                } else if (!item.isSuccessful()) {
+                    setStyle(FAILURE_STYLE);
+                } else if (currentResult.deviations().contains(item)) {
+                    setStyle(DEVIATION_STYLE);
+                } else {
+                    setStyle("");
+                }
+            }
+        });
+    }
+
+    private void runQuery(final Set<String> selected,
+                          final Function<Agent, String> query,
+                          final long timeoutInMillis,
+                          final Button runButton) {
+        runButton.setDisable(true);
+        resultTable.getItems().clear();
+        summary.setText("Querying " + selected.size() + " agent(s)");
+
+        fleetManager.getAgents().stream().filter(name -> !selected.contains(name))
+                .forEach(fleetManager::removeAgent);
+        // every agent is queried as soon as it is connected, such that an unreachable
+        // agent only times out itself instead of holding up the whole fleet
+        selected.stream().filter(name -> !fleetManager.getAgents().contains(name))
+                .forEach(name -> connections.get(name).apply(name));
+
+        fleetManager.query(query, timeoutInMillis,
+                (result, snapshot) -> threadSync.asyncExec(() -> updateResults(snapshot)))
+                .whenComplete((result, e) -> threadSync.asyncExec(() -> {
+                    runButton.setDisable(false);
+                    if (e != null) {
+                        logger.atError().withException(e).log("Fleet query could not be executed");
+                        summary.setText("Query failed: " + e.getMessage());
+                    }
+                }));
+    }
+
+    private void updateResults(final FleetResult<String> result) {
+        currentResult = result;
+        resultTable.getItems().setAll(result.results());
+        resultTable.refresh();
+
+        final var consensus = result.consensus();
+        final var groups    = result.groupByValue();
+        final var joiner    = new StringJoiner(" | ");
+
+        joiner.add(String.format("%d/%d responded", result.results().size(), result.expected()));
+        consensus.ifPresent(value -> joiner
+                .add(String.format("Consensus: %s (%d agents)", value, groups.get(value).size())));
+        joiner.add(String.format("Deviations: %d", result.deviations().size()));
+        joiner.add(String.format("Failures: %d", result.failures().size()));
+        summary.setText(joiner.toString());
+    }
+
+    private static Function<Agent, String> createQuery(final QueryType type,
+                                                       final String firstArgument,
+                                                       final String secondArgument) {
+        return switch (type) {
+            case BUNDLE_VERSION -> agent -> agent.getAllBundles().stream()
+                    .filter(b -> firstArgument.equals(b.symbolicName)).map(b -> b.version).sorted()
+                    .collect(Collectors.joining(", "));
+            case FRAMEWORK_PROPERTY -> agent -> agent.getAllProperties().stream()
+                    .filter(p -> firstArgument.equals(p.name)).map(p -> p.value).findFirst().orElse("");
+            case CONFIGURATION_PROPERTY -> agent -> agent.getAllConfigurations().stream()
+                    .filter(c -> firstArgument.equals(c.pid) && c.properties != null)
+                    .map(c -> c.properties.get(secondArgument)).filter(Objects::nonNull)
+                    .map(v -> format(v.value)).findFirst().orElse("");
+        };
+    }
+
+    private static String format(final Object value) {
+        if (value == null || !value.getClass().isArray()) {
+            return String.valueOf(value);
+        }
+        final var joiner = new StringJoiner(", ", "[", "]");
+        for (var i = 0; i < Array.getLength(value); i++) {
+            joiner.add(String.valueOf(Array.get(value, i)));
+        }
+        return joiner.toString();
+    }
+
+    private static long parseTimeout(final String timeout) {
+        try {
+            return Math.max(1, Long.parseLong(timeout.trim()));
+        } catch (final NumberFormatException e) {
+            return DEFAULT_TIMEOUT_IN_MILLIS;
+        }
+    }
+
+}
@@ -21,6 +21,7 @@ public class DeploymentPackageEntryDTO {
 
     public String name;
     public String sha;
+    public long   crc;
     public File   file;
 
 }
@@ -35,16 +35,13 @@ import static com.osgifx.console.bnd.dp.packager.DeploymentPackageHeaders.DEPLOY
 import static java.util.Objects.requireNonNull;
 import static java.util.jar.Attributes.Name.MANIFEST_VERSION;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.StandardCopyOption;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -56,14 +53,13 @@ import java.util.jar.JarEntry;
 import java.util.jar.JarOutputStream;
 import java.util.jar.Manifest;
 import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 
 import com.google.common.base.Splitter;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
-import com.google.common.hash.Hashing;
 
 import aQute.bnd.annotation.plugin.BndPlugin;
 import aQute.bnd.build.Container;
@@ -76,10 +72,13 @@ import aQute.lib.io.IO;
 @BndPlugin(name = "OSGi Deployment Package Exporter")
 public class DeploymentPackageExporter implements Exporter {
 
-    private static final String  TYPE    = "osgi.dp.exporter";
-    private static final Pattern PATTERN = Pattern.compile(",\\s*");
+    private static final String  TYPE        = "osgi.dp.exporter";
+    private static final String  CACHE_DIR   = "cache/osgifx-dp";
+    private static final Pattern PATTERN     = Pattern.compile(",\\s*");
+    private static final int     BUFFER_SIZE = 64 * 1024;
 
-    private Project project;
+    private Project     project;
+    private DigestCache digests;
 
     @Override
     public String[] getTypes() {
@@ -91,6 +90,8 @@ public class DeploymentPackageExporter implements Exporter {
                                                          final Project project,
                                                          final Map<String, String> options) throws Exception {
         this.project = project;
+        digests      = DigestCache.load(
+                new File(project.getWorkspace().getBuildDir(), CACHE_DIR + "/" + project.getName() + ".properties"));
         try {
             final var symbolicName       = options.get("symbolicName");
             final var version            = options.get("version");
@@ -133,6 +134,7 @@ public class DeploymentPackageExporter implements Exporter {
 
             final var outputJar = new File(project.getTargetDir(), output);
             createJar(deploymentPackage, outputJar);
+            saveDigests(deploymentPackage);
 
             if (project.isOk()) {
                 final var result = new FileResource(outputJar);
@@ -146,6 +148,16 @@ public class DeploymentPackageExporter implements Exporter {
         return null;
     }
 
+    private void saveDigests(final DeploymentPackageDTO deploymentPackage) {
+        try {
+            digests.save();
+            project.trace("Computed %s of %s digests for deployment package '%s'", digests.misses(),
+                    deploymentPackage.entries.size(), deploymentPackage.symbolicName);
+        } catch (final IOException e) {
+            project.warning("Cannot persist the deployment package digest cache: %s", e.getMessage());
+        }
+    }
+
     private void logException(final Exception e) {
         try {
             IO.write(Throwables.getStackTraceAsString(e).getBytes(), new File(project.getBase(), "exception.txt"));
@@ -180,8 +192,8 @@ public class DeploymentPackageExporter implements Exporter {
                 dto.name         = "bundles/" + FilenameUtils.getName(file.getAbsolutePath());
                 dto.symbolicName = jar.getBsn();
                 dto.version      = jar.getVersion();
-                dto.sha          = sha1(file);
                 dto.file         = file;
+                initDigest(dto);
 
                 bundles.add(dto);
             }
@@ -205,8 +217,8 @@ public class DeploymentPackageExporter implements Exporter {
             final var dto = new DeploymentPackageEntryDTO();
 
             dto.name = resource;
-            dto.sha  = sha1(file);
             dto.file = file;
+            initDigest(dto);
 
             result.add(dto);
         }
@@ -227,22 +239,24 @@ public class DeploymentPackageExporter implements Exporter {
             final var file = findFile(name);
 
             final var dto = new DeploymentPackageResourceProcessorDTO();
-            dto.name = name;
+            dto.name                 = name;
+            dto.file                 = file;
+            dto.resourceProcessorPID = pid;
             if (file.exists()) {
                 // calculate SHA only if the resource exists
-                dto.sha = sha1(file);
+                initDigest(dto);
             }
-            dto.file                 = file;
-            dto.resourceProcessorPID = pid;
 
             res.add(dto);
         }
         return res;
     }
 
-    @SuppressWarnings("deprecation")
-    private String sha1(final File file) throws IOException {
-        return com.google.common.io.Files.asByteSource(file).hash(Hashing.sha1()).toString();
+    private void initDigest(final DeploymentPackageEntryDTO dto) throws IOException {
+        final var digest = digests.digest(dto.file);
+
+        dto.sha = digest.sha();
+        dto.crc = digest.crc();
     }
 
     private File findFile(final String name) {
@@ -256,42 +270,50 @@ public class DeploymentPackageExporter implements Exporter {
         }
     }
 
+    /**
+     * Streams the manifest and all the entries straight into the deployment
+     * package. The entries are written in the order of the manifest such that the
+     * bundles precede the resources as required by the specification. Bundles are
+     * stored as they are already compressed, which allows reusing the cached CRC
+     * instead of deflating every bundle on every export.
+     */
     private void createJar(final DeploymentPackageDTO deploymentPackage, final File outputJar) throws Exception {
-        final var entries        = deploymentPackage.entries;
-        final var directoryToZip = new File(project.getBase(), "dp");
-        IO.mkdirs(directoryToZip);
-
-        for (final DeploymentPackageEntryDTO entry : entries) {
-            final var subDirectory = findDirectoryInEntryName(entry);
-            if (subDirectory != null) {
-                final var subDirectoryFile = new File(directoryToZip.getAbsolutePath(), subDirectory.getName());
-                FileUtils.copyToDirectory(entry.file, subDirectoryFile);
+        final var manifest = prepareManifest(deploymentPackage);
+        final var tempJar  = new File(outputJar.getParentFile(), outputJar.getName() + ".tmp");
+        IO.mkdirs(outputJar.getParentFile());
+
+        try (final var jos = new JarOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tempJar), BUFFER_SIZE), manifest)) {
+            for (final DeploymentPackageEntryDTO entry : deploymentPackage.entries) {
+                if (entry.file == null || !entry.file.isFile()) {
+                    // resources without a file are provided by the target (e.g. missing resource processors)
+                    continue;
+                }
+                jos.putNextEntry(toJarEntry(entry));
+                Files.copy(entry.file.toPath(), jos);
+                jos.closeEntry();
             }
+        } catch (final Exception e) {
+            Files.deleteIfExists(tempJar.toPath());
+            throw e;
         }
-        final var metaInfDirectory = new File(directoryToZip, "META-INF");
-        final var manifestFile     = prepareManifest(deploymentPackage);
-
-        FileUtils.moveFileToDirectory(manifestFile, metaInfDirectory, true);
-        jarPkg(directoryToZip.toPath(), outputJar.toPath());
-        FileUtils.forceDelete(directoryToZip);
+        Files.move(tempJar.toPath(), outputJar.toPath(), StandardCopyOption.REPLACE_EXISTING);
     }
 
-    private void jarPkg(final Path sourceFolder, final Path targetJar) throws Exception {
-        try (final var jos = new JarOutputStream(new FileOutputStream(targetJar.toFile()))) {
-            Files.walkFileTree(sourceFolder, new SimpleFileVisitor<Path>() {
-                @Override
-                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
-                    final var entry = sourceFolder.relativize(file).toString();
-                    jos.putNextEntry(new JarEntry(entry));
-                    Files.copy(file, jos);
-                    jos.closeEntry();
-                    return FileVisitResult.CONTINUE;
-                }
-            });
+    private JarEntry toJarEntry(final DeploymentPackageEntryDTO entry) {
+        final var jarEntry = new JarEntry(entry.name);
+        jarEntry.setTime(entry.file.lastModified());
+        if (entry instanceof DeploymentPackageBundleDTO) {
+            final var size = entry.file.length();
+            jarEntry.setMethod(ZipEntry.STORED);
+            jarEntry.setSize(size);
+            jarEntry.setCompressedSize(size);
+            jarEntry.setCrc(entry.crc);
         }
+        return jarEntry;
     }
 
-    private File prepareManifest(final DeploymentPackageDTO deploymentPackage) throws Exception {
+    private Manifest prepareManifest(final DeploymentPackageDTO deploymentPackage) throws Exception {
         final var manifest = new Manifest();
         final var attrs    = manifest.getMainAttributes();
         attrs.put(MANIFEST_VERSION, "1.0.0");
@@ -299,20 +321,7 @@ public class DeploymentPackageExporter implements Exporter {
         initMainManifestAttributes(deploymentPackage, manifest);
         initNameManifestAttributes(deploymentPackage, manifest);
 
-        final var manifestFile = IO.getFile("MANIFEST.MF");
-        try (final OutputStream outputStream = new FileOutputStream(manifestFile)) {
-            manifest.write(outputStream);
-        }
-        return manifestFile;
-    }
-
-    private File findDirectoryInEntryName(final DeploymentPackageEntryDTO entry) {
-        final var lastPathSeparatorIndex = entry.name.lastIndexOf("/");
-        if (lastPathSeparatorIndex == -1) {
-            return null;
-        }
-        final var directory = entry.name.substring(0, lastPathSeparatorIndex);
-        return IO.getFile(directory);
+        return manifest;
     }
 
     private void initMainManifestAttributes(final DeploymentPackageDTO dp, final Manifest manifest) throws Exception {
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.bnd.dp.packager;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+import aQute.lib.io.IO;
+
+/**
+ * Persistent cache of the SHA-1 digests and CRC-32 checksums of the files
+ * packaged into a deployment package. A cached digest is only reused as long
+ * as the size and the last modification time of the file are unchanged,
+ * hence only the files that have changed since the last export are read.
+ */
+final class DigestCache {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** The digest of a single file */
+    record Digest(long size, long lastModified, String sha, long crc) {
+
+        private static Digest parse(final String value) {
+            final var parts = value.split(":");
+            if (parts.length != 4) {
+                return null;
+            }
+            try {
+                return new Digest(Long.parseLong(parts[0]), Long.parseLong(parts[1]), parts[2],
+                                  Long.parseLong(parts[3]));
+            } catch (final NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private String format() {
+            return size + ":" + lastModified + ":" + sha + ":" + crc;
+        }
+    }
+
+    private final File                cacheFile;
+    private final Map<String, Digest> cached = new HashMap<>();
+    private final Map<String, Digest> used   = new HashMap<>();
+    private int                       misses;
+
+    private DigestCache(final File cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Loads the cache from the specified file. A missing or unreadable cache
+     * file results in an empty cache.
+     */
+    static DigestCache load(final File cacheFile) {
+        final var cache = new DigestCache(cacheFile);
+        if (cacheFile.isFile()) {
+            final var properties = new Properties();
+            try (var in = new FileInputStream(cacheFile)) {
+                properties.load(in);
+            } catch (final IOException e) {
+                return cache;
+            }
+            for (final String path : properties.stringPropertyNames()) {
+                final var digest = Digest.parse(properties.getProperty(path));
+                if (digest != null) {
+                    cache.cached.put(path, digest);
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the digest of the specified file, which is only computed if the
+     * file has changed since its digest has been cached.
+     */
+    Digest digest(final File file) throws IOException {
+        final var path         = file.getAbsolutePath();
+        final var size         = file.length();
+        final var lastModified = file.lastModified();
+
+        var digest = used.get(path);
+        if (digest == null) {
+            digest = cached.get(path);
+        }
+        if (digest == null || digest.size() != size || digest.lastModified() != lastModified) {
+            digest = compute(file, size, lastModified);
+            misses++;
+        }
+        used.put(path, digest);
+        return digest;
+    }
+
+    /**
+     * @return the number of digests that had to be computed
+     */
+    int misses() {
+        return misses;
+    }
+
+    /**
+     * Persists the digests of the files that have been used since the cache has
+     * been loaded. Digests of files that are no longer packaged are dropped.
+     */
+    void save() throws IOException {
+        final var properties = new Properties();
+        used.forEach((path, digest) -> properties.setProperty(path, digest.format()));
+
+        IO.mkdirs(cacheFile.getParentFile());
+        final var tempFile = new File(cacheFile.getParentFile(), cacheFile.getName() + ".tmp");
+        try (var out = new FileOutputStream(tempFile)) {
+            properties.store(out, "Deployment package digests (size:lastModified:sha1:crc32)");
+        }
+        Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Digest compute(final File file, final long size, final long lastModified) throws IOException {
+        final MessageDigest sha1;
+        try {
+            sha1 = MessageDigest.getInstance("SHA-1");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        final var crc    = new CRC32();
+        final var buffer = new byte[BUFFER_SIZE];
+        try (var in = new FileInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                sha1.update(buffer, 0, read);
+                crc.update(buffer, 0, read);
+            }
+        }
+        return new Digest(size, lastModified, HexFormat.of().formatHex(sha1.digest()), crc.getValue());
+    }
+
+}
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.data.manager;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Merges identical in-flight requests into a single shared future and keeps
+ * the completed response for a short freshness window.
+ * <p>
+ * Responses are bound to the owner (the connected agent) they were retrieved
+ * from, so that a reconnect never serves data of the previous runtime. Failed
+ * responses are never cached and expired responses are evicted.
+ */
+final class ResponseCache {
+
+    private final Map<String, Entry<?>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the shared response for the specified key
+     *
+     * @param key the request key
+     * @param owner the owner the response belongs to
+     * @param freshnessInMillis the duration a completed response stays valid
+     *            (0 to only merge in-flight requests)
+     * @param loader the function to issue the actual request
+     * @return the shared response
+     */
+    @SuppressWarnings("unchecked")
+    <V> CompletableFuture<V> get(final String key,
+                                 final Object owner,
+                                 final long freshnessInMillis,
+                                 final Supplier<CompletableFuture<V>> loader) {
+        evictExpired();
+        final var fresh    = new Entry<V>(owner, MILLISECONDS.toNanos(freshnessInMillis));
+        final var existing = entries.compute(key, (k, e) -> e != null && e.isReusable(owner) ? e : fresh);
+        if (existing != fresh) {
+            return (CompletableFuture<V>) existing.future;
+        }
+        load(key, fresh, loader);
+        return fresh.future;
+    }
+
+    /**
+     * Returns a response that is requested after this call, that is, neither a
+     * fresh response nor a request already in flight is served. A request in
+     * flight is followed by a single subsequent one which is shared by all
+     * refreshes made in the meantime.
+     *
+     * @param key the request key
+     * @param owner the owner the response belongs to
+     * @param loader the function to issue the actual request
+     * @return the shared response
+     */
+    @SuppressWarnings("unchecked")
+    <V> CompletableFuture<V> refresh(final String key,
+                                     final Object owner,
+                                     final Supplier<CompletableFuture<V>> loader) {
+        final var fresh    = new Entry<V>(owner, 0);
+        final var running  = new Entry<?>[1];
+        final var existing = entries.compute(key, (k, e) -> {
+            if (e != null && e.owner == owner && !e.started) {
+                return e;
+            }
+            running[0] = e != null && e.owner == owner && !e.done ? e : null;
+            return fresh;
+        });
+        if (existing != fresh) {
+            return (CompletableFuture<V>) existing.future;
+        }
+        if (running[0] == null) {
+            load(key, fresh, loader);
+        } else {
+            running[0].future.whenComplete((result, error) -> load(key, fresh, loader));
+        }
+        return fresh.future;
+    }
+
+    /**
+     * Drops all cached responses
+     */
+    void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Drops the cached responses of all keys starting with the specified prefix
+     *
+     * @param keyPrefix the prefix of the request keys
+     */
+    void evict(final String keyPrefix) {
+        entries.keySet().removeIf(key -> key.startsWith(keyPrefix));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private <V> void load(final String key, final Entry<V> entry, final Supplier<CompletableFuture<V>> loader) {
+        entry.started = true;
+        CompletableFuture<V> request;
+        try {
+            request = loader.get();
+        } catch (final Exception e) {
+            request = CompletableFuture.failedFuture(e);
+        }
+        request.whenComplete((result, error) -> {
+            if (error != null || entry.freshnessInNanos == 0) {
+                entries.remove(key, entry);
+            }
+            if (error != null) {
+                entry.future.completeExceptionally(error);
+            } else {
+                entry.completedAt = System.nanoTime();
+                entry.done        = true;
+                entry.future.complete(result);
+            }
+        });
+    }
+
+    private void evictExpired() {
+        entries.values().removeIf(Entry::isExpired);
+    }
+
+    private static final class Entry<V> {
+
+        private final Object               owner;
+        private final long                 freshnessInNanos;
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private volatile long              completedAt;
+        private volatile boolean           started;
+        private volatile boolean           done;
+
+        private Entry(final Object owner, final long freshnessInNanos) {
+            this.owner            = owner;
+            this.freshnessInNanos = freshnessInNanos;
+        }
+
+        private boolean isReusable(final Object requester) {
+            return owner == requester && !isExpired();
+        }
+
+        private boolean isExpired() {
+            return done && System.nanoTime() - completedAt >= freshnessInNanos;
+        }
+    }
+
+}
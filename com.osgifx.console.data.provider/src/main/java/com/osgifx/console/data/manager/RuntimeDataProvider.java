@@ -16,6 +16,7 @@
 package com.osgifx.console.data.manager;
 
 import static com.osgifx.console.data.manager.RuntimeInfoSupplier.PROPERTY_ID;
+import static com.osgifx.console.data.manager.RuntimeInfoSupplier.RETRIEVAL_REQUESTED_TOPIC;
 import static com.osgifx.console.data.supplier.BundlesInfoSupplier.BUNDLES_ID;
 import static com.osgifx.console.data.supplier.ComponentsInfoSupplier.COMPONENTS_ID;
 import static com.osgifx.console.data.supplier.ConfigurationsInfoSupplier.CONFIGURATIONS_ID;
@@ -31,6 +32,10 @@ import static com.osgifx.console.data.supplier.RolesInfoSupplier.ROLES_ID;
 import static com.osgifx.console.data.supplier.ServicesInfoSupplier.SERVICES_ID;
 import static com.osgifx.console.data.supplier.ThreadsInfoSupplier.THREADS_ID;
 import static com.osgifx.console.event.topics.DataRetrievedEventTopics.DATA_RETRIEVED_ALL_TOPIC;
+import static com.osgifx.console.event.topics.DmtActionEventTopics.DMT_UPDATED_EVENT_TOPIC;
+import static com.osgifx.console.executor.Lane.BACKGROUND;
+import static com.osgifx.console.executor.Lane.INTERACTIVE;
+import static com.osgifx.console.supervisor.Supervisor.AGENT_DISCONNECTED_EVENT_TOPIC;
 import static org.osgi.service.component.annotations.ReferenceCardinality.MULTIPLE;
 import static org.osgi.service.component.annotations.ReferenceCardinality.OPTIONAL;
 import static org.osgi.service.component.annotations.ReferencePolicy.DYNAMIC;
@@ -46,8 +51,15 @@ import org.eclipse.fx.core.log.LoggerFactory;
 import org.osgi.framework.ServiceReference;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.event.Event;
 import org.osgi.service.event.EventAdmin;
+import org.osgi.service.event.EventHandler;
+import org.osgi.service.event.propertytypes.EventTopics;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 
 import com.google.mu.util.stream.BiCollectors;
 import com.google.mu.util.stream.BiStream;
@@ -67,9 +79,11 @@ import com.osgifx.console.agent.dto.XPropertyDTO;
 import com.osgifx.console.agent.dto.XRoleDTO;
 import com.osgifx.console.agent.dto.XServiceDTO;
 import com.osgifx.console.agent.dto.XThreadDTO;
+import com.osgifx.console.data.manager.RuntimeDataProvider.Configuration;
 import com.osgifx.console.data.provider.DataProvider;
 import com.osgifx.console.data.provider.PackageDTO;
 import com.osgifx.console.executor.Executor;
+import com.osgifx.console.executor.Lane;
 import com.osgifx.console.supervisor.Supervisor;
 
 import javafx.collections.FXCollections;
@@ -77,7 +91,30 @@ import javafx.collections.ObservableList;
 
 @Component
 @SuppressWarnings("unchecked")
-public final class RuntimeDataProvider implements DataProvider {
+@Designate(ocd = Configuration.class)
+@EventTopics({ AGENT_DISCONNECTED_EVENT_TOPIC, DMT_UPDATED_EVENT_TOPIC, RETRIEVAL_REQUESTED_TOPIC })
+public final class RuntimeDataProvider implements DataProvider, EventHandler {
+
+    @ObjectClassDefinition(name = "Runtime Data Provider Configuration")
+    public @interface Configuration {
+        @AttributeDefinition(description = "Duration (in millis) a retrieved memory info is served from cache", required = false)
+        long memoryFreshness() default 1_000L;
+
+        @AttributeDefinition(description = "Duration (in millis) a retrieved heap usage is served from cache", required = false)
+        long heapUsageFreshness() default 500L;
+
+        @AttributeDefinition(description = "Duration (in millis) a retrieved DMT node is served from cache", required = false)
+        long dmtNodeFreshness() default 2_000L;
+
+        @AttributeDefinition(description = "Duration (in millis) a retrieved runtime DTO is served from cache", required = false)
+        long runtimeDTOFreshness() default 2_000L;
+    }
+
+    private static final String MEMORY_KEY      = "memory";
+    private static final String HEAP_USAGE_KEY  = "heapUsage";
+    private static final String DMT_NODE_KEY    = "dmtNode:";
+    private static final String RUNTIME_DTO_KEY = "runtimeDTO";
+    private static final String RETRIEVE_KEY    = "retrieve:";
 
     @Reference
     private LoggerFactory                          factory;
@@ -88,11 +125,19 @@ public final class RuntimeDataProvider implements DataProvider {
     @Reference(cardinality = OPTIONAL, policyOption = GREEDY)
     private volatile Supervisor                    supervisor;
     private FluentLogger                           logger;
+    private Configuration                          config;
+    private final ResponseCache                    cache         = new ResponseCache();
     private final Map<String, RuntimeInfoSupplier> infoSuppliers = new ConcurrentHashMap<>();
 
     @Activate
-    public void activate() {
-        logger = FluentLogger.of(factory.createLogger(getClass().getName()));
+    public void activate(final Configuration config) {
+        this.config = config;
+        logger      = FluentLogger.of(factory.createLogger(getClass().getName()));
+    }
+
+    @Deactivate
+    void deactivate() {
+        cache.clear();
     }
 
     @Reference(cardinality = MULTIPLE, policy = DYNAMIC)
@@ -113,22 +158,21 @@ public final class RuntimeDataProvider implements DataProvider {
             if (isAsync) {
                 final var futures =
                         BiStream.from(infoSuppliers)
-                                .mapValues((k, v) -> executor.runAsync(v::retrieve))
+                                .mapValues((k, v) -> retrieve(k, v, true, BACKGROUND))
                                 .collect(BiCollectors.toMap());
 
                 CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]))
                                  .thenRunAsync(() -> RuntimeInfoSupplier.sendEvent(eventAdmin, DATA_RETRIEVED_ALL_TOPIC))
                                  .thenRunAsync(() -> logger.atInfo().log("All runtime informations have been retrieved successfully (async)"));
             } else {
-                infoSuppliers.forEach((k, v) -> v.retrieve());
+                infoSuppliers.forEach((k, v) -> retrieve(k, v, false, BACKGROUND).join());
                 RuntimeInfoSupplier.sendEvent(eventAdmin, DATA_RETRIEVED_ALL_TOPIC);
                 logger.atInfo().log("All runtime informations have been retrieved successfully (sync)");
             }
         } else if (isAsync) {
-            executor.runAsync(() -> retrieve(id))
-                    .thenRunAsync(() -> logger.atInfo().log("Runtime information of '%s' has been retrieved successfully (async)", id));
+            retrieve(id, true, INTERACTIVE).thenRunAsync(() -> logger.atInfo().log("Runtime information of '%s' has been retrieved successfully (async)", id));
         } else {
-            retrieve(id);
+            retrieve(id, false, INTERACTIVE).join();
             logger.atInfo().log("Runtime information of '%s' has been retrieved successfully (sync)", id);
         }
         // @formatter:on
@@ -211,7 +255,7 @@ public final class RuntimeDataProvider implements DataProvider {
             logger.atWarning().log("Agent not connected");
             return null;
         }
-        return executor.supplyAsync(agent::getMemoryInfo);
+        return cache.get(MEMORY_KEY, agent, config.memoryFreshness(), () -> executor.supplyAsync(agent::getMemoryInfo));
     }
 
     @Override
@@ -221,7 +265,12 @@ public final class RuntimeDataProvider implements DataProvider {
             logger.atWarning().log("Agent not connected");
             return null;
         }
-        return executor.supplyAsync(() -> agent.readDmtNode(rootURI));
+        // @formatter:off
+        return cache.get(DMT_NODE_KEY + rootURI,
+                         agent,
+                         config.dmtNodeFreshness(),
+                         () -> executor.supplyAsync(() -> agent.readDmtNode(rootURI)));
+        // @formatter:on
     }
 
     @Override
@@ -231,7 +280,7 @@ public final class RuntimeDataProvider implements DataProvider {
             logger.atWarning().log("Agent not connected");
             return null;
         }
-        return executor.supplyAsync(agent::getRuntimeDTO);
+        return cache.get(RUNTIME_DTO_KEY, agent, config.runtimeDTOFreshness(), () -> executor.supplyAsync(agent::getRuntimeDTO));
     }
 
     @Override
@@ -241,7 +290,23 @@ public final class RuntimeDataProvider implements DataProvider {
             logger.atWarning().log("Agent not connected");
             return null;
         }
-        return executor.supplyAsync(agent::getHeapUsage);
+        return cache.get(HEAP_USAGE_KEY, agent, config.heapUsageFreshness(), () -> executor.supplyAsync(agent::getHeapUsage));
+    }
+
+    @Override
+    public void handleEvent(final Event event) {
+        final var topic = event.getTopic();
+        if (AGENT_DISCONNECTED_EVENT_TOPIC.equals(topic)) {
+            cache.clear();
+            return;
+        }
+        if (DMT_UPDATED_EVENT_TOPIC.equals(topic)) {
+            cache.evict(DMT_NODE_KEY);
+            return;
+        }
+        // retrievals requested by the suppliers on runtime changes
+        final var id = (String) event.getProperty(PROPERTY_ID);
+        retrieve(id, true, BACKGROUND);
     }
 
     private ObservableList<?> supply(final String id) {
@@ -256,15 +321,29 @@ public final class RuntimeDataProvider implements DataProvider {
         return FXCollections.observableArrayList();
     }
 
-    private void retrieve(final String id) {
-        for (final Entry<String, RuntimeInfoSupplier> entry : infoSuppliers.entrySet()) {
-            final var supplierId  = entry.getKey();
-            final var supplierRef = entry.getValue();
+    private CompletableFuture<Void> retrieve(final String id, final boolean isAsync, final Lane lane) {
+        final var supplier = infoSuppliers.get(id);
+        if (supplier == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return retrieve(id, supplier, isAsync, lane);
+    }
 
-            if (id.equals(supplierId)) {
-                supplierRef.retrieve();
+    private CompletableFuture<Void> retrieve(final String id,
+                                             final RuntimeInfoSupplier supplier,
+                                             final boolean isAsync,
+                                             final Lane lane) {
+        // a retrieval always reflects the runtime after it has been requested, but
+        // the ones requested while another is in flight share the subsequent call
+        final var current = supervisor;
+        final var agent   = current == null ? null : current.getAgent();
+        return cache.refresh(RETRIEVE_KEY + id, agent, () -> {
+            if (isAsync) {
+                return executor.runAsync(supplier::retrieve, lane);
             }
-        }
+            supplier.retrieve();
+            return CompletableFuture.completedFuture(null);
+        });
     }
 
 }
@@ -26,6 +26,12 @@ public interface RuntimeInfoSupplier {
 
     String PROPERTY_ID = "supplier.id";
 
+    /**
+     * The topic on which retrievals are requested such that they get merged with
+     * the ones requested from the UI
+     */
+    String RETRIEVAL_REQUESTED_TOPIC = "com/osgifx/data/retrieval/requested";
+
     /**
      * Retrieves from the remote runtime
      */
@@ -41,4 +47,9 @@ public interface RuntimeInfoSupplier {
         eventAdmin.postEvent(event);
     }
 
+    static void requestRetrieval(final EventAdmin eventAdmin, final String id) {
+        final var event = new Event(RETRIEVAL_REQUESTED_TOPIC, Map.of(PROPERTY_ID, id));
+        eventAdmin.postEvent(event);
+    }
+
 }
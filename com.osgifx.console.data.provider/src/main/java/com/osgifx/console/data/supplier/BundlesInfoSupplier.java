@@ -38,7 +38,6 @@ import org.osgi.service.event.propertytypes.EventTopics;
 
 import com.osgifx.console.agent.dto.XBundleDTO;
 import com.osgifx.console.data.manager.RuntimeInfoSupplier;
-import com.osgifx.console.executor.Executor;
 import com.osgifx.console.supervisor.Supervisor;
 
 import javafx.collections.ObservableList;
@@ -54,8 +53,6 @@ public final class BundlesInfoSupplier implements RuntimeInfoSupplier, EventHand
     @Reference
     private LoggerFactory       factory;
     @Reference
-    private Executor            executor;
-    @Reference
     private EventAdmin          eventAdmin;
     @Reference
     private ThreadSynchronize   threadSync;
@@ -94,7 +91,7 @@ public final class BundlesInfoSupplier implements RuntimeInfoSupplier, EventHand
             threadSync.asyncExec(bundles::clear);
             return;
         }
-        executor.runAsync(this::retrieve);
+        RuntimeInfoSupplier.requestRetrieval(eventAdmin, BUNDLES_ID);
     }
 
 }
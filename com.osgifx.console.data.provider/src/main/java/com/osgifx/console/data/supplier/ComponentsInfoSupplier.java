@@ -40,7 +40,6 @@ import org.osgi.service.event.propertytypes.EventTopics;
 
 import com.osgifx.console.agent.dto.XComponentDTO;
 import com.osgifx.console.data.manager.RuntimeInfoSupplier;
-import com.osgifx.console.executor.Executor;
 import com.osgifx.console.supervisor.Supervisor;
 
 import javafx.collections.ObservableList;
@@ -62,8 +61,6 @@ public final class ComponentsInfoSupplier implements RuntimeInfoSupplier, EventH
     @Reference
     private LoggerFactory       factory;
     @Reference
-    private Executor            executor;
-    @Reference
     private EventAdmin          eventAdmin;
     @Reference
     private ThreadSynchronize   threadSync;
@@ -102,7 +99,7 @@ public final class ComponentsInfoSupplier implements RuntimeInfoSupplier, EventH
             threadSync.asyncExec(components::clear);
             return;
         }
-        executor.runAsync(this::retrieve);
+        RuntimeInfoSupplier.requestRetrieval(eventAdmin, COMPONENTS_ID);
     }
 
 }
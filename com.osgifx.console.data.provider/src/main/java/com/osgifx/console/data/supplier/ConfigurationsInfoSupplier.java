@@ -39,7 +39,6 @@ import org.osgi.service.event.propertytypes.EventTopics;
 
 import com.osgifx.console.agent.dto.XConfigurationDTO;
 import com.osgifx.console.data.manager.RuntimeInfoSupplier;
-import com.osgifx.console.executor.Executor;
 import com.osgifx.console.supervisor.Supervisor;
 
 import javafx.collections.ObservableList;
@@ -55,8 +54,6 @@ public final class ConfigurationsInfoSupplier implements RuntimeInfoSupplier, Ev
     @Reference
     private LoggerFactory       factory;
     @Reference
-    private Executor            executor;
-    @Reference
     private EventAdmin          eventAdmin;
     @Reference
     private ThreadSynchronize   threadSync;
@@ -95,7 +92,7 @@ public final class ConfigurationsInfoSupplier implements RuntimeInfoSupplier, Ev
             threadSync.asyncExec(configurations::clear);
             return;
         }
-        executor.runAsync(this::retrieve);
+        RuntimeInfoSupplier.requestRetrieval(eventAdmin, CONFIGURATIONS_ID);
     }
 
 }
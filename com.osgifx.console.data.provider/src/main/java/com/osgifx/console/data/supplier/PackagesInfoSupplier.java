@@ -19,12 +19,16 @@ import static com.osgifx.console.data.supplier.PackagesInfoSupplier.PACKAGES_ID;
 import static com.osgifx.console.event.topics.BundleActionEventTopics.BUNDLE_ACTION_EVENT_TOPICS;
 import static com.osgifx.console.event.topics.DataRetrievedEventTopics.DATA_RETRIEVED_PACKAGES_TOPIC;
 import static com.osgifx.console.supervisor.Supervisor.AGENT_DISCONNECTED_EVENT_TOPIC;
+import static java.util.stream.Collectors.toMap;
 import static javafx.collections.FXCollections.observableArrayList;
 import static org.osgi.service.component.annotations.ReferenceCardinality.OPTIONAL;
 import static org.osgi.service.component.annotations.ReferencePolicyOption.GREEDY;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import org.eclipse.fx.core.ThreadSynchronize;
 import org.eclipse.fx.core.log.FluentLogger;
@@ -40,11 +44,14 @@ import org.osgi.service.event.propertytypes.EventTopics;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.osgifx.console.agent.Agent;
 import com.osgifx.console.agent.dto.XBundleDTO;
+import com.osgifx.console.agent.dto.XBundleInfoDTO;
 import com.osgifx.console.agent.dto.XPackageDTO;
+import com.osgifx.console.agent.dto.XPackageIndexDTO;
+import com.osgifx.console.agent.dto.XPackageIndexDTO.XIndexedPackage;
 import com.osgifx.console.data.manager.RuntimeInfoSupplier;
 import com.osgifx.console.data.provider.PackageDTO;
-import com.osgifx.console.executor.Executor;
 import com.osgifx.console.supervisor.Supervisor;
 
 import javafx.collections.FXCollections;
@@ -58,17 +65,19 @@ public final class PackagesInfoSupplier implements RuntimeInfoSupplier, EventHan
 
     public static final String PACKAGES_ID = "packages";
 
+    private static final Duration PACKAGE_INDEX_TIMEOUT = Duration.ofSeconds(30);
+
     @Reference
     private LoggerFactory       factory;
     @Reference
-    private Executor            executor;
-    @Reference
     private EventAdmin          eventAdmin;
     @Reference
     private ThreadSynchronize   threadSync;
     @Reference(cardinality = OPTIONAL, policyOption = GREEDY)
     private volatile Supervisor supervisor;
     private FluentLogger        logger;
+    // agents without a package index don't reply at all, hence it is only requested once per connection
+    private volatile boolean    packageIndexUnsupported;
 
     private final ObservableList<PackageDTO> packages = observableArrayList();
 
@@ -85,7 +94,13 @@ public final class PackagesInfoSupplier implements RuntimeInfoSupplier, EventHan
             logger.atWarning().log("Agent not connected");
             return;
         }
-        packages.setAll(preparePackages(agent.getAllBundles()));
+        final var index = retrievePackageIndex(agent);
+        if (index != null) {
+            packages.setAll(preparePackages(index));
+        } else {
+            // the remote agent does not maintain a package index
+            packages.setAll(preparePackages(agent.getAllBundles()));
+        }
         RuntimeInfoSupplier.sendEvent(eventAdmin, DATA_RETRIEVED_PACKAGES_TOPIC);
         logger.atInfo().log("Packages info retrieved successfully");
     }
@@ -98,10 +113,55 @@ public final class PackagesInfoSupplier implements RuntimeInfoSupplier, EventHan
     @Override
     public void handleEvent(final Event event) {
         if (AGENT_DISCONNECTED_EVENT_TOPIC.equals(event.getTopic())) {
+            packageIndexUnsupported = false;
             threadSync.asyncExec(packages::clear);
             return;
         }
-        executor.runAsync(this::retrieve);
+        RuntimeInfoSupplier.requestRetrieval(eventAdmin, PACKAGES_ID);
+    }
+
+    private XPackageIndexDTO retrievePackageIndex(final Agent agent) {
+        if (packageIndexUnsupported) {
+            return null;
+        }
+        XPackageIndexDTO index;
+        try {
+            index = supervisor.callWithTimeout(PACKAGE_INDEX_TIMEOUT, agent::getPackageIndex);
+        } catch (final Exception e) {
+            logger.atDebug().withException(e).log("Package index cannot be retrieved from remote runtime");
+            index = null;
+        }
+        packageIndexUnsupported = index == null;
+        return index;
+    }
+
+    private ObservableList<PackageDTO> preparePackages(final XPackageIndexDTO index) {
+        final var bundles  = index.bundles.stream().collect(toMap(b -> b.id, this::toBundleDTO));
+        final var packages = new ArrayList<PackageDTO>(index.packages.size());
+
+        for (final XIndexedPackage indexed : index.packages) {
+            final var pkg = new PackageDTO();
+
+            pkg.name              = indexed.name;
+            pkg.version           = indexed.version;
+            pkg.isDuplicateExport = indexed.isDuplicateExport;
+            pkg.isSplitPackage    = indexed.isSplitPackage;
+
+            indexed.exporters.stream().map(bundles::get).filter(Objects::nonNull).forEach(pkg.exporters::add);
+            indexed.importers.stream().map(bundles::get).filter(Objects::nonNull).forEach(pkg.importers::add);
+
+            packages.add(pkg);
+        }
+        return FXCollections.observableArrayList(packages);
+    }
+
+    private XBundleDTO toBundleDTO(final XBundleInfoDTO info) {
+        final var bundle = new XBundleDTO();
+
+        bundle.id           = info.id;
+        bundle.symbolicName = info.symbolicName;
+
+        return bundle;
     }
 
     private synchronized ObservableList<PackageDTO> preparePackages(final List<XBundleDTO> bundles) {
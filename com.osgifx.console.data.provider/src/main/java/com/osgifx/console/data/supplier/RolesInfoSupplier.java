@@ -41,7 +41,6 @@ import org.osgi.service.event.propertytypes.EventTopics;
 
 import com.osgifx.console.agent.dto.XRoleDTO;
 import com.osgifx.console.data.manager.RuntimeInfoSupplier;
-import com.osgifx.console.executor.Executor;
 import com.osgifx.console.supervisor.Supervisor;
 
 import javafx.collections.ObservableList;
@@ -64,8 +63,6 @@ public final class RolesInfoSupplier implements RuntimeInfoSupplier, EventHandle
     @Reference
     private LoggerFactory       factory;
     @Reference
-    private Executor            executor;
-    @Reference
     private EventAdmin          eventAdmin;
     @Reference
     private ThreadSynchronize   threadSync;
@@ -104,7 +101,7 @@ public final class RolesInfoSupplier implements RuntimeInfoSupplier, EventHandle
             threadSync.asyncExec(roles::clear);
             return;
         }
-        executor.runAsync(this::retrieve);
+        RuntimeInfoSupplier.requestRetrieval(eventAdmin, ROLES_ID);
     }
 
 }
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.data.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+public final class ResponseCacheTest {
+
+    private static final Object AGENT       = new Object();
+    private static final Object OTHER_AGENT = new Object();
+
+    private final ResponseCache                       cache  = new ResponseCache();
+    private final List<CompletableFuture<String>>     loads  = new ArrayList<>();
+    private final Supplier<CompletableFuture<String>> loader = this::load;
+
+    @Test
+    public void mergesIdenticalInFlightRequests() {
+        final var first  = cache.get("key", AGENT, 0, loader);
+        final var second = cache.get("key", AGENT, 0, loader);
+
+        assertSame(first, second);
+        assertEquals(1, loads.size());
+    }
+
+    @Test
+    public void servesCompletedResponsesWithinFreshness() {
+        cache.get("key", AGENT, 60_000, loader);
+        loads.get(0).complete("value");
+
+        assertEquals("value", cache.get("key", AGENT, 60_000, loader).join());
+        assertEquals(1, loads.size());
+    }
+
+    @Test
+    public void reloadsExpiredResponses() throws InterruptedException {
+        cache.get("key", AGENT, 1, loader);
+        loads.get(0).complete("stale");
+        Thread.sleep(10);
+
+        cache.get("key", AGENT, 1, loader);
+        assertEquals(2, loads.size());
+    }
+
+    @Test
+    public void doesNotServeResponsesOfOtherOwners() {
+        cache.get("key", AGENT, 60_000, loader);
+        loads.get(0).complete("value");
+
+        cache.get("key", OTHER_AGENT, 60_000, loader);
+        assertEquals(2, loads.size());
+    }
+
+    @Test
+    public void doesNotCacheFailures() {
+        final var failed = cache.get("key", AGENT, 60_000, loader);
+        loads.get(0).completeExceptionally(new IllegalStateException());
+
+        assertTrue(failed.isCompletedExceptionally());
+        cache.get("key", AGENT, 60_000, loader);
+        assertEquals(2, loads.size());
+    }
+
+    @Test
+    public void refreshesBypassCompletedResponses() {
+        cache.refresh("key", AGENT, loader);
+        loads.get(0).complete("old");
+
+        final var refreshed = cache.refresh("key", AGENT, loader);
+        assertEquals(2, loads.size());
+        loads.get(1).complete("new");
+        assertEquals("new", refreshed.join());
+    }
+
+    @Test
+    public void refreshesFollowRequestsInFlight() {
+        final var running = cache.refresh("key", AGENT, loader);
+        final var first   = cache.refresh("key", AGENT, loader);
+        final var second  = cache.refresh("key", AGENT, loader);
+
+        assertNotSame(running, first);
+        assertSame(first, second);
+        assertEquals(1, loads.size());
+
+        loads.get(0).complete("old");
+        assertEquals("old", running.join());
+        assertFalse(first.isDone());
+        assertEquals(2, loads.size());
+
+        loads.get(1).complete("new");
+        assertEquals("new", first.join());
+    }
+
+    @Test
+    public void requestsInFlightJoinPendingRefreshes() {
+        cache.refresh("key", AGENT, loader);
+        final var refreshed = cache.refresh("key", AGENT, loader);
+
+        assertSame(refreshed, cache.get("key", AGENT, 0, loader));
+        assertEquals(1, loads.size());
+    }
+
+    @Test
+    public void evictsExpiredResponses() throws InterruptedException {
+        cache.get("first", AGENT, 1, loader);
+        loads.get(0).complete("value");
+        Thread.sleep(10);
+
+        cache.get("second", AGENT, 1, loader);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void evictsResponsesByKeyPrefix() {
+        cache.get("dmtNode:./a", AGENT, 60_000, loader);
+        cache.get("dmtNode:./b", AGENT, 60_000, loader);
+        cache.get("memory", AGENT, 60_000, loader);
+        loads.forEach(load -> load.complete("value"));
+
+        cache.evict("dmtNode:");
+        assertEquals(1, cache.size());
+        cache.get("dmtNode:./a", AGENT, 60_000, loader);
+        assertEquals(4, loads.size());
+    }
+
+    private CompletableFuture<String> load() {
+        final var load = new CompletableFuture<String>();
+        loads.add(load);
+        return load;
+    }
+
+}
@@ -17,9 +17,13 @@ package com.osgifx.console.executor.provider;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static com.osgifx.console.executor.Lane.BACKGROUND;
+import static com.osgifx.console.executor.Lane.INTERACTIVE;
+import static com.osgifx.console.executor.Lane.STREAMING;
 
 import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
@@ -38,6 +42,8 @@ import org.osgi.service.metatype.annotations.Designate;
 import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 
 import com.osgifx.console.executor.Executor;
+import com.osgifx.console.executor.Lane;
+import com.osgifx.console.executor.LaneMetrics;
 import com.osgifx.console.executor.provider.ExecutorProvider.Configuration;
 
 @Component
@@ -46,47 +52,82 @@ public final class ExecutorProvider implements Executor {
 
     @ObjectClassDefinition(name = "Executor Configuration")
     public @interface Configuration {
-        @AttributeDefinition(description = "The minimum number of threads allocated to this pool", required = false)
-        int coreSize() default 30;
+        @AttributeDefinition(description = "The maximum number of concurrently running interactive tasks", required = false)
+        int interactiveCapacity() default 64;
 
-        @AttributeDefinition(description = "If this flag is set to true the containing thread pool will use daemon threads.", required = false)
+        @AttributeDefinition(description = "The maximum number of concurrently running background tasks", required = false)
+        int backgroundCapacity() default 4;
+
+        @AttributeDefinition(description = "The maximum number of concurrently running streaming tasks", required = false)
+        int streamingCapacity() default 16;
+
+        @AttributeDefinition(description = "The number of threads triggering the periodic tasks", required = false)
+        int schedulerSize() default 2;
+
+        @AttributeDefinition(description = "If this flag is set to true the scheduler will use daemon threads.", required = false)
         boolean daemon() default true;
     }
 
     @Reference
     private LoggerFactory               factory;
     private FluentLogger                logger;
-    private ScheduledThreadPoolExecutor executor;
+    private Map<Lane, LaneExecutor>     lanes;
+    private ScheduledThreadPoolExecutor scheduler;
 
     @Activate
     void activate(final Configuration config) {
         logger = FluentLogger.of(factory.createLogger(getClass().getName()));
 
-        final var coreSize      = config.coreSize();
-        final var threadFactory = new Builder().namingPattern("fx-worker-%d").daemon(config.daemon()).build();
+        final var threadFactory = new Builder().namingPattern("fx-scheduler-%d").daemon(config.daemon()).build();
+
+        lanes = new EnumMap<>(Lane.class);
+        lanes.put(INTERACTIVE, new LaneExecutor(INTERACTIVE, config.interactiveCapacity()));
+        lanes.put(BACKGROUND, new LaneExecutor(BACKGROUND, config.backgroundCapacity()));
+        lanes.put(STREAMING, new LaneExecutor(STREAMING, config.streamingCapacity()));
 
-        executor = new ScheduledThreadPoolExecutor(coreSize, threadFactory);
-        executor.setRemoveOnCancelPolicy(true);
+        scheduler = new ScheduledThreadPoolExecutor(config.schedulerSize(), threadFactory);
+        scheduler.setRemoveOnCancelPolicy(true);
     }
 
     @Deactivate
     void deactivate() {
-        final var running = executor.shutdownNow();
-        if (!running.isEmpty()) {
-            logger.atWarning().log("Shutting down while %s tasks are running", running.size());
-        }
+        scheduler.shutdownNow();
+        lanes.values().forEach(lane -> {
+            final var metrics = lane.metrics();
+            final var running = metrics.active() + metrics.queued();
+            if (running > 0) {
+                logger.atWarning().log("Shutting down while %s tasks are running in lane '%s'", running, metrics.lane());
+            }
+            logger.atDebug().log("Metrics of lane '%s': %s", metrics.lane(), metrics);
+            lane.shutdownNow();
+        });
     }
 
     @Override
     public CompletableFuture<Void> runAsync(final Runnable command) {
+        return runAsync(command, INTERACTIVE);
+    }
+
+    @Override
+    public CompletableFuture<Void> runAsync(final Runnable command, final Lane lane) {
         checkNotNull(command, "Task cannot be null");
-        return CompletableFuture.runAsync(command, executor);
+        checkNotNull(lane, "Lane cannot be null");
+        return lanes.get(lane).supplyAsync(() -> {
+            command.run();
+            return null;
+        });
     }
 
     @Override
     public <U> CompletableFuture<U> supplyAsync(final Supplier<U> supplier) {
+        return supplyAsync(supplier, INTERACTIVE);
+    }
+
+    @Override
+    public <U> CompletableFuture<U> supplyAsync(final Supplier<U> supplier, final Lane lane) {
         checkNotNull(supplier, "Supplier cannot be null");
-        return CompletableFuture.supplyAsync(supplier, executor);
+        checkNotNull(lane, "Lane cannot be null");
+        return lanes.get(lane).supplyAsync(supplier);
     }
 
     @Override
@@ -99,7 +140,8 @@ public final class ExecutorProvider implements Executor {
         checkArgument(!initialDelay.isNegative(), "The initial delay must not be negative");
         checkArgument(DurationUtils.isPositive(period), "The period must be positive and more than zero");
 
-        return executor.scheduleAtFixedRate(command, initialDelay.toMillis(), period.toMillis(), MILLISECONDS);
+        return new PeriodicTask(command, lanes.get(BACKGROUND), scheduler, period.toNanos(), true)
+                .start(initialDelay.toNanos());
     }
 
     @Override
@@ -112,7 +154,14 @@ public final class ExecutorProvider implements Executor {
         checkArgument(!initialDelay.isNegative(), "The initial delay must not be negative");
         checkArgument(DurationUtils.isPositive(delay), "The delay must be positive and more than zero");
 
-        return executor.scheduleWithFixedDelay(command, initialDelay.toMillis(), delay.toMillis(), MILLISECONDS);
+        return new PeriodicTask(command, lanes.get(BACKGROUND), scheduler, delay.toNanos(), false)
+                .start(initialDelay.toNanos());
+    }
+
+    @Override
+    public LaneMetrics metrics(final Lane lane) {
+        checkNotNull(lane, "Lane cannot be null");
+        return lanes.get(lane).metrics();
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.executor.provider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.osgifx.console.executor.Lane;
+import com.osgifx.console.executor.LaneMetrics;
+
+/**
+ * Executes the tasks of a single {@link Lane}. Every task runs in its own
+ * virtual thread, hence tasks blocked on remote calls don't occupy any platform
+ * thread. The number of concurrently running tasks is limited by the capacity
+ * of the lane. Tasks exceeding the capacity wait in FIFO order.
+ */
+final class LaneExecutor {
+
+    private final Lane            lane;
+    private final Semaphore       permits;
+    private final ExecutorService threads;
+    private final LongAdder       submitted     = new LongAdder();
+    private final LongAdder       started       = new LongAdder();
+    private final LongAdder       completed     = new LongAdder();
+    private final LongAdder       failed        = new LongAdder();
+    private final LongAdder       waitTime      = new LongAdder();
+    private final LongAdder       executionTime = new LongAdder();
+    private final AtomicInteger   active        = new AtomicInteger();
+    private final AtomicInteger   queued        = new AtomicInteger();
+
+    LaneExecutor(final Lane lane, final int capacity) {
+        final var threadFactory = Thread.ofVirtual().name("fx-" + lane.name().toLowerCase() + "-", 0).factory();
+
+        this.lane = lane;
+        permits   = new Semaphore(capacity, true);
+        threads   = Executors.newThreadPerTaskExecutor(threadFactory);
+    }
+
+    <U> CompletableFuture<U> supplyAsync(final Supplier<U> supplier) {
+        final var future     = new CompletableFuture<U>();
+        final var enqueuedAt = enqueue();
+        try {
+            threads.execute(() -> {
+                try {
+                    future.complete(invoke(supplier, enqueuedAt));
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    future.cancel(false);
+                } catch (final Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            submitted.decrement();
+            queued.decrementAndGet();
+            throw e;
+        }
+        return future;
+    }
+
+    LaneMetrics metrics() {
+        final var startedTasks  = started.sum();
+        final var finishedTasks = completed.sum() + failed.sum();
+        // @formatter:off
+        return new LaneMetrics(lane,
+                               submitted.sum(),
+                               completed.sum(),
+                               failed.sum(),
+                               active.get(),
+                               queued.get(),
+                               Duration.ofNanos(startedTasks == 0 ? 0 : waitTime.sum() / startedTasks),
+                               Duration.ofNanos(finishedTasks == 0 ? 0 : executionTime.sum() / finishedTasks));
+        // @formatter:on
+    }
+
+    List<Runnable> shutdownNow() {
+        return threads.shutdownNow();
+    }
+
+    private long enqueue() {
+        submitted.increment();
+        queued.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    private <U> U invoke(final Supplier<U> supplier, final long enqueuedAt) throws InterruptedException {
+        try {
+            permits.acquire();
+        } finally {
+            queued.decrementAndGet();
+        }
+        final var startedAt = System.nanoTime();
+        started.increment();
+        waitTime.add(startedAt - enqueuedAt);
+        active.incrementAndGet();
+        try {
+            final var value = supplier.get();
+            completed.increment();
+            return value;
+        } catch (final RuntimeException | Error e) {
+            failed.increment();
+            throw e;
+        } finally {
+            executionTime.add(System.nanoTime() - startedAt);
+            active.decrementAndGet();
+            permits.release();
+        }
+    }
+
+}
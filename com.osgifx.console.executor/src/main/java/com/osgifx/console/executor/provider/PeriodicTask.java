@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.executor.provider;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A periodic task whose scheduler only triggers the runs and hands them off to
+ * a {@link LaneExecutor}, hence the few scheduler threads never wait for the
+ * capacity of the lane. The next run is only scheduled as soon as the previous
+ * one completed, so runs never overlap. A failing run suppresses the subsequent
+ * ones and completes this future exceptionally.
+ */
+final class PeriodicTask implements ScheduledFuture<Void> {
+
+    private final Runnable                 command;
+    private final LaneExecutor             lane;
+    private final ScheduledExecutorService scheduler;
+    private final long                     periodInNanos;
+    private final boolean                  fixedRate;
+    private final CompletableFuture<Void>  completion = new CompletableFuture<>();
+
+    private volatile ScheduledFuture<?> trigger;
+    private long                        nextRunAt; // only accessed by the strictly sequential runs
+
+    PeriodicTask(final Runnable command,
+                 final LaneExecutor lane,
+                 final ScheduledExecutorService scheduler,
+                 final long periodInNanos,
+                 final boolean fixedRate) {
+        this.command       = command;
+        this.lane          = lane;
+        this.scheduler     = scheduler;
+        this.periodInNanos = periodInNanos;
+        this.fixedRate     = fixedRate;
+    }
+
+    PeriodicTask start(final long initialDelayInNanos) {
+        nextRunAt = System.nanoTime() + initialDelayInNanos;
+        schedule(initialDelayInNanos);
+        return this;
+    }
+
+    private void schedule(final long delayInNanos) {
+        if (completion.isDone()) {
+            return;
+        }
+        try {
+            trigger = scheduler.schedule(this::handOff, delayInNanos, NANOSECONDS);
+        } catch (final RejectedExecutionException e) {
+            completion.completeExceptionally(e);
+            return;
+        }
+        if (completion.isDone()) {
+            // cancelled while the trigger was being scheduled
+            trigger.cancel(false);
+        }
+    }
+
+    private void handOff() {
+        try {
+            lane.supplyAsync(() -> {
+                command.run();
+                return null;
+            }).whenComplete((result, e) -> {
+                if (e != null) {
+                    completion.completeExceptionally(e);
+                } else if (fixedRate) {
+                    nextRunAt += periodInNanos;
+                    schedule(Math.max(0, nextRunAt - System.nanoTime()));
+                } else {
+                    schedule(periodInNanos);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            completion.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public long getDelay(final TimeUnit unit) {
+        return trigger.getDelay(unit);
+    }
+
+    @Override
+    public int compareTo(final Delayed other) {
+        return Long.compare(getDelay(NANOSECONDS), other.getDelay(NANOSECONDS));
+    }
+
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+        final var cancelled = completion.cancel(mayInterruptIfRunning);
+        trigger.cancel(false);
+        return cancelled;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return completion.isCancelled();
+    }
+
+    @Override
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    @Override
+    public Void get() throws InterruptedException, ExecutionException {
+        return completion.get();
+    }
+
+    @Override
+    public Void get(final long timeout, final TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return completion.get(timeout, unit);
+    }
+
+}
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.smartgraph.graphview;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Uniform grid based spatial index over the edges of a
+ * {@link SmartGraphCanvas}. Every edge is registered in all grid cells its
+ * line segment traverses, so that viewport culling only visits the edges of
+ * the grid cells that overlap the viewport, including long edges whose end
+ * points both reside outside of the viewport.
+ */
+final class SmartEdgeIndex {
+
+    private final double             cellSize;
+    private final long[][]           edgeCells;
+    private final int[]              visits;
+    private final Map<Long, int[]>   cells;
+    private final Map<Long, Integer> cellSizes;
+    private int                      visit;
+
+    SmartEdgeIndex(final int capacity, final double cellSize) {
+        this.cellSize  = cellSize;
+        this.edgeCells = new long[capacity][];
+        this.visits    = new int[capacity];
+        this.cells     = Maps.newHashMap();
+        this.cellSizes = Maps.newHashMap();
+    }
+
+    void insert(final int id, final double x1, final double y1, final double x2, final double y2) {
+        final var keys = traverse(x1, y1, x2, y2);
+        edgeCells[id] = keys;
+        for (final long key : keys) {
+            final var size  = cellSizes.getOrDefault(key, 0);
+            var       array = cells.get(key);
+            if (array == null) {
+                array = new int[4];
+            } else if (array.length == size) {
+                array = Arrays.copyOf(array, size * 2);
+            }
+            array[size] = id;
+            cells.put(key, array);
+            cellSizes.put(key, size + 1);
+        }
+    }
+
+    void update(final int id, final double x1, final double y1, final double x2, final double y2) {
+        final var keys = edgeCells[id];
+        if (keys != null) {
+            for (final long key : keys) {
+                remove(id, key);
+            }
+        }
+        insert(id, x1, y1, x2, y2);
+    }
+
+    /**
+     * Visits all edges that traverse the given rectangle at most once. Edges
+     * passing close by might be visited as well.
+     */
+    void query(final double minX,
+               final double minY,
+               final double maxX,
+               final double maxY,
+               final IntConsumer consumer) {
+        final long fromX = cell(minX);
+        final long toX   = cell(maxX);
+        final long fromY = cell(minY);
+        final long toY   = cell(maxY);
+
+        // when zoomed out, the viewport covers more cells than are occupied
+        if ((toX - fromX + 1) * (toY - fromY + 1) > cells.size()) {
+            for (var id = 0; id < edgeCells.length; id++) {
+                if (edgeCells[id] != null) {
+                    consumer.accept(id);
+                }
+            }
+            return;
+        }
+        // an edge traversing multiple of the cells must only be visited once
+        if (++visit == 0) {
+            Arrays.fill(visits, 0);
+            visit = 1;
+        }
+        for (var cx = fromX; cx <= toX; cx++) {
+            for (var cy = fromY; cy <= toY; cy++) {
+                final var key = key(cx, cy);
+                final var ids = cells.get(key);
+                if (ids == null) {
+                    continue;
+                }
+                final int size = cellSizes.get(key);
+                for (var i = 0; i < size; i++) {
+                    final var id = ids[i];
+                    if (visits[id] != visit) {
+                        visits[id] = visit;
+                        consumer.accept(id);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the keys of all cells the line segment traverses (Amanatides and
+     * Woo).
+     */
+    private long[] traverse(final double x1, final double y1, final double x2, final double y2) {
+        var        cx      = cell(x1);
+        var        cy      = cell(y1);
+        final long targetX = cell(x2);
+        final long targetY = cell(y2);
+        final var  count   = (int) (Math.abs(targetX - cx) + Math.abs(targetY - cy) + 1);
+        final var  keys    = new long[count];
+
+        final var dx     = x2 - x1;
+        final var dy     = y2 - y1;
+        final var stepX  = dx > 0 ? 1 : -1;
+        final var stepY  = dy > 0 ? 1 : -1;
+        final var deltaX = dx == 0 ? Double.POSITIVE_INFINITY : cellSize / Math.abs(dx);
+        final var deltaY = dy == 0 ? Double.POSITIVE_INFINITY : cellSize / Math.abs(dy);
+        var       maxX   = dx == 0 ? Double.POSITIVE_INFINITY : ((stepX > 0 ? cx + 1 : cx) * cellSize - x1) / dx;
+        var       maxY   = dy == 0 ? Double.POSITIVE_INFINITY : ((stepY > 0 ? cy + 1 : cy) * cellSize - y1) / dy;
+
+        for (var i = 0; i < count - 1; i++) {
+            keys[i] = key(cx, cy);
+            if (maxX < maxY ? cx != targetX : cy == targetY) {
+                cx   += stepX;
+                maxX += deltaX;
+            } else {
+                cy   += stepY;
+                maxY += deltaY;
+            }
+        }
+        // rounding errors must not lose the cell of the end point
+        keys[count - 1] = key(targetX, targetY);
+        return keys;
+    }
+
+    private void remove(final int id, final long key) {
+        final var ids = cells.get(key);
+        if (ids == null) {
+            return;
+        }
+        final int size = cellSizes.get(key);
+        for (var i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                ids[i] = ids[size - 1];
+                if (size == 1) {
+                    cells.remove(key);
+                    cellSizes.remove(key);
+                } else {
+                    cellSizes.put(key, size - 1);
+                }
+                return;
+            }
+        }
+    }
+
+    private long cell(final double coordinate) {
+        return (long) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(final long cx, final long cy) {
+        return cx << 32 ^ cy & 0xFFFFFFFFL;
+    }
+
+}
@@ -0,0 +1,636 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.smartgraph.graphview;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.osgifx.console.smartgraph.graph.Digraph;
+import com.osgifx.console.smartgraph.graph.Edge;
+import com.osgifx.console.smartgraph.graph.Graph;
+import com.osgifx.console.smartgraph.graph.Vertex;
+
+import javafx.application.Platform;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * JavaFX {@link Pane} that is capable of plotting large {@link Graph}s or
+ * {@link Digraph}s. <br>
+ * In contrast to {@link SmartGraphPanel}, this panel does not create any scene
+ * graph node per vertex, edge, label or arrow. The graph is painted directly
+ * onto a single {@link Canvas} where only the elements that intersect with the
+ * current viewport are drawn. Labels and arrows are omitted when zoomed out
+ * (level of detail). Viewport culling as well as hit testing for selection and
+ * tooltips is performed through spatial indices of the vertices and edges.
+ * <br>
+ * Be sure to call {@link #init() } after the Stage is displayed. <br>
+ * The graph can be panned by dragging the background and zoomed by scrolling.
+ * Vertices can be dragged by the user, if configured to do so.
+ *
+ * @param <V> Type of element stored at a vertex
+ * @param <E> Type of element stored at an edge
+ */
+public class SmartGraphCanvas<V, E> extends Pane {
+
+    private static final double LABEL_SCALE_THRESHOLD  = 0.6;
+    private static final double ARROW_SCALE_THRESHOLD  = 0.4;
+    private static final double DETAIL_SCALE_THRESHOLD = 0.15;
+    private static final double MIN_SCALE              = 0.01;
+    private static final double MAX_SCALE              = 10;
+    private static final double ZOOM_FACTOR            = 1.15;
+    private static final double PLACEMENT_SPACING      = 3;
+    private static final int    EDGE_GRID_CELLS        = 64;
+
+    private static final Color  BACKGROUND_COLOR    = Color.web("#F4FFFB");
+    private static final Color  VERTEX_FILL         = Color.web("#B1DFF7");
+    private static final Color  ROOT_VERTEX_FILL    = Color.web("#FF9999");
+    private static final Color  VERTEX_STROKE       = Color.web("#61B5F1");
+    private static final Color  EDGE_COLOR          = Color.web("#FF6D66", 0.8);
+    private static final Color  SELECTION_COLOR     = Color.web("#2E7D32");
+    private static final Color  LABEL_COLOR         = Color.BLACK;
+    private static final Font   LABEL_FONT          = Font.font("sans-serif", FontWeight.BOLD, 10);
+    private static final double VERTEX_STROKE_WIDTH = 3;
+    private static final double EDGE_WIDTH          = 2;
+
+    /*
+     * INTERNAL DATA STRUCTURE
+     */
+    private final Graph<V, E>                     theGraph;
+    private final SmartPlacementStrategy          placementStrategy;
+    private final Canvas                          canvas;
+    private final List<SmartGraphCanvasVertex<V>> vertices;
+    private final int[]                           edgeSources;
+    private final int[]                           edgeTargets;
+    private final int[]                           incidentOffsets;
+    private final int[]                           incidentEdges;
+    private final SmartSpatialIndex               spatialIndex;
+    private SmartEdgeIndex                        edgeIndex;
+    private final Tooltip                         tooltip;
+    private final double                          radius;
+    private final double                          arrowSize;
+    private final boolean                         edgesWithArrows;
+    private final boolean                         useVertexLabel;
+    private final boolean                         useVertexTooltip;
+    private final boolean                         allowUserMove;
+    private Consumer<SmartGraphVertex<V>>         vertexClickConsumer;
+
+    /*
+     * VIEWPORT AND INTERACTION STATE
+     */
+    private double  scale          = 1;
+    private double  translateX;
+    private double  translateY;
+    private double  dragAnchorX;
+    private double  dragAnchorY;
+    private int     selectedVertex = -1;
+    private int     hoveredVertex  = -1;
+    private int     draggedVertex  = -1;
+    private boolean redrawPending;
+    private boolean initialized;
+
+    /**
+     * Constructs a visualization of the graph referenced by <code>theGraph</code>,
+     * using default properties and custom placement of vertices.
+     *
+     * @param theGraph underlying graph
+     * @param placementStrategy placement strategy, null for default
+     */
+    public SmartGraphCanvas(final Graph<V, E> theGraph, final SmartPlacementStrategy placementStrategy) {
+        this(theGraph, null, placementStrategy);
+    }
+
+    /**
+     * Constructs a visualization of the graph referenced by <code>theGraph</code>,
+     * using custom properties and custom placement of vertices.
+     *
+     * @param theGraph underlying graph
+     * @param properties custom properties, null for default
+     * @param placementStrategy placement strategy, null for default
+     */
+    public SmartGraphCanvas(final Graph<V, E> theGraph,
+                            final SmartGraphProperties properties,
+                            final SmartPlacementStrategy placementStrategy) {
+        checkNotNull(theGraph, "Graph cannot be null");
+
+        final var graphProperties = properties != null ? properties : new SmartGraphProperties();
+
+        this.theGraph          = theGraph;
+        this.placementStrategy = placementStrategy != null ? placementStrategy : new SmartRandomPlacementStrategy();
+        this.radius            = graphProperties.getVertexRadius();
+        this.arrowSize         = graphProperties.getEdgeArrowSize();
+        this.edgesWithArrows   = graphProperties.getUseEdgeArrow();
+        this.useVertexLabel    = graphProperties.getUseVertexLabel();
+        this.useVertexTooltip  = graphProperties.getUseVertexTooltip();
+        this.allowUserMove     = graphProperties.getVertexAllowUserMove();
+
+        final var graphVertices = theGraph.vertices();
+        final var graphEdges    = theGraph.edges();
+
+        vertices     = Lists.newArrayListWithCapacity(graphVertices.size());
+        spatialIndex = new SmartSpatialIndex(graphVertices.size(), Math.max(radius * 4, 50));
+        edgeSources     = new int[graphEdges.size()];
+        edgeTargets     = new int[graphEdges.size()];
+        incidentOffsets = new int[graphVertices.size() + 1];
+        incidentEdges   = new int[graphEdges.size() * 2];
+
+        initVertices(graphVertices);
+        initEdges(graphEdges);
+
+        canvas = new Canvas();
+        canvas.setManaged(false);
+        canvas.widthProperty().bind(widthProperty());
+        canvas.heightProperty().bind(heightProperty());
+        canvas.widthProperty().addListener(obs -> requestRedraw());
+        canvas.heightProperty().addListener(obs -> requestRedraw());
+        getChildren().add(canvas);
+
+        tooltip = new Tooltip();
+
+        enableMouseListeners();
+    }
+
+    /**
+     * Runs the initial vertex placement strategy and fits the graph into the
+     * visible area.
+     * <p>
+     * This method should only be called once during the lifetime of the object and
+     * only after the underlying scene is displayed.
+     *
+     * @throws IllegalStateException if this method was already called
+     */
+    public void init() throws IllegalStateException {
+        Preconditions.checkState(!initialized, "Already initialized");
+
+        // enlarge the placement area with the number of vertices to avoid overlaps
+        final var extent = vertices.size() * radius * PLACEMENT_SPACING / Math.PI;
+        final var width  = Math.max(getPrefWidth(), extent);
+        final var height = Math.max(getPrefHeight(), extent);
+
+        placementStrategy.place(width, height, theGraph, vertices);
+        initEdgeIndex();
+
+        initialized = true;
+        fitToView();
+    }
+
+    /**
+     * Sets the action that should be performed when a vertex is double clicked.
+     *
+     * @param action action to be performed
+     */
+    public void setVertexDoubleClickAction(final Consumer<SmartGraphVertex<V>> action) {
+        this.vertexClickConsumer = action;
+    }
+
+    /**
+     * Adjusts the zoom level and the translation such that all vertices are
+     * visible.
+     */
+    public void fitToView() {
+        if (vertices.isEmpty()) {
+            return;
+        }
+        var minX = Double.MAX_VALUE;
+        var minY = Double.MAX_VALUE;
+        var maxX = -Double.MAX_VALUE;
+        var maxY = -Double.MAX_VALUE;
+        for (var i = 0; i < vertices.size(); i++) {
+            minX = Math.min(minX, spatialIndex.x(i));
+            minY = Math.min(minY, spatialIndex.y(i));
+            maxX = Math.max(maxX, spatialIndex.x(i));
+            maxY = Math.max(maxY, spatialIndex.y(i));
+        }
+        final var viewWidth   = getWidth() > 0 ? getWidth() : getPrefWidth();
+        final var viewHeight  = getHeight() > 0 ? getHeight() : getPrefHeight();
+        final var graphWidth  = maxX - minX + 4 * radius;
+        final var graphHeight = maxY - minY + 4 * radius;
+
+        scale      = clampScale(Math.min(viewWidth / graphWidth, viewHeight / graphHeight));
+        translateX = viewWidth / 2 - (minX + maxX) / 2 * scale;
+        translateY = viewHeight / 2 - (minY + maxY) / 2 * scale;
+        requestRedraw();
+    }
+
+    /**
+     * Sets the position of the given vertex in graph coordinates.
+     *
+     * @param v the vertex
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     */
+    public void setVertexPosition(final Vertex<V> v, final double x, final double y) {
+        for (final SmartGraphCanvasVertex<V> vertex : vertices) {
+            if (vertex.getUnderlyingVertex() == v) {
+                vertex.setPosition(x, y);
+                return;
+            }
+        }
+    }
+
+    void moveVertex(final int id, final double x, final double y) {
+        spatialIndex.update(id, x, y);
+        if (edgeIndex != null) {
+            for (var i = incidentOffsets[id]; i < incidentOffsets[id + 1]; i++) {
+                indexEdge(incidentEdges[i]);
+            }
+        }
+        requestRedraw();
+    }
+
+    double vertexX(final int id) {
+        return spatialIndex.x(id);
+    }
+
+    double vertexY(final int id) {
+        return spatialIndex.y(id);
+    }
+
+    /**
+     * Schedules a repaint of the canvas. Multiple requests until the next pulse
+     * are coalesced into a single repaint.
+     */
+    void requestRedraw() {
+        if (redrawPending) {
+            return;
+        }
+        redrawPending = true;
+        Platform.runLater(this::redraw);
+    }
+
+    private void initVertices(final Iterable<Vertex<V>> graphVertices) {
+        for (final Vertex<V> vertex : graphVertices) {
+            final var id           = vertices.size();
+            final var canvasVertex = new SmartGraphCanvasVertex<>(id, vertex, generateVertexLabel(vertex.element()),
+                                                                  radius, this);
+            vertices.add(canvasVertex);
+            spatialIndex.insert(id, 0, 0);
+        }
+    }
+
+    private void initEdges(final Iterable<Edge<E, V>> graphEdges) {
+        final Map<Vertex<V>, Integer> indices = Maps.newHashMapWithExpectedSize(vertices.size());
+        vertices.forEach(v -> indices.put(v.getUnderlyingVertex(), v.id()));
+
+        // same as in SmartGraphPanel, vertices without incident edges are styled as roots
+        final var hasIncidentEdges = new boolean[vertices.size()];
+        final var isDigraph        = theGraph instanceof Digraph;
+
+        var i = 0;
+        for (final Edge<E, V> edge : graphEdges) {
+            final var edgeVertices = edge.vertices();
+            edgeSources[i] = indices.getOrDefault(edgeVertices[0], -1);
+            edgeTargets[i] = indices.getOrDefault(edgeVertices[1], -1);
+            if (edgeTargets[i] >= 0) {
+                hasIncidentEdges[edgeTargets[i]] = true;
+            }
+            if (!isDigraph && edgeSources[i] >= 0) {
+                hasIncidentEdges[edgeSources[i]] = true;
+            }
+            i++;
+        }
+        vertices.forEach(v -> v.setStyleClass(hasIncidentEdges[v.id()] ? "vertex" : "root-vertex"));
+
+        // the edges incident to every vertex are kept in a compressed adjacency array
+        for (var edge = 0; edge < edgeSources.length; edge++) {
+            if (edgeSources[edge] >= 0 && edgeTargets[edge] >= 0) {
+                incidentOffsets[edgeSources[edge] + 1]++;
+                if (edgeTargets[edge] != edgeSources[edge]) {
+                    incidentOffsets[edgeTargets[edge] + 1]++;
+                }
+            }
+        }
+        for (var v = 0; v < vertices.size(); v++) {
+            incidentOffsets[v + 1] += incidentOffsets[v];
+        }
+        final var next = Arrays.copyOf(incidentOffsets, vertices.size());
+        for (var edge = 0; edge < edgeSources.length; edge++) {
+            if (edgeSources[edge] >= 0 && edgeTargets[edge] >= 0) {
+                incidentEdges[next[edgeSources[edge]]++] = edge;
+                if (edgeTargets[edge] != edgeSources[edge]) {
+                    incidentEdges[next[edgeTargets[edge]]++] = edge;
+                }
+            }
+        }
+    }
+
+    private void initEdgeIndex() {
+        var minX = Double.MAX_VALUE;
+        var minY = Double.MAX_VALUE;
+        var maxX = -Double.MAX_VALUE;
+        var maxY = -Double.MAX_VALUE;
+        for (var i = 0; i < vertices.size(); i++) {
+            minX = Math.min(minX, spatialIndex.x(i));
+            minY = Math.min(minY, spatialIndex.y(i));
+            maxX = Math.max(maxX, spatialIndex.x(i));
+            maxY = Math.max(maxY, spatialIndex.y(i));
+        }
+        // long edges must only be registered in a bounded number of cells
+        final var extent = Math.max(maxX - minX, maxY - minY);
+        edgeIndex = new SmartEdgeIndex(edgeSources.length, Math.max(radius * 4, extent / EDGE_GRID_CELLS));
+        for (var edge = 0; edge < edgeSources.length; edge++) {
+            if (edgeSources[edge] >= 0 && edgeTargets[edge] >= 0) {
+                indexEdge(edge);
+            }
+        }
+    }
+
+    private void indexEdge(final int edge) {
+        final var source = edgeSources[edge];
+        final var target = edgeTargets[edge];
+        edgeIndex.update(edge, spatialIndex.x(source), spatialIndex.y(source), spatialIndex.x(target),
+                spatialIndex.y(target));
+    }
+
+    private void redraw() {
+        redrawPending = false;
+
+        final var gc     = canvas.getGraphicsContext2D();
+        final var width  = canvas.getWidth();
+        final var height = canvas.getHeight();
+
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+        gc.setFill(BACKGROUND_COLOR);
+        gc.fillRect(0, 0, width, height);
+
+        if (!initialized) {
+            return;
+        }
+        gc.setTransform(scale, 0, 0, scale, translateX, translateY);
+
+        // visible area in graph coordinates, extended to include partially visible vertices
+        final var margin = radius + LABEL_FONT.getSize() * 2;
+        final var minX   = -translateX / scale - margin;
+        final var minY   = -translateY / scale - margin;
+        final var maxX   = (width - translateX) / scale + margin;
+        final var maxY   = (height - translateY) / scale + margin;
+
+        drawEdges(gc, minX, minY, maxX, maxY);
+        drawVertices(gc, minX, minY, maxX, maxY);
+    }
+
+    private void drawEdges(final GraphicsContext gc,
+                           final double minX,
+                           final double minY,
+                           final double maxX,
+                           final double maxY) {
+        final var withArrows = edgesWithArrows && scale >= ARROW_SCALE_THRESHOLD;
+
+        gc.setStroke(EDGE_COLOR);
+        gc.setLineWidth(Math.max(EDGE_WIDTH, 1 / scale));
+        // all edges are collected into a single path which is stroked only once
+        gc.beginPath();
+        edgeIndex.query(minX, minY, maxX, maxY, edge -> {
+            if (isEdgeVisible(edge, minX, minY, maxX, maxY)) {
+                appendEdge(gc, edge, withArrows);
+            }
+        });
+        gc.stroke();
+
+        if (selectedVertex >= 0) {
+            gc.setStroke(SELECTION_COLOR);
+            gc.setLineWidth(Math.max(EDGE_WIDTH * 1.5, 1.5 / scale));
+            gc.beginPath();
+            for (var i = incidentOffsets[selectedVertex]; i < incidentOffsets[selectedVertex + 1]; i++) {
+                if (isEdgeVisible(incidentEdges[i], minX, minY, maxX, maxY)) {
+                    appendEdge(gc, incidentEdges[i], withArrows);
+                }
+            }
+            gc.stroke();
+        }
+    }
+
+    private boolean isEdgeVisible(final int edge,
+                                  final double minX,
+                                  final double minY,
+                                  final double maxX,
+                                  final double maxY) {
+        final var source = edgeSources[edge];
+        final var target = edgeTargets[edge];
+        if (source < 0 || target < 0) {
+            return false;
+        }
+        final var x1 = spatialIndex.x(source);
+        final var y1 = spatialIndex.y(source);
+        final var x2 = spatialIndex.x(target);
+        final var y2 = spatialIndex.y(target);
+        return Math.max(x1, x2) >= minX && Math.min(x1, x2) <= maxX && Math.max(y1, y2) >= minY
+                && Math.min(y1, y2) <= maxY;
+    }
+
+    private void appendEdge(final GraphicsContext gc, final int edge, final boolean withArrow) {
+        final var x1 = spatialIndex.x(edgeSources[edge]);
+        final var y1 = spatialIndex.y(edgeSources[edge]);
+        final var x2 = spatialIndex.x(edgeTargets[edge]);
+        final var y2 = spatialIndex.y(edgeTargets[edge]);
+
+        gc.moveTo(x1, y1);
+        gc.lineTo(x2, y2);
+
+        final var length = Math.hypot(x2 - x1, y2 - y1);
+        if (!withArrow || length <= radius) {
+            return;
+        }
+        // the arrow tip touches the border of the target vertex
+        final var dx    = (x2 - x1) / length;
+        final var dy    = (y2 - y1) / length;
+        final var tipX  = x2 - dx * radius;
+        final var tipY  = y2 - dy * radius;
+        final var baseX = tipX - dx * arrowSize * 2;
+        final var baseY = tipY - dy * arrowSize * 2;
+
+        gc.moveTo(baseX - dy * arrowSize, baseY + dx * arrowSize);
+        gc.lineTo(tipX, tipY);
+        gc.lineTo(baseX + dy * arrowSize, baseY - dx * arrowSize);
+    }
+
+    private void drawVertices(final GraphicsContext gc,
+                              final double minX,
+                              final double minY,
+                              final double maxX,
+                              final double maxY) {
+        final var detailed   = scale >= DETAIL_SCALE_THRESHOLD;
+        final var withLabels = useVertexLabel && scale >= LABEL_SCALE_THRESHOLD;
+        final var diameter   = radius * 2;
+
+        gc.setStroke(VERTEX_STROKE);
+        gc.setLineWidth(VERTEX_STROKE_WIDTH);
+        spatialIndex.query(minX, minY, maxX, maxY, id -> {
+            final var x = spatialIndex.x(id);
+            final var y = spatialIndex.y(id);
+            gc.setFill(vertices.get(id).hasStyleClass("root-vertex") ? ROOT_VERTEX_FILL : VERTEX_FILL);
+            if (detailed) {
+                gc.fillOval(x - radius, y - radius, diameter, diameter);
+                // keep the stroke inside of the vertex bounds
+                final var inset = VERTEX_STROKE_WIDTH / 2;
+                gc.strokeOval(x - radius + inset, y - radius + inset, diameter - VERTEX_STROKE_WIDTH,
+                        diameter - VERTEX_STROKE_WIDTH);
+            } else {
+                gc.fillRect(x - radius, y - radius, diameter, diameter);
+            }
+        });
+
+        for (final int highlighted : new int[] { selectedVertex, hoveredVertex }) {
+            if (highlighted >= 0) {
+                gc.setStroke(SELECTION_COLOR);
+                gc.setLineWidth(Math.max(VERTEX_STROKE_WIDTH, 2 / scale));
+                gc.strokeOval(spatialIndex.x(highlighted) - radius, spatialIndex.y(highlighted) - radius, diameter,
+                        diameter);
+            }
+        }
+        if (withLabels) {
+            gc.setFill(LABEL_COLOR);
+            gc.setFont(LABEL_FONT);
+            gc.setTextAlign(TextAlignment.CENTER);
+            gc.setTextBaseline(VPos.TOP);
+            spatialIndex.query(minX, minY, maxX, maxY, id -> gc.fillText(vertices.get(id).label(),
+                    spatialIndex.x(id), spatialIndex.y(id) + radius + 2));
+        }
+    }
+
+    private void enableMouseListeners() {
+        addEventHandler(ScrollEvent.SCROLL, event -> {
+            if (event.getDeltaY() == 0) {
+                return;
+            }
+            final var factor = event.getDeltaY() > 0 ? ZOOM_FACTOR : 1 / ZOOM_FACTOR;
+            zoomAt(event.getX(), event.getY(), factor);
+            event.consume();
+        });
+        addEventHandler(MouseEvent.MOUSE_PRESSED, event -> {
+            final var hit = pick(event.getX(), event.getY());
+            draggedVertex = allowUserMove ? hit : -1;
+            dragAnchorX   = event.getX();
+            dragAnchorY   = event.getY();
+        });
+        addEventHandler(MouseEvent.MOUSE_DRAGGED, event -> {
+            if (draggedVertex >= 0) {
+                moveVertex(draggedVertex, toGraphX(event.getX()), toGraphY(event.getY()));
+            } else {
+                translateX += event.getX() - dragAnchorX;
+                translateY += event.getY() - dragAnchorY;
+                requestRedraw();
+            }
+            dragAnchorX = event.getX();
+            dragAnchorY = event.getY();
+        });
+        addEventHandler(MouseEvent.MOUSE_RELEASED, event -> draggedVertex = -1);
+        addEventHandler(MouseEvent.MOUSE_CLICKED, event -> {
+            if (!MouseButton.PRIMARY.equals(event.getButton()) || !event.isStillSincePress()) {
+                return;
+            }
+            final var hit = pick(event.getX(), event.getY());
+            if (event.getClickCount() == 2) {
+                if (hit >= 0 && vertexClickConsumer != null) {
+                    vertexClickConsumer.accept(vertices.get(hit));
+                }
+                return;
+            }
+            selectedVertex = hit;
+            requestRedraw();
+        });
+        addEventHandler(MouseEvent.MOUSE_MOVED, event -> {
+            final var hit = pick(event.getX(), event.getY());
+            if (hit == hoveredVertex) {
+                return;
+            }
+            hoveredVertex = hit;
+            if (useVertexTooltip && hit >= 0) {
+                tooltip.setText(vertices.get(hit).label());
+                tooltip.show(this, event.getScreenX() + 12, event.getScreenY() + 12);
+            } else {
+                tooltip.hide();
+            }
+            requestRedraw();
+        });
+        addEventHandler(MouseEvent.MOUSE_EXITED, event -> {
+            hoveredVertex = -1;
+            tooltip.hide();
+            requestRedraw();
+        });
+    }
+
+    private void zoomAt(final double x, final double y, final double factor) {
+        final var newScale = clampScale(scale * factor);
+        // keep the graph point under the cursor in place
+        final var graphX = toGraphX(x);
+        final var graphY = toGraphY(y);
+
+        scale      = newScale;
+        translateX = x - graphX * scale;
+        translateY = y - graphY * scale;
+        requestRedraw();
+    }
+
+    private int pick(final double x, final double y) {
+        if (!initialized) {
+            return -1;
+        }
+        // keep vertices pickable even if they are only a few pixels large
+        final var tolerance = Math.max(radius, 4 / scale);
+        return spatialIndex.nearest(toGraphX(x), toGraphY(y), tolerance);
+    }
+
+    private double toGraphX(final double x) {
+        return (x - translateX) / scale;
+    }
+
+    private double toGraphY(final double y) {
+        return (y - translateY) / scale;
+    }
+
+    private static double clampScale(final double scale) {
+        return Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale));
+    }
+
+    private String generateVertexLabel(final V vertex) {
+        try {
+            final Class<?> clazz = vertex.getClass();
+            for (final Method method : clazz.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(SmartLabelSource.class)) {
+                    method.setAccessible(true);
+                    final var value = method.invoke(vertex);
+                    return value.toString();
+                }
+            }
+        } catch (SecurityException | IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
+            Logger.getLogger(SmartGraphCanvas.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        return vertex != null ? vertex.toString() : "<NULL>";
+    }
+
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.smartgraph.graphview;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.osgifx.console.smartgraph.graph.Vertex;
+
+/**
+ * Lightweight vertex representation used by {@link SmartGraphCanvas}. It does
+ * not create any scene graph node, the position is stored in the spatial index
+ * of the owning canvas. Implementing {@link SmartGraphVertex} allows the
+ * existing {@link SmartPlacementStrategy placement strategies} to be reused.
+ *
+ * @param <T> the type of the underlying vertex
+ */
+final class SmartGraphCanvasVertex<T> implements SmartGraphVertex<T> {
+
+    private final int                    id;
+    private final Vertex<T>              underlyingVertex;
+    private final String                 label;
+    private final double                 radius;
+    private final SmartGraphCanvas<T, ?> canvas;
+    private final List<String>           styleClasses = Lists.newArrayList();
+
+    SmartGraphCanvasVertex(final int id,
+                           final Vertex<T> underlyingVertex,
+                           final String label,
+                           final double radius,
+                           final SmartGraphCanvas<T, ?> canvas) {
+        this.id               = id;
+        this.underlyingVertex = underlyingVertex;
+        this.label            = label;
+        this.radius           = radius;
+        this.canvas           = canvas;
+    }
+
+    int id() {
+        return id;
+    }
+
+    String label() {
+        return label;
+    }
+
+    boolean hasStyleClass(final String cssClass) {
+        return styleClasses.contains(cssClass);
+    }
+
+    @Override
+    public Vertex<T> getUnderlyingVertex() {
+        return underlyingVertex;
+    }
+
+    @Override
+    public void setPosition(final double x, final double y) {
+        canvas.moveVertex(id, x, y);
+    }
+
+    @Override
+    public double getPositionCenterX() {
+        return canvas.vertexX(id);
+    }
+
+    @Override
+    public double getPositionCenterY() {
+        return canvas.vertexY(id);
+    }
+
+    @Override
+    public double getRadius() {
+        return radius;
+    }
+
+    @Override
+    public SmartStylableNode getStylableLabel() {
+        // labels are painted directly on the canvas
+        return this;
+    }
+
+    @Override
+    public void setStyle(final String css) {
+        // inline styles are not supported by the canvas renderer
+    }
+
+    @Override
+    public void setStyleClass(final String cssClass) {
+        styleClasses.clear();
+        styleClasses.add(cssClass);
+        canvas.requestRedraw();
+    }
+
+    @Override
+    public void addStyleClass(final String cssClass) {
+        styleClasses.add(cssClass);
+        canvas.requestRedraw();
+    }
+
+    @Override
+    public boolean removeStyleClass(final String cssClass) {
+        final var removed = styleClasses.remove(cssClass);
+        canvas.requestRedraw();
+        return removed;
+    }
+
+}
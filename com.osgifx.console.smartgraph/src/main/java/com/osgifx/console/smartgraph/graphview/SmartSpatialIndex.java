@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.smartgraph.graphview;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Uniform grid based spatial index over the vertex positions of a
+ * {@link SmartGraphCanvas}. Vertices are identified by their index and the
+ * index maintains a copy of their positions, so that range queries (viewport
+ * culling) and nearest-neighbour queries (hit testing) only visit the grid
+ * cells that overlap the queried area.
+ */
+final class SmartSpatialIndex {
+
+    private final double             cellSize;
+    private final double[]           xs;
+    private final double[]           ys;
+    private final Map<Long, int[]>   cells;
+    private final Map<Long, Integer> cellSizes;
+
+    SmartSpatialIndex(final int capacity, final double cellSize) {
+        this.cellSize  = cellSize;
+        this.xs        = new double[capacity];
+        this.ys        = new double[capacity];
+        this.cells     = Maps.newHashMap();
+        this.cellSizes = Maps.newHashMap();
+    }
+
+    void insert(final int id, final double x, final double y) {
+        xs[id] = x;
+        ys[id] = y;
+
+        final var key   = key(cell(x), cell(y));
+        final var size  = cellSizes.getOrDefault(key, 0);
+        var       array = cells.get(key);
+        if (array == null) {
+            array = new int[4];
+        } else if (array.length == size) {
+            array = Arrays.copyOf(array, size * 2);
+        }
+        array[size] = id;
+        cells.put(key, array);
+        cellSizes.put(key, size + 1);
+    }
+
+    void update(final int id, final double x, final double y) {
+        final var oldKey = key(cell(xs[id]), cell(ys[id]));
+        final var newKey = key(cell(x), cell(y));
+        if (oldKey == newKey) {
+            xs[id] = x;
+            ys[id] = y;
+            return;
+        }
+        remove(id, oldKey);
+        insert(id, x, y);
+    }
+
+    double x(final int id) {
+        return xs[id];
+    }
+
+    double y(final int id) {
+        return ys[id];
+    }
+
+    /**
+     * Visits all vertices whose positions reside in the given rectangle.
+     */
+    void query(final double minX,
+               final double minY,
+               final double maxX,
+               final double maxY,
+               final IntConsumer consumer) {
+        final long fromX = cell(minX);
+        final long toX   = cell(maxX);
+        final long fromY = cell(minY);
+        final long toY   = cell(maxY);
+
+        // when zoomed out, the viewport covers more cells than are occupied
+        if ((toX - fromX + 1) * (toY - fromY + 1) > cells.size()) {
+            cells.forEach((key, ids) -> {
+                final int size = cellSizes.get(key);
+                for (var i = 0; i < size; i++) {
+                    final var id = ids[i];
+                    if (xs[id] >= minX && xs[id] <= maxX && ys[id] >= minY && ys[id] <= maxY) {
+                        consumer.accept(id);
+                    }
+                }
+            });
+            return;
+        }
+        for (var cx = fromX; cx <= toX; cx++) {
+            for (var cy = fromY; cy <= toY; cy++) {
+                final var key = key(cx, cy);
+                final var ids = cells.get(key);
+                if (ids == null) {
+                    continue;
+                }
+                final int size = cellSizes.get(key);
+                for (var i = 0; i < size; i++) {
+                    final var id = ids[i];
+                    if (xs[id] >= minX && xs[id] <= maxX && ys[id] >= minY && ys[id] <= maxY) {
+                        consumer.accept(id);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the vertex closest to the given point within the given radius or
+     * {@code -1} if there is none.
+     */
+    int nearest(final double x, final double y, final double radius) {
+        final var result = new int[] { -1 };
+        final var best   = new double[] { radius * radius };
+        query(x - radius, y - radius, x + radius, y + radius, id -> {
+            final var dx       = xs[id] - x;
+            final var dy       = ys[id] - y;
+            final var distance = dx * dx + dy * dy;
+            if (distance <= best[0]) {
+                best[0]   = distance;
+                result[0] = id;
+            }
+        });
+        return result[0];
+    }
+
+    private void remove(final int id, final long key) {
+        final var ids = cells.get(key);
+        if (ids == null) {
+            return;
+        }
+        final int size = cellSizes.get(key);
+        for (var i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                ids[i] = ids[size - 1];
+                if (size == 1) {
+                    cells.remove(key);
+                    cellSizes.remove(key);
+                } else {
+                    cellSizes.put(key, size - 1);
+                }
+                return;
+            }
+        }
+    }
+
+    private long cell(final double coordinate) {
+        return (long) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(final long cx, final long cy) {
+        return cx << 32 ^ cy & 0xFFFFFFFFL;
+    }
+
+}
@@ -0,0 +1,346 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.supervisor.fleet;
+
+import static com.osgifx.console.supervisor.Supervisor.RpcType.MQTT_RPC;
+import static com.osgifx.console.supervisor.Supervisor.RpcType.SOCKET_RPC;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.security.KeyStore;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+
+import org.osgi.framework.BundleContext;
+
+import com.osgifx.console.agent.Agent;
+import com.osgifx.console.agent.dto.XEventDTO;
+import com.osgifx.console.agent.dto.XLogEntryDTO;
+import com.osgifx.console.agent.rpc.RemoteRPC;
+import com.osgifx.console.agent.rpc.mqtt.MqttRPC;
+import com.osgifx.console.agent.rpc.socket.SocketRPC;
+import com.osgifx.console.supervisor.EventListener;
+import com.osgifx.console.supervisor.LogEntryListener;
+import com.osgifx.console.supervisor.MqttConnection;
+import com.osgifx.console.supervisor.SocketConnection;
+import com.osgifx.console.supervisor.Supervisor;
+import com.osgifx.console.supervisor.rpc.AbstractRpcSupervisor;
+
+/**
+ * A pooled connection to a single agent of the fleet. The connection is
+ * established lazily and re-established as soon as it is found to be broken.
+ * <p>
+ * The monitor of the connection is never held while connecting, such that
+ * closing or checking the connection doesn't wait for an unreachable agent.
+ * Concurrent callers share the pending attempt.
+ */
+final class FleetConnection {
+
+    private static final int DEFAULT_CONNECT_TIMEOUT_IN_MILLIS = 10_000;
+
+    private final String           name;
+    private final BundleContext    context;
+    private final SocketConnection socketConnection;
+    private final MqttConnection   mqttConnection;
+    private final AtomicInteger    pendingQueries = new AtomicInteger();
+
+    private RemoteRPC<Supervisor, Agent>                    rpc;
+    private CompletableFuture<RemoteRPC<Supervisor, Agent>> connecting;
+    private Socket                                          connectingSocket;
+
+    FleetConnection(final String name, final SocketConnection socketConnection) {
+        this.name             = name;
+        this.context          = null;
+        this.socketConnection = socketConnection;
+        this.mqttConnection   = null;
+    }
+
+    FleetConnection(final String name, final BundleContext context, final MqttConnection mqttConnection) {
+        this.name             = name;
+        this.context          = context;
+        this.socketConnection = null;
+        this.mqttConnection   = mqttConnection;
+    }
+
+    String name() {
+        return name;
+    }
+
+    AtomicInteger pendingQueries() {
+        return pendingQueries;
+    }
+
+    synchronized boolean isOpen() {
+        return rpc != null && rpc.isOpen();
+    }
+
+    /**
+     * Returns the remote agent and connects to it first if required
+     *
+     * @param timeoutInMillis the maximum time to wait for the connection
+     */
+    Agent agent(final long timeoutInMillis) throws Exception {
+        final CompletableFuture<RemoteRPC<Supervisor, Agent>> attempt;
+        final boolean                                         owner;
+        synchronized (this) {
+            if (rpc != null && rpc.isOpen()) {
+                return rpc.getRemote();
+            }
+            owner = connecting == null;
+            if (owner) {
+                connecting = new CompletableFuture<>();
+            }
+            attempt = connecting;
+        }
+        if (owner) {
+            connect(attempt, timeoutInMillis);
+        }
+        try {
+            return attempt.get(timeoutInMillis, MILLISECONDS).getRemote();
+        } catch (final ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } catch (final TimeoutException e) {
+            throw new TimeoutException("Agent could not be connected within " + timeoutInMillis + " ms");
+        }
+    }
+
+    void connect() throws Exception {
+        agent(connectTimeout(Long.MAX_VALUE));
+    }
+
+    void close() {
+        final RemoteRPC<Supervisor, Agent> current;
+        final Socket                       socket;
+        synchronized (this) {
+            current          = rpc;
+            socket           = connectingSocket;
+            rpc              = null;
+            connecting       = null;
+            connectingSocket = null;
+        }
+        if (socket != null) {
+            // aborts the pending attempt
+            closeQuietly(socket);
+        }
+        if (current != null) {
+            try {
+                current.close();
+            } catch (final IOException e) {
+                // nothing to do
+            }
+        }
+    }
+
+    private void connect(final CompletableFuture<RemoteRPC<Supervisor, Agent>> attempt, final long timeoutInMillis) {
+        RemoteRPC<Supervisor, Agent> connected = null;
+        try {
+            connected = open(attempt, timeoutInMillis);
+            final RemoteRPC<Supervisor, Agent> broken;
+            synchronized (this) {
+                if (connecting != attempt) {
+                    throw new IOException("Connection to agent '" + name + "' has been closed");
+                }
+                broken     = rpc;
+                rpc        = connected;
+                connecting = null;
+            }
+            if (broken != null) {
+                try {
+                    broken.close();
+                } catch (final IOException e) {
+                    // nothing to do
+                }
+            }
+            attempt.complete(connected);
+        } catch (final Exception e) {
+            synchronized (this) {
+                if (connecting == attempt) {
+                    connecting = null;
+                }
+            }
+            if (connected != null) {
+                try {
+                    connected.close();
+                } catch (final IOException ex) {
+                    // nothing to do
+                }
+            }
+            attempt.completeExceptionally(e);
+        }
+    }
+
+    private RemoteRPC<Supervisor, Agent> open(final CompletableFuture<RemoteRPC<Supervisor, Agent>> attempt,
+                                              final long timeoutInMillis) throws Exception {
+        final var                    endpoint = new FleetEndpoint();
+        RemoteRPC<Supervisor, Agent> remoteRPC;
+        if (socketConnection != null) {
+            final var socket = createSocket();
+            synchronized (this) {
+                if (connecting != attempt) {
+                    closeQuietly(socket);
+                    throw new IOException("Connection to agent '" + name + "' has been closed");
+                }
+                connectingSocket = socket;
+            }
+            try {
+                socket.connect(new InetSocketAddress(socketConnection.host(), socketConnection.port()),
+                        connectTimeout(timeoutInMillis));
+            } catch (final Exception e) {
+                closeQuietly(socket);
+                throw e;
+            } finally {
+                synchronized (this) {
+                    if (connectingSocket == socket) {
+                        connectingSocket = null;
+                    }
+                }
+            }
+            final var executor = AbstractRpcSupervisor.newRpcExecutor("fx-fleet-socket-" + name + "-");
+            remoteRPC = new SocketRPC<>(Agent.class, endpoint, socket, executor);
+        } else {
+            final var executor = AbstractRpcSupervisor.newRpcExecutor("fx-fleet-mqtt-" + name + "-");
+            remoteRPC = new MqttRPC<>(context, Agent.class, endpoint, mqttConnection.subTopic(),
+                                      mqttConnection.pubTopic(), executor);
+        }
+        remoteRPC.open();
+        return remoteRPC;
+    }
+
+    private static void closeQuietly(final Socket socket) {
+        try {
+            socket.close();
+        } catch (final IOException e) {
+            // nothing to do
+        }
+    }
+
+    /**
+     * A configured timeout of {@code 0} would wait forever for an unreachable
+     * agent, hence a finite default applies
+     */
+    private int connectTimeout(final long timeoutInMillis) {
+        final int configured = socketConnection != null && socketConnection.timeout() > 0 ? socketConnection.timeout()
+                : DEFAULT_CONNECT_TIMEOUT_IN_MILLIS;
+        return (int) Math.max(1, Math.min(configured, timeoutInMillis));
+    }
+
+    /**
+     * Creates the socket using a trust store of its own instead of the global
+     * system properties as multiple connections are established concurrently.
+     */
+    private Socket createSocket() throws Exception {
+        final var trustStore         = socketConnection.trustStore();
+        final var trustStorePassword = socketConnection.trustStorePassword();
+        if (trustStore == null || trustStorePassword == null) {
+            // plain sockets are backed by channels to allow NIO transfers
+            return SocketChannel.open().socket();
+        }
+        final var keyStore = KeyStore.getInstance("JKS");
+        try (final var in = new FileInputStream(trustStore)) {
+            keyStore.load(in, trustStorePassword.toCharArray());
+        }
+        final var trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(keyStore);
+
+        final var sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, trustManagerFactory.getTrustManagers(), null);
+        return sslContext.getSocketFactory().createSocket();
+    }
+
+    /**
+     * The local endpoint of the connection. The fleet only issues queries and
+     * is not interested in any callbacks of the agent.
+     */
+    private final class FleetEndpoint implements Supervisor {
+
+        @Override
+        public RpcType getType() {
+            return socketConnection != null ? SOCKET_RPC : MQTT_RPC;
+        }
+
+        @Override
+        public void connect(final SocketConnection socketConnection) throws Exception {
+            throw new UnsupportedOperationException("Fleet connections are managed by the fleet manager");
+        }
+
+        @Override
+        public void connect(final MqttConnection mqttConnection) throws Exception {
+            throw new UnsupportedOperationException("Fleet connections are managed by the fleet manager");
+        }
+
+        @Override
+        public void disconnect() throws Exception {
+            close();
+        }
+
+        @Override
+        public boolean stdout(final String out) throws Exception {
+            return false;
+        }
+
+        @Override
+        public boolean stderr(final String out) throws Exception {
+            return false;
+        }
+
+        @Override
+        public void onOSGiEvent(final XEventDTO event) {
+            // not required
+        }
+
+        @Override
+        public void logged(final XLogEntryDTO event) {
+            // not required
+        }
+
+        @Override
+        public void addOSGiEventListener(final EventListener eventListener) {
+            throw new UnsupportedOperationException("Fleet connections do not support event listeners");
+        }
+
+        @Override
+        public void removeOSGiEventListener(final EventListener eventListener) {
+            throw new UnsupportedOperationException("Fleet connections do not support event listeners");
+        }
+
+        @Override
+        public void addOSGiLogListener(final LogEntryListener logEntryListener) {
+            throw new UnsupportedOperationException("Fleet connections do not support log listeners");
+        }
+
+        @Override
+        public void removeOSGiLogListener(final LogEntryListener logEntryListener) {
+            throw new UnsupportedOperationException("Fleet connections do not support log listeners");
+        }
+
+        @Override
+        public Agent getAgent() {
+            synchronized (FleetConnection.this) {
+                return rpc == null ? null : rpc.getRemote();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,253 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.supervisor.fleet;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.osgifx.console.supervisor.fleet.AgentResult.Status.DISCONNECTED;
+import static com.osgifx.console.supervisor.fleet.AgentResult.Status.ERROR;
+import static com.osgifx.console.supervisor.fleet.AgentResult.Status.SUCCESS;
+import static com.osgifx.console.supervisor.fleet.AgentResult.Status.TIMEOUT;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.osgi.service.component.annotations.ReferenceCardinality.OPTIONAL;
+import static org.osgi.service.component.annotations.ReferencePolicyOption.GREEDY;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory.Builder;
+import org.eclipse.fx.core.log.FluentLogger;
+import org.eclipse.fx.core.log.LoggerFactory;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.messaging.MessageSubscription;
+
+import com.google.common.base.Throwables;
+import com.osgifx.console.agent.Agent;
+import com.osgifx.console.supervisor.MqttConnection;
+import com.osgifx.console.supervisor.SocketConnection;
+
+@Component
+public final class FleetManagerProvider implements FleetManager {
+
+    private static final int QUERY_POOL_THREADS_SIZE               = 64;
+    private static final int QUERY_POOL_KEEP_ALIVE_TIME_IN_SECONDS = 60;
+
+    @Reference
+    private LoggerFactory factory;
+
+    @Reference(cardinality = OPTIONAL, policyOption = GREEDY)
+    private volatile MessageSubscription subscriber;
+
+    private FluentLogger             logger;
+    private BundleContext            context;
+    private ExecutorService          queryExecutor;
+    private ScheduledExecutorService timeoutScheduler;
+
+    private final Map<String, FleetConnection> connections = new ConcurrentHashMap<>();
+
+    @Activate
+    void activate(final BundleContext context) {
+        this.context = context;
+        logger       = FluentLogger.of(factory.createLogger(getClass().getName()));
+
+        final var queryThreadFactory   = new Builder().namingPattern("fx-fleet-query-%d").daemon(true).build();
+        final var timeoutThreadFactory = new Builder().namingPattern("fx-fleet-timeout").daemon(true).build();
+        final var executor             = new ThreadPoolExecutor(QUERY_POOL_THREADS_SIZE, QUERY_POOL_THREADS_SIZE,
+                                                                QUERY_POOL_KEEP_ALIVE_TIME_IN_SECONDS, SECONDS,
+                                                                new LinkedBlockingQueue<>(), queryThreadFactory);
+        executor.allowCoreThreadTimeOut(true);
+
+        queryExecutor    = executor;
+        timeoutScheduler = Executors.newSingleThreadScheduledExecutor(timeoutThreadFactory);
+    }
+
+    @Deactivate
+    void deactivate() {
+        clear();
+        queryExecutor.shutdownNow();
+        timeoutScheduler.shutdownNow();
+    }
+
+    @Override
+    public CompletableFuture<Void> addAgent(final String name, final SocketConnection connection) {
+        checkNotNull(name, "'name' cannot be null");
+        checkNotNull(connection, "'connection' cannot be null");
+
+        return register(new FleetConnection(name, connection));
+    }
+
+    @Override
+    public CompletableFuture<Void> addAgent(final String name, final MqttConnection connection) {
+        checkNotNull(name, "'name' cannot be null");
+        checkNotNull(connection, "'connection' cannot be null");
+
+        if (subscriber == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("No MQTT broker connection available"));
+        }
+        return register(new FleetConnection(name, context, connection));
+    }
+
+    @Override
+    public void removeAgent(final String name) {
+        final var connection = connections.remove(name);
+        if (connection != null) {
+            connection.close();
+            logger.atInfo().log("Agent '%s' has been removed from the fleet", name);
+        }
+    }
+
+    @Override
+    public void clear() {
+        Set.copyOf(connections.keySet()).forEach(this::removeAgent);
+    }
+
+    @Override
+    public Set<String> getAgents() {
+        return Collections.unmodifiableSet(new TreeSet<>(connections.keySet()));
+    }
+
+    @Override
+    public boolean isConnected(final String name) {
+        final var connection = connections.get(name);
+        return connection != null && connection.isOpen();
+    }
+
+    @Override
+    public <R> CompletableFuture<FleetResult<R>> query(final Function<Agent, R> query,
+                                                       final long timeoutInMillis,
+                                                       final BiConsumer<AgentResult<R>, FleetResult<R>> listener) {
+        checkNotNull(query, "'query' cannot be null");
+
+        final var members = List.copyOf(connections.values());
+        final var results = new ArrayList<AgentResult<R>>(members.size());
+        final var promise = new CompletableFuture<FleetResult<R>>();
+
+        if (members.isEmpty()) {
+            promise.complete(new FleetResult<>(List.of(), 0));
+            return promise;
+        }
+        for (final FleetConnection member : members) {
+            final var completed = new AtomicBoolean();
+            final var startTime = System.nanoTime();
+
+            final BiConsumer<AgentResult.Status, Object> reporter = (status, outcome) -> {
+                if (!completed.compareAndSet(false, true)) {
+                    return;
+                }
+                final long           duration = MILLISECONDS.convert(System.nanoTime() - startTime, NANOSECONDS);
+                final AgentResult<R> result   = toResult(member.name(), status, outcome, duration);
+
+                FleetResult<R> snapshot;
+                synchronized (results) {
+                    results.add(result);
+                    snapshot = new FleetResult<>(results, members.size());
+                }
+                notifyListener(listener, result, snapshot);
+                if (snapshot.isComplete()) {
+                    promise.complete(snapshot);
+                }
+            };
+            if (!member.pendingQueries().compareAndSet(0, 1)) {
+                // the agent has not even answered the previous query
+                reporter.accept(TIMEOUT, "Agent is still busy with a previous query");
+                continue;
+            }
+            queryExecutor.execute(() -> {
+                try {
+                    // connecting counts against the timeout of the agent
+                    final var agent = member.agent(timeoutInMillis);
+                    final var value = query.apply(agent);
+                    if (value == null && !member.isOpen()) {
+                        reporter.accept(DISCONNECTED, "Connection to agent has been lost");
+                    } else {
+                        reporter.accept(SUCCESS, value);
+                    }
+                } catch (final Exception e) {
+                    logger.atDebug().withException(e).log("Fleet query failed on agent '%s'", member.name());
+                    reporter.accept(member.isOpen() ? ERROR : DISCONNECTED, Throwables.getRootCause(e).getMessage());
+                } finally {
+                    member.pendingQueries().decrementAndGet();
+                }
+            });
+            // the blocked query thread is deliberately not interrupted as the
+            // interruption would tear down the RPC reader of the connection
+            timeoutScheduler.schedule(
+                    () -> reporter.accept(TIMEOUT, "Agent did not respond within " + timeoutInMillis + " ms"),
+                    timeoutInMillis, MILLISECONDS);
+        }
+        return promise;
+    }
+
+    private CompletableFuture<Void> register(final FleetConnection connection) {
+        final var previous = connections.put(connection.name(), connection);
+        if (previous != null) {
+            previous.close();
+        }
+        return CompletableFuture.runAsync(() -> {
+            try {
+                connection.connect();
+                logger.atInfo().log("Agent '%s' has been added to the fleet", connection.name());
+            } catch (final Exception e) {
+                logger.atWarning().withException(e).log("Agent '%s' could not be connected", connection.name());
+                throw new IllegalStateException(e);
+            }
+        }, queryExecutor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> AgentResult<R> toResult(final String agent,
+                                               final AgentResult.Status status,
+                                               final Object outcome,
+                                               final long duration) {
+        if (status == SUCCESS) {
+            return new AgentResult<>(agent, status, (R) outcome, null, duration);
+        }
+        return new AgentResult<>(agent, status, null, (String) outcome, duration);
+    }
+
+    private <R> void notifyListener(final BiConsumer<AgentResult<R>, FleetResult<R>> listener,
+                                    final AgentResult<R> result,
+                                    final FleetResult<R> snapshot) {
+        if (listener == null) {
+            return;
+        }
+        try {
+            listener.accept(result, snapshot);
+        } catch (final Exception e) {
+            logger.atError().withException(e).log("Fleet query listener failed");
+        }
+    }
+
+}
@@ -17,28 +17,26 @@ package com.osgifx.console.supervisor.rpc;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static com.hivemq.client.mqtt.mqtt5.message.connect.Mqtt5ConnectRestrictions.DEFAULT_MAXIMUM_PACKET_SIZE;
 import static com.hivemq.client.mqtt.mqtt5.message.connect.Mqtt5ConnectRestrictions.DEFAULT_SEND_MAXIMUM_PACKET_SIZE;
 import static com.osgifx.console.supervisor.rpc.AbstractRpcSupervisor.MqttConfig.MAX_CONCURRENT_MSG_TO_RECEIVE;
 import static com.osgifx.console.supervisor.rpc.AbstractRpcSupervisor.MqttConfig.MAX_CONCURRENT_MSG_TO_SEND;
 import static com.osgifx.console.supervisor.rpc.RpcSupervisor.MQTT_CONNECTION_LISTENER_FILTER;
-import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.osgi.service.condition.Condition.CONDITION_ID;
 import static org.osgi.service.condition.Condition.INSTANCE;
 
 import java.net.ConnectException;
 import java.net.InetSocketAddress;
-import java.net.Socket;
+import java.nio.channels.SocketChannel;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.Executors;
 
 import javax.net.ssl.SSLSocketFactory;
 
 import org.apache.aries.component.dsl.OSGi;
 import org.apache.aries.component.dsl.OSGiResult;
-import org.apache.commons.lang3.concurrent.BasicThreadFactory.Builder;
 import org.osgi.framework.BundleContext;
 import org.osgi.service.cm.ConfigurationAdmin;
 import org.osgi.service.condition.Condition;
@@ -100,16 +98,16 @@ public abstract class AbstractRpcSupervisor<S, A> {
     private static final int    SOCKET_RPC_BACKOFF_LIMIT      = 4;
     private static final double SOCKET_RPC_BACKOFF_MULTIPLIER = 1.5d;
 
-    private static final int RPC_POOL_CORE_THREADS_SIZE          = 10;
-    private static final int RPC_POOL_MAX_THREADS_SIZE           = 30;
-    private static final int RPC_POOL_KEEP_ALIVE_TIME_IN_SECONDS = 60;
+    private volatile A                 agent;
+    protected int                      port;
+    protected int                      timeout;
+    protected String                   host;
+    protected volatile RemoteRPC<S, A> remoteRPC;
+    protected volatile int             exitCode;
 
-    private A                 agent;
-    protected int             port;
-    protected int             timeout;
-    protected String          host;
-    protected RemoteRPC<S, A> remoteRPC;
-    protected volatile int    exitCode;
+    private Class<A>         agentType;
+    private S                supervisorEndpoint;
+    private SocketConnection socketConnection;
 
     protected void connectToSocket(final Class<A> agent,
                                    final S supervisor,
@@ -117,6 +115,10 @@ public abstract class AbstractRpcSupervisor<S, A> {
 
         checkArgument(timeout > -1, "timeout cannot be less than -1");
         checkNotNull(supervisor, "'supervisor' cannot be null");
+
+        this.agentType          = agent;
+        this.supervisorEndpoint = supervisor;
+        this.socketConnection   = socketConnection;
         checkNotNull(socketConnection.host(), "'host' cannot be null");
 
         host    = socketConnection.host();
@@ -136,10 +138,11 @@ public abstract class AbstractRpcSupervisor<S, A> {
 
                             sf = (SSLSocketFactory) SSLSocketFactory.getDefault();
                         }
-                        final var socket = sf == null ? new Socket() : sf.createSocket();
+                        // plain sockets are backed by channels to allow NIO transfers
+                        final var socket = sf == null ? SocketChannel.open().socket() : sf.createSocket();
                         socket.connect(new InetSocketAddress(host, port), Math.max(timeout, 0));
 
-                        final var executor = newFixedThreadPool("fx-supervisor-socket-%d");
+                        final var executor = newRpcExecutor("fx-supervisor-socket-");
                         remoteRPC = new SocketRPC<>(agent, supervisor, socket, executor);
                         this.setRemoteRPC(remoteRPC);
                         remoteRPC.open();
@@ -158,6 +161,8 @@ public abstract class AbstractRpcSupervisor<S, A> {
                                        final MqttConnection connection,
                                        final String conditionID) throws Exception {
 
+        socketConnection = null;
+
         final var ch = new ConfigHelper<>(MqttConfig.class, configurationAdmin);
 
         ch.read(MqttMessageConstants.ConfigurationPid.CLIENT);
@@ -200,7 +205,7 @@ public abstract class AbstractRpcSupervisor<S, A> {
         final var result = OSGi.register(Condition.class, INSTANCE, Map.of(CONDITION_ID, conditionID))
                 .run(bundleContext);
 
-        final var executor = newFixedThreadPool("fx-supervisor-mqtt-%d");
+        final var executor = newRpcExecutor("fx-supervisor-mqtt-");
         remoteRPC = new MqttRPC<>(bundleContext, agent, supervisor, connection.subTopic(), connection.pubTopic(),
                                   executor);
         this.setRemoteRPC(remoteRPC);
@@ -209,9 +214,42 @@ public abstract class AbstractRpcSupervisor<S, A> {
         return result;
     }
 
+    /**
+     * Re-establishes the last socket connection using the same retry policy as the
+     * initial connection attempt
+     */
+    protected void reconnectToSocket() throws Exception {
+        checkState(socketConnection != null, "No socket connection to re-establish");
+        connectToSocket(agentType, supervisorEndpoint, socketConnection);
+    }
+
+    /**
+     * Invoked as soon as the link of the current connection has been found dead
+     * by its heartbeat or has been terminated unexpectedly
+     *
+     * @param reason the reason of the failure
+     */
+    protected abstract void linkDead(String reason);
+
+    /**
+     * Stops notifying about the link failures of the current connection, for
+     * example, before the connection gets closed intentionally
+     */
+    protected void detachLinkListener() {
+        if (remoteRPC != null) {
+            remoteRPC.setLinkListener(null);
+        }
+    }
+
     private void setRemoteRPC(final RemoteRPC<S, A> rpc) {
         agent     = rpc.getRemote();
         remoteRPC = rpc;
+        rpc.setLinkListener(reason -> {
+            // ignore the notifications of already replaced connections
+            if (remoteRPC == rpc) {
+                linkDead(reason);
+            }
+        });
     }
 
     public A getAgent() {
@@ -228,13 +266,16 @@ public abstract class AbstractRpcSupervisor<S, A> {
         System.clearProperty("javax.net.ssl.trustStoreType");
     }
 
-    public static ExecutorService newFixedThreadPool(final String namingPattern) {
-        final var threadFactory = new Builder().namingPattern(namingPattern).daemon(true).build();
-        final var executor      = new ThreadPoolExecutor(RPC_POOL_CORE_THREADS_SIZE, RPC_POOL_MAX_THREADS_SIZE,
-                                                         RPC_POOL_KEEP_ALIVE_TIME_IN_SECONDS, SECONDS,
-                                                         new LinkedBlockingQueue<>(), threadFactory);
-        executor.allowCoreThreadTimeOut(true);
-        return executor;
+    /**
+     * Creates the executor that dispatches the incoming remote calls of a single
+     * connection. Every call is dispatched in its own virtual thread, hence calls
+     * blocked on other remote calls don't occupy any platform thread.
+     *
+     * @param namePrefix the prefix of the names of the threads
+     * @return the executor
+     */
+    public static ExecutorService newRpcExecutor(final String namePrefix) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 0).factory());
     }
 
 }
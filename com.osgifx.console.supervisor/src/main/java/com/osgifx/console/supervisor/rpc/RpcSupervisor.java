@@ -82,6 +82,9 @@ public final class RpcSupervisor extends AbstractRpcSupervisor<Supervisor, Agent
             + MQTT_CONNECTION_LISTENER_FILTER_VALUE;
     public static final String MQTT_CONNECTION_LISTENER_FILTER       = "(" + MQTT_CONNECTION_LISTENER_FILTER_PROP + ")";
 
+    // the event property the e4 event broker reads the event data from
+    private static final String EVENT_DATA_PROPERTY = "org.eclipse.e4.data";
+
     private Appendable                 stdout;
     private Appendable                 stderr;
     private int                        shell = -100;
@@ -161,7 +164,7 @@ public final class RpcSupervisor extends AbstractRpcSupervisor<Supervisor, Agent
             if (subscriber != null && !Strings.isNullOrEmpty(lwtTopic)) {
                 subscriber.subscribe(lwtTopic).forEach(t -> {
                     logger.atInfo().log("Server notified about the disconnection of the remote agent");
-                    sendEvent(AGENT_DISCONNECTED_EVENT_TOPIC);
+                    sendEvent(AGENT_DISCONNECTED_EVENT_TOPIC, "");
                 });
             }
         } catch (final InterruptedException e) {
@@ -266,21 +269,15 @@ public final class RpcSupervisor extends AbstractRpcSupervisor<Supervisor, Agent
         final Thread stdin = new Thread("stdin") {
             @Override
             public void run() {
-                final var sb = new StringBuilder();
+                final var buffer = new char[8192];
                 while (!isInterrupted()) {
                     try {
-                        if (isr.ready()) {
-                            final var read = isr.read();
-                            if (read < 0) {
-                                return;
-                            }
-                            sb.append((char) read);
-                        } else if (sb.length() == 0) {
-                            sleep(100);
-                        } else {
-                            getAgent().stdin(sb.toString());
-                            sb.setLength(0);
+                        // blocks until input is available and forwards whatever has been read
+                        final var read = isr.read(buffer);
+                        if (read < 0) {
+                            return;
                         }
+                        getAgent().stdin(new String(buffer, 0, read));
                     } catch (final Exception e) {
                         Thread.currentThread().interrupt();
                         e.printStackTrace();
@@ -316,6 +313,7 @@ public final class RpcSupervisor extends AbstractRpcSupervisor<Supervisor, Agent
 
     @Override
     public void disconnect() throws Exception {
+        detachLinkListener();
         if (isOpen()) {
             getAgent().disconnect();
             remoteRPC.close();
@@ -358,9 +356,49 @@ public final class RpcSupervisor extends AbstractRpcSupervisor<Supervisor, Agent
         return false;
     }
 
+    @Override
+    protected void linkDead(final String reason) {
+        logger.atWarning().log("Connection to the remote agent is dead: %s", reason);
+        if (getType() == MQTT_RPC) {
+            // the broker connection is still up, the agent has to show up again by itself
+            sendEvent(AGENT_DISCONNECTED_EVENT_TOPIC, reason);
+            return;
+        }
+        final var reconnect = new Thread(() -> {
+            try {
+                reconnectToSocket();
+                restoreSession();
+                logger.atInfo().log("Connection to the remote agent has been re-established");
+            } catch (final Exception e) {
+                logger.atError().withException(e).log("Connection to the remote agent cannot be re-established");
+                sendEvent(AGENT_DISCONNECTED_EVENT_TOPIC, reason);
+            }
+        }, "fx-supervisor-reconnect");
+        reconnect.setDaemon(true);
+        reconnect.start();
+    }
+
+    private void restoreSession() throws Exception {
+        final var agent = getAgent();
+        if (stdout != null || stderr != null) {
+            agent.redirect(shell);
+        }
+        if (!eventListeners.isEmpty()) {
+            agent.enableReceivingEvent();
+        }
+        if (!logEntryListeners.isEmpty()) {
+            agent.enableReceivingLog();
+        }
+    }
+
     private void sendEvent(final String topic) {
         final var event = new Event(topic, Map.of());
         eventAdmin.postEvent(event);
     }
 
+    private void sendEvent(final String topic, final String data) {
+        final var event = new Event(topic, Map.of(EVENT_DATA_PROPERTY, data));
+        eventAdmin.postEvent(event);
+    }
+
 }
@@ -38,20 +38,28 @@ import com.osgifx.console.agent.dto.ConfigValue;
 import com.osgifx.console.agent.dto.DmtDataType;
 import com.osgifx.console.agent.dto.RuntimeDTO;
 import com.osgifx.console.agent.dto.XBundleDTO;
+import com.osgifx.console.agent.dto.XBundleLifecycleDTO;
 import com.osgifx.console.agent.dto.XBundleLoggerContextDTO;
+import com.osgifx.console.agent.dto.XClassloaderHistogramDTO;
+import com.osgifx.console.agent.dto.XCliOutputDTO;
 import com.osgifx.console.agent.dto.XComponentDTO;
+import com.osgifx.console.agent.dto.XConfigurationBatchDTO;
 import com.osgifx.console.agent.dto.XConfigurationDTO;
 import com.osgifx.console.agent.dto.XDmtNodeDTO;
+import com.osgifx.console.agent.dto.XExtensionChunkDTO;
+import com.osgifx.console.agent.dto.XGogoOutputDTO;
 import com.osgifx.console.agent.dto.XHealthCheckDTO;
 import com.osgifx.console.agent.dto.XHealthCheckResultDTO;
 import com.osgifx.console.agent.dto.XHeapUsageDTO;
 import com.osgifx.console.agent.dto.XHttpComponentDTO;
 import com.osgifx.console.agent.dto.XMemoryInfoDTO;
+import com.osgifx.console.agent.dto.XPackageIndexDTO;
 import com.osgifx.console.agent.dto.XPropertyDTO;
 import com.osgifx.console.agent.dto.XResultDTO;
 import com.osgifx.console.agent.dto.XRoleDTO;
 import com.osgifx.console.agent.dto.XRoleDTO.Type;
 import com.osgifx.console.agent.dto.XServiceDTO;
+import com.osgifx.console.agent.dto.XStartupTimelineDTO;
 import com.osgifx.console.agent.dto.XThreadDTO;
 import com.osgifx.console.dto.SnapshotDTO;
 
@@ -107,6 +115,21 @@ public final class SnapshotAgent implements Agent {
         return null;
     }
 
+    @Override
+    public XBundleLifecycleDTO startBundles(final long... id) {
+        return null;
+    }
+
+    @Override
+    public XBundleLifecycleDTO stopBundles(final long... id) {
+        return null;
+    }
+
+    @Override
+    public XStartupTimelineDTO getStartupTimeline() {
+        return null;
+    }
+
     @Override
     public String uninstall(final long... id) throws Exception {
         return null;
@@ -132,11 +155,41 @@ public final class SnapshotAgent implements Agent {
         return null;
     }
 
+    @Override
+    public String startGogoCommand(final String command) throws Exception {
+        return null;
+    }
+
+    @Override
+    public XGogoOutputDTO pollGogoCommand(final String executionId, final long timeoutInMillis) throws Exception {
+        return null;
+    }
+
+    @Override
+    public boolean cancelGogoCommand(final String executionId) {
+        return false;
+    }
+
     @Override
     public String execCliCommand(final String command) {
         return null;
     }
 
+    @Override
+    public String startCliCommand(final String command) {
+        return null;
+    }
+
+    @Override
+    public XCliOutputDTO pollCliCommand(final String executionId, final long timeoutInMillis) throws Exception {
+        return null;
+    }
+
+    @Override
+    public boolean cancelCliCommand(final String executionId) {
+        return false;
+    }
+
     @Override
     public void disconnect() throws Exception {
         // nothing to do
@@ -152,6 +205,12 @@ public final class SnapshotAgent implements Agent {
         return snapshotDTO.bundles;
     }
 
+    @Override
+    public XPackageIndexDTO getPackageIndex() {
+        // the packages are derived from the bundles of the snapshot
+        return null;
+    }
+
     @Override
     public List<XComponentDTO> getAllComponents() {
         return snapshotDTO.components;
@@ -217,6 +276,11 @@ public final class SnapshotAgent implements Agent {
         return Collections.emptyMap();
     }
 
+    @Override
+    public XConfigurationBatchDTO applyConfigurationBatch(final Map<String, Map<String, Object>> configurations) {
+        return null;
+    }
+
     @Override
     public XResultDTO createOrUpdateConfiguration(final String pid, final List<ConfigValue> newProperties) {
         return null;
@@ -287,11 +351,31 @@ public final class SnapshotAgent implements Agent {
         return Collections.emptyMap();
     }
 
+    @Override
+    public String startExtensionStream(final String name, final Map<String, Object> context) {
+        return null;
+    }
+
+    @Override
+    public XExtensionChunkDTO pollExtensionStream(final String streamId, final long timeoutInMillis) {
+        return null;
+    }
+
+    @Override
+    public boolean cancelExtensionStream(final String streamId) {
+        return false;
+    }
+
     @Override
     public Set<XBundleDTO> getClassloaderLeaks() {
         return snapshotDTO.classloaderLeaks;
     }
 
+    @Override
+    public List<XClassloaderHistogramDTO> getClassloaderHistogram(final boolean liveObjectsOnly) {
+        return Collections.emptyList();
+    }
+
     @Override
     public List<XHttpComponentDTO> getHttpComponents() {
         return snapshotDTO.httpComponents;
@@ -16,6 +16,8 @@
 package com.osgifx.console.ui.batchinstall.dialog;
 
 import static com.google.common.base.Verify.verify;
+import static com.osgifx.console.agent.dto.XConfigurationBatchDTO.FAILED;
+import static com.osgifx.console.agent.dto.XConfigurationBatchDTO.INVALID;
 import static com.osgifx.console.agent.dto.XResultDTO.ERROR;
 import static org.osgi.framework.Constants.BUNDLE_SYMBOLICNAME;
 import static org.osgi.framework.Constants.BUNDLE_VERSION;
@@ -41,6 +43,8 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.io.Files;
 import com.osgifx.console.agent.Agent;
+import com.osgifx.console.agent.dto.XConfigurationBatchDTO;
+import com.osgifx.console.agent.dto.XConfigurationBatchDTO.XConfigurationBatchEntry;
 import com.osgifx.console.supervisor.Supervisor;
 import com.osgifx.console.ui.batchinstall.dialog.BatchInstallDialog.ArtifactDTO;
 import com.osgifx.console.util.fx.FxDialog;
@@ -100,19 +104,52 @@ public final class ArtifactInstaller {
             }
         }
         if (!configs.isEmpty()) {
-            final var results = agent.createOrUpdateConfigurations(configs);
-            results.forEach((k, v) -> {
-                if (v.result == ERROR) {
-                    result.append(k);
-                    result.append(": ");
-                    result.append(v.response);
-                    result.append(System.lineSeparator());
-                }
-            });
+            final var batch = agent.applyConfigurationBatch(configs);
+            if (batch == null) {
+                final var results = agent.createOrUpdateConfigurations(configs);
+                results.forEach((k, v) -> {
+                    if (v.result == ERROR) {
+                        result.append(k);
+                        result.append(": ");
+                        result.append(v.response);
+                        result.append(System.lineSeparator());
+                    }
+                });
+            } else {
+                appendBatchResult(batch, result);
+            }
         }
         return result.toString();
     }
 
+    private void appendBatchResult(final XConfigurationBatchDTO batch, final StringBuilder result) {
+        logger.atInfo().log("Configuration batch processed (validation: %.1f ms, apply: %.1f ms) - %s",
+                batch.validationTime / 1000.0, batch.applyTime / 1000.0, batch.response);
+        for (final XConfigurationBatchEntry entry : batch.entries) {
+            logger.atDebug().log("Configuration '%s' %s in %.1f ms", entry.pid, entry.action, entry.time / 1000.0);
+        }
+        if (batch.result != ERROR) {
+            return;
+        }
+        result.append(batch.response);
+        result.append(System.lineSeparator());
+        for (final XConfigurationBatchEntry entry : batch.entries) {
+            if (INVALID.equals(entry.action) || FAILED.equals(entry.action)) {
+                result.append(entry.pid);
+                result.append(": ");
+                result.append(entry.message);
+                result.append(System.lineSeparator());
+            }
+            if (entry.violations != null) {
+                entry.violations.forEach(v -> {
+                    result.append("  - ");
+                    result.append(v);
+                    result.append(System.lineSeparator());
+                });
+            }
+        }
+    }
+
     private JarDTO toValidJarFile(final File file) {
         try {
             final var bsn     = readAttributeFromManifest(file, BUNDLE_SYMBOLICNAME);
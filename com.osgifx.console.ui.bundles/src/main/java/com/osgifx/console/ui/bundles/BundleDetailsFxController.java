@@ -256,6 +256,9 @@ public final class BundleDetailsFxController {
         if (bytes == -1) {
             return "<IGNORED>";
         }
+        if (bytes == XBundleDTO.DATA_FOLDER_SIZE_PENDING) {
+            return "<COMPUTING>";
+        }
         if (-1000 < bytes && bytes < 1000) {
             return bytes + " B";
         }
@@ -15,7 +15,13 @@
  ******************************************************************************/
 package com.osgifx.console.ui.bundles;
 
+import static com.osgifx.console.agent.dto.XResultDTO.ERROR;
+import static com.osgifx.console.event.topics.BundleActionEventTopics.BUNDLE_STARTED_EVENT_TOPIC;
+import static com.osgifx.console.event.topics.BundleActionEventTopics.BUNDLE_STOPPED_EVENT_TOPIC;
 import static com.osgifx.console.event.topics.TableFilterUpdateTopics.UPDATE_BUNDLE_FILTER_EVENT_TOPIC;
+import static java.util.Comparator.comparingLong;
+import static java.util.stream.Collectors.joining;
+import static org.osgi.framework.Constants.SYSTEM_BUNDLE_ID;
 
 import java.util.function.Predicate;
 
@@ -27,21 +33,31 @@ import org.controlsfx.control.table.TableRowExpanderColumn;
 import org.controlsfx.control.table.TableRowExpanderColumn.TableRowDataFeatures;
 import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.e4.core.di.extensions.OSGiBundle;
+import org.eclipse.e4.core.services.events.IEventBroker;
 import org.eclipse.e4.ui.di.UIEventTopic;
+import org.eclipse.fx.core.ThreadSynchronize;
 import org.eclipse.fx.core.di.LocalInstance;
 import org.eclipse.fx.core.log.FluentLogger;
 import org.eclipse.fx.core.log.Log;
 import org.osgi.framework.BundleContext;
 
 import com.osgifx.console.agent.dto.XBundleDTO;
+import com.osgifx.console.agent.dto.XBundleLifecycleDTO;
+import com.osgifx.console.agent.dto.XBundleLifecycleDTO.XBundleLifecycleEntry;
 import com.osgifx.console.data.provider.DataProvider;
 import com.osgifx.console.dto.SearchFilterDTO;
+import com.osgifx.console.executor.Executor;
+import com.osgifx.console.supervisor.Supervisor;
 import com.osgifx.console.util.fx.DTOCellValueFactory;
 import com.osgifx.console.util.fx.Fx;
+import com.osgifx.console.util.fx.FxDialog;
 
 import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.MenuItem;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.layout.GridPane;
@@ -49,6 +65,9 @@ import javafx.scene.paint.Color;
 
 public final class BundlesFxController {
 
+    private static final int    MAX_REPORTED_BUNDLES = 10;
+    private static final String AGENT_BUNDLE_BSN     = "com.osgifx.console.agent";
+
     @Log
     @Inject
     private FluentLogger                     logger;
@@ -64,7 +83,19 @@ public final class BundlesFxController {
     @Named("is_connected")
     private boolean                          isConnected;
     @Inject
+    @Named("is_snapshot_agent")
+    private boolean                          isSnapshotAgent;
+    @Inject
     private DataProvider                     dataProvider;
+    @Inject
+    @Optional
+    private Supervisor                       supervisor;
+    @Inject
+    private Executor                         executor;
+    @Inject
+    private IEventBroker                     eventBroker;
+    @Inject
+    private ThreadSynchronize                threadSync;
     private FilteredList<XBundleDTO>         filteredList;
     private TableRowDataFeatures<XBundleDTO> previouslyExpanded;
 
@@ -130,6 +161,83 @@ public final class BundlesFxController {
         table.setItems(filteredList);
 
         TableFilter.forTableView(table).lazy(true).apply();
+        addLifecycleContextMenu();
+    }
+
+    private void addLifecycleContextMenu() {
+        final var startItem = new MenuItem("Start Filtered Bundles");
+        final var stopItem  = new MenuItem("Stop Filtered Bundles");
+
+        startItem.setOnAction(e -> confirmLifecycleOperation(true));
+        stopItem.setOnAction(e -> confirmLifecycleOperation(false));
+        // snapshots cannot start or stop anything
+        startItem.setDisable(isSnapshotAgent);
+        stopItem.setDisable(isSnapshotAgent);
+
+        final var menu = new ContextMenu();
+        menu.getItems().addAll(startItem, stopItem);
+        table.setContextMenu(menu);
+    }
+
+    private void confirmLifecycleOperation(final boolean start) {
+        // stopping the system or the agent bundle would take down the framework or the connection
+        final var ids = filteredList.stream()
+                .filter(b -> !b.isFragment && b.id != SYSTEM_BUNDLE_ID && !AGENT_BUNDLE_BSN.equals(b.symbolicName))
+                .mapToLong(b -> b.id).toArray();
+        if (ids.length == 0 || supervisor == null) {
+            return;
+        }
+        final var operation = start ? "start" : "stop";
+        FxDialog.showConfirmationDialog("Bundle Lifecycle",
+                "Do you want to " + operation + " " + ids.length + " filtered bundle(s)?", getClass().getClassLoader(),
+                btn -> {
+                    if (btn == ButtonType.OK) {
+                        executeLifecycleOperation(start, ids);
+                    }
+                });
+    }
+
+    private void executeLifecycleOperation(final boolean start, final long[] ids) {
+        executor.supplyAsync(() -> {
+            final var agent = supervisor.getAgent();
+            return start ? agent.startBundles(ids) : agent.stopBundles(ids);
+        }).whenComplete((result, e) -> {
+            if (e != null || result == null) {
+                logger.atError().withException(e).log("Bundle lifecycle operation cannot be executed");
+                threadSync.asyncExec(() -> Fx.showErrorNotification("Bundle Lifecycle",
+                        "Bundle lifecycle operation cannot be executed"));
+                return;
+            }
+            final var topic = start ? BUNDLE_STARTED_EVENT_TOPIC : BUNDLE_STOPPED_EVENT_TOPIC;
+            eventBroker.post(topic, result.entries.stream().map(b -> String.valueOf(b.id)).collect(joining(",")));
+            logger.atInfo().log("Bundle lifecycle operation '%s' finished in %s ms", result.operation,
+                    result.totalTime);
+            threadSync.asyncExec(() -> FxDialog.showInfoDialog("Bundle Lifecycle", createReport(result),
+                    getClass().getClassLoader()));
+        });
+    }
+
+    private String createReport(final XBundleLifecycleDTO result) {
+        final var report = new StringBuilder();
+
+        report.append("Operation: ").append(result.operation).append('\n');
+        report.append("Bundles: ").append(result.entries.size()).append('\n');
+        report.append("Failures: ").append(result.failures).append('\n');
+        report.append("Parallelism: ").append(result.parallelism).append('\n');
+        report.append("Total Time: ").append(result.totalTime).append(" ms").append('\n');
+        report.append("Cumulative Time: ").append(result.cumulativeTime).append(" ms").append('\n');
+
+        report.append('\n').append("Slowest Bundles:").append('\n');
+        result.entries.stream().sorted(comparingLong((XBundleLifecycleEntry b) -> b.duration).reversed())
+                .limit(MAX_REPORTED_BUNDLES).forEach(b -> report.append(b.symbolicName).append(" [").append(b.id)
+                        .append("]: ").append(b.duration).append(" ms").append('\n'));
+
+        if (result.failures > 0) {
+            report.append('\n').append("Failed Bundles:").append('\n');
+            result.entries.stream().filter(b -> b.result == ERROR)
+                    .forEach(b -> report.append(b.id).append(": ").append(b.response).append('\n'));
+        }
+        return report.toString();
     }
 
     @Inject
@@ -30,6 +30,7 @@ import org.eclipse.e4.core.di.extensions.OSGiBundle;
 import org.eclipse.e4.core.services.events.IEventBroker;
 import org.eclipse.e4.ui.di.Focus;
 import org.eclipse.e4.ui.di.UIEventTopic;
+import org.eclipse.fx.core.ThreadSynchronize;
 import org.eclipse.fx.core.di.LocalInstance;
 import org.eclipse.fx.core.log.FluentLogger;
 import org.eclipse.fx.core.log.Log;
@@ -38,8 +39,10 @@ import org.osgi.framework.BundleContext;
 import com.osgifx.console.data.provider.DataProvider;
 import com.osgifx.console.dto.SearchFilterDTO;
 import com.osgifx.console.executor.Executor;
+import com.osgifx.console.supervisor.Supervisor;
 import com.osgifx.console.ui.ConsoleMaskerPane;
 import com.osgifx.console.ui.ConsoleStatusBar;
+import com.osgifx.console.ui.bundles.dialog.StartupTimelineDialog;
 import com.osgifx.console.util.fx.Fx;
 import com.osgifx.console.util.fx.FxDialog;
 
@@ -75,6 +78,11 @@ public final class BundlesFxUI {
     private ConsoleMaskerPane progressPane;
     @Inject
     private DataProvider      dataProvider;
+    @Inject
+    @Optional
+    private Supervisor        supervisor;
+    @Inject
+    private ThreadSynchronize threadSync;
     private SearchFilterDTO   searchFilter;
 
     @PostConstruct
@@ -158,6 +166,10 @@ public final class BundlesFxUI {
         if (isConnected) {
             final var node = Fx.initStatusBarButton(this::refreshData, "Refresh", "REFRESH");
             if (!isSnapshotAgent) {
+                final var timelineNode = Fx.initStatusBarButton(this::showStartupTimeline, "Startup Timeline",
+                        "BAR_CHART");
+                statusBar.addToRight(timelineNode);
+                statusBar.addToRight(new Separator(VERTICAL));
                 statusBar.addToRight(node);
             }
         }
@@ -183,4 +195,20 @@ public final class BundlesFxUI {
         dataProvider.retrieveInfo("bundles", true);
     }
 
+    private void showStartupTimeline() {
+        executor.supplyAsync(() -> supervisor.getAgent().getStartupTimeline()).whenComplete((timeline, e) -> {
+            if (e != null || timeline == null) {
+                logger.atError().withException(e).log("Startup timeline cannot be retrieved");
+                threadSync.asyncExec(() -> Fx.showErrorNotification("Startup Timeline",
+                        "Startup timeline cannot be retrieved"));
+                return;
+            }
+            threadSync.asyncExec(() -> {
+                final var dialog = new StartupTimelineDialog();
+                dialog.init(timeline);
+                dialog.show();
+            });
+        });
+    }
+
 }
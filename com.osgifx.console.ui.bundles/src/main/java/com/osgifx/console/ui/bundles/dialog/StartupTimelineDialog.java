@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.ui.bundles.dialog;
+
+import static com.osgifx.console.agent.dto.XStartupTimelineDTO.ACTIVATOR;
+import static com.osgifx.console.agent.dto.XStartupTimelineDTO.AWAITING_RESOLUTION;
+import static com.osgifx.console.agent.dto.XStartupTimelineDTO.COMPONENT_SERVICES;
+import static com.osgifx.console.agent.dto.XStartupTimelineDTO.SERVICES;
+import static com.osgifx.console.constants.FxConstants.STANDARD_CSS;
+import static java.util.Comparator.comparingLong;
+
+import java.util.Comparator;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+import com.osgifx.console.agent.dto.XStartupTimelineDTO;
+import com.osgifx.console.agent.dto.XStartupTimelineDTO.XBundleTimeline;
+import com.osgifx.console.agent.dto.XStartupTimelineDTO.XLifecyclePhase;
+
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.stage.StageStyle;
+
+/**
+ * Gantt view of the lifecycle phases of all bundles recorded by the agent. Each
+ * row shows the phases of a single bundle relative to the start of the
+ * recording, such that the bundles on the critical path of the framework start
+ * can be identified easily.
+ */
+public final class StartupTimelineDialog extends Dialog<Void> {
+
+    private static final int    LABEL_WIDTH    = 320;
+    private static final int    TIMELINE_WIDTH = 760;
+    private static final int    ROW_HEIGHT     = 14;
+    private static final String SORT_BY_START  = "Sort by Start Time";
+    private static final String SORT_BY_END    = "Sort by End Time";
+    private static final String SORT_BY_SPAN   = "Sort by Duration";
+
+    // @formatter:off
+    private static final Map<String, Color> PHASE_COLORS = ImmutableMap.of(
+                                                                 AWAITING_RESOLUTION, Color.SILVER,
+                                                                 ACTIVATOR,           Color.STEELBLUE,
+                                                                 COMPONENT_SERVICES,  Color.DARKORANGE,
+                                                                 SERVICES,            Color.SEAGREEN);
+    // @formatter:on
+
+    private long origin;
+    private long span;
+
+    public void init(final XStartupTimelineDTO timeline) {
+        final var dialogPane = getDialogPane();
+        initStyle(StageStyle.UNDECORATED);
+        dialogPane.getStylesheets().add(getClass().getResource(STANDARD_CSS).toExternalForm());
+
+        dialogPane.setHeaderText("Bundle Startup Timeline");
+        dialogPane.getButtonTypes().add(ButtonType.CLOSE);
+
+        origin = timeline.recordingStartTime;
+        var end = origin;
+        for (final XBundleTimeline bundle : timeline.bundles) {
+            for (final XLifecyclePhase phase : bundle.phases) {
+                origin = Math.min(origin, phase.start);
+                end    = Math.max(end, phase.end);
+            }
+        }
+        span = Math.max(1, end - origin);
+
+        final var items = FXCollections.observableArrayList(timeline.bundles);
+        final var list  = new ListView<>(items);
+        list.setCellFactory(param -> new TimelineCell());
+        list.setPrefSize(LABEL_WIDTH + TIMELINE_WIDTH + 40d, 600);
+
+        final var sortOptions = new ComboBox<String>();
+        sortOptions.getItems().addAll(SORT_BY_START, SORT_BY_END, SORT_BY_SPAN);
+        sortOptions.getSelectionModel().selectedItemProperty()
+                .addListener((obs, oldVal, newVal) -> items.sort(comparator(newVal)));
+        sortOptions.getSelectionModel().select(SORT_BY_START);
+
+        final var summary = new Label(String.format("%d bundles, %d ms since the start of the recording",
+                timeline.bundles.size(), end - timeline.recordingStartTime));
+        final var header  = new HBox(10, sortOptions, summary, createLegend());
+        header.setPadding(new Insets(0, 0, 10, 0));
+
+        final var content = new BorderPane();
+        content.setTop(header);
+        content.setCenter(list);
+        dialogPane.setContent(content);
+    }
+
+    private static Comparator<XBundleTimeline> comparator(final String option) {
+        final Comparator<XBundleTimeline> byStart = comparingLong(StartupTimelineDialog::start);
+        final Comparator<XBundleTimeline> byEnd   = comparingLong(StartupTimelineDialog::end);
+        return switch (option) {
+            case SORT_BY_END -> byEnd.reversed();
+            case SORT_BY_SPAN -> comparingLong((XBundleTimeline b) -> end(b) - start(b)).reversed();
+            default -> byStart;
+        };
+    }
+
+    private static long start(final XBundleTimeline bundle) {
+        return bundle.phases.stream().mapToLong(p -> p.start).min().orElse(0);
+    }
+
+    private static long end(final XBundleTimeline bundle) {
+        return bundle.phases.stream().mapToLong(p -> p.end).max().orElse(0);
+    }
+
+    private static HBox createLegend() {
+        final var legend = new HBox(8);
+        PHASE_COLORS.forEach((phase, color) -> {
+            final var label = new Label(phase, new Rectangle(ROW_HEIGHT, ROW_HEIGHT, color));
+            legend.getChildren().add(label);
+        });
+        return legend;
+    }
+
+    private final class TimelineCell extends ListCell<XBundleTimeline> {
+
+        @Override
+        protected void updateItem(final XBundleTimeline bundle, final boolean empty) {
+            super.updateItem(bundle, empty);
+            if (empty || bundle == null) {
+                setGraphic(null);
+                setText(null);
+                return;
+            }
+            final var name = new Label(bundle.symbolicName + " [" + bundle.id + "]");
+            name.setPrefWidth(LABEL_WIDTH);
+            name.setMinWidth(LABEL_WIDTH);
+
+            final var bars = new Pane();
+            bars.setPrefSize(TIMELINE_WIDTH, ROW_HEIGHT);
+            bars.setMinWidth(TIMELINE_WIDTH);
+            for (final XLifecyclePhase phase : bundle.phases) {
+                final var x     = (phase.start - origin) * TIMELINE_WIDTH / (double) span;
+                final var width = Math.max(1, (phase.end - phase.start) * TIMELINE_WIDTH / (double) span);
+                final var bar   = new Rectangle(x, 0, width, ROW_HEIGHT);
+
+                bar.setFill(PHASE_COLORS.getOrDefault(phase.name, Color.GRAY));
+                Tooltip.install(bar, new Tooltip(String.format("%s: +%d ms, took %d ms", phase.name,
+                        phase.start - origin, phase.end - phase.start)));
+                bars.getChildren().add(bar);
+            }
+            setText(null);
+            setGraphic(new HBox(name, bars));
+        }
+    }
+
+}
@@ -15,58 +15,86 @@
  ******************************************************************************/
 package com.osgifx.console.ui.bundles.handler;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
-import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import org.controlsfx.dialog.ProgressDialog;
 import org.eclipse.e4.core.di.annotations.CanExecute;
 import org.eclipse.e4.core.di.annotations.Execute;
 import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.fx.core.ExceptionUtils;
+import org.eclipse.fx.core.ThreadSynchronize;
 import org.eclipse.fx.core.log.FluentLogger;
 import org.eclipse.fx.core.log.Log;
+import org.osgi.framework.wiring.dto.BundleRevisionDTO;
 import org.osgi.resource.Resource;
 
-import com.osgifx.console.agent.dto.XBundleDTO;
-import com.osgifx.console.data.provider.DataProvider;
+import com.osgifx.console.executor.Executor;
+import com.osgifx.console.supervisor.Supervisor;
 import com.osgifx.console.ui.bundles.obr.bnd.ResourceBuilder;
-import com.osgifx.console.ui.bundles.obr.bnd.XMLResourceGenerator;
+import com.osgifx.console.ui.bundles.obr.bnd.XMLResourceWriter;
 import com.osgifx.console.util.fx.Fx;
 import com.osgifx.console.util.fx.FxDialog;
 import com.osgifx.console.util.io.IO;
 
-import javafx.stage.DirectoryChooser;
+import javafx.concurrent.Task;
+import javafx.stage.FileChooser;
+import javafx.stage.FileChooser.ExtensionFilter;
 
 public final class GenerateObrHandler {
 
+    /** The number of resources being built ahead of the one being written */
+    private static final int MAX_PENDING_RESOURCES = Runtime.getRuntime().availableProcessors() * 4;
+
     @Log
     @Inject
-    private FluentLogger logger;
+    private FluentLogger      logger;
+    @Inject
+    private Executor          executor;
+    @Inject
+    private ThreadSynchronize threadSync;
     @Inject
-    private DataProvider dataProvider;
+    @Optional
+    private Supervisor        supervisor;
     @Inject
     @Named("is_connected")
-    private boolean      isConnected;
+    private boolean           isConnected;
     @Inject
     @Named("is_snapshot_agent")
-    private boolean      isSnapshotAgent;
+    private boolean           isSnapshotAgent;
     @Inject
     @Optional
     @Named("connected.agent")
-    private String       connectedAgent;
+    private String            connectedAgent;
+    private ProgressDialog    progressDialog;
 
     @Execute
     public void execute() {
-        final var directoryChooser = new DirectoryChooser();
-        final var location         = directoryChooser.showDialog(null);
-        if (location == null) {
+        final var xmlFilter        = new ExtensionFilter("OBR Index (.xml)", "*.xml");
+        final var compressedFilter = new ExtensionFilter("Compressed OBR Index (.xml.gz)", "*.xml.gz");
+        final var fileChooser      = new FileChooser();
+
+        fileChooser.getExtensionFilters().addAll(xmlFilter, compressedFilter);
+        fileChooser.setInitialFileName(IO.prepareFilenameFor("xml"));
+
+        var outputFile = fileChooser.showSaveDialog(null);
+        if (outputFile == null) {
             return;
         }
-        exportOBR(location);
+        final var compress = fileChooser.getSelectedExtensionFilter() == compressedFilter
+                || outputFile.getName().endsWith(".gz");
+        if (compress && !outputFile.getName().endsWith(".gz")) {
+            outputFile = new File(outputFile.getParentFile(), outputFile.getName() + ".gz");
+        }
+        exportOBR(outputFile, compress);
     }
 
     @CanExecute
@@ -74,39 +102,90 @@ public final class GenerateObrHandler {
         return isConnected && !isSnapshotAgent;
     }
 
-    private void exportOBR(final File location) {
-        final var resources = dataProvider.bundles().stream().map(this::toResource).toList();
-        if (resources.isEmpty()) {
-            logger.atInfo().log("Resources are empty");
+    private void exportOBR(final File outputFile, final boolean compress) {
+        final var agent = supervisor == null ? null : supervisor.getAgent();
+        if (agent == null) {
+            logger.atWarning().log("Agent not connected");
             return;
         }
-        final var xmlResourceGenerator = new XMLResourceGenerator();
-        final var outputFile           = new File(location, IO.prepareFilenameFor("xml"));
-
-        try (final var buffer = new ByteArrayOutputStream();
-                OutputStream fileStream = new FileOutputStream(outputFile)) {
-            xmlResourceGenerator.resources(resources);
-            xmlResourceGenerator.save(fileStream);
-            Fx.showSuccessNotification("OBR Successfully Generated", outputFile.getAbsolutePath());
-            logger.atInfo().log("OBR XML has been successfully generated - '%s'", outputFile);
-        } catch (final Exception e) {
-            FxDialog.showExceptionDialog(e, getClass().getClassLoader());
-            logger.atError().withException(e).log("OBR XML cannot be generated");
+        final Task<Integer> obrTask = new Task<>() {
+
+            @Override
+            protected Integer call() throws Exception {
+                try {
+                    updateMessage("Retrieving capabilities and requirements");
+                    final var revisions = agent.getBundleRevisons();
+                    if (revisions == null || revisions.isEmpty()) {
+                        throw new IllegalStateException("No resources found in the remote runtime");
+                    }
+                    updateMessage("Generating OBR index of " + revisions.size() + " resources");
+                    writeIndex(revisions, outputFile, compress);
+                    return revisions.size();
+                } catch (final Exception e) {
+                    Files.deleteIfExists(outputFile.toPath());
+                    if (isCancelled()) {
+                        logger.atInfo().log("OBR generation has been cancelled");
+                        throw e;
+                    }
+                    logger.atError().withException(e).log("OBR XML cannot be generated");
+                    threadSync.asyncExec(() -> {
+                        progressDialog.close();
+                        FxDialog.showExceptionDialog(e, getClass().getClassLoader());
+                    });
+                    throw e;
+                }
+            }
+
+            @Override
+            protected void succeeded() {
+                progressDialog.close();
+                Fx.showSuccessNotification("OBR Successfully Generated", outputFile.getAbsolutePath());
+                logger.atInfo().log("OBR XML of %s resources has been successfully generated - '%s'", getValue(),
+                        outputFile);
+            }
+        };
+        executor.runAsync(obrTask);
+        progressDialog = FxDialog.showProgressDialog("Generate OBR", obrTask, getClass().getClassLoader(),
+                () -> obrTask.cancel(true));
+    }
+
+    /**
+     * Builds the resources in parallel while writing them in order as soon as
+     * they become available. The number of resources built ahead is bounded so
+     * that only a small window of the index is retained in memory.
+     */
+    private void writeIndex(final List<BundleRevisionDTO> revisions,
+                            final File outputFile,
+                            final boolean compress) throws Exception {
+        final var pending = new ArrayDeque<CompletableFuture<Resource>>(MAX_PENDING_RESOURCES);
+        try (var out = new FileOutputStream(outputFile); var writer = new XMLResourceWriter(out, compress, 0)) {
+            for (final BundleRevisionDTO revision : revisions) {
+                if (Thread.currentThread().isInterrupted()) {
+                    pending.forEach(f -> f.cancel(false));
+                    throw new CancellationException("OBR generation has been cancelled");
+                }
+                pending.add(executor.supplyAsync(() -> toResource(revision)));
+                if (pending.size() >= MAX_PENDING_RESOURCES) {
+                    writer.resource(pending.poll().join());
+                }
+            }
+            while (!pending.isEmpty()) {
+                writer.resource(pending.poll().join());
+            }
         }
     }
 
-    private Resource toResource(final XBundleDTO bundle) {
+    private Resource toResource(final BundleRevisionDTO revision) {
         try {
             final var builder = new ResourceBuilder();
 
-            builder.addCapabilities(bundle.bundleRevision.capabilities);
-            builder.addRequirements(bundle.bundleRevision.requirements);
+            builder.addCapabilities(revision.capabilities);
+            builder.addRequirements(revision.requirements);
 
             return builder.build();
         } catch (final Exception e) {
             throw ExceptionUtils.wrap(e);
         }
-
     }
 
 }
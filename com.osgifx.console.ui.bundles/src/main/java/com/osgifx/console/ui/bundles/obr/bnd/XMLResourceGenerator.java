@@ -40,13 +40,15 @@ import aQute.lib.tag.Tag;
  */
 public class XMLResourceGenerator {
 
+    static final String NAMESPACE = "http://www.osgi.org/xmlns/repository/v1.0.0";
+
     private final Tag           repository = new Tag("repository");
     private final Set<Resource> visited    = Sets.newHashSet();
     private int                 indent     = 0;
     private boolean             compress   = false;
 
     public XMLResourceGenerator() {
-        repository.addAttribute("xmlns", "http://www.osgi.org/xmlns/repository/v1.0.0");
+        repository.addAttribute("xmlns", NAMESPACE);
     }
 
     public void save(OutputStream out) throws IOException {
@@ -110,28 +112,30 @@ public class XMLResourceGenerator {
     public XMLResourceGenerator resource(final Resource resource) {
         if (!visited.contains(resource)) {
             visited.add(resource);
-
-            final var r    = new Tag(repository, "resource");
-            final var caps = resource.getCapabilities(null);
-            caps.forEach(cap -> {
-                final var cr = new Tag(r, "capability");
-                cr.addAttribute("namespace", cap.getNamespace());
-                directives(cr, cap.getDirectives());
-                attributes(cr, cap.getAttributes());
-            });
-
-            final var reqs = resource.getRequirements(null);
-            reqs.forEach(req -> {
-                final var cr = new Tag(r, "requirement");
-                cr.addAttribute("namespace", req.getNamespace());
-                directives(cr, req.getDirectives());
-                attributes(cr, req.getAttributes());
-            });
+            resource(new Tag(repository, "resource"), resource);
         }
         return this;
     }
 
-    private void directives(final Tag cr, final Map<String, String> directives) {
+    static void resource(final Tag r, final Resource resource) {
+        final var caps = resource.getCapabilities(null);
+        caps.forEach(cap -> {
+            final var cr = new Tag(r, "capability");
+            cr.addAttribute("namespace", cap.getNamespace());
+            directives(cr, cap.getDirectives());
+            attributes(cr, cap.getAttributes());
+        });
+
+        final var reqs = resource.getRequirements(null);
+        reqs.forEach(req -> {
+            final var cr = new Tag(r, "requirement");
+            cr.addAttribute("namespace", req.getNamespace());
+            directives(cr, req.getDirectives());
+            attributes(cr, req.getAttributes());
+        });
+    }
+
+    private static void directives(final Tag cr, final Map<String, String> directives) {
         directives.forEach((k, v) -> {
             final var d = new Tag(cr, "directive");
             d.addAttribute("name", k);
@@ -139,7 +143,7 @@ public class XMLResourceGenerator {
         });
     }
 
-    private void attributes(final Tag cr, final Map<String, Object> attributes) {
+    private static void attributes(final Tag cr, final Map<String, Object> attributes) {
         attributes.forEach((k, v) -> {
             if (v == null) {
                 return;
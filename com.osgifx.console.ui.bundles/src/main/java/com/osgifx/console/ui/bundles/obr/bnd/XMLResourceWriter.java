@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.ui.bundles.obr.bnd;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.osgi.framework.namespace.IdentityNamespace.IDENTITY_NAMESPACE;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import org.osgi.resource.Resource;
+
+import com.google.common.collect.Sets;
+
+import aQute.lib.tag.Tag;
+
+/**
+ * Streams an {@code http://www.osgi.org/xmlns/repository/v1.0.0} XML file
+ * resource by resource. Unlike {@link XMLResourceGenerator}, the document is
+ * never held in memory as a whole, hence only the resource being written
+ * and the identities of the written resources need to be retained. A resource
+ * whose identity has already been written is skipped.
+ */
+public final class XMLResourceWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final PrintWriter              writer;
+    private final int                      indent;
+    private final Set<Map<String, Object>> identities = Sets.newHashSet();
+
+    /**
+     * @param out the stream to write the index to
+     * @param compress {@code true} to gzip the index
+     * @param indent the indentation of the repository tag or {@code -1} to write
+     *            the index without any line breaks
+     */
+    public XMLResourceWriter(final OutputStream out, final boolean compress, final int indent) throws IOException {
+        final var stream = compress ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+
+        this.writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(stream, UTF_8), BUFFER_SIZE));
+        this.indent = indent < 0 ? indent : indent + 2; // resources are nested in the repository tag
+
+        writer.printf("<?xml version='1.0' encoding='UTF-8'?>%n");
+        writer.printf("<repository xmlns='%s'>", XMLResourceGenerator.NAMESPACE);
+    }
+
+    public XMLResourceWriter resource(final Resource resource) throws IOException {
+        // the identity attributes comprise the symbolic name, the version and the type
+        final var identity = resource.getCapabilities(IDENTITY_NAMESPACE);
+        if (!identity.isEmpty() && !identities.add(identity.get(0).getAttributes())) {
+            return this;
+        }
+        final var tag = new Tag("resource");
+        XMLResourceGenerator.resource(tag, resource);
+        tag.print(indent, writer);
+        if (writer.checkError()) {
+            throw new IOException("Resource cannot be written to the repository index");
+        }
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.printf("%n</repository>%n");
+        writer.close();
+        if (writer.checkError()) {
+            throw new IOException("Repository index cannot be completed");
+        }
+    }
+
+}
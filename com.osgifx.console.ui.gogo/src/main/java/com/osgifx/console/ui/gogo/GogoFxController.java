@@ -15,16 +15,22 @@
  ******************************************************************************/
 package com.osgifx.console.ui.gogo;
 
+import static com.osgifx.console.executor.Lane.STREAMING;
+
+import java.time.Duration;
+
 import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.controlsfx.control.textfield.TextFields;
 import org.eclipse.e4.core.di.annotations.Optional;
+import org.eclipse.fx.core.ThreadSynchronize;
 import org.eclipse.fx.core.log.FluentLogger;
 import org.eclipse.fx.core.log.Log;
 
 import com.google.common.base.Throwables;
 import com.osgifx.console.agent.Agent;
+import com.osgifx.console.agent.dto.XGogoOutputDTO;
 import com.osgifx.console.executor.Executor;
 import com.osgifx.console.supervisor.Supervisor;
 
@@ -36,11 +42,16 @@ import javafx.scene.input.KeyEvent;
 
 public final class GogoFxController {
 
+    private static final long     POLL_TIMEOUT_IN_MILLIS = 1_000L;
+    private static final Duration START_TIMEOUT          = Duration.ofSeconds(10);
+
     @Log
     @Inject
     private FluentLogger       logger;
     @Inject
     private Executor           executor;
+    @Inject
+    private ThreadSynchronize  threadSync;
     @FXML
     private TextField          input;
     @FXML
@@ -55,6 +66,9 @@ public final class GogoFxController {
     private boolean            isSnapshotAgent;
     private Agent              agent;
     private int                historyPointer;
+    private volatile String    runningExecutionId;
+    private volatile String    cancelledExecutionId;
+    private volatile boolean   streamingUnsupported;
 
     @FXML
     public void initialize() {
@@ -88,6 +102,11 @@ public final class GogoFxController {
                 output.appendText("$ " + command + System.lineSeparator());
                 executeGogoCommand(command);
                 break;
+            case C:
+                if (keyEvent.isControlDown()) {
+                    cancelGogoCommand();
+                }
+                break;
             case UP:
                 if (historyPointer == 0) {
                     historyPointer = history.size();
@@ -112,37 +131,104 @@ public final class GogoFxController {
     }
 
     private void executeGogoCommand(final String command) {
-        final Task<String> task = new Task<>() {
+        final Task<Void> task = new Task<>() {
 
             @Override
-            protected String call() throws Exception {
-                String outputText;
+            protected Void call() throws Exception {
                 try {
                     if (isSnapshotAgent) {
                         logger.atWarning().log("No command execution in snapshot agent mode");
-                        outputText = "You cannot execute command in snapshot agent mode";
-                    } else if (agent == null || (outputText = agent.execGogoCommand(command)) == null) {
+                        appendOutput("You cannot execute command in snapshot agent mode");
+                        return null;
+                    }
+                    if (agent == null) {
                         logger.atWarning().log("Agent is not connected");
-                        outputText = "Agent is not connected";
-                    } else {
+                        appendOutput("Agent is not connected");
+                        return null;
+                    }
+                    final var executionId = streamingUnsupported ? null : startGogoCommand(command);
+                    if (executionId == null) {
+                        // agents without streaming executions only return the output once the command has finished
+                        streamingUnsupported = true;
+                        appendOutput(agent.execGogoCommand(command));
                         logger.atInfo().log("Command '%s' has been successfully executed", command);
+                        return null;
+                    }
+                    runningExecutionId = executionId;
+                    try {
+                        XGogoOutputDTO chunk;
+                        do {
+                            chunk = agent.pollGogoCommand(executionId, POLL_TIMEOUT_IN_MILLIS);
+                            if (chunk == null) {
+                                break;
+                            }
+                            appendOutput(chunk.output);
+                        } while (!chunk.isCompleted && !isCancelled(executionId));
+                        if ((chunk != null && chunk.isCancelled) || isCancelled(executionId)) {
+                            appendOutput("^C" + System.lineSeparator());
+                        } else if (chunk != null && chunk.error != null) {
+                            appendOutput(chunk.error);
+                        }
+                    } catch (final Exception e) {
+                        if (!isCancelled(executionId)) {
+                            throw e;
+                        }
+                        // the agent might have expired the cancelled execution before it has been polled again
+                        logger.atDebug().log("Command execution '%s' has been discarded", executionId);
+                        appendOutput("^C" + System.lineSeparator());
+                    } finally {
+                        runningExecutionId = null;
                     }
+                    logger.atInfo().log("Command '%s' has been successfully executed", command);
                 } catch (final Exception e) {
                     logger.atInfo().withException(e).log("Command '%s' cannot be executed properly", command);
-                    outputText = Throwables.getStackTraceAsString(e);
+                    appendOutput(Throwables.getStackTraceAsString(e));
                 }
-                return outputText;
+                return null;
             }
         };
         task.setOnSucceeded(t -> {
-            output.appendText(task.getValue());
             output.appendText(System.lineSeparator());
             history.add(command);
             historyPointer = history.size();
             input.clear();
             logger.atInfo().log("Task for command '%s' has been succeeded", command);
         });
-        executor.runAsync(task);
+        executor.runAsync(task, STREAMING);
+    }
+
+    private String startGogoCommand(final String command) {
+        // agents without streaming executions never reply, hence the call must not wait for the default timeout
+        try {
+            return supervisor.callWithTimeout(START_TIMEOUT, () -> agent.startGogoCommand(command));
+        } catch (final Exception e) {
+            logger.atDebug().withException(e).log("Command '%s' cannot be started as a streaming execution", command);
+            return null;
+        }
+    }
+
+    private void cancelGogoCommand() {
+        final var executionId = runningExecutionId;
+        if (executionId == null || agent == null) {
+            return;
+        }
+        cancelledExecutionId = executionId;
+        executor.runAsync(() -> {
+            if (agent.cancelGogoCommand(executionId)) {
+                logger.atInfo().log("Command execution '%s' has been cancelled", executionId);
+            }
+        });
+    }
+
+    private boolean isCancelled(final String executionId) {
+        return executionId.equals(cancelledExecutionId);
+    }
+
+    private void appendOutput(final String text) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        threadSync.asyncExec(() -> output.appendText(text));
     }
 
 }
@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.ui.graph;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultEdge;
+
+/**
+ * Result of the strongly connected component analysis of the service component
+ * graph. Every cyclic strongly connected component is collapsed into a single
+ * vertex of the {@link #condensedGraph() condensed graph} whereas its members
+ * and a bounded number of representative cycles can be looked up on demand.
+ * The remaining acyclic components are part of the condensed graph as they
+ * are, such that it is the directed acyclic graph of all components.
+ */
+public record ComponentCycleSummary(Graph<ComponentVertex, DefaultEdge> condensedGraph,
+                                    Map<ComponentVertex, Set<ComponentVertex>> members,
+                                    Map<ComponentVertex, List<List<ComponentVertex>>> cycles) {
+
+    public boolean isStronglyConnectedComponent(final ComponentVertex vertex) {
+        return members.containsKey(vertex);
+    }
+
+    public Set<ComponentVertex> membersOf(final ComponentVertex vertex) {
+        return members.getOrDefault(vertex, Set.of());
+    }
+
+    public List<List<ComponentVertex>> cyclesOf(final ComponentVertex vertex) {
+        return cycles.getOrDefault(vertex, List.of());
+    }
+
+    public int size() {
+        return members.size();
+    }
+
+}
@@ -16,14 +16,14 @@
 package com.osgifx.console.ui.graph;
 
 import java.util.Collection;
+import java.util.Set;
 
 import org.jgrapht.GraphPath;
 import org.jgrapht.graph.DefaultEdge;
 
+import com.google.common.collect.Sets;
 import com.osgifx.console.smartgraph.graph.DigraphEdgeList;
-import com.osgifx.console.smartgraph.graph.Edge;
 import com.osgifx.console.smartgraph.graph.Graph;
-import com.osgifx.console.smartgraph.graph.Vertex;
 
 public final class FxBundleGraph {
 
@@ -38,51 +38,26 @@ public final class FxBundleGraph {
     }
 
     private Graph<BundleVertex, String> buildGraph(final Collection<GraphPath<BundleVertex, DefaultEdge>> graphPaths) {
-        final Graph<BundleVertex, String> graph = new DigraphEdgeList<>();
+        final Graph<BundleVertex, String> graph    = new DigraphEdgeList<>();
+        final Set<BundleVertex>           vertices = Sets.newHashSet();
+        final Set<String>                 edges    = Sets.newHashSet();
         for (final GraphPath<BundleVertex, DefaultEdge> path : graphPaths) {
             for (final DefaultEdge edge : path.getEdgeList()) {
                 final var source = path.getGraph().getEdgeSource(edge);
                 final var target = path.getGraph().getEdgeTarget(edge);
-                if (graph.vertices().stream().noneMatch(v -> v.element().equals(source))) {
+                if (vertices.add(source)) {
                     graph.insertVertex(source);
                 }
-                if (graph.vertices().stream().noneMatch(v -> v.element().equals(target))) {
+                if (vertices.add(target)) {
                     graph.insertVertex(target);
                 }
-                if (!containsEdge(graph.edges(), source, target)) {
-                    graph.insertEdge(source, target, source + "->" + target);
+                final var edgeElement = source + "->" + target;
+                if (edges.add(edgeElement)) {
+                    graph.insertEdge(source, target, edgeElement);
                 }
             }
         }
         return graph;
     }
 
-    private boolean containsEdge(final Collection<Edge<String, BundleVertex>> edges,
-                                 final BundleVertex source,
-                                 final BundleVertex target) {
-        var isEdgeFound = false;
-        for (final Edge<String, BundleVertex> edge : edges) {
-            var isEdgeSourceFound = false;
-            var isEdgeTargetFound = false;
-            for (final Vertex<BundleVertex> vertex : edge.vertices()) {
-                if (isSameVertex(vertex, source)) {
-                    isEdgeSourceFound = true;
-                }
-            }
-            for (final Vertex<BundleVertex> vertex : edge.vertices()) {
-                if (isSameVertex(vertex, target)) {
-                    isEdgeTargetFound = true;
-                }
-            }
-            if (isEdgeSourceFound && isEdgeTargetFound) {
-                isEdgeFound = true;
-            }
-        }
-        return isEdgeFound;
-    }
-
-    private boolean isSameVertex(final Vertex<BundleVertex> vertex, final BundleVertex check) {
-        return vertex.element().equals(check);
-    }
-
 }
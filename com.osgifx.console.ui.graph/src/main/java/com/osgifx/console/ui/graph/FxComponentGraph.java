@@ -16,14 +16,14 @@
 package com.osgifx.console.ui.graph;
 
 import java.util.Collection;
+import java.util.Set;
 
 import org.jgrapht.GraphPath;
 import org.jgrapht.graph.DefaultEdge;
 
+import com.google.common.collect.Sets;
 import com.osgifx.console.smartgraph.graph.DigraphEdgeList;
-import com.osgifx.console.smartgraph.graph.Edge;
 import com.osgifx.console.smartgraph.graph.Graph;
-import com.osgifx.console.smartgraph.graph.Vertex;
 
 public final class FxComponentGraph {
 
@@ -43,68 +43,40 @@ public final class FxComponentGraph {
 
     private Graph<ComponentVertex, String> buildGraph(final org.jgrapht.Graph<ComponentVertex, DefaultEdge> jgraph) {
         final Graph<ComponentVertex, String> graph = new DigraphEdgeList<>();
+        final Set<String>                    edges = Sets.newHashSet();
+        jgraph.vertexSet().forEach(graph::insertVertex);
         for (final DefaultEdge edge : jgraph.edgeSet()) {
-            final var source = jgraph.getEdgeSource(edge);
-            final var target = jgraph.getEdgeTarget(edge);
-            if (graph.vertices().stream().noneMatch(v -> v.element().equals(source))) {
-                graph.insertVertex(source);
-            }
-            if (graph.vertices().stream().noneMatch(v -> v.element().equals(target))) {
-                graph.insertVertex(target);
-            }
-            if (!containsEdge(graph.edges(), source, target)) {
-                graph.insertEdge(source, target, source + "->" + target);
+            final var source      = jgraph.getEdgeSource(edge);
+            final var target      = jgraph.getEdgeTarget(edge);
+            final var edgeElement = source + "->" + target;
+            if (edges.add(edgeElement)) {
+                graph.insertEdge(source, target, edgeElement);
             }
         }
         return graph;
     }
 
     private Graph<ComponentVertex, String> buildGraph(final Collection<GraphPath<ComponentVertex, DefaultEdge>> graphPaths) {
-        final Graph<ComponentVertex, String> graph = new DigraphEdgeList<>();
+        final Graph<ComponentVertex, String> graph    = new DigraphEdgeList<>();
+        final Set<ComponentVertex>           vertices = Sets.newHashSet();
+        final Set<String>                    edges    = Sets.newHashSet();
         for (final GraphPath<ComponentVertex, DefaultEdge> path : graphPaths) {
             for (final DefaultEdge edge : path.getEdgeList()) {
                 final var source = path.getGraph().getEdgeSource(edge);
                 final var target = path.getGraph().getEdgeTarget(edge);
-                if (graph.vertices().stream().noneMatch(v -> v.element().equals(source))) {
+                if (vertices.add(source)) {
                     graph.insertVertex(source);
                 }
-                if (graph.vertices().stream().noneMatch(v -> v.element().equals(target))) {
+                if (vertices.add(target)) {
                     graph.insertVertex(target);
                 }
-                if (!containsEdge(graph.edges(), source, target)) {
-                    graph.insertEdge(source, target, source + "->" + target);
+                final var edgeElement = source + "->" + target;
+                if (edges.add(edgeElement)) {
+                    graph.insertEdge(source, target, edgeElement);
                 }
             }
         }
         return graph;
     }
 
-    private boolean containsEdge(final Collection<Edge<String, ComponentVertex>> edges,
-                                 final ComponentVertex source,
-                                 final ComponentVertex target) {
-        var isEdgeFound = false;
-        for (final Edge<String, ComponentVertex> edge : edges) {
-            var isEdgeSourceFound = false;
-            var isEdgeTargetFound = false;
-            for (final Vertex<ComponentVertex> vertex : edge.vertices()) {
-                if (isSameVertex(vertex, source)) {
-                    isEdgeSourceFound = true;
-                }
-            }
-            for (final Vertex<ComponentVertex> vertex : edge.vertices()) {
-                if (isSameVertex(vertex, target)) {
-                    isEdgeTargetFound = true;
-                }
-            }
-            if (isEdgeSourceFound && isEdgeTargetFound) {
-                isEdgeFound = true;
-            }
-        }
-        return isEdgeFound;
-    }
-
-    private boolean isSameVertex(final Vertex<ComponentVertex> vertex, final ComponentVertex check) {
-        return vertex.element().equals(check);
-    }
-
 }
@@ -15,11 +15,16 @@
  ******************************************************************************/
 package com.osgifx.console.ui.graph;
 
-import static com.osgifx.console.ui.graph.GraphHelper.generateDotFileName;
+import static com.osgifx.console.ui.graph.GraphHelper.generateFileName;
+import static com.osgifx.console.ui.graph.GraphHelper.showGraph;
 import static javafx.scene.control.SelectionMode.MULTIPLE;
 import static org.controlsfx.control.SegmentedButton.STYLE_CLASS_DARK;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.AbstractMap.SimpleEntry;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.concurrent.Future;
@@ -34,21 +39,19 @@ import org.controlsfx.control.SegmentedButton;
 import org.eclipse.fx.core.ThreadSynchronize;
 import org.eclipse.fx.core.log.FluentLogger;
 import org.eclipse.fx.core.log.Log;
-import org.jgrapht.Graph;
 import org.jgrapht.GraphPath;
 import org.jgrapht.graph.DefaultEdge;
-import org.jgrapht.nio.ExportException;
-import org.jgrapht.nio.dot.DOTExporter;
 
 import com.google.common.base.Predicates;
 import com.google.common.collect.Lists;
 import com.osgifx.console.agent.dto.XBundleDTO;
 import com.osgifx.console.data.provider.DataProvider;
 import com.osgifx.console.executor.Executor;
+import com.osgifx.console.smartgraph.graph.Vertex;
 import com.osgifx.console.smartgraph.graphview.SmartCircularSortedPlacementStrategy;
-import com.osgifx.console.smartgraph.graphview.SmartGraphPanel;
 import com.osgifx.console.smartgraph.graphview.SmartPlacementStrategy;
 import com.osgifx.console.smartgraph.graphview.SmartRandomPlacementStrategy;
+import com.osgifx.console.ui.graph.StreamingGraphExporter.Format;
 import com.osgifx.console.util.fx.Fx;
 
 import javafx.collections.ObservableList;
@@ -59,6 +62,7 @@ import javafx.fxml.FXML;
 import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.ContextMenu;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.SeparatorMenuItem;
 import javafx.scene.control.TextField;
 import javafx.scene.control.ToggleButton;
 import javafx.scene.control.cell.CheckBoxListCell;
@@ -99,7 +103,7 @@ public final class GraphFxBundleController implements GraphController {
     @FXML
     public void initialize() {
         try {
-            addExportToDotContextMenu();
+            addExportContextMenu();
             initBundlesList();
             progressPane = new MaskerPane();
             initStrategyButton();
@@ -135,32 +139,52 @@ public final class GraphFxBundleController implements GraphController {
         wiringSelection.getSelectionModel().select(0);
     }
 
-    private void addExportToDotContextMenu() {
-        final var item = new MenuItem("Export to DOT");
+    private void addExportContextMenu() {
+        final var menu = new ContextMenu();
+        menu.getItems().add(createExportMenuItem("Export to DOT", Format.DOT, false));
+        menu.getItems().add(createExportMenuItem("Export to GraphML", Format.GRAPHML, false));
+        menu.getItems().add(new SeparatorMenuItem());
+        menu.getItems().add(createExportMenuItem("Export Runtime Graph to DOT", Format.DOT, true));
+        menu.getItems().add(createExportMenuItem("Export Runtime Graph to GraphML", Format.GRAPHML, true));
+        graphPane.setOnContextMenuRequested(e -> menu.show(graphPane.getCenter(), e.getScreenX(), e.getScreenY()));
+    }
+
+    private MenuItem createExportMenuItem(final String text, final Format format, final boolean runtimeGraph) {
+        final var item = new MenuItem(text);
         item.setOnAction(event -> {
             final var directoryChooser = new DirectoryChooser();
             final var location         = directoryChooser.showDialog(null);
             if (location == null) {
                 return;
             }
-            exportToDOT(location);
-            threadSync.asyncExec(
-                    () -> Fx.showSuccessNotification("DOT (GraphViz) Export", "Graph has been successfully exported"));
+            final var file = new File(location, generateFileName("Bundles", format.extension())).toPath();
+            executor.runAsync(() -> export(format, runtimeGraph, file)).whenComplete((result, e) -> {
+                if (e == null) {
+                    threadSync.asyncExec(() -> Fx.showSuccessNotification("Graph Export",
+                            "Graph has been successfully exported to " + file.getFileName()));
+                } else {
+                    threadSync.asyncExec(() -> Fx.showErrorNotification("Graph Export", "Graph cannot be exported"));
+                }
+            });
         });
-        final var menu = new ContextMenu();
-        menu.getItems().add(item);
-        graphPane.setOnContextMenuRequested(e -> menu.show(graphPane.getCenter(), e.getScreenX(), e.getScreenY()));
+        return item;
     }
 
-    private void exportToDOT(final File location) {
-        final var exporter = new DOTExporter<BundleVertex, DefaultEdge>(BundleVertex::toDotID);
+    private void export(final Format format, final boolean exportRuntimeGraph, final Path file) {
+        final var exporter = new StreamingGraphExporter<BundleVertex>(BundleVertex::toDotID, BundleVertex::toString);
         try {
-            final Graph<BundleVertex, DefaultEdge> jGraph  = GraphHelper.toJGraphT(fxGraph.graph);
-            final var                              dotFile = new File(location, generateDotFileName("Bundles"));
-            exporter.exportGraph(jGraph, dotFile);
-        } catch (final ExportException e) {
-            logger.atError().withException(e).log("Cannot export the graph to '%s'", location);
-            throw e;
+            if (exportRuntimeGraph) {
+                exporter.export(runtimeGraph::streamVertices, runtimeGraph::streamEdges, format, file);
+            } else {
+                final var graph = fxGraph.graph;
+                exporter.export(() -> graph.vertices().stream().map(Vertex::element),
+                        () -> graph.edges().stream().map(e -> new SimpleEntry<>(e.vertices()[0].element(),
+                                                                                 e.vertices()[1].element())),
+                        format, file);
+            }
+        } catch (final IOException e) {
+            logger.atError().withException(e).log("Cannot export the graph to '%s'", file);
+            throw new UncheckedIOException(e);
         }
     }
 
@@ -235,11 +259,8 @@ public final class GraphFxBundleController implements GraphController {
 
             @Override
             protected void succeeded() {
-                final var graphView = new SmartGraphPanel<>(fxGraph.graph, getStrategy());
-                graphView.setPrefSize(800, 520);
                 progressPane.setVisible(false);
-                graphPane.setCenter(graphView);
-                graphView.init();
+                showGraph(graphPane, fxGraph.graph, getStrategy(), null);
             }
         };
         graphPane.setCenter(progressPane);
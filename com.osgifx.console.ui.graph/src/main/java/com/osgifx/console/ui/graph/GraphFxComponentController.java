@@ -15,13 +15,20 @@
  ******************************************************************************/
 package com.osgifx.console.ui.graph;
 
-import static com.osgifx.console.ui.graph.GraphHelper.generateDotFileName;
+import static com.osgifx.console.ui.graph.GraphHelper.generateFileName;
+import static com.osgifx.console.ui.graph.GraphHelper.showGraph;
 import static javafx.scene.control.SelectionMode.MULTIPLE;
 import static org.controlsfx.control.SegmentedButton.STYLE_CLASS_DARK;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.AbstractMap.SimpleEntry;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
+import java.util.StringJoiner;
 import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
@@ -34,22 +41,21 @@ import org.controlsfx.control.SegmentedButton;
 import org.eclipse.fx.core.ThreadSynchronize;
 import org.eclipse.fx.core.log.FluentLogger;
 import org.eclipse.fx.core.log.Log;
-import org.jgrapht.Graph;
 import org.jgrapht.GraphPath;
 import org.jgrapht.graph.DefaultEdge;
-import org.jgrapht.nio.ExportException;
-import org.jgrapht.nio.dot.DOTExporter;
 
 import com.google.common.base.Predicates;
 import com.google.common.collect.Lists;
 import com.osgifx.console.agent.dto.XComponentDTO;
 import com.osgifx.console.data.provider.DataProvider;
 import com.osgifx.console.executor.Executor;
+import com.osgifx.console.smartgraph.graph.Vertex;
 import com.osgifx.console.smartgraph.graphview.SmartCircularSortedPlacementStrategy;
-import com.osgifx.console.smartgraph.graphview.SmartGraphPanel;
 import com.osgifx.console.smartgraph.graphview.SmartPlacementStrategy;
 import com.osgifx.console.smartgraph.graphview.SmartRandomPlacementStrategy;
+import com.osgifx.console.ui.graph.StreamingGraphExporter.Format;
 import com.osgifx.console.util.fx.Fx;
+import com.osgifx.console.util.fx.FxDialog;
 
 import javafx.beans.value.ChangeListener;
 import javafx.collections.ObservableList;
@@ -60,6 +66,7 @@ import javafx.fxml.FXML;
 import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.ContextMenu;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.SeparatorMenuItem;
 import javafx.scene.control.TextField;
 import javafx.scene.control.ToggleButton;
 import javafx.scene.control.cell.CheckBoxListCell;
@@ -96,11 +103,12 @@ public final class GraphFxComponentController implements GraphController {
     private MaskerPane                   progressPane;
     private FxComponentGraph             fxGraph;
     private Future<?>                    graphGenFuture;
+    private ComponentCycleSummary        cycleSummary;
 
     @FXML
     public void initialize() {
         try {
-            addExportToDotContextMenu();
+            addExportContextMenu();
             initComponentsList();
             progressPane = new MaskerPane();
             initStrategyButton();
@@ -132,11 +140,12 @@ public final class GraphFxComponentController implements GraphController {
     }
 
     private void initWiringSelection() {
-        wiringSelection.getItems().addAll("Find all components that are required by", "Find all component cycles");
+        wiringSelection.getItems().addAll("Find all components that are required by", "Find all component cycles",
+                "Find all strongly connected components");
         wiringSelection.getSelectionModel().select(0);
         wiringSelection.getSelectionModel().selectedIndexProperty()
                 .addListener((ChangeListener<Number>) (observable, oldValue, newValue) -> {
-                    final var condition = newValue.intValue() == 1;
+                    final var condition = newValue.intValue() != 0;
 
                     searchText.setDisable(condition);
                     componentsList.setDisable(condition);
@@ -144,32 +153,52 @@ public final class GraphFxComponentController implements GraphController {
                 });
     }
 
-    private void addExportToDotContextMenu() {
-        final var item = new MenuItem("Export to DOT");
+    private void addExportContextMenu() {
+        final var menu = new ContextMenu();
+        menu.getItems().add(createExportMenuItem("Export to DOT", Format.DOT, false));
+        menu.getItems().add(createExportMenuItem("Export to GraphML", Format.GRAPHML, false));
+        menu.getItems().add(new SeparatorMenuItem());
+        menu.getItems().add(createExportMenuItem("Export Runtime Graph to DOT", Format.DOT, true));
+        menu.getItems().add(createExportMenuItem("Export Runtime Graph to GraphML", Format.GRAPHML, true));
+        graphPane.setOnContextMenuRequested(e -> menu.show(graphPane.getCenter(), e.getScreenX(), e.getScreenY()));
+    }
+
+    private MenuItem createExportMenuItem(final String text, final Format format, final boolean runtimeGraph) {
+        final var item = new MenuItem(text);
         item.setOnAction(event -> {
             final var directoryChooser = new DirectoryChooser();
             final var location         = directoryChooser.showDialog(null);
             if (location == null) {
                 return;
             }
-            exportToDOT(location);
-            threadSync.asyncExec(
-                    () -> Fx.showSuccessNotification("DOT (GraphViz) Export", "Graph has been successfully exported"));
+            final var file = new File(location, generateFileName("Components", format.extension())).toPath();
+            executor.runAsync(() -> export(format, runtimeGraph, file)).whenComplete((result, e) -> {
+                if (e == null) {
+                    threadSync.asyncExec(() -> Fx.showSuccessNotification("Graph Export",
+                            "Graph has been successfully exported to " + file.getFileName()));
+                } else {
+                    threadSync.asyncExec(() -> Fx.showErrorNotification("Graph Export", "Graph cannot be exported"));
+                }
+            });
         });
-        final var menu = new ContextMenu();
-        menu.getItems().add(item);
-        graphPane.setOnContextMenuRequested(e -> menu.show(graphPane.getCenter(), e.getScreenX(), e.getScreenY()));
+        return item;
     }
 
-    private void exportToDOT(final File location) {
-        final var exporter = new DOTExporter<ComponentVertex, DefaultEdge>(ComponentVertex::toDotID);
+    private void export(final Format format, final boolean exportRuntimeGraph, final Path file) {
+        final var exporter = new StreamingGraphExporter<ComponentVertex>(ComponentVertex::toDotID, ComponentVertex::toString);
         try {
-            final Graph<ComponentVertex, DefaultEdge> jGraph  = GraphHelper.toJGraphT(fxGraph.graph);
-            final var                                 dotFile = new File(location, generateDotFileName("Components"));
-            exporter.exportGraph(jGraph, dotFile);
-        } catch (final ExportException e) {
-            logger.atError().withException(e).log("Cannot export the graph to '%s'", location);
-            throw e;
+            if (exportRuntimeGraph) {
+                exporter.export(runtimeGraph::streamVertices, runtimeGraph::streamEdges, format, file);
+            } else {
+                final var graph = fxGraph.graph;
+                exporter.export(() -> graph.vertices().stream().map(Vertex::element),
+                        () -> graph.edges().stream().map(e -> new SimpleEntry<>(e.vertices()[0].element(),
+                                                                                 e.vertices()[1].element())),
+                        format, file);
+            }
+        } catch (final IOException e) {
+            logger.atError().withException(e).log("Cannot export the graph to '%s'", file);
+            throw new UncheckedIOException(e);
         }
     }
 
@@ -234,21 +263,24 @@ public final class GraphFxComponentController implements GraphController {
                     final Collection<GraphPath<ComponentVertex, DefaultEdge>> dependencies = runtimeGraph
                             .getAllServiceComponentsThatAreRequiredBy(selectedComponents);
                     fxGraph = new FxComponentGraph(dependencies);
-                } else {
+                } else if (selection == 1) {
                     logger.atDebug().log("Generating service component cycles");
                     final var graph = runtimeGraph.getAllCycles();
                     fxGraph = new FxComponentGraph(graph);
+                } else {
+                    logger.atDebug().log("Generating condensed graph of strongly connected service components");
+                    final var summary = runtimeGraph.getCycleSummary();
+                    cycleSummary = summary;
+                    fxGraph      = new FxComponentGraph(summary.condensedGraph());
                 }
                 return null;
             }
 
             @Override
             protected void succeeded() {
-                final var graphView = new SmartGraphPanel<>(fxGraph.graph, getStrategy());
-                graphView.setPrefSize(800, 520);
                 progressPane.setVisible(false);
-                graphPane.setCenter(graphView);
-                graphView.init();
+                showGraph(graphPane, fxGraph.graph, getStrategy(),
+                        v -> showComponentMembers(v.getUnderlyingVertex().element()));
             }
         };
         graphPane.setCenter(progressPane);
@@ -258,6 +290,24 @@ public final class GraphFxComponentController implements GraphController {
         graphGenFuture = executor.runAsync(task);
     }
 
+    private void showComponentMembers(final ComponentVertex vertex) {
+        final var summary = cycleSummary;
+        if (summary == null || !summary.isStronglyConnectedComponent(vertex)) {
+            return;
+        }
+        final var content = new StringBuilder();
+        content.append("Members:").append(System.lineSeparator());
+        summary.membersOf(vertex).stream().map(ComponentVertex::name).sorted()
+                .forEach(m -> content.append("  ").append(m).append(System.lineSeparator()));
+        content.append(System.lineSeparator()).append("Representative Cycles:").append(System.lineSeparator());
+        for (final List<ComponentVertex> cycle : summary.cyclesOf(vertex)) {
+            final var joiner = new StringJoiner(" -> ", "  ", " -> " + cycle.get(0).name());
+            cycle.forEach(c -> joiner.add(c.name()));
+            content.append(joiner).append(System.lineSeparator());
+        }
+        FxDialog.showInfoDialog(vertex.name(), content.toString(), getClass().getClassLoader());
+    }
+
     @FXML
     private void deselectAll(final ActionEvent event) {
         componentsList.getCheckModel().clearChecks();
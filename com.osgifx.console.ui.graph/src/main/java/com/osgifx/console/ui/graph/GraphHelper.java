@@ -17,15 +17,25 @@ package com.osgifx.console.ui.graph;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.function.Consumer;
 
 import org.jgrapht.graph.DefaultDirectedGraph;
 import org.jgrapht.graph.DefaultEdge;
 
 import com.osgifx.console.smartgraph.graph.Edge;
 import com.osgifx.console.smartgraph.graph.Graph;
+import com.osgifx.console.smartgraph.graphview.SmartGraphCanvas;
+import com.osgifx.console.smartgraph.graphview.SmartGraphPanel;
+import com.osgifx.console.smartgraph.graphview.SmartGraphVertex;
+import com.osgifx.console.smartgraph.graphview.SmartPlacementStrategy;
+
+import javafx.scene.layout.BorderPane;
 
 public final class GraphHelper {
 
+    /** Graphs with more vertices than this are rendered by {@code SmartGraphCanvas} */
+    private static final int CANVAS_RENDERING_THRESHOLD = 300;
+
     private GraphHelper() {
         throw new IllegalAccessError("Cannot be instantiated");
     }
@@ -42,9 +52,42 @@ public final class GraphHelper {
         return graph;
     }
 
-    public static String generateDotFileName(final String prefix) {
+    /**
+     * Shows the specified graph in the center of the specified pane. Large graphs
+     * are painted on a canvas instead of creating nodes for every element.
+     *
+     * @param pane the pane to show the graph in
+     * @param graph the graph to show
+     * @param strategy the placement strategy of the vertices
+     * @param doubleClickAction the action to perform on double clicking a vertex
+     *            (can be {@code null})
+     */
+    public static <V> void showGraph(final BorderPane pane,
+                                     final Graph<V, String> graph,
+                                     final SmartPlacementStrategy strategy,
+                                     final Consumer<SmartGraphVertex<V>> doubleClickAction) {
+        if (graph.numVertices() > CANVAS_RENDERING_THRESHOLD) {
+            final var graphView = new SmartGraphCanvas<>(graph, strategy);
+            graphView.setPrefSize(800, 520);
+            if (doubleClickAction != null) {
+                graphView.setVertexDoubleClickAction(doubleClickAction);
+            }
+            pane.setCenter(graphView);
+            graphView.init();
+        } else {
+            final var graphView = new SmartGraphPanel<>(graph, strategy);
+            graphView.setPrefSize(800, 520);
+            if (doubleClickAction != null) {
+                graphView.setVertexDoubleClickAction(doubleClickAction);
+            }
+            pane.setCenter(graphView);
+            graphView.init();
+        }
+    }
+
+    public static String generateFileName(final String prefix, final String extension) {
         final var timeStamp = new SimpleDateFormat("yyyy-MM-dd_HH:mm:ss").format(new Date());
-        return "OSGi.fx_" + prefix + "_" + timeStamp + ".dot";
+        return "OSGi.fx_" + prefix + "_" + timeStamp + "." + extension;
     }
 
 }
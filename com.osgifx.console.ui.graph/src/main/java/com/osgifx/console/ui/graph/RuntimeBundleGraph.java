@@ -20,10 +20,13 @@ import static com.osgifx.console.event.topics.DataRetrievedEventTopics.DATA_RETR
 import static com.osgifx.console.ui.graph.BundleVertex.VERTEX_ID_FUNCTION;
 import static java.util.stream.Collectors.toMap;
 
+import java.util.AbstractMap.SimpleEntry;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
@@ -97,6 +100,26 @@ public final class RuntimeBundleGraph {
         return paths.getAllPaths(vertices, graph.vertexSet(), true, null);
     }
 
+    /**
+     * Returns the bundles of the complete runtime as vertices without building
+     * any intermediate graph.
+     */
+    public Stream<BundleVertex> streamVertices() {
+        return bundleMap.values().stream().map(b -> new BundleVertex(b.symbolicName, b.id));
+    }
+
+    /**
+     * Returns the complete runtime bundle wiring as edges from the requiring to
+     * the providing bundle without building any intermediate graph.
+     */
+    public Stream<Entry<BundleVertex, BundleVertex>> streamEdges() {
+        return bundleMap.values().stream().filter(b -> b.wiredBundlesAsRequirer != null).flatMap(b -> {
+            final var source = new BundleVertex(b.symbolicName, b.id);
+            return b.wiredBundlesAsRequirer.stream()
+                    .map(t -> new SimpleEntry<>(source, new BundleVertex(t.symbolicName, t.id)));
+        });
+    }
+
     private Map<String, XBundleDTO> processBundles(final List<XBundleDTO> bundles) {
         return bundles.stream().collect(toMap(b -> VERTEX_ID_FUNCTION.apply(b.symbolicName, b.id), identity()));
     }
@@ -16,12 +16,20 @@
 package com.osgifx.console.ui.graph;
 
 import static com.osgifx.console.event.topics.DataRetrievedEventTopics.DATA_RETRIEVED_COMPONENTS_TOPIC;
+import static java.util.stream.Collectors.toMap;
 
 import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
@@ -31,13 +39,14 @@ import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.e4.core.di.extensions.EventTopic;
 import org.jgrapht.Graph;
 import org.jgrapht.GraphPath;
-import org.jgrapht.alg.cycle.TarjanSimpleCycles;
+import org.jgrapht.alg.connectivity.GabowStrongConnectivityInspector;
 import org.jgrapht.alg.shortestpath.AllDirectedPaths;
 import org.jgrapht.graph.DefaultDirectedGraph;
 import org.jgrapht.graph.DefaultEdge;
 import org.osgi.framework.dto.ServiceReferenceDTO;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.osgifx.console.agent.dto.XComponentDTO;
 import com.osgifx.console.agent.dto.XSatisfiedReferenceDTO;
@@ -47,13 +56,18 @@ import com.osgifx.console.ui.graph.RuntimeComponentGraph.CircularLinkedList.Node
 @Creatable
 public final class RuntimeComponentGraph {
 
+    private static final int MAX_CYCLES_PER_SCC         = 5;
+    private static final int MAX_CYCLE_SEARCHES_PER_SCC = 4 * MAX_CYCLES_PER_SCC;
+
     @Inject
     private DataProvider                        dataProvider;
     private Graph<ComponentVertex, DefaultEdge> requirerGraph;
+    private ComponentCycleSummary               cycleSummary;
 
     @PostConstruct
-    public void init() {
+    public synchronized void init() {
         requirerGraph = buildGraph(dataProvider.components());
+        cycleSummary  = null;
     }
 
     @Inject
@@ -79,28 +93,156 @@ public final class RuntimeComponentGraph {
         return paths.getAllPaths(vertices, requirerGraph.vertexSet(), true, null);
     }
 
-    @SuppressWarnings("unused")
+    /**
+     * Returns a graph comprising a bounded number of representative cycles for
+     * every cyclic strongly connected component. In contrast to enumerating every
+     * elementary cycle, the cost of this operation is linear in the size of the
+     * graph.
+     */
     public Graph<ComponentVertex, DefaultEdge> getAllCycles() {
-        final var                                 tarjan = new TarjanSimpleCycles<>(requirerGraph);
-        final var                                 cycles = tarjan.findSimpleCycles();
-        final Graph<ComponentVertex, DefaultEdge> graph  = new DefaultDirectedGraph<>(DefaultEdge.class);
-
-        for (final List<ComponentVertex> group : cycles) {
-            Node<ComponentVertex> node = CircularLinkedList.create(group);
-            if (node != null) {
-                for (final ComponentVertex element : group) {
-                    node = node.getNext();
-                    final var source = node.getData();
-                    graph.addVertex(source);
-                    final var target = node.getNext().getData();
-                    graph.addVertex(target);
-                    graph.addEdge(source, target);
+        final var                                 summary = getCycleSummary();
+        final Graph<ComponentVertex, DefaultEdge> graph   = new DefaultDirectedGraph<>(DefaultEdge.class);
+
+        for (final List<List<ComponentVertex>> cycles : summary.cycles().values()) {
+            for (final List<ComponentVertex> group : cycles) {
+                Node<ComponentVertex> node = CircularLinkedList.create(group);
+                if (node != null) {
+                    for (var i = 0; i < group.size(); i++) {
+                        node = node.getNext();
+                        final var source = node.getData();
+                        graph.addVertex(source);
+                        final var target = node.getNext().getData();
+                        graph.addVertex(target);
+                        graph.addEdge(source, target);
+                    }
                 }
             }
         }
         return graph;
     }
 
+    /**
+     * Computes the strongly connected components of the service component graph
+     * in linear time and collapses every cyclic component into a single vertex.
+     * Components that are not part of any cycle are retained as they are.
+     */
+    public synchronized ComponentCycleSummary getCycleSummary() {
+        if (cycleSummary != null) {
+            return cycleSummary;
+        }
+        final var inspector = new GabowStrongConnectivityInspector<>(requirerGraph);
+        final var sccs      = inspector.stronglyConnectedSets();
+
+        final Map<ComponentVertex, Set<ComponentVertex>>        members  = Maps.newLinkedHashMap();
+        final Map<ComponentVertex, List<List<ComponentVertex>>> cycles   = Maps.newLinkedHashMap();
+        final Map<ComponentVertex, ComponentVertex>             sccIndex = Maps.newHashMap();
+        final Graph<ComponentVertex, DefaultEdge>               graph    = new DefaultDirectedGraph<>(DefaultEdge.class);
+
+        var index = 0;
+        for (final Set<ComponentVertex> scc : sccs) {
+            if (!isCyclic(scc)) {
+                final var vertex = scc.iterator().next();
+                graph.addVertex(vertex);
+                sccIndex.put(vertex, vertex);
+                continue;
+            }
+            final var sccVertex = new ComponentVertex("SCC #" + ++index + " (" + scc.size() + " components)");
+            graph.addVertex(sccVertex);
+            members.put(sccVertex, Set.copyOf(scc));
+            cycles.put(sccVertex, findRepresentativeCycles(scc));
+            scc.forEach(v -> sccIndex.put(v, sccVertex));
+        }
+        // edges between two different components are retained in the condensation
+        for (final DefaultEdge edge : requirerGraph.edgeSet()) {
+            final var source = sccIndex.get(requirerGraph.getEdgeSource(edge));
+            final var target = sccIndex.get(requirerGraph.getEdgeTarget(edge));
+            if (source != null && target != null && !source.equals(target)) {
+                graph.addEdge(source, target);
+            }
+        }
+        cycleSummary = new ComponentCycleSummary(graph, members, cycles);
+        return cycleSummary;
+    }
+
+    /**
+     * Returns all service components of the runtime as vertices.
+     */
+    public Stream<ComponentVertex> streamVertices() {
+        return requirerGraph.vertexSet().stream();
+    }
+
+    /**
+     * Returns all service component dependencies of the runtime as edges from the
+     * requiring to the required component.
+     */
+    public Stream<Entry<ComponentVertex, ComponentVertex>> streamEdges() {
+        final var graph = requirerGraph;
+        return graph.edgeSet().stream()
+                .map(e -> new SimpleEntry<>(graph.getEdgeSource(e), graph.getEdgeTarget(e)));
+    }
+
+    private boolean isCyclic(final Set<ComponentVertex> scc) {
+        if (scc.size() > 1) {
+            return true;
+        }
+        final var vertex = scc.iterator().next();
+        return requirerGraph.containsEdge(vertex, vertex);
+    }
+
+    private List<List<ComponentVertex>> findRepresentativeCycles(final Set<ComponentVertex> scc) {
+        final Set<List<ComponentVertex>> cycles   = Sets.newLinkedHashSet();
+        var                              attempts = 0;
+        for (final ComponentVertex start : scc) {
+            if (cycles.size() >= MAX_CYCLES_PER_SCC || attempts++ >= MAX_CYCLE_SEARCHES_PER_SCC) {
+                break;
+            }
+            final var cycle = findShortestCycle(start, scc);
+            if (!cycle.isEmpty()) {
+                cycles.add(normalize(cycle));
+            }
+        }
+        return List.copyOf(cycles);
+    }
+
+    private List<ComponentVertex> findShortestCycle(final ComponentVertex start, final Set<ComponentVertex> scc) {
+        final Map<ComponentVertex, ComponentVertex> parents = Maps.newHashMap();
+        final Deque<ComponentVertex>                queue   = new ArrayDeque<>();
+
+        parents.put(start, start);
+        queue.add(start);
+
+        while (!queue.isEmpty()) {
+            final var current = queue.poll();
+            for (final DefaultEdge edge : requirerGraph.outgoingEdgesOf(current)) {
+                final var next = requirerGraph.getEdgeTarget(edge);
+                if (next.equals(start)) {
+                    final LinkedList<ComponentVertex> cycle = new LinkedList<>();
+                    for (var v = current; !v.equals(start); v = parents.get(v)) {
+                        cycle.addFirst(v);
+                    }
+                    cycle.addFirst(start);
+                    return cycle;
+                }
+                if (scc.contains(next) && !parents.containsKey(next)) {
+                    parents.put(next, current);
+                    queue.add(next);
+                }
+            }
+        }
+        return List.of();
+    }
+
+    private List<ComponentVertex> normalize(final List<ComponentVertex> cycle) {
+        // rotate the cycle to start with its smallest vertex to detect duplicates
+        final var min     = cycle.stream().min(Comparator.comparing(ComponentVertex::name)).orElseThrow();
+        final var offset  = cycle.indexOf(min);
+        final var rotated = Lists.<ComponentVertex> newArrayList();
+        for (var i = 0; i < cycle.size(); i++) {
+            rotated.add(cycle.get((offset + i) % cycle.size()));
+        }
+        return List.copyOf(rotated);
+    }
+
     private Graph<ComponentVertex, DefaultEdge> buildGraph(final List<XComponentDTO> components) {
         final List<Entry<XComponentDTO, XComponentDTO>> edges = Lists.newArrayList();
         prepareEdges(components, edges);
@@ -120,6 +262,8 @@ public final class RuntimeComponentGraph {
 
     private void prepareEdges(final List<XComponentDTO> components,
                               final List<Entry<XComponentDTO, XComponentDTO>> edges) {
+        final Map<String, XComponentDTO> componentsByName = components.stream()
+                .collect(toMap(c -> c.name, Function.identity(), (c1, c2) -> c1));
         for (final XComponentDTO sourceComponent : components) {
             final var boundServices         = sourceComponent.satisfiedReferences;
             final var componentNameProperty = "component.name";
@@ -132,17 +276,13 @@ public final class RuntimeComponentGraph {
                     if (property == null) { // not a DS component
                         continue;
                     }
-                    targetComponent = findComponentByName(components, property);
+                    targetComponent = componentsByName.get(property);
                     edges.add(new SimpleEntry<>(sourceComponent, targetComponent));
                 }
             }
         }
     }
 
-    private XComponentDTO findComponentByName(final List<XComponentDTO> components, final String name) {
-        return components.stream().filter(c -> name.equals(c.name)).findAny().orElse(null);
-    }
-
     private ComponentVertex toVertex(final XComponentDTO component) {
         return new ComponentVertex(component.name);
     }
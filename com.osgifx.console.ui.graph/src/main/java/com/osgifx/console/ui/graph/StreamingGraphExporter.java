@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.ui.graph;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map.Entry;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Exports graphs in DOT (GraphViz) or GraphML format by streaming every vertex
+ * and edge directly to the output file. The vertices and edges are supplied
+ * lazily, hence the exporter does not need to materialize the graph or its
+ * textual representation in memory.
+ *
+ * @param <V> the vertex type
+ */
+public final class StreamingGraphExporter<V> {
+
+    public enum Format {
+        DOT("dot"),
+        GRAPHML("graphml");
+
+        private final String extension;
+
+        Format(final String extension) {
+            this.extension = extension;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    private final Function<V, String> idFunction;
+    private final Function<V, String> labelFunction;
+
+    public StreamingGraphExporter(final Function<V, String> idFunction, final Function<V, String> labelFunction) {
+        this.idFunction    = idFunction;
+        this.labelFunction = labelFunction;
+    }
+
+    /**
+     * Streams the graph to the specified file
+     *
+     * @param vertices the supplier of the vertices to export
+     * @param edges the supplier of the edges (source to target) to export
+     * @param format the export format
+     * @param file the output file
+     * @throws IOException if the file cannot be written
+     */
+    public void export(final Supplier<Stream<V>> vertices,
+                       final Supplier<Stream<Entry<V, V>>> edges,
+                       final Format format,
+                       final Path file) throws IOException {
+        try (final var writer = Files.newBufferedWriter(file, UTF_8)) {
+            switch (format) {
+                case DOT -> writeDOT(vertices, edges, writer);
+                case GRAPHML -> writeGraphML(vertices, edges, writer);
+            }
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeDOT(final Supplier<Stream<V>> vertices,
+                          final Supplier<Stream<Entry<V, V>>> edges,
+                          final BufferedWriter writer) throws IOException {
+        writer.write("strict digraph G {");
+        writer.newLine();
+        try (final var stream = vertices.get()) {
+            stream.forEach(v -> writeLine(writer, "  " + idFunction.apply(v) + " [ label=\""
+                    + escapeDOT(labelFunction.apply(v)) + "\" ];"));
+        }
+        try (final var stream = edges.get()) {
+            stream.forEach(e -> writeLine(writer,
+                    "  " + idFunction.apply(e.getKey()) + " -> " + idFunction.apply(e.getValue()) + ";"));
+        }
+        writer.write("}");
+        writer.newLine();
+    }
+
+    private void writeGraphML(final Supplier<Stream<V>> vertices,
+                              final Supplier<Stream<Entry<V, V>>> edges,
+                              final BufferedWriter writer) throws IOException {
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+        writer.newLine();
+        writer.write("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">");
+        writer.newLine();
+        writer.write("  <key id=\"label\" for=\"node\" attr.name=\"label\" attr.type=\"string\"/>");
+        writer.newLine();
+        writer.write("  <graph id=\"G\" edgedefault=\"directed\">");
+        writer.newLine();
+        try (final var stream = vertices.get()) {
+            stream.forEach(v -> writeLine(writer, "    <node id=\"" + escapeXML(idFunction.apply(v))
+                    + "\"><data key=\"label\">" + escapeXML(labelFunction.apply(v)) + "</data></node>"));
+        }
+        try (final var stream = edges.get()) {
+            stream.forEach(e -> writeLine(writer, "    <edge source=\"" + escapeXML(idFunction.apply(e.getKey()))
+                    + "\" target=\"" + escapeXML(idFunction.apply(e.getValue())) + "\"/>"));
+        }
+        writer.write("  </graph>");
+        writer.newLine();
+        writer.write("</graphml>");
+        writer.newLine();
+    }
+
+    private static void writeLine(final BufferedWriter writer, final String line) {
+        try {
+            writer.write(line);
+            writer.newLine();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String escapeDOT(final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static String escapeXML(final String value) {
+        final var builder = new StringBuilder(value.length());
+        for (final char c : value.toCharArray()) {
+            switch (c) {
+                case '<' -> builder.append("&lt;");
+                case '>' -> builder.append("&gt;");
+                case '&' -> builder.append("&amp;");
+                case '"' -> builder.append("&quot;");
+                case '\'' -> builder.append("&apos;");
+                default -> builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+}
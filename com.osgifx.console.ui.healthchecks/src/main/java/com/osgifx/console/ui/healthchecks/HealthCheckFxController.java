@@ -20,7 +20,6 @@ import static javafx.scene.control.SelectionMode.MULTIPLE;
 import static org.controlsfx.control.SegmentedButton.STYLE_CLASS_DARK;
 
 import java.util.List;
-import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
 import javax.inject.Inject;
@@ -101,7 +100,7 @@ public final class HealthCheckFxController {
     @Named("is_snapshot_agent")
     private boolean               isSnapshotAgent;
     private MaskerPane            progressPane;
-    private Future<?>             hcExecFuture;
+    private Task<?>               hcExecTask;
 
     @FXML
     public void initialize() {
@@ -306,10 +305,12 @@ public final class HealthCheckFxController {
             }
 
         };
-        if (hcExecFuture != null) {
-            hcExecFuture.cancel(true);
+        // cancelling the task interrupts its thread which cancels the pending agent call
+        if (hcExecTask != null) {
+            hcExecTask.cancel(true);
         }
-        hcExecFuture = executor.runAsync(task);
+        hcExecTask = task;
+        executor.runAsync(task);
     }
 
     @FXML
@@ -19,6 +19,7 @@ import static com.osgifx.console.supervisor.Supervisor.AGENT_CONNECTED_EVENT_TOP
 import static com.osgifx.console.supervisor.Supervisor.AGENT_DISCONNECTED_EVENT_TOPIC;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
 import org.eclipse.e4.core.di.annotations.Optional;
@@ -51,6 +52,12 @@ public final class HeapMonitorFxUI {
         statusBar.addTo(parent);
     }
 
+    @PreDestroy
+    public void destroy() {
+        memoryViewPane.stopUpdates();
+        memoryViewPane.cancelHeapdump();
+    }
+
     @Inject
     @Optional
     private void updateOnAgentConnectedEvent(@UIEventTopic(AGENT_CONNECTED_EVENT_TOPIC) final String data,
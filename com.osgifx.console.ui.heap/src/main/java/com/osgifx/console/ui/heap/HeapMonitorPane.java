@@ -15,6 +15,8 @@
  ******************************************************************************/
 package com.osgifx.console.ui.heap;
 
+import static com.osgifx.console.executor.Lane.BACKGROUND;
+
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
@@ -79,7 +81,9 @@ import javafx.util.Duration;
 @Creatable
 public final class HeapMonitorPane extends BorderPane {
 
-    private static final double REFRESH_DELAY = 2;
+    private static final double             REFRESH_DELAY    = 2;
+    // capturing and transferring large heaps takes way longer than the default timeout of the connection
+    private static final java.time.Duration HEAPDUMP_TIMEOUT = java.time.Duration.ofMinutes(30);
 
     private final List<HeapMonitorChart> memoryUsageCharts = Lists.newArrayList();
     private final StringProperty         totalUsedHeap     = new SimpleStringProperty();
@@ -109,6 +113,7 @@ public final class HeapMonitorPane extends BorderPane {
     @Named("is_snapshot_agent")
     private boolean           isSnapshotAgent;
     private ProgressDialog    progressDialog;
+    private Task<byte[]>      heapdumpTask;
 
     @PostConstruct
     public void init() {
@@ -332,14 +337,17 @@ public final class HeapMonitorPane extends BorderPane {
         }
         final var agent = supervisor.getAgent();
 
-        final Task<byte[]> heapdumpTask = new Task<>() {
+        heapdumpTask = new Task<>() {
 
             @Override
             protected byte[] call() throws Exception {
                 try {
                     updateMessage("Capturing heapdump");
-                    return agent.heapdump();
+                    return supervisor.callWithTimeout(HEAPDUMP_TIMEOUT, agent::heapdump);
                 } catch (final Exception e) {
+                    if (isCancelled()) {
+                        throw e;
+                    }
                     logger.atError().withException(e).log("Cannot capture heapdump");
                     threadSync.asyncExec(() -> {
                         progressDialog.close();
@@ -363,9 +371,11 @@ public final class HeapMonitorPane extends BorderPane {
                 });
             }
         });
-        final var taskFuture = executor.runAsync(heapdumpTask);
-        progressDialog = FxDialog.showProgressDialog("Capture Snapshpt", heapdumpTask, getClass().getClassLoader(),
-                () -> taskFuture.cancel(true));
+        final var task = heapdumpTask;
+        executor.runAsync(task, BACKGROUND);
+        // cancelling the task interrupts its thread which cancels the pending agent call
+        progressDialog = FxDialog.showProgressDialog("Capture Snapshpt", task, getClass().getClassLoader(),
+                () -> task.cancel(true));
     }
 
     private Pane createLeftPane() {
@@ -420,6 +430,17 @@ public final class HeapMonitorPane extends BorderPane {
         animation.pause();
     }
 
+    /**
+     * Cancels the heapdump that is still being captured, for example, as soon as
+     * the view gets closed
+     */
+    public void cancelHeapdump() {
+        final var task = heapdumpTask;
+        if (task != null) {
+            task.cancel(true);
+        }
+    }
+
     public Supplier<CompletableFuture<XMemoryUsage>> getMemoryUsageByMemoryPoolBean(final XMemoryPoolMXBean bean) {
         return () -> {
             if (!isConnected) {
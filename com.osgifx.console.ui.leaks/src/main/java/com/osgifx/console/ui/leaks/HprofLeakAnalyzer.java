@@ -0,0 +1,974 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.ui.leaks;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+
+/**
+ * Analyzes a heap dump in HPROF format for leaked classloaders without loading
+ * the dump into memory.
+ * <p>
+ * The dump is streamed twice. The first pass collects the class metadata and
+ * assigns a compact index to every object. The second pass records the
+ * references between the objects in primitive arrays. The memory required is
+ * therefore proportional to the number of objects and references and not to
+ * the size of the dump. The shallow sizes of the objects are approximated from
+ * the sizes of their contents in the dump.
+ * <p>
+ * If the dump has been taken from a runtime running the agent, the classloaders
+ * of the bundles tracked by the agent's leak detector are known. The latest
+ * classloader of a bundle is the one of its current revision, all the others
+ * are stale and suspected to be leaked. A classloader not tracked by the agent
+ * is suspected if it has defined classes which have also been defined by
+ * another classloader of the same type. As this also applies to the
+ * classloader of the current revision of a bundle, such a suspect is reported
+ * as unconfirmed.
+ * <p>
+ * For every suspected classloader, the shortest path from a GC root and the
+ * retained size are computed. The retained size comprises all the objects that
+ * would become unreachable if the classloader and the classes defined by it
+ * were unreachable, e.g. the values of the static fields of the classes. The
+ * referents of weak, soft and phantom references are not followed.
+ */
+final class HprofLeakAnalyzer {
+
+    private static final String HPROF_HEADER_PREFIX       = "JAVA PROFILE";
+    private static final String CLASSLOADER_CLASS         = "java.lang.ClassLoader";
+    private static final String REFERENCE_CLASS           = "java.lang.ref.Reference";
+    private static final String REFERENT_FIELD            = "referent";
+    private static final String LEAK_DETECTOR_CLASS       = "com.osgifx.console.agent.provider.ClassloaderLeakDetector";
+    private static final String TRACKED_REFERENCE_CLASS   = LEAK_DETECTOR_CLASS + "$BundleReference";
+    private static final String TRACKED_INFO_CLASS        = LEAK_DETECTOR_CLASS + "$ClassloaderInfo";
+    private static final int    MAX_ANALYZED_CLASSLOADERS = 25;
+    private static final int    CANCELLATION_CHECK_MASK   = 0xFFFF;
+    private static final int    BUFFER_SIZE               = 1 << 20;
+    private static final long   CLASS_OBJECT              = 0L;
+
+    // the kinds of classes whose instances are inspected
+    private static final int KIND_OTHER             = 0;
+    private static final int KIND_REFERENCE         = 1;
+    private static final int KIND_TRACKED_REFERENCE = 2;
+    private static final int KIND_TRACKED_INFO      = 3;
+
+    // top-level record tags
+    private static final int TAG_UTF8              = 0x01;
+    private static final int TAG_LOAD_CLASS        = 0x02;
+    private static final int TAG_HEAP_DUMP         = 0x0C;
+    private static final int TAG_HEAP_DUMP_SEGMENT = 0x1C;
+
+    // heap dump sub-record tags
+    private static final int ROOT_UNKNOWN      = 0xFF;
+    private static final int ROOT_JNI_GLOBAL   = 0x01;
+    private static final int ROOT_JNI_LOCAL    = 0x02;
+    private static final int ROOT_JAVA_FRAME   = 0x03;
+    private static final int ROOT_NATIVE_STACK = 0x04;
+    private static final int ROOT_STICKY_CLASS = 0x05;
+    private static final int ROOT_THREAD_BLOCK = 0x06;
+    private static final int ROOT_MONITOR_USED = 0x07;
+    private static final int ROOT_THREAD_OBJ   = 0x08;
+    private static final int CLASS_DUMP        = 0x20;
+    private static final int INSTANCE_DUMP     = 0x21;
+    private static final int OBJ_ARRAY_DUMP    = 0x22;
+    private static final int PRIM_ARRAY_DUMP   = 0x23;
+
+    // basic types
+    private static final int TYPE_OBJECT  = 2;
+    private static final int TYPE_BOOLEAN = 4;
+    private static final int TYPE_CHAR    = 5;
+    private static final int TYPE_FLOAT   = 6;
+    private static final int TYPE_DOUBLE  = 7;
+    private static final int TYPE_BYTE    = 8;
+    private static final int TYPE_SHORT   = 9;
+    private static final int TYPE_INT     = 10;
+    private static final int TYPE_LONG    = 11;
+
+    /**
+     * The result of the analysis of a suspected classloader
+     *
+     * @param type the type of the classloader
+     * @param objectId the identifier of the classloader object in the dump
+     * @param bundleId the identifier of the bundle as tracked by the agent
+     *            ({@code -1} if not tracked)
+     * @param isStale whether the classloader is tracked by the agent and
+     *            belongs to a previous revision of the bundle, otherwise the
+     *            classloader might also belong to the current revision
+     * @param sampleClass the name of one of the classes defined by the classloader
+     * @param definedClasses the number of classes defined by the classloader
+     * @param duplicateClasses the number of classes also defined by another
+     *            classloader of the same type
+     * @param isReachable whether the classloader is reachable from a GC root
+     * @param retainedSize the approximated retained size in bytes
+     * @param retainedObjects the number of retained objects
+     * @param pathFromGcRoot the shortest path from a GC root to the classloader
+     *            (empty if the classloader is not reachable)
+     */
+    public record LeakedClassloader(String type,
+                                    long objectId,
+                                    long bundleId,
+                                    boolean isStale,
+                                    String sampleClass,
+                                    int definedClasses,
+                                    int duplicateClasses,
+                                    boolean isReachable,
+                                    long retainedSize,
+                                    long retainedObjects,
+                                    List<String> pathFromGcRoot) {
+    }
+
+    private final Path             heapdump;
+    private final Consumer<String> progress;
+
+    private int idSize;
+
+    private final Map<Long, String>    strings     = new HashMap<>();
+    private final Map<Long, Long>      classNames  = new HashMap<>();
+    private final Map<Long, ClassInfo> classes     = new HashMap<>();
+    private final Map<Integer, String> rootKinds   = new HashMap<>();
+    private final Map<Long, Boolean>   classloader = new HashMap<>();
+
+    // the classloaders tracked by the leak detector of the agent
+    private final Map<Long, TrackedLoader> trackedLoaders = new HashMap<>();
+    private final Map<Long, Long>          creationTimes  = new HashMap<>();
+
+    // the objects are referred to by the indices assigned in the first pass
+    private final LongIntMap objectIndices = new LongIntMap();
+    private final LongArray  objectIds     = new LongArray();
+    private final LongArray  objectTypes   = new LongArray();
+    private final IntArray   objectSizes   = new IntArray();
+    private final LongArray  rootIds       = new LongArray();
+    private final IntArray   rootTags      = new IntArray();
+    private final IntArray   edges         = new IntArray();
+    private int[]            edgeOffsets;
+    private int[]            roots;
+    private int[]            queue;
+    private int              nextObject;
+    private long             records;
+
+    HprofLeakAnalyzer(final Path heapdump, final Consumer<String> progress) {
+        this.heapdump = heapdump;
+        this.progress = progress;
+    }
+
+    /**
+     * Analyzes the heap dump
+     *
+     * @return the suspected classloaders sorted by their retained sizes in
+     *         descending order
+     * @throws IOException if the heap dump cannot be read
+     * @throws CancellationException if the current thread has been interrupted
+     */
+    public List<LeakedClassloader> analyze() throws IOException {
+        progress.accept("Indexing objects");
+        read(true);
+
+        progress.accept("Collecting references");
+        edgeOffsets = new int[objectIds.size() + 1];
+        nextObject  = 0;
+        read(false);
+        edgeOffsets[objectIds.size()] = edges.size();
+        resolveRoots();
+
+        progress.accept("Computing paths from GC roots");
+        queue = new int[objectIds.size()];
+        final var parents   = new int[objectIds.size()];
+        final var reachable = new BitSet(objectIds.size());
+        traverse(roots, parents, reachable);
+
+        final var leaks      = new ArrayList<LeakedClassloader>();
+        final var unretained = new BitSet(objectIds.size());
+        for (final LoaderSummary summary : findSuspiciousClassloaders()) {
+            progress.accept("Computing retained size of classloader 0x" + Long.toHexString(summary.loaderId));
+            leaks.add(analyze(summary, reachable, parents, unretained));
+        }
+        leaks.sort(Comparator.comparingLong(LeakedClassloader::retainedSize).reversed());
+        return leaks;
+    }
+
+    private LeakedClassloader analyze(final LoaderSummary summary,
+                                      final BitSet reachable,
+                                      final int[] parents,
+                                      final BitSet unretained) {
+        final var loader      = objectIndices.get(summary.loaderId);
+        final var isReachable = reachable.get(loader);
+
+        long retainedSize    = 0;
+        long retainedObjects = 0;
+        final List<String> path = new ArrayList<>();
+        if (isReachable) {
+            // the retained objects are the reachable ones which are not reachable from the GC roots without
+            // passing through the classloader or its classes
+            final var group = new IntArray();
+            group.add(loader);
+            for (final long classId : summary.classIds) {
+                group.add(objectIndices.get(classId));
+            }
+            final var groupNodes = group.toArray();
+            unretained.clear();
+            for (final int node : groupNodes) {
+                unretained.set(node);
+            }
+            traverse(roots, null, unretained);
+            for (final int node : groupNodes) {
+                unretained.clear(node);
+            }
+            for (var i = reachable.nextSetBit(0); i >= 0; i = reachable.nextSetBit(i + 1)) {
+                if (!unretained.get(i)) {
+                    retainedSize += objectSizes.get(i);
+                    retainedObjects++;
+                }
+            }
+            var node = loader;
+            while (parents[node] != -1) {
+                path.add(describe(node));
+                node = parents[node];
+            }
+            path.add(describe(node));
+            path.add("GC Root: " + rootKinds.get(node));
+            Collections.reverse(path);
+        }
+        final var tracked = trackedLoaders.get(summary.loaderId);
+        return new LeakedClassloader(className(objectTypes.get(loader)), summary.loaderId,
+                                     tracked == null ? -1 : tracked.bundleId(), summary.isStale, summary.sampleClass,
+                                     summary.classIds.size(), summary.duplicateClasses, isReachable, retainedSize,
+                                     retainedObjects, path);
+    }
+
+    private List<LoaderSummary> findSuspiciousClassloaders() {
+        final Map<Long, LoaderSummary> summaries = new HashMap<>();
+        final Map<String, List<Long>>  definers  = new HashMap<>();
+        for (final long loaderId : staleLoaders()) {
+            if (objectIndices.get(loaderId) >= 0) {
+                summaries.computeIfAbsent(loaderId, LoaderSummary::new).isStale = true;
+            }
+        }
+        for (final Map.Entry<Long, ClassInfo> entry : classes.entrySet()) {
+            final var loaderId = entry.getValue().loaderId;
+            if (loaderId == 0 || objectIndices.get(loaderId) < 0) {
+                continue;
+            }
+            final var name    = className(entry.getKey());
+            final var summary = summaries.computeIfAbsent(loaderId, LoaderSummary::new);
+
+            summary.classIds.add(entry.getKey());
+            summary.classNames.add(name);
+            definers.computeIfAbsent(name, n -> new ArrayList<>(1)).add(loaderId);
+        }
+        for (final LoaderSummary summary : summaries.values()) {
+            final var loaderType = objectTypes.get(objectIndices.get(summary.loaderId));
+            for (final String name : summary.classNames) {
+                final var loaders = definers.get(name);
+                if (loaders.size() < 2) {
+                    continue;
+                }
+                for (final long other : loaders) {
+                    if (other != summary.loaderId && objectTypes.get(objectIndices.get(other)) == loaderType) {
+                        summary.duplicateClasses++;
+                        if (summary.sampleClass == null) {
+                            summary.sampleClass = name;
+                        }
+                        break;
+                    }
+                }
+            }
+            if (summary.sampleClass == null && !summary.classNames.isEmpty()) {
+                summary.sampleClass = summary.classNames.get(0);
+            }
+            summary.classNames.clear();
+        }
+        // the stale classloaders first
+        final Comparator<LoaderSummary> suspiciousness = Comparator
+                .comparing((final LoaderSummary s) -> !s.isStale)
+                .thenComparing(Comparator.comparingInt((final LoaderSummary s) -> s.duplicateClasses).reversed());
+        // @formatter:off
+        return summaries.values()
+                        .stream()
+                        .filter(s -> s.isStale || s.duplicateClasses > 0 && !trackedLoaders.containsKey(s.loaderId))
+                        .filter(s -> isClassloader(objectTypes.get(objectIndices.get(s.loaderId))))
+                        .sorted(suspiciousness)
+                        .limit(MAX_ANALYZED_CLASSLOADERS)
+                        .toList();
+        // @formatter:on
+    }
+
+    /**
+     * Returns the classloaders tracked by the agent which do not belong to the
+     * current revisions of their bundles. The current revision of a bundle is
+     * the one whose classloader has been created last.
+     */
+    private Set<Long> staleLoaders() {
+        final Map<Long, Long> latest = new HashMap<>();
+        for (final Map.Entry<Long, TrackedLoader> entry : trackedLoaders.entrySet()) {
+            final var creationTime = creationTime(entry.getValue());
+            latest.merge(entry.getValue().bundleId(), entry.getKey(),
+                         (current, candidate) -> creationTime(trackedLoaders.get(current)) >= creationTime ? current
+                                 : candidate);
+        }
+        final var stale = new HashSet<>(trackedLoaders.keySet());
+        stale.removeAll(latest.values());
+        return stale;
+    }
+
+    private long creationTime(final TrackedLoader tracked) {
+        return creationTimes.getOrDefault(tracked.infoId(), 0L);
+    }
+
+    private boolean isClassloader(final long classId) {
+        final var known = classloader.get(classId);
+        if (known != null) {
+            return known;
+        }
+        var isClassloader = false;
+        for (var current = classId; current != 0; current = classes.get(current).superId) {
+            if (CLASSLOADER_CLASS.equals(className(current))) {
+                isClassloader = true;
+                break;
+            }
+            if (!classes.containsKey(current)) {
+                break;
+            }
+        }
+        classloader.put(classId, isClassloader);
+        return isClassloader;
+    }
+
+    /**
+     * Traverses the object graph breadth-first.
+     *
+     * @param starts the objects to start from
+     * @param parents the array to record the parent of every reached object in
+     *            (can be {@code null})
+     * @param visited the objects reached, the objects already set are not
+     *            traversed
+     */
+    private void traverse(final int[] starts, final int[] parents, final BitSet visited) {
+        var head = 0;
+        var tail = 0;
+        for (final int start : starts) {
+            if (visited.get(start)) {
+                continue;
+            }
+            visited.set(start);
+            queue[tail++] = start;
+            if (parents != null) {
+                parents[start] = -1;
+            }
+        }
+        while (head < tail) {
+            final var node = queue[head++];
+            if ((head & CANCELLATION_CHECK_MASK) == 0) {
+                checkCancelled();
+            }
+            for (var i = edgeOffsets[node]; i < edgeOffsets[node + 1]; i++) {
+                final var target = edges.get(i);
+                if (visited.get(target)) {
+                    continue;
+                }
+                visited.set(target);
+                queue[tail++] = target;
+                if (parents != null) {
+                    parents[target] = node;
+                }
+            }
+        }
+    }
+
+    private void resolveRoots() {
+        final var resolved = new IntArray();
+        for (var i = 0; i < rootIds.size(); i++) {
+            final var node = objectIndices.get(rootIds.get(i));
+            if (node < 0) {
+                continue;
+            }
+            resolved.add(node);
+            rootKinds.putIfAbsent(node, rootKind(rootTags.get(i)));
+        }
+        roots = resolved.toArray();
+    }
+
+    private void read(final boolean isIndexing) throws IOException {
+        try (var in = new HprofInput(Files.newInputStream(heapdump))) {
+            final var header = in.readNullTerminatedString();
+            if (!header.startsWith(HPROF_HEADER_PREFIX)) {
+                throw new IOException("Not a heap dump in HPROF format - '" + heapdump + "'");
+            }
+            idSize = in.readInt();
+            in.skip(8); // timestamp
+
+            int tag;
+            while ((tag = in.read()) != -1) {
+                in.skip(4); // time
+                final var length = in.readInt() & 0xFFFF_FFFFL;
+                switch (tag) {
+                    case TAG_UTF8 -> {
+                        if (isIndexing) {
+                            final var id    = in.readId(idSize);
+                            final var bytes = in.readBytes((int) (length - idSize));
+                            strings.put(id, new String(bytes, UTF_8));
+                        } else {
+                            in.skip(length);
+                        }
+                    }
+                    case TAG_LOAD_CLASS -> {
+                        if (isIndexing) {
+                            in.skip(4); // serial number
+                            final var classId = in.readId(idSize);
+                            in.skip(4); // stack trace serial number
+                            classNames.put(classId, in.readId(idSize));
+                        } else {
+                            in.skip(length);
+                        }
+                    }
+                    case TAG_HEAP_DUMP, TAG_HEAP_DUMP_SEGMENT -> readHeapDump(in, in.position() + length, isIndexing);
+                    default -> in.skip(length);
+                }
+            }
+        }
+    }
+
+    private void readHeapDump(final HprofInput in, final long end, final boolean isIndexing) throws IOException {
+        while (in.position() < end) {
+            if ((++records & CANCELLATION_CHECK_MASK) == 0) {
+                checkCancelled();
+            }
+            final var tag = in.read();
+            switch (tag) {
+                case ROOT_UNKNOWN, ROOT_STICKY_CLASS, ROOT_MONITOR_USED -> readRoot(in, tag, 0, isIndexing);
+                case ROOT_JNI_GLOBAL -> readRoot(in, tag, idSize, isIndexing);
+                case ROOT_NATIVE_STACK, ROOT_THREAD_BLOCK -> readRoot(in, tag, 4, isIndexing);
+                case ROOT_JNI_LOCAL, ROOT_JAVA_FRAME, ROOT_THREAD_OBJ -> readRoot(in, tag, 8, isIndexing);
+                case CLASS_DUMP -> readClassDump(in, isIndexing);
+                case INSTANCE_DUMP -> readInstanceDump(in, isIndexing);
+                case OBJ_ARRAY_DUMP -> readObjectArrayDump(in, isIndexing);
+                case PRIM_ARRAY_DUMP -> readPrimitiveArrayDump(in, isIndexing);
+                default -> throw new IOException("Unsupported heap dump record - 0x" + Integer.toHexString(tag));
+            }
+        }
+    }
+
+    private void readRoot(final HprofInput in, final int tag, final int remaining, final boolean isIndexing)
+            throws IOException {
+        final var id = in.readId(idSize);
+        in.skip(remaining);
+        if (isIndexing) {
+            rootIds.add(id);
+            rootTags.add(tag);
+        }
+    }
+
+    private void readClassDump(final HprofInput in, final boolean isIndexing) throws IOException {
+        final var classId = in.readId(idSize);
+        in.skip(4); // stack trace serial number
+        final var superId   = in.readId(idSize);
+        final var loaderId  = in.readId(idSize);
+        final var signersId = in.readId(idSize);
+        final var domainId  = in.readId(idSize);
+        in.skip(2L * idSize + 4); // reserved and instance size
+
+        final var references = new LongArray();
+        references.add(superId);
+        references.add(loaderId);
+        references.add(signersId);
+        references.add(domainId);
+
+        var size = 0;
+
+        final var constants = in.readUnsignedShort();
+        for (var i = 0; i < constants; i++) {
+            in.skip(2); // constant pool index
+            size += readValue(in, in.read(), references);
+        }
+        final var statics = in.readUnsignedShort();
+        for (var i = 0; i < statics; i++) {
+            in.skip(idSize); // name
+            size += readValue(in, in.read(), references);
+        }
+        final var fields     = in.readUnsignedShort();
+        final var fieldTypes = new byte[fields];
+        final var fieldNames = new long[fields];
+        for (var i = 0; i < fields; i++) {
+            fieldNames[i] = in.readId(idSize);
+            fieldTypes[i] = (byte) in.read();
+        }
+        if (isIndexing) {
+            classes.put(classId, new ClassInfo(superId, loaderId, fieldTypes, fieldNames, kindOf(classId)));
+            addObject(classId, CLASS_OBJECT, size);
+        } else if (startObject(classId)) {
+            for (var i = 0; i < references.size(); i++) {
+                addEdge(references.get(i));
+            }
+        }
+    }
+
+    private void readInstanceDump(final HprofInput in, final boolean isIndexing) throws IOException {
+        final var id = in.readId(idSize);
+        in.skip(4); // stack trace serial number
+        final var classId = in.readId(idSize);
+        final var length  = in.readInt();
+        if (isIndexing) {
+            in.skip(length);
+            addObject(id, classId, length + 2 * idSize);
+            return;
+        }
+        final var data = in.readBytes(length);
+        if (!startObject(id)) {
+            return;
+        }
+        addEdge(classId);
+        // the field values of the class are followed by the ones of its super classes
+        var offset = 0;
+        for (var current = classes.get(classId); current != null; current = classes.get(current.superId)) {
+            for (var i = 0; i < current.fieldTypes.length; i++) {
+                final var type = current.fieldTypes[i];
+                if (type == TYPE_OBJECT && !isReferent(current, i)) {
+                    addEdge(readId(data, offset));
+                }
+                offset += sizeOf(type);
+            }
+        }
+        final var info = classes.get(classId);
+        if (info == null) {
+            return;
+        }
+        switch (info.kind) {
+            case KIND_TRACKED_REFERENCE -> {
+                final var loaderId = fieldValue(info, data, REFERENT_FIELD);
+                if (loaderId != 0) {
+                    trackedLoaders.put(loaderId, new TrackedLoader(fieldValue(info, data, "bundleId"),
+                                                                   fieldValue(info, data, "classloaderInfo")));
+                }
+            }
+            case KIND_TRACKED_INFO -> creationTimes.put(id, fieldValue(info, data, "creationTime"));
+            default -> {
+                // no need to inspect the instance
+            }
+        }
+    }
+
+    private int kindOf(final long classId) {
+        return switch (className(classId)) {
+            case REFERENCE_CLASS -> KIND_REFERENCE;
+            case TRACKED_REFERENCE_CLASS -> KIND_TRACKED_REFERENCE;
+            case TRACKED_INFO_CLASS -> KIND_TRACKED_INFO;
+            default -> KIND_OTHER;
+        };
+    }
+
+    private boolean isReferent(final ClassInfo declaringClass, final int field) {
+        return declaringClass.kind == KIND_REFERENCE
+                && REFERENT_FIELD.equals(strings.get(declaringClass.fieldNames[field]));
+    }
+
+    /**
+     * Returns the value of the specified field of an instance as a long, i.e.
+     * the identifier of the referenced object for object fields
+     *
+     * @return the value or {@code 0} if there is no such field
+     */
+    private long fieldValue(final ClassInfo instanceClass, final byte[] data, final String name) {
+        var offset = 0;
+        for (var current = instanceClass; current != null; current = classes.get(current.superId)) {
+            for (var i = 0; i < current.fieldTypes.length; i++) {
+                final var size = sizeOf(current.fieldTypes[i]);
+                if (name.equals(strings.get(current.fieldNames[i]))) {
+                    long value = 0;
+                    for (var j = 0; j < size; j++) {
+                        value = value << 8 | data[offset + j] & 0xFF;
+                    }
+                    return value;
+                }
+                offset += size;
+            }
+        }
+        return 0;
+    }
+
+    private void readObjectArrayDump(final HprofInput in, final boolean isIndexing) throws IOException {
+        final var id = in.readId(idSize);
+        in.skip(4); // stack trace serial number
+        final var length       = in.readInt();
+        final var arrayClassId = in.readId(idSize);
+        if (isIndexing) {
+            in.skip((long) length * idSize);
+            addObject(id, arrayClassId, length * idSize + 2 * idSize);
+            return;
+        }
+        final var isStarted = startObject(id);
+        if (isStarted) {
+            addEdge(arrayClassId);
+        }
+        for (var i = 0; i < length; i++) {
+            final var element = in.readId(idSize);
+            if (isStarted) {
+                addEdge(element);
+            }
+        }
+    }
+
+    private void readPrimitiveArrayDump(final HprofInput in, final boolean isIndexing) throws IOException {
+        final var id = in.readId(idSize);
+        in.skip(4); // stack trace serial number
+        final var length = in.readInt();
+        final var type   = in.read();
+        final var size   = (long) length * sizeOf(type);
+        in.skip(size);
+        if (isIndexing) {
+            // primitive arrays are identified by the negated element type
+            addObject(id, -type, (int) Math.min(Integer.MAX_VALUE, size + 2 * idSize));
+        } else {
+            startObject(id);
+        }
+    }
+
+    private int readValue(final HprofInput in, final int type, final LongArray references) throws IOException {
+        if (type == TYPE_OBJECT) {
+            references.add(in.readId(idSize));
+            return idSize;
+        }
+        final var size = sizeOf(type);
+        in.skip(size);
+        return size;
+    }
+
+    private void addObject(final long id, final long type, final int size) {
+        if (objectIndices.get(id) >= 0) {
+            // ignore duplicate records
+            return;
+        }
+        objectIndices.put(id, objectIds.size());
+        objectIds.add(id);
+        objectTypes.add(type);
+        objectSizes.add(size);
+    }
+
+    /**
+     * Starts recording the references of the specified object in the second
+     * pass. The objects are visited in the same order as in the first pass.
+     *
+     * @return {@code false} if it is a duplicate record to be ignored
+     */
+    private boolean startObject(final long id) {
+        if (objectIndices.get(id) != nextObject) {
+            return false;
+        }
+        edgeOffsets[nextObject++] = edges.size();
+        return true;
+    }
+
+    private void addEdge(final long targetId) {
+        if (targetId == 0) {
+            return;
+        }
+        final var target = objectIndices.get(targetId);
+        if (target >= 0) {
+            edges.add(target);
+        }
+    }
+
+    private long readId(final byte[] data, final int offset) {
+        long id = 0;
+        for (var i = 0; i < idSize; i++) {
+            id = id << 8 | data[offset + i] & 0xFF;
+        }
+        return id;
+    }
+
+    private int sizeOf(final int type) {
+        return switch (type) {
+            case TYPE_OBJECT -> idSize;
+            case TYPE_BOOLEAN, TYPE_BYTE -> 1;
+            case TYPE_CHAR, TYPE_SHORT -> 2;
+            case TYPE_FLOAT, TYPE_INT -> 4;
+            case TYPE_DOUBLE, TYPE_LONG -> 8;
+            default -> throw new IllegalStateException("Unsupported basic type - " + type);
+        };
+    }
+
+    private String describe(final int node) {
+        final var type = objectTypes.get(node);
+        final var id   = Long.toHexString(objectIds.get(node));
+        if (type == CLASS_OBJECT) {
+            return "class " + className(objectIds.get(node)) + " @ 0x" + id;
+        }
+        if (type < 0) {
+            return primitiveTypeName((int) -type) + "[] @ 0x" + id;
+        }
+        return className(type) + " @ 0x" + id;
+    }
+
+    private String className(final long classId) {
+        final var nameId = classNames.get(classId);
+        final var name   = nameId == null ? null : strings.get(nameId);
+        if (name == null) {
+            return "<unknown class 0x" + Long.toHexString(classId) + ">";
+        }
+        return name.replace('/', '.');
+    }
+
+    private static String primitiveTypeName(final int type) {
+        return switch (type) {
+            case TYPE_BOOLEAN -> "boolean";
+            case TYPE_CHAR -> "char";
+            case TYPE_FLOAT -> "float";
+            case TYPE_DOUBLE -> "double";
+            case TYPE_BYTE -> "byte";
+            case TYPE_SHORT -> "short";
+            case TYPE_INT -> "int";
+            case TYPE_LONG -> "long";
+            default -> "unknown";
+        };
+    }
+
+    private static String rootKind(final int tag) {
+        return switch (tag) {
+            case ROOT_JNI_GLOBAL -> "JNI Global";
+            case ROOT_JNI_LOCAL -> "JNI Local";
+            case ROOT_JAVA_FRAME -> "Java Frame";
+            case ROOT_NATIVE_STACK -> "Native Stack";
+            case ROOT_STICKY_CLASS -> "System Class";
+            case ROOT_THREAD_BLOCK -> "Thread Block";
+            case ROOT_MONITOR_USED -> "Busy Monitor";
+            case ROOT_THREAD_OBJ -> "Thread";
+            default -> "Unknown";
+        };
+    }
+
+    private static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Heap dump analysis has been cancelled");
+        }
+    }
+
+    private record ClassInfo(long superId, long loaderId, byte[] fieldTypes, long[] fieldNames, int kind) {
+    }
+
+    private record TrackedLoader(long bundleId, long infoId) {
+    }
+
+    private static final class LoaderSummary {
+
+        private final long         loaderId;
+        private final List<Long>   classIds   = new ArrayList<>();
+        private final List<String> classNames = new ArrayList<>();
+        private int                duplicateClasses;
+        private String             sampleClass;
+        private boolean            isStale;
+
+        private LoaderSummary(final long loaderId) {
+            this.loaderId = loaderId;
+        }
+    }
+
+    /**
+     * Input stream keeping track of the number of bytes read
+     */
+    private static final class HprofInput implements AutoCloseable {
+
+        private final DataInputStream in;
+        private long                  position;
+
+        private HprofInput(final InputStream in) {
+            this.in = new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+        }
+
+        int read() throws IOException {
+            final var value = in.read();
+            if (value != -1) {
+                position++;
+            }
+            return value;
+        }
+
+        int readInt() throws IOException {
+            position += 4;
+            return in.readInt();
+        }
+
+        int readUnsignedShort() throws IOException {
+            position += 2;
+            return in.readUnsignedShort();
+        }
+
+        long readId(final int idSize) throws IOException {
+            position += idSize;
+            return idSize == 4 ? in.readInt() & 0xFFFF_FFFFL : in.readLong();
+        }
+
+        byte[] readBytes(final int length) throws IOException {
+            final var bytes = new byte[length];
+            in.readFully(bytes);
+            position += length;
+            return bytes;
+        }
+
+        String readNullTerminatedString() throws IOException {
+            final var builder = new StringBuilder();
+            int       c;
+            while ((c = read()) > 0) {
+                builder.append((char) c);
+            }
+            return builder.toString();
+        }
+
+        void skip(final long length) throws IOException {
+            var remaining = length;
+            while (remaining > 0) {
+                final var skipped = in.skip(remaining);
+                if (skipped <= 0) {
+                    // skip() does not report the end of the stream
+                    if (in.read() == -1) {
+                        throw new EOFException("Unexpected end of heap dump");
+                    }
+                    remaining--;
+                } else {
+                    remaining -= skipped;
+                }
+            }
+            position += length;
+        }
+
+        long position() {
+            return position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Open addressing hash map from object identifiers to object indices
+     */
+    private static final class LongIntMap {
+
+        private long[] keys   = new long[1 << 16];
+        private int[]  values = new int[1 << 16];
+        private int    size;
+
+        int get(final long key) {
+            final var mask = keys.length - 1;
+            for (var i = hash(key) & mask;; i = i + 1 & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+                if (keys[i] == 0) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(final long key, final int value) {
+            if (size * 4L >= keys.length * 3L) {
+                grow();
+            }
+            final var mask = keys.length - 1;
+            var       i    = hash(key) & mask;
+            while (keys[i] != 0 && keys[i] != key) {
+                i = i + 1 & mask;
+            }
+            if (keys[i] == 0) {
+                size++;
+            }
+            keys[i]   = key;
+            values[i] = value;
+        }
+
+        private void grow() {
+            final var oldKeys   = keys;
+            final var oldValues = values;
+            keys   = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            size   = 0;
+            for (var i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int hash(final long key) {
+            final var h = key * 0x9E37_79B9_7F4A_7C15L;
+            return (int) (h ^ h >>> 32);
+        }
+    }
+
+    private static final class LongArray {
+
+        private long[] values = new long[1 << 10];
+        private int    size;
+
+        void add(final long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long get(final int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    private static final class IntArray {
+
+        private int[] values = new int[1 << 10];
+        private int   size;
+
+        void add(final int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(final int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.ui.leaks;
+
+import static com.osgifx.console.constants.FxConstants.STANDARD_CSS;
+
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+
+import com.osgifx.console.agent.dto.XClassloaderHistogramDTO;
+import com.osgifx.console.ui.leaks.HprofLeakAnalyzer.LeakedClassloader;
+
+import javafx.scene.control.Alert;
+import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.TextArea;
+import javafx.scene.text.Font;
+import javafx.stage.StageStyle;
+
+final class LeakReports {
+
+    private LeakReports() {
+        throw new IllegalAccessError("Cannot be instantiated");
+    }
+
+    static String ofHistogram(final List<XClassloaderHistogramDTO> histograms) {
+        if (histograms.isEmpty()) {
+            return "No class histogram available";
+        }
+        final var report = new StringBuilder();
+        for (final XClassloaderHistogramDTO histogram : histograms) {
+            report.append(histogram.symbolicName).append(" (").append(histogram.version).append(") [")
+                    .append(histogram.bundleId).append("]\n");
+            report.append("  Classloaders        : ").append(histogram.classloaderCount).append('\n');
+            report.append("  Classes             : ").append(histogram.classes).append('\n');
+            report.append("  Instances           : ").append(histogram.instances).append(" (")
+                    .append(FileUtils.byteCountToDisplaySize(histogram.bytes)).append(")\n");
+            if (histogram.duplicateClassInstances > 0) {
+                report.append("  Duplicate Instances : ").append(histogram.duplicateClassInstances).append(" (")
+                        .append(FileUtils.byteCountToDisplaySize(histogram.duplicateClassBytes)).append(")\n");
+            }
+            if (histogram.sharedClassInstances > 0) {
+                report.append("  Shared Instances    : ").append(histogram.sharedClassInstances).append(" (")
+                        .append(FileUtils.byteCountToDisplaySize(histogram.sharedClassBytes))
+                        .append(", classes also contained in other bundles)\n");
+            }
+            for (final var entry : histogram.topClasses) {
+                report.append(String.format("    %12d %12s  %s%s%n", entry.instances,
+                        FileUtils.byteCountToDisplaySize(entry.bytes), entry.className,
+                        entry.classloaderCount > 1 ? " [loaded " + entry.classloaderCount + " times]" : ""));
+            }
+            report.append('\n');
+        }
+        return report.toString();
+    }
+
+    static String ofHeapDump(final List<LeakedClassloader> classloaders) {
+        if (classloaders.isEmpty()) {
+            return "No suspicious classloaders found";
+        }
+        final var report = new StringBuilder();
+        for (final LeakedClassloader classloader : classloaders) {
+            report.append(classloader.type()).append(" @ 0x").append(Long.toHexString(classloader.objectId()))
+                    .append('\n');
+            if (classloader.bundleId() >= 0) {
+                report.append("  Bundle ID         : ").append(classloader.bundleId()).append('\n');
+            }
+            report.append("  Revision          : ").append(classloader.isStale() ? "Stale (tracked by the agent)"
+                    : "Unknown (might also be the current revision)").append('\n');
+            if (classloader.sampleClass() != null) {
+                report.append("  Sample Class      : ").append(classloader.sampleClass()).append('\n');
+            }
+            report.append("  Defined Classes   : ").append(classloader.definedClasses()).append(" (")
+                    .append(classloader.duplicateClasses()).append(" also defined by another classloader)\n");
+            if (!classloader.isReachable()) {
+                report.append("  Not reachable from any GC root (will be garbage collected)\n\n");
+                continue;
+            }
+            report.append("  Retained Size     : ").append(FileUtils.byteCountToDisplaySize(classloader.retainedSize()))
+                    .append(" (").append(classloader.retainedObjects()).append(" objects)\n");
+            report.append("  Path from GC Root :\n");
+            var indent = "    ";
+            for (final String element : classloader.pathFromGcRoot()) {
+                report.append(indent).append(element).append('\n');
+                indent += "  ";
+            }
+            report.append('\n');
+        }
+        return report.toString();
+    }
+
+    static void show(final String header, final String report, final ClassLoader cssResLoader) {
+        final var textArea = new TextArea(report);
+        textArea.setEditable(false);
+        textArea.setFont(Font.font("Monospaced", 12));
+        textArea.setPrefSize(1000, 600);
+
+        final var alert = new Alert(AlertType.INFORMATION);
+        alert.initStyle(StageStyle.UNDECORATED);
+        alert.getDialogPane().getStylesheets().add(cssResLoader.getResource(STANDARD_CSS).toExternalForm());
+        alert.setHeaderText(header);
+        alert.getDialogPane().setContent(textArea);
+        alert.show();
+    }
+
+}
@@ -19,32 +19,45 @@ import static com.osgifx.console.constants.FxConstants.ROOT_FXML;
 import static com.osgifx.console.supervisor.Supervisor.AGENT_CONNECTED_EVENT_TOPIC;
 import static com.osgifx.console.supervisor.Supervisor.AGENT_DISCONNECTED_EVENT_TOPIC;
 
+import java.util.List;
+
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import org.controlsfx.dialog.ProgressDialog;
 import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.e4.core.di.extensions.OSGiBundle;
 import org.eclipse.e4.ui.di.Focus;
 import org.eclipse.e4.ui.di.UIEventTopic;
+import org.eclipse.fx.core.ThreadSynchronize;
 import org.eclipse.fx.core.di.LocalInstance;
 import org.eclipse.fx.core.log.FluentLogger;
 import org.eclipse.fx.core.log.Log;
 import org.osgi.framework.BundleContext;
 
+import com.osgifx.console.agent.dto.XClassloaderHistogramDTO;
 import com.osgifx.console.data.provider.DataProvider;
 import com.osgifx.console.executor.Executor;
+import com.osgifx.console.supervisor.Supervisor;
 import com.osgifx.console.ui.ConsoleMaskerPane;
 import com.osgifx.console.ui.ConsoleStatusBar;
+import com.osgifx.console.ui.leaks.HprofLeakAnalyzer.LeakedClassloader;
 import com.osgifx.console.util.fx.Fx;
+import com.osgifx.console.util.fx.FxDialog;
 
 import javafx.concurrent.Task;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.layout.BorderPane;
+import javafx.stage.FileChooser;
 
 public final class LeaksFxUI {
 
+    private static final String ALL_OBJECTS  = "All Objects";
+    private static final String LIVE_OBJECTS = "Live Objects Only (Full GC)";
+
     @Log
     @Inject
     private FluentLogger      logger;
@@ -65,6 +78,13 @@ public final class LeaksFxUI {
     private ConsoleMaskerPane progressPane;
     @Inject
     private DataProvider      dataProvider;
+    @Inject
+    private ThreadSynchronize threadSync;
+    @Inject
+    @Optional
+    private Supervisor        supervisor;
+    private ProgressDialog    progressDialog;
+    private Task<?>           histogramTask;
 
     @PostConstruct
     public void postConstruct(final BorderPane parent, @LocalInstance final FXMLLoader loader) {
@@ -72,6 +92,15 @@ public final class LeaksFxUI {
         logger.atDebug().log("Leaks part has been initialized");
     }
 
+    @PreDestroy
+    public void destroy() {
+        // cancelling the task interrupts its thread which cancels the pending agent call
+        final var task = histogramTask;
+        if (task != null) {
+            task.cancel(true);
+        }
+    }
+
     @Focus
     public void onFocus() {
         if (isConnected) {
@@ -130,8 +159,99 @@ public final class LeaksFxUI {
             final var node = Fx.initStatusBarButton(this::refreshData, "Refresh", "REFRESH");
             if (!isSnapshotAgent) {
                 statusBar.addToRight(node);
+                statusBar.addToRight(Fx.initStatusBarButton(this::showClassHistogram, "Class Histogram", "BAR_CHART"));
             }
         }
+        statusBar.addToRight(Fx.initStatusBarButton(this::analyzeHeapdump, "Analyze Heapdump", "SEARCH"));
+    }
+
+    private void showClassHistogram() {
+        if (supervisor == null || supervisor.getAgent() == null) {
+            logger.atWarning().log("Agent not connected");
+            return;
+        }
+        FxDialog.showChoiceDialog("Select Objects to Count", getClass().getClassLoader(), "/graphic/icons/leaks.png",
+                choice -> showClassHistogram(LIVE_OBJECTS.equals(choice)), null, ALL_OBJECTS, ALL_OBJECTS,
+                LIVE_OBJECTS);
+    }
+
+    private void showClassHistogram(final boolean liveObjectsOnly) {
+        final var agent = supervisor.getAgent();
+        if (agent == null) {
+            logger.atWarning().log("Agent not connected");
+            return;
+        }
+
+        final Task<List<XClassloaderHistogramDTO>> task = new Task<>() {
+
+            @Override
+            protected List<XClassloaderHistogramDTO> call() throws Exception {
+                try {
+                    updateMessage("Capturing class histogram"
+                            + (liveObjectsOnly ? " (triggers a full GC in the remote runtime)" : ""));
+                    final var histogram = agent.getClassloaderHistogram(liveObjectsOnly);
+                    return histogram == null ? List.of() : histogram;
+                } catch (final Exception e) {
+                    if (isCancelled()) {
+                        throw e;
+                    }
+                    logger.atError().withException(e).log("Cannot capture class histogram");
+                    threadSync.asyncExec(() -> {
+                        progressDialog.close();
+                        FxDialog.showExceptionDialog(e, getClass().getClassLoader());
+                    });
+                    throw e;
+                }
+            }
+
+            @Override
+            protected void succeeded() {
+                progressDialog.close();
+                LeakReports.show("Class Histogram", LeakReports.ofHistogram(getValue()), getClass().getClassLoader());
+            }
+        };
+        histogramTask = task;
+        executor.runAsync(task);
+        progressDialog = FxDialog.showProgressDialog("Class Histogram", task, getClass().getClassLoader(),
+                () -> task.cancel(true));
+    }
+
+    private void analyzeHeapdump() {
+        final var heapdumpChooser = new FileChooser();
+        heapdumpChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Heapdumps (.hprof)", "*.hprof"));
+        final var heapdump = heapdumpChooser.showOpenDialog(null);
+        if (heapdump == null) {
+            return;
+        }
+        final Task<List<LeakedClassloader>> analyzeTask = new Task<>() {
+
+            @Override
+            protected List<LeakedClassloader> call() throws Exception {
+                try {
+                    return new HprofLeakAnalyzer(heapdump.toPath(), this::updateMessage).analyze();
+                } catch (final Exception e) {
+                    if (isCancelled()) {
+                        throw e;
+                    }
+                    logger.atError().withException(e).log("Cannot analyze heapdump '%s'", heapdump.getName());
+                    threadSync.asyncExec(() -> {
+                        progressDialog.close();
+                        FxDialog.showExceptionDialog(e, getClass().getClassLoader());
+                    });
+                    throw e;
+                }
+            }
+
+            @Override
+            protected void succeeded() {
+                progressDialog.close();
+                LeakReports.show("Heapdump Analysis - " + heapdump.getName(), LeakReports.ofHeapDump(getValue()),
+                        getClass().getClassLoader());
+            }
+        };
+        executor.runAsync(analyzeTask);
+        progressDialog = FxDialog.showProgressDialog("Heapdump Analysis", analyzeTask, getClass().getClassLoader(),
+                () -> analyzeTask.cancel(true));
     }
 
     private void refreshData() {
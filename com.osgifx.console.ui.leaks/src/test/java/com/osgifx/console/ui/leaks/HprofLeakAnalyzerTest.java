@@ -0,0 +1,314 @@
+/*******************************************************************************
+ * Copyright 2021-2025 Amit Kumar Mondal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ ******************************************************************************/
+package com.osgifx.console.ui.leaks;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.osgifx.console.ui.leaks.HprofLeakAnalyzer.LeakedClassloader;
+
+public final class HprofLeakAnalyzerTest {
+
+    private static final int ID_SIZE = 8;
+
+    private static final int TYPE_OBJECT = 2;
+    private static final int TYPE_BYTE  = 8;
+    private static final int TYPE_LONG   = 11;
+
+    // classes
+    private static final long OBJECT            = 0x100;
+    private static final long CLASSLOADER       = 0x101;
+    private static final long BUNDLE_LOADER     = 0x102;
+    private static final long REFERENCE         = 0x103;
+    private static final long PHANTOM_REFERENCE = 0x104;
+    private static final long BUNDLE_REFERENCE  = 0x105;
+    private static final long CLASSLOADER_INFO  = 0x106;
+    private static final long STALE_CACHE       = 0x201;
+    private static final long CURRENT_CACHE     = 0x202;
+    private static final long LIBRARY           = 0x203;
+    private static final long OTHER_LIBRARY     = 0x204;
+
+    // objects
+    private static final long STALE_LOADER         = 0x1001;
+    private static final long CURRENT_LOADER       = 0x1002;
+    private static final long LIBRARY_LOADER       = 0x1003;
+    private static final long OTHER_LIBRARY_LOADER = 0x1004;
+    private static final long STALE_REFERENCE      = 0x2001;
+    private static final long CURRENT_REFERENCE    = 0x2002;
+    private static final long STALE_INFO           = 0x3001;
+    private static final long CURRENT_INFO         = 0x3002;
+    private static final long TRACKED_REFERENCES   = 0x4001;
+    private static final long LEAKED_CACHE         = 0x5001;
+    private static final long CACHE_PAYLOAD        = 0x6001;
+    private static final long STATIC_PAYLOAD       = 0x6002;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void reportsOnlyStaleClassloadersOfTrackedBundles() throws IOException {
+        final var leaks = analyze(true);
+
+        assertFalse(leaks.containsKey(CURRENT_LOADER));
+
+        final var stale = leaks.get(STALE_LOADER);
+        assertTrue(stale.isStale());
+        assertEquals(7, stale.bundleId());
+        assertEquals("com.acme.BundleLoader", stale.type());
+        assertEquals("com.acme.Cache", stale.sampleClass());
+        assertEquals(1, stale.definedClasses());
+        assertEquals(1, stale.duplicateClasses());
+    }
+
+    @Test
+    public void reportsUntrackedDuplicateClassloadersAsUnconfirmed() throws IOException {
+        final var leaks = analyze(true);
+
+        for (final long loader : new long[] { LIBRARY_LOADER, OTHER_LIBRARY_LOADER }) {
+            final var leak = leaks.get(loader);
+            assertFalse(leak.isStale());
+            assertEquals(-1, leak.bundleId());
+            assertEquals("com.acme.Library", leak.sampleClass());
+        }
+    }
+
+    @Test
+    public void computesPathFromGcRootAndRetainedSize() throws IOException {
+        final var stale = analyze(true).get(STALE_LOADER);
+
+        assertTrue(stale.isReachable());
+        assertEquals(List.of("GC Root: JNI Global", "com.acme.Cache @ 0x5001", "class com.acme.Cache @ 0x201",
+                "com.acme.BundleLoader @ 0x1001"), stale.pathFromGcRoot());
+        // the classloader, its class and the static payload but not the payload of the leaked instance
+        assertEquals(3, stale.retainedObjects());
+        assertEquals(2 * ID_SIZE + ID_SIZE + 500 + 2 * ID_SIZE, stale.retainedSize());
+    }
+
+    @Test
+    public void ignoresReferentsOfPhantomReferences() throws IOException {
+        final var stale = analyze(false).get(STALE_LOADER);
+
+        // only reachable through the phantom reference of the agent
+        assertTrue(stale.isStale());
+        assertFalse(stale.isReachable());
+        assertTrue(stale.pathFromGcRoot().isEmpty());
+    }
+
+    private Map<Long, LeakedClassloader> analyze(final boolean isLeaking) throws IOException {
+        final var heapdump = folder.newFile("heapdump.hprof").toPath();
+        Files.write(heapdump, heapdump(isLeaking));
+        return new HprofLeakAnalyzer(heapdump, message -> {}).analyze().stream()
+                .collect(Collectors.toMap(LeakedClassloader::objectId, Function.identity()));
+    }
+
+    private static byte[] heapdump(final boolean isLeaking) throws IOException {
+        final var hprof = new HprofWriter();
+
+        hprof.classDump(OBJECT, "java.lang.Object", 0, 0);
+        hprof.classDump(CLASSLOADER, "java.lang.ClassLoader", OBJECT, 0);
+        hprof.classDump(BUNDLE_LOADER, "com.acme.BundleLoader", CLASSLOADER, 0);
+        hprof.classDump(REFERENCE, "java.lang.ref.Reference", OBJECT, 0, "referent");
+        hprof.classDump(PHANTOM_REFERENCE, "java.lang.ref.PhantomReference", REFERENCE, 0);
+        hprof.classDump(BUNDLE_REFERENCE, "com.osgifx.console.agent.provider.ClassloaderLeakDetector$BundleReference",
+                PHANTOM_REFERENCE, 0, "bundleId:long", "classloaderInfo");
+        hprof.classDump(CLASSLOADER_INFO, "com.osgifx.console.agent.provider.ClassloaderLeakDetector$ClassloaderInfo",
+                OBJECT, 0, "creationTime:long", "systemHashCode:long");
+        hprof.classDump(STALE_CACHE, "com.acme.Cache", OBJECT, STALE_LOADER, STATIC_PAYLOAD, "payload");
+        hprof.classDump(CURRENT_CACHE, "com.acme.Cache", OBJECT, CURRENT_LOADER, 0, "payload");
+        hprof.classDump(LIBRARY, "com.acme.Library", OBJECT, LIBRARY_LOADER, 0);
+        hprof.classDump(OTHER_LIBRARY, "com.acme.Library", OBJECT, OTHER_LIBRARY_LOADER, 0);
+        for (final long systemClass : new long[] { OBJECT, CLASSLOADER, BUNDLE_LOADER, REFERENCE, PHANTOM_REFERENCE,
+                BUNDLE_REFERENCE, CLASSLOADER_INFO }) {
+            hprof.root(0x05, systemClass);
+        }
+        hprof.instance(STALE_LOADER, BUNDLE_LOADER);
+        hprof.instance(CURRENT_LOADER, BUNDLE_LOADER);
+        hprof.instance(LIBRARY_LOADER, BUNDLE_LOADER);
+        hprof.instance(OTHER_LIBRARY_LOADER, BUNDLE_LOADER);
+        // the phantom references of the leak detector of the agent
+        hprof.instance(STALE_REFERENCE, BUNDLE_REFERENCE, 7, STALE_INFO, STALE_LOADER);
+        hprof.instance(CURRENT_REFERENCE, BUNDLE_REFERENCE, 7, CURRENT_INFO, CURRENT_LOADER);
+        hprof.instance(STALE_INFO, CLASSLOADER_INFO, 100, 0xCAFE);
+        hprof.instance(CURRENT_INFO, CLASSLOADER_INFO, 200, 0xBABE);
+        hprof.objectArray(TRACKED_REFERENCES, STALE_REFERENCE, CURRENT_REFERENCE);
+        hprof.root(0x01, TRACKED_REFERENCES);
+        // the framework keeps the current and the library classloaders
+        hprof.root(0x01, CURRENT_LOADER);
+        hprof.root(0x01, LIBRARY_LOADER);
+        hprof.root(0x01, OTHER_LIBRARY_LOADER);
+        hprof.byteArray(CACHE_PAYLOAD, 1000);
+        hprof.byteArray(STATIC_PAYLOAD, 500);
+        if (isLeaking) {
+            hprof.instance(LEAKED_CACHE, STALE_CACHE, CACHE_PAYLOAD);
+            hprof.root(0x01, LEAKED_CACHE);
+        }
+        return hprof.toByteArray();
+    }
+
+    /**
+     * Writes a heap dump in HPROF format with identifiers of 8 bytes
+     */
+    private static final class HprofWriter {
+
+        private final ByteArrayOutputStream records = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream heap    = new ByteArrayOutputStream();
+        private final DataOutputStream      out     = new DataOutputStream(records);
+        private final DataOutputStream      heapOut = new DataOutputStream(heap);
+        private long                        nextStringId = 0x10_0000;
+        private int                         nextSerial   = 1;
+
+        void classDump(final long classId,
+                       final String name,
+                       final long superId,
+                       final long loaderId,
+                       final String... fields) throws IOException {
+            classDump(classId, name, superId, loaderId, 0, fields);
+        }
+
+        /**
+         * @param staticValue the value of a static object field (not written if {@code 0})
+         * @param fields the names of the fields, object fields unless suffixed with {@code :long}
+         */
+        void classDump(final long classId,
+                       final String name,
+                       final long superId,
+                       final long loaderId,
+                       final long staticValue,
+                       final String... fields) throws IOException {
+            final var nameId = string(name.replace('.', '/'));
+            record(0x02, 4 + ID_SIZE + 4 + ID_SIZE);
+            out.writeInt(nextSerial++);
+            out.writeLong(classId);
+            out.writeInt(0);
+            out.writeLong(nameId);
+
+            heapOut.write(0x20);
+            heapOut.writeLong(classId);
+            heapOut.writeInt(0);
+            heapOut.writeLong(superId);
+            heapOut.writeLong(loaderId);
+            heapOut.writeLong(0); // signers
+            heapOut.writeLong(0); // protection domain
+            heapOut.writeLong(0); // reserved
+            heapOut.writeLong(0); // reserved
+            heapOut.writeInt(fields.length * ID_SIZE);
+            heapOut.writeShort(0); // constant pool
+            if (staticValue == 0) {
+                heapOut.writeShort(0);
+            } else {
+                heapOut.writeShort(1);
+                heapOut.writeLong(string("INSTANCE"));
+                heapOut.write(TYPE_OBJECT);
+                heapOut.writeLong(staticValue);
+            }
+            heapOut.writeShort(fields.length);
+            for (final String field : fields) {
+                final var isLong = field.endsWith(":long");
+                heapOut.writeLong(string(isLong ? field.substring(0, field.indexOf(':')) : field));
+                heapOut.write(isLong ? TYPE_LONG : TYPE_OBJECT);
+            }
+        }
+
+        void root(final int tag, final long objectId) throws IOException {
+            heapOut.write(tag);
+            heapOut.writeLong(objectId);
+            if (tag == 0x01) {
+                heapOut.writeLong(0); // JNI global reference
+            }
+        }
+
+        /**
+         * @param values the values of the fields of the class followed by the
+         *            ones of its super classes
+         */
+        void instance(final long objectId, final long classId, final long... values) throws IOException {
+            heapOut.write(0x21);
+            heapOut.writeLong(objectId);
+            heapOut.writeInt(0);
+            heapOut.writeLong(classId);
+            heapOut.writeInt(values.length * ID_SIZE);
+            for (final long value : values) {
+                heapOut.writeLong(value);
+            }
+        }
+
+        void objectArray(final long objectId, final long... elements) throws IOException {
+            heapOut.write(0x22);
+            heapOut.writeLong(objectId);
+            heapOut.writeInt(0);
+            heapOut.writeInt(elements.length);
+            heapOut.writeLong(OBJECT); // array class
+            for (final long element : elements) {
+                heapOut.writeLong(element);
+            }
+        }
+
+        void byteArray(final long objectId, final int length) throws IOException {
+            heapOut.write(0x23);
+            heapOut.writeLong(objectId);
+            heapOut.writeInt(0);
+            heapOut.writeInt(length);
+            heapOut.write(TYPE_BYTE);
+            heapOut.write(new byte[length]);
+        }
+
+        byte[] toByteArray() throws IOException {
+            record(0x1C, heap.size());
+            heap.writeTo(out);
+
+            final var dump = new ByteArrayOutputStream();
+            final var head = new DataOutputStream(dump);
+            head.write("JAVA PROFILE 1.0.2".getBytes(UTF_8));
+            head.write(0);
+            head.writeInt(ID_SIZE);
+            head.writeLong(System.currentTimeMillis());
+            records.writeTo(dump);
+            return dump.toByteArray();
+        }
+
+        private long string(final String value) throws IOException {
+            final var bytes = value.getBytes(UTF_8);
+            final var id    = nextStringId++;
+            record(0x01, ID_SIZE + bytes.length);
+            out.writeLong(id);
+            out.write(bytes);
+            return id;
+        }
+
+        private void record(final int tag, final int length) throws IOException {
+            out.write(tag);
+            out.writeInt(0);
+            out.writeInt(length);
+        }
+    }
+
+}
@@ -105,7 +105,7 @@ public final class PackagesFxController {
 
         final var versionColumn = new TableColumn<PackageDTO, String>("Version");
 
-        versionColumn.setPrefWidth(450);
+        versionColumn.setPrefWidth(250);
         versionColumn.setCellValueFactory(new DTOCellValueFactory<>("version", String.class));
 
         final var hasDuplicatesColumn = new TableColumn<PackageDTO, String>("Is Duplicate Export?");
@@ -113,10 +113,16 @@ public final class PackagesFxController {
         hasDuplicatesColumn.setPrefWidth(200);
         hasDuplicatesColumn.setCellValueFactory(new DTOCellValueFactory<>("isDuplicateExport", String.class));
 
+        final var isSplitColumn = new TableColumn<PackageDTO, String>("Is Split Package?");
+
+        isSplitColumn.setPrefWidth(200);
+        isSplitColumn.setCellValueFactory(new DTOCellValueFactory<>("isSplitPackage", String.class));
+
         table.getColumns().add(expanderColumn);
         table.getColumns().add(nameColumn);
         table.getColumns().add(versionColumn);
         table.getColumns().add(hasDuplicatesColumn);
+        table.getColumns().add(isSplitColumn);
 
         filteredList = new FilteredList<>(dataProvider.packages());
         table.setItems(filteredList);
@@ -15,6 +15,8 @@
  ******************************************************************************/
 package com.osgifx.console.ui.snapshot.handler;
 
+import static com.osgifx.console.executor.Lane.BACKGROUND;
+
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -101,7 +103,7 @@ public final class SnapshotCaptureHandler {
                 });
             }
         });
-        final var taskFuture = executor.runAsync(snapshotTask);
+        final var taskFuture = executor.runAsync(snapshotTask, BACKGROUND);
         progressDialog = FxDialog.showProgressDialog("Capture Snapshot", snapshotTask, getClass().getClassLoader(),
                 () -> taskFuture.cancel(true));
     }
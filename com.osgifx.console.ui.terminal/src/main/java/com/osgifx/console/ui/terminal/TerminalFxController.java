@@ -15,15 +15,21 @@
  ******************************************************************************/
 package com.osgifx.console.ui.terminal;
 
+import static com.osgifx.console.executor.Lane.STREAMING;
+
+import java.time.Duration;
+
 import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.eclipse.e4.core.di.annotations.Optional;
+import org.eclipse.fx.core.ThreadSynchronize;
 import org.eclipse.fx.core.log.FluentLogger;
 import org.eclipse.fx.core.log.Log;
 
 import com.google.common.base.Throwables;
 import com.osgifx.console.agent.Agent;
+import com.osgifx.console.agent.dto.XCliOutputDTO;
 import com.osgifx.console.executor.Executor;
 import com.osgifx.console.supervisor.Supervisor;
 
@@ -35,25 +41,33 @@ import javafx.scene.input.KeyEvent;
 
 public final class TerminalFxController {
 
+    private static final long     POLL_TIMEOUT_IN_MILLIS = 1_000L;
+    private static final Duration START_TIMEOUT          = Duration.ofSeconds(10);
+
     @Log
     @Inject
-    private FluentLogger    logger;
+    private FluentLogger      logger;
     @FXML
-    private TextField       input;
+    private TextField         input;
     @FXML
-    private TextArea        output;
+    private TextArea          output;
     @Inject
-    private Executor        executor;
+    private Executor          executor;
+    @Inject
+    private ThreadSynchronize threadSync;
     @Inject
     @Optional
-    private Supervisor      supervisor;
+    private Supervisor        supervisor;
     @Inject
-    private TerminalHistory history;
+    private TerminalHistory   history;
     @Inject
     @Named("is_snapshot_agent")
-    private boolean         isSnapshotAgent;
-    private Agent           agent;
-    private int             historyPointer;
+    private boolean           isSnapshotAgent;
+    private Agent             agent;
+    private int               historyPointer;
+    private volatile String   runningExecutionId;
+    private volatile String   cancelledExecutionId;
+    private volatile boolean  streamingUnsupported;
 
     @FXML
     public void initialize() {
@@ -81,6 +95,11 @@ public final class TerminalFxController {
                 output.appendText("$ " + command + System.lineSeparator());
                 executeCliCommand(command);
                 break;
+            case C:
+                if (keyEvent.isControlDown()) {
+                    cancelCliCommand();
+                }
+                break;
             case UP:
                 if (historyPointer == 0) {
                     historyPointer = history.size();
@@ -105,38 +124,105 @@ public final class TerminalFxController {
     }
 
     private void executeCliCommand(final String command) {
-        final Task<String> task = new Task<>() {
+        final Task<Void> task = new Task<>() {
 
             @Override
-            protected String call() throws Exception {
-                String outputText;
+            protected Void call() throws Exception {
                 try {
                     if (isSnapshotAgent) {
                         logger.atWarning().log("No command execution in snapshot agent mode");
-                        outputText = "You cannot execute command in snapshot agent mode";
-                    } else if (agent == null || (outputText = agent.execCliCommand(command)) == null) {
+                        appendOutput("You cannot execute command in snapshot agent mode");
+                        return null;
+                    }
+                    if (agent == null) {
                         logger.atWarning().log("Agent is not connected");
-                        outputText = "Agent is not connected";
-                    } else {
+                        appendOutput("Agent is not connected");
+                        return null;
+                    }
+                    final var executionId = streamingUnsupported ? null : startCliCommand(command);
+                    if (executionId == null) {
+                        // agents without streaming executions only return the output once the command has finished
+                        streamingUnsupported = true;
+                        appendOutput(agent.execCliCommand(command));
                         logger.atInfo().log("Command '%s' has been successfully executed", command);
+                        return null;
+                    }
+                    runningExecutionId = executionId;
+                    try {
+                        XCliOutputDTO chunk;
+                        do {
+                            chunk = agent.pollCliCommand(executionId, POLL_TIMEOUT_IN_MILLIS);
+                            if (chunk == null) {
+                                break;
+                            }
+                            appendOutput(chunk.output);
+                        } while (!chunk.isCompleted && !isCancelled(executionId));
+                        if ((chunk != null && chunk.isCancelled) || isCancelled(executionId)) {
+                            appendOutput("^C" + System.lineSeparator());
+                        } else if (chunk != null && chunk.error != null) {
+                            appendOutput(chunk.error);
+                        }
+                    } catch (final Exception e) {
+                        if (!isCancelled(executionId)) {
+                            throw e;
+                        }
+                        // the agent might have expired the cancelled execution before it has been polled again
+                        logger.atDebug().log("Command execution '%s' has been discarded", executionId);
+                        appendOutput("^C" + System.lineSeparator());
+                    } finally {
+                        runningExecutionId = null;
                     }
+                    logger.atInfo().log("Command '%s' has been successfully executed", command);
                 } catch (final Exception e) {
                     logger.atInfo().withException(e).log("Command '%s' cannot be executed properly", command);
-                    outputText = Throwables.getStackTraceAsString(e);
+                    appendOutput(Throwables.getStackTraceAsString(e));
                 }
-                return outputText;
+                return null;
             }
         };
 
         task.setOnSucceeded(t -> {
-            output.appendText(task.getValue());
             output.appendText(System.lineSeparator());
             history.add(command);
             historyPointer = history.size();
             input.clear();
             logger.atDebug().log("Task for command '%s' has been succeeded", command);
         });
-        executor.runAsync(task);
+        executor.runAsync(task, STREAMING);
+    }
+
+    private String startCliCommand(final String command) {
+        // agents without streaming executions never reply, hence the call must not wait for the default timeout
+        try {
+            return supervisor.callWithTimeout(START_TIMEOUT, () -> agent.startCliCommand(command));
+        } catch (final Exception e) {
+            logger.atDebug().withException(e).log("Command '%s' cannot be started as a streaming execution", command);
+            return null;
+        }
+    }
+
+    private void cancelCliCommand() {
+        final var executionId = runningExecutionId;
+        if (executionId == null || agent == null) {
+            return;
+        }
+        cancelledExecutionId = executionId;
+        executor.runAsync(() -> {
+            if (agent.cancelCliCommand(executionId)) {
+                logger.atInfo().log("Command execution '%s' has been cancelled", executionId);
+            }
+        });
+    }
+
+    private boolean isCancelled(final String executionId) {
+        return executionId.equals(cancelledExecutionId);
+    }
+
+    private void appendOutput(final String text) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        threadSync.asyncExec(() -> output.appendText(text));
     }
 
 }
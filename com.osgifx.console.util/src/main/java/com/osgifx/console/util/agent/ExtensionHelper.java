@@ -15,7 +15,13 @@
  ******************************************************************************/
 package com.osgifx.console.util.agent;
 
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 import org.eclipse.fx.core.ExceptionUtils;
 import org.osgi.dto.DTO;
@@ -23,9 +29,15 @@ import org.osgi.util.converter.Converters;
 import org.osgi.util.converter.TypeReference;
 
 import com.osgifx.console.agent.Agent;
+import com.osgifx.console.agent.rpc.RpcCall;
+
+import aQute.lib.json.JSONCodec;
 
 public final class ExtensionHelper {
 
+    private static final long POLL_TIMEOUT_IN_MILLIS  = 1_000L;
+    private static final long START_TIMEOUT_IN_MILLIS = 10_000L;
+
     private ExtensionHelper() {
         throw new IllegalAccessError("Cannot be instantiated");
     }
@@ -46,4 +58,79 @@ public final class ExtensionHelper {
         }
     }
 
+    /**
+     * Executes the specified streaming agent extension asynchronously and
+     * delivers its results to the specified consumer chunk by chunk.
+     * <p>
+     * The next chunk is only requested after the consumer has returned. As the
+     * extension can only run ahead of the consumer up to the capacity of the
+     * stream buffer in the remote runtime, a slow consumer slows down the
+     * extension instead of accumulating the results in memory. Cancelling the
+     * returned future cancels the stream in the remote runtime.
+     *
+     * @param agent the agent
+     * @param name the name of the extension
+     * @param context the context for the extension
+     * @param resultType the type of the results
+     * @param consumer the consumer of the chunks of results
+     * @param executor the executor that polls the stream and invokes the consumer
+     * @return the future that is completed as soon as the last chunk has been
+     *         consumed or exceptionally if the extension has failed
+     */
+    @SuppressWarnings("unchecked")
+    public static <R extends DTO> CompletableFuture<Void> streamExtension(final Agent agent,
+                                                                          final String name,
+                                                                          final DTO context,
+                                                                          final Class<R> resultType,
+                                                                          final Consumer<List<R>> consumer,
+                                                                          final Executor executor) {
+        final var future = new CompletableFuture<Void>();
+        executor.execute(() -> {
+            String streamId = null;
+            try {
+                final var converter  = Converters.standardConverter();
+                final var properties = converter.convert(context).to(new TypeReference<Map<String, Object>>() {
+                });
+                // older agents do not know the method and never respond
+                streamId = RpcCall.withTimeout(START_TIMEOUT_IN_MILLIS,
+                        () -> agent.startExtensionStream(name, properties));
+                if (streamId == null) {
+                    throw new IllegalStateException("Streaming agent extensions are not supported by the agent or it "
+                            + "has not responded in time");
+                }
+                final var arrayType = Array.newInstance(resultType, 0).getClass();
+                while (!future.isDone()) {
+                    final var chunk = agent.pollExtensionStream(streamId, POLL_TIMEOUT_IN_MILLIS);
+                    if (chunk == null) {
+                        throw new IllegalStateException("Stream '" + streamId + "' of agent extension '" + name
+                                + "' could not be polled as the agent has not responded in time");
+                    }
+                    final var results = (R[]) new JSONCodec().dec().from(chunk.results).get(arrayType);
+                    if (results.length > 0) {
+                        consumer.accept(Arrays.asList(results));
+                    }
+                    if (chunk.isLast) {
+                        if (chunk.error != null) {
+                            throw new IllegalStateException(chunk.error);
+                        }
+                        future.complete(null);
+                        return;
+                    }
+                }
+                // the future has been cancelled by the caller
+                agent.cancelExtensionStream(streamId);
+            } catch (final Exception e) {
+                if (streamId != null && !future.isDone()) {
+                    try {
+                        agent.cancelExtensionStream(streamId);
+                    } catch (final Exception ignored) {
+                        // the stream expires in the remote runtime anyway
+                    }
+                }
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
 }